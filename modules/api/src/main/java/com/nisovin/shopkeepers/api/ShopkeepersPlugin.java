@@ -167,6 +167,10 @@ public interface ShopkeepersPlugin extends Plugin {
 	 * The <code>shopkeeper.snapshot</code> permission.
 	 */
 	public static final String SNAPSHOT_PERMISSION = "shopkeeper.snapshot";
+	/**
+	 * The <code>shopkeeper.history</code> permission.
+	 */
+	public static final String HISTORY_PERMISSION = "shopkeeper.history";
 	/**
 	 * The <code>shopkeeper.edit-villagers</code> permission.
 	 */
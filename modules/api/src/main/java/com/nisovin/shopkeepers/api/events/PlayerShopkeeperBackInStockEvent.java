@@ -0,0 +1,65 @@
+package com.nisovin.shopkeepers.api.events;
+
+import org.bukkit.event.HandlerList;
+
+import com.google.common.base.Preconditions;
+import com.nisovin.shopkeepers.api.shopkeeper.player.PlayerShopkeeper;
+
+/**
+ * This event is called whenever an offer of a {@link PlayerShopkeeper} that was previously out of
+ * stock can be traded again, i.e. when the contents of the shop's container suffice again to trade
+ * the offer at least once.
+ * <p>
+ * The stock of player shops is tracked based on changes to their containers. This event is
+ * therefore usually called one tick after the container contents have changed. It is not called
+ * when the stock of the shop is determined for the first time after the shop was loaded. See
+ * {@link PlayerShopkeeper#getOfferStocks()}.
+ */
+public class PlayerShopkeeperBackInStockEvent extends ShopkeeperEvent {
+
+	private final int offerIndex;
+
+	/**
+	 * Creates a new {@link PlayerShopkeeperBackInStockEvent}.
+	 * 
+	 * @param shopkeeper
+	 *            the shopkeeper, not <code>null</code>
+	 * @param offerIndex
+	 *            the index of the affected offer, not negative
+	 */
+	public PlayerShopkeeperBackInStockEvent(PlayerShopkeeper shopkeeper, int offerIndex) {
+		super(shopkeeper);
+		Preconditions.checkArgument(offerIndex >= 0, "offerIndex cannot be negative");
+		this.offerIndex = offerIndex;
+	}
+
+	@Override
+	public PlayerShopkeeper getShopkeeper() {
+		return (PlayerShopkeeper) super.getShopkeeper();
+	}
+
+	/**
+	 * Gets the index of the affected offer within the offers of the shopkeeper.
+	 * 
+	 * @return the offer index
+	 */
+	public int getOfferIndex() {
+		return offerIndex;
+	}
+
+	private static final HandlerList handlers = new HandlerList();
+
+	@Override
+	public HandlerList getHandlers() {
+		return handlers;
+	}
+
+	/**
+	 * Gets the {@link HandlerList} of this event.
+	 * 
+	 * @return the handler list
+	 */
+	public static HandlerList getHandlerList() {
+		return handlers;
+	}
+}
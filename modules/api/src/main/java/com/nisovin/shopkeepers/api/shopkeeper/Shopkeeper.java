@@ -377,6 +377,16 @@ public interface Shopkeeper {
 	 */
 	public List<? extends @NonNull TradingRecipe> getTradingRecipes(@Nullable Player player);
 
+	/**
+	 * Gets the statistics of the trades that took place with this shopkeeper.
+	 * <p>
+	 * The returned statistics are an immutable snapshot of the shopkeeper's current trade counters.
+	 * Shopkeepers that have not been traded with yet return empty statistics.
+	 * 
+	 * @return the trade statistics, not <code>null</code>
+	 */
+	public TradeStatistics getTradeStatistics();
+
 	// SHOPKEEPER UIs
 
 	/**
@@ -0,0 +1,128 @@
+package com.nisovin.shopkeepers.api.shopkeeper;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.api.shopkeeper.offers.BookOffer;
+import com.nisovin.shopkeepers.api.shopkeeper.offers.PriceOffer;
+import com.nisovin.shopkeepers.api.shopkeeper.offers.ShopOffer;
+import com.nisovin.shopkeepers.api.shopkeeper.offers.TradeOffer;
+import com.nisovin.shopkeepers.api.shopkeeper.player.PlayerShopkeeper;
+import com.nisovin.shopkeepers.api.shopobjects.ShopObjectType;
+
+/**
+ * An immutable copy of the basic data of a {@link Shopkeeper}, as captured by a
+ * {@link ShopkeeperRegistrySnapshot}.
+ * <p>
+ * Unlike {@link Shopkeeper}, this can be safely accessed from any thread. However, the data might
+ * no longer be up-to-date with the current state of the shopkeeper.
+ */
+public interface ShopkeeperInfo {
+
+	/**
+	 * Gets the shopkeeper's {@link Shopkeeper#getId() session id}.
+	 * 
+	 * @return the shopkeeper's session id
+	 */
+	public int getId();
+
+	/**
+	 * Gets the shopkeeper's {@link Shopkeeper#getUniqueId() unique id}.
+	 * 
+	 * @return the shopkeeper's unique id, not <code>null</code>
+	 */
+	public UUID getUniqueId();
+
+	/**
+	 * Gets the {@link ShopType#getIdentifier() identifier} of the shopkeeper's {@link ShopType}.
+	 * 
+	 * @return the shop type identifier, not <code>null</code>
+	 */
+	public String getShopTypeId();
+
+	/**
+	 * Gets the {@link ShopObjectType#getIdentifier() identifier} of the shopkeeper's
+	 * {@link ShopObjectType}.
+	 * 
+	 * @return the shop object type identifier, not <code>null</code>
+	 */
+	public String getShopObjectTypeId();
+
+	/**
+	 * Gets the shopkeeper's {@link Shopkeeper#getName() name}.
+	 * 
+	 * @return the shopkeeper's name, not <code>null</code>, but can be empty
+	 */
+	public String getName();
+
+	/**
+	 * Checks if the shopkeeper is {@link Shopkeeper#isVirtual() virtual}.
+	 * 
+	 * @return <code>true</code> if the shopkeeper is virtual
+	 */
+	public boolean isVirtual();
+
+	/**
+	 * Gets the name of the world the shopkeeper is located in.
+	 * 
+	 * @return the world name, or <code>null</code> for virtual shopkeepers
+	 */
+	public @Nullable String getWorldName();
+
+	/**
+	 * Gets the shopkeeper's x coordinate.
+	 * 
+	 * @return the shopkeeper's x coordinate, or <code>0</code> for virtual shopkeepers
+	 */
+	public int getX();
+
+	/**
+	 * Gets the shopkeeper's y coordinate.
+	 * 
+	 * @return the shopkeeper's y coordinate, or <code>0</code> for virtual shopkeepers
+	 */
+	public int getY();
+
+	/**
+	 * Gets the shopkeeper's z coordinate.
+	 * 
+	 * @return the shopkeeper's z coordinate, or <code>0</code> for virtual shopkeepers
+	 */
+	public int getZ();
+
+	/**
+	 * Checks if the shopkeeper is a {@link PlayerShopkeeper}.
+	 * 
+	 * @return <code>true</code> if the shopkeeper is a player shopkeeper
+	 */
+	public boolean isPlayerShop();
+
+	/**
+	 * Gets the {@link PlayerShopkeeper#getOwnerUUID() owner's uuid}.
+	 * 
+	 * @return the owner's uuid, or <code>null</code> if the shopkeeper is not a player shopkeeper
+	 */
+	public @Nullable UUID getOwnerUUID();
+
+	/**
+	 * Gets the {@link PlayerShopkeeper#getOwnerName() owner's last known name}.
+	 * 
+	 * @return the owner's name, or <code>null</code> if the shopkeeper is not a player shopkeeper
+	 */
+	public @Nullable String getOwnerName();
+
+	/**
+	 * Gets the shopkeeper's offers.
+	 * <p>
+	 * The type of the offers depends on the type of the shopkeeper: For example, this returns
+	 * {@link TradeOffer}s for trading shopkeepers, {@link PriceOffer}s for selling and buying
+	 * player shopkeepers, and {@link BookOffer}s for book selling player shopkeepers. The offers
+	 * are immutable. This returns an empty list for shop types whose offers are unknown.
+	 * 
+	 * @return an unmodifiable view on the shopkeeper's offers, not <code>null</code>
+	 */
+	public List<? extends @NonNull ShopOffer> getOffers();
+}
@@ -1,8 +1,10 @@
 package com.nisovin.shopkeepers.api.shopkeeper;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 import org.bukkit.Location;
@@ -13,6 +15,7 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 
 import com.nisovin.shopkeepers.api.shopkeeper.player.PlayerShopkeeper;
 import com.nisovin.shopkeepers.api.shopobjects.ShopObject;
+import com.nisovin.shopkeepers.api.shopobjects.ShopObjectType;
 import com.nisovin.shopkeepers.api.util.ChunkCoords;
 
 /**
@@ -90,6 +93,36 @@ public interface ShopkeeperRegistry {
 			UUID ownerUUID
 	);
 
+	// BY TYPE
+
+	/**
+	 * Gets the shopkeepers of the specified {@link ShopType}.
+	 * <p>
+	 * This is faster than filtering {@link #getAllShopkeepers()}, since the registry keeps an index
+	 * of the shopkeepers by their shop type.
+	 * 
+	 * @param shopType
+	 *            the shop type, not <code>null</code>
+	 * @return an unmodifiable view on the shopkeepers of the specified shop type, not
+	 *         <code>null</code>
+	 */
+	public Collection<? extends @NonNull Shopkeeper> getShopkeepersByType(ShopType<?> shopType);
+
+	/**
+	 * Gets the shopkeepers of the specified {@link ShopObjectType}.
+	 * <p>
+	 * This is faster than filtering {@link #getAllShopkeepers()}, since the registry keeps an index
+	 * of the shopkeepers by their shop object type.
+	 * 
+	 * @param shopObjectType
+	 *            the shop object type, not <code>null</code>
+	 * @return an unmodifiable view on the shopkeepers of the specified shop object type, not
+	 *         <code>null</code>
+	 */
+	public Collection<? extends @NonNull Shopkeeper> getShopkeepersByObjectType(
+			ShopObjectType<?> shopObjectType
+	);
+
 	// BY NAME
 
 	/**
@@ -246,6 +279,84 @@ public interface ShopkeeperRegistry {
 	// a single shopkeeper at the same location.
 	public Collection<? extends @NonNull Shopkeeper> getShopkeepersAtLocation(Location location);
 
+	// BY AREA
+
+	// The registry keeps a spatial index of the shopkeepers inside each world. The following
+	// queries therefore only inspect the shopkeepers in the vicinity of the queried area, regardless
+	// of the total number of shopkeepers inside the world. Virtual shopkeepers are ignored.
+
+	/**
+	 * Gets the shopkeepers whose {@link Shopkeeper#getLocation() location} is within the specified
+	 * distance of the given location.
+	 * 
+	 * @param location
+	 *            the center location, not <code>null</code>, and its world is expected to be
+	 *            loaded
+	 * @param radius
+	 *            the maximum distance in blocks, not negative
+	 * @return a new list of the shopkeepers within the radius, in no particular order, not
+	 *         <code>null</code>
+	 */
+	public List<? extends @NonNull Shopkeeper> getShopkeepersInRadius(
+			Location location,
+			double radius
+	);
+
+	/**
+	 * Gets up to the specified number of shopkeepers that are the closest to the given location and
+	 * that match the given filter.
+	 * <p>
+	 * Distances are measured to the shopkeepers' {@link Shopkeeper#getLocation() location}. The
+	 * filter is only invoked for shopkeepers that are closer than the shopkeepers found so far. It
+	 * is not supposed to modify the shopkeepers or the registry.
+	 * 
+	 * @param location
+	 *            the location, not <code>null</code>, and its world is expected to be loaded
+	 * @param count
+	 *            the maximum number of shopkeepers to return, has to be positive
+	 * @param filter
+	 *            the filter, not <code>null</code>
+	 * @return a new list of the closest matching shopkeepers, sorted by their distance starting
+	 *         with the closest shopkeeper, not <code>null</code>
+	 */
+	public List<? extends @NonNull Shopkeeper> getNearestShopkeepers(
+			Location location,
+			int count,
+			Predicate<? super @NonNull Shopkeeper> filter
+	);
+
+	/**
+	 * Gets the shopkeepers whose block coordinates are within the specified bounding box.
+	 * <p>
+	 * All bounds are inclusive.
+	 * 
+	 * @param worldName
+	 *            the world name, not <code>null</code> or empty
+	 * @param minX
+	 *            the minimum block x coordinate
+	 * @param minY
+	 *            the minimum block y coordinate
+	 * @param minZ
+	 *            the minimum block z coordinate
+	 * @param maxX
+	 *            the maximum block x coordinate
+	 * @param maxY
+	 *            the maximum block y coordinate
+	 * @param maxZ
+	 *            the maximum block z coordinate
+	 * @return a new list of the shopkeepers within the bounding box, in no particular order, not
+	 *         <code>null</code>
+	 */
+	public List<? extends @NonNull Shopkeeper> getShopkeepersInBoundingBox(
+			String worldName,
+			int minX,
+			int minY,
+			int minZ,
+			int maxX,
+			int maxY,
+			int maxZ
+	);
+
 	// BY SHOP OBJECT
 
 	/**
@@ -326,4 +437,35 @@ public interface ShopkeeperRegistry {
 	 * @see #getShopkeeperByBlock(Block)
 	 */
 	public boolean isShopkeeper(Block block);
+
+	// SNAPSHOT
+
+	/**
+	 * Gets the latest published {@link ShopkeeperRegistrySnapshot}.
+	 * <p>
+	 * Unlike the other methods of this registry, this method can be called from any thread, and the
+	 * returned snapshot can be queried concurrently.
+	 * <p>
+	 * The registry publishes a new snapshot at most once per tick after the shopkeepers have
+	 * changed. When called from the server's main thread, any pending changes are published
+	 * immediately, so that the returned snapshot reflects the current state of the shopkeepers.
+	 * 
+	 * @return the latest snapshot, not <code>null</code>
+	 */
+	public ShopkeeperRegistrySnapshot getSnapshot();
+
+	// STATISTICS
+
+	/**
+	 * Gets the latest published {@link ShopkeeperStatistics}.
+	 * <p>
+	 * Unlike the other methods of this registry, this method can be called from any thread.
+	 * <p>
+	 * The registry publishes new statistics at most once per tick after the shopkeepers have
+	 * changed. When called from the server's main thread, any pending changes are published
+	 * immediately.
+	 * 
+	 * @return the latest statistics, not <code>null</code>
+	 */
+	public ShopkeeperStatistics getShopkeeperStatistics();
 }
@@ -0,0 +1,103 @@
+package com.nisovin.shopkeepers.api.shopkeeper;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An immutable snapshot of the shopkeepers inside the {@link ShopkeeperRegistry}.
+ * <p>
+ * Unlike the queries of the {@link ShopkeeperRegistry}, which are only supposed to be used on the
+ * server's main thread, snapshots can be queried concurrently from any thread. Bulk operations can
+ * also use {@link #parallelStream() parallel streams}.
+ * <p>
+ * The registry publishes a new snapshot shortly after the shopkeepers have changed. Snapshots
+ * themselves never change: To observe later changes, a new snapshot needs to be retrieved from the
+ * registry.
+ */
+public interface ShopkeeperRegistrySnapshot {
+
+	/**
+	 * Gets the version of this snapshot.
+	 * <p>
+	 * Each newly published snapshot has a higher version than the previous one.
+	 * 
+	 * @return the snapshot version
+	 */
+	public long getVersion();
+
+	/**
+	 * Gets the number of shopkeepers in this snapshot.
+	 * 
+	 * @return the number of shopkeepers
+	 */
+	public int size();
+
+	/**
+	 * Gets all shopkeepers.
+	 * 
+	 * @return an unmodifiable list of all shopkeepers, not <code>null</code>
+	 */
+	public List<? extends @NonNull ShopkeeperInfo> getAllShopkeepers();
+
+	/**
+	 * Gets a sequential stream of all shopkeepers.
+	 * 
+	 * @return the stream, not <code>null</code>
+	 */
+	public Stream<? extends @NonNull ShopkeeperInfo> stream();
+
+	/**
+	 * Gets a possibly parallel stream of all shopkeepers.
+	 * 
+	 * @return the stream, not <code>null</code>
+	 */
+	public Stream<? extends @NonNull ShopkeeperInfo> parallelStream();
+
+	/**
+	 * Gets the shopkeeper by its {@link ShopkeeperInfo#getId() id}.
+	 * 
+	 * @param shopkeeperId
+	 *            the shopkeeper's id
+	 * @return the shopkeeper, or <code>null</code>
+	 */
+	public @Nullable ShopkeeperInfo getShopkeeperById(int shopkeeperId);
+
+	/**
+	 * Gets the shopkeeper by its {@link ShopkeeperInfo#getUniqueId() unique id}.
+	 * 
+	 * @param shopkeeperUniqueId
+	 *            the shopkeeper's unique id
+	 * @return the shopkeeper, or <code>null</code>
+	 */
+	public @Nullable ShopkeeperInfo getShopkeeperByUniqueId(UUID shopkeeperUniqueId);
+
+	/**
+	 * Gets the names of all worlds that contain shopkeepers.
+	 * 
+	 * @return an unmodifiable view on the world names, not <code>null</code>
+	 */
+	public Collection<? extends @NonNull String> getWorldsWithShopkeepers();
+
+	/**
+	 * Gets the shopkeepers in the specified world.
+	 * 
+	 * @param worldName
+	 *            the world name
+	 * @return an unmodifiable list of the shopkeepers in the world, not <code>null</code>
+	 */
+	public List<? extends @NonNull ShopkeeperInfo> getShopkeepersInWorld(String worldName);
+
+	/**
+	 * Gets the player shopkeepers that are owned by the specified player.
+	 * 
+	 * @param ownerUUID
+	 *            the owner's uuid
+	 * @return an unmodifiable list of the owner's shopkeepers, not <code>null</code>
+	 */
+	public List<? extends @NonNull ShopkeeperInfo> getPlayerShopkeepersByOwner(UUID ownerUUID);
+}
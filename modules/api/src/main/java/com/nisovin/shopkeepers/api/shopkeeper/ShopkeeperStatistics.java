@@ -0,0 +1,84 @@
+package com.nisovin.shopkeepers.api.shopkeeper;
+
+import java.util.Map;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import com.nisovin.shopkeepers.api.shopobjects.ShopObjectType;
+
+/**
+ * Immutable counts of the shopkeepers inside the {@link ShopkeeperRegistry}.
+ * <p>
+ * Unlike the queries of the {@link ShopkeeperRegistry}, which are only supposed to be used on the
+ * server's main thread, these statistics can be queried from any thread. The registry publishes
+ * new statistics shortly after the shopkeepers have changed. The statistics themselves never
+ * change: To observe later changes, new statistics need to be retrieved from the registry.
+ */
+public interface ShopkeeperStatistics {
+
+	/**
+	 * Gets the number of shopkeepers.
+	 * 
+	 * @return the number of shopkeepers
+	 */
+	public int getShopkeeperCount();
+
+	/**
+	 * Gets the number of player shopkeepers.
+	 * 
+	 * @return the number of player shopkeepers
+	 */
+	public int getPlayerShopkeeperCount();
+
+	/**
+	 * Gets the number of virtual shopkeepers.
+	 * 
+	 * @return the number of virtual shopkeepers
+	 */
+	public int getVirtualShopkeeperCount();
+
+	/**
+	 * Gets the number of shopkeepers that use the Citizens {@link ShopObjectType}.
+	 * 
+	 * @return the number of Citizens shopkeepers
+	 */
+	public int getCitizensShopkeeperCount();
+
+	/**
+	 * Gets the number of shopkeepers in active chunks.
+	 * 
+	 * @return the number of active shopkeepers
+	 * @see ShopkeeperRegistry#getActiveShopkeepers()
+	 */
+	public int getActiveShopkeeperCount();
+
+	/**
+	 * Gets the numbers of shopkeepers by the identifiers of their {@link ShopType shop types}.
+	 * <p>
+	 * Shop types without any shopkeepers are omitted.
+	 * 
+	 * @return an unmodifiable map of the shopkeeper counts by shop type identifier, not
+	 *         <code>null</code>
+	 */
+	public Map<? extends @NonNull String, ? extends @NonNull Integer> getShopkeeperCountsByShopType();
+
+	/**
+	 * Gets the numbers of shopkeepers by the identifiers of their {@link ShopObjectType shop object
+	 * types}.
+	 * <p>
+	 * Shop object types without any shopkeepers are omitted.
+	 * 
+	 * @return an unmodifiable map of the shopkeeper counts by shop object type identifier, not
+	 *         <code>null</code>
+	 */
+	public Map<? extends @NonNull String, ? extends @NonNull Integer> getShopkeeperCountsByObjectType();
+
+	/**
+	 * Gets the numbers of non-virtual shopkeepers by the names of their worlds.
+	 * <p>
+	 * Worlds without any shopkeepers are omitted.
+	 * 
+	 * @return an unmodifiable map of the shopkeeper counts by world name, not <code>null</code>
+	 */
+	public Map<? extends @NonNull String, ? extends @NonNull Integer> getShopkeeperCountsByWorld();
+}
@@ -0,0 +1,78 @@
+package com.nisovin.shopkeepers.api.shopkeeper;
+
+/**
+ * Immutable statistics of the trades that took place with a particular {@link Shopkeeper}.
+ * <p>
+ * The statistics are a snapshot of the shopkeeper's trade counters at the time they have been
+ * retrieved via {@link Shopkeeper#getTradeStatistics()}. The statistics themselves never change:
+ * To observe later trades, new statistics need to be retrieved from the shopkeeper.
+ * <p>
+ * The counters of the recent {@link Period periods} are tracked in time buckets of a fixed
+ * duration. The covered time span is therefore only approximately the duration of the period:
+ * Trades in the oldest part of the period may already have been dropped from these counters.
+ */
+public interface TradeStatistics {
+
+	/**
+	 * The time periods for which trade statistics are tracked.
+	 */
+	public enum Period {
+		/**
+		 * Approximately the last hour.
+		 */
+		LAST_HOUR,
+		/**
+		 * Approximately the last 24 hours.
+		 */
+		LAST_DAY,
+		/**
+		 * Approximately the last 7 days.
+		 */
+		LAST_WEEK,
+		/**
+		 * Since the statistics of the shopkeeper have started to be tracked.
+		 */
+		ALL_TIME;
+	}
+
+	/**
+	 * Gets the number of trades during the specified period.
+	 * 
+	 * @param period
+	 *            the period, not <code>null</code>
+	 * @return the number of trades
+	 */
+	public long getTrades(Period period);
+
+	/**
+	 * Gets the number of items that the shopkeeper handed out as the result of trades during the
+	 * specified period.
+	 * 
+	 * @param period
+	 *            the period, not <code>null</code>
+	 * @return the number of sold items
+	 */
+	public long getItemsSold(Period period);
+
+	/**
+	 * Gets the number of items that the shopkeeper received from trading players during the
+	 * specified period.
+	 * 
+	 * @param period
+	 *            the period, not <code>null</code>
+	 * @return the number of bought items
+	 */
+	public long getItemsBought(Period period);
+
+	/**
+	 * Gets the combined value of the currency items that have been traded during the specified
+	 * period, regardless of whether the shopkeeper handed them out or received them.
+	 * <p>
+	 * The value is measured in units of the base currency.
+	 * 
+	 * @param period
+	 *            the period, not <code>null</code>
+	 * @return the currency volume
+	 */
+	public long getCurrencyVolume(Period period);
+}
@@ -9,7 +9,7 @@ import com.nisovin.shopkeepers.api.internal.ApiInternals;
  * <p>
  * Instances of this are immutable. They can be created via {@link #create(String, int)}.
  */
-public interface BookOffer {
+public interface BookOffer extends ShopOffer {
 
 	/**
 	 * Creates a new {@link BookOffer}.
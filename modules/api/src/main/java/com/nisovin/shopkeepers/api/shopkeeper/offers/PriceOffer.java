@@ -10,7 +10,7 @@ import com.nisovin.shopkeepers.api.util.UnmodifiableItemStack;
  * <p>
  * Instances of this are immutable. They can be created via {@link #create(ItemStack, int)}.
  */
-public interface PriceOffer {
+public interface PriceOffer extends ShopOffer {
 
 	/**
 	 * Creates a new {@link PriceOffer}.
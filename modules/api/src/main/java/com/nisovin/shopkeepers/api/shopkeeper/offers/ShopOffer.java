@@ -0,0 +1,10 @@
+package com.nisovin.shopkeepers.api.shopkeeper.offers;
+
+/**
+ * Common super type of the different kinds of shopkeeper offers, such as {@link TradeOffer},
+ * {@link PriceOffer}, and {@link BookOffer}.
+ * <p>
+ * All offers are immutable.
+ */
+public interface ShopOffer {
+}
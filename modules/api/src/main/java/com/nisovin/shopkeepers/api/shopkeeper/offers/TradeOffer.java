@@ -13,7 +13,7 @@ import com.nisovin.shopkeepers.api.util.UnmodifiableItemStack;
  * Instances of this are immutable. They can be created via
  * {@link #create(ItemStack, ItemStack, ItemStack)}.
  */
-public interface TradeOffer {
+public interface TradeOffer extends ShopOffer {
 
 	/**
 	 * Creates a new {@link TradeOffer}.
@@ -1,12 +1,16 @@
 package com.nisovin.shopkeepers.api.shopkeeper.player;
 
+import java.util.List;
 import java.util.UUID;
 
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
+import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import com.nisovin.shopkeepers.api.events.PlayerShopkeeperBackInStockEvent;
+import com.nisovin.shopkeepers.api.events.PlayerShopkeeperOutOfStockEvent;
 import com.nisovin.shopkeepers.api.shopkeeper.Shopkeeper;
 import com.nisovin.shopkeepers.api.util.UnmodifiableItemStack;
 
@@ -179,6 +183,24 @@ public interface PlayerShopkeeper extends Shopkeeper {
 	 */
 	public int getCurrencyInContainer();
 
+	/**
+	 * Gets the stock of the shop's offers, i.e. how many times each offer can currently be traded
+	 * given the contents of the shop's container.
+	 * <p>
+	 * The returned stock counts are ordered like the shop's offers. The stock is tracked based on
+	 * changes to the shop's container and to the shop's offers, and is therefore cheap to query.
+	 * However, it may lag behind these changes by up to one tick. The stock is only determined while
+	 * the shop's container is loaded: If it has not been determined yet since the shop was loaded,
+	 * this returns an empty list.
+	 * <p>
+	 * If an offer runs out of stock, or becomes available again, a
+	 * {@link PlayerShopkeeperOutOfStockEvent} or a {@link PlayerShopkeeperBackInStockEvent} is called.
+	 * 
+	 * @return an unmodifiable list of the stock counts of the offers, not <code>null</code>, but
+	 *         empty if the stock is not known yet
+	 */
+	public List<? extends @NonNull Integer> getOfferStocks();
+
 	// SHOPKEEPER UIs - shortcuts for common UI types:
 
 	/**
@@ -32,6 +32,7 @@ import com.nisovin.shopkeepers.config.Settings;
 import com.nisovin.shopkeepers.config.lib.ConfigLoadException;
 import com.nisovin.shopkeepers.container.protection.ProtectedContainers;
 import com.nisovin.shopkeepers.container.protection.RemoveShopOnContainerBreak;
+import com.nisovin.shopkeepers.container.stock.ContainerStockTracker;
 import com.nisovin.shopkeepers.debug.Debug;
 import com.nisovin.shopkeepers.debug.events.EventDebugger;
 import com.nisovin.shopkeepers.debug.trades.TradingCountListener;
@@ -41,6 +42,7 @@ import com.nisovin.shopkeepers.input.interaction.InteractionInput;
 import com.nisovin.shopkeepers.internals.SKApiInternals;
 import com.nisovin.shopkeepers.itemconversion.ItemConversions;
 import com.nisovin.shopkeepers.lang.Messages;
+import com.nisovin.shopkeepers.metrics.MetricsExporter;
 import com.nisovin.shopkeepers.metrics.PluginMetrics;
 import com.nisovin.shopkeepers.moving.ShopkeeperMoving;
 import com.nisovin.shopkeepers.naming.ShopkeeperNaming;
@@ -61,6 +63,7 @@ import com.nisovin.shopkeepers.spigot.SpigotFeatures;
 import com.nisovin.shopkeepers.storage.SKShopkeeperStorage;
 import com.nisovin.shopkeepers.tradelog.TradeLoggers;
 import com.nisovin.shopkeepers.tradenotifications.TradeNotifications;
+import com.nisovin.shopkeepers.tradestatistics.TradeStatisticsTracker;
 import com.nisovin.shopkeepers.trading.commandtrading.CommandTrading;
 import com.nisovin.shopkeepers.ui.SKDefaultUITypes;
 import com.nisovin.shopkeepers.ui.SKUIRegistry;
@@ -130,6 +133,9 @@ public class SKShopkeepersPlugin extends JavaPlugin implements InternalShopkeepe
 	private final TradeNotifications tradeNotifications = new TradeNotifications(
 			Unsafe.initialized(this)
 	);
+	private final TradeStatisticsTracker tradeStatistics = new TradeStatisticsTracker(
+			Unsafe.initialized(this)
+	);
 	private final EventDebugger eventDebugger = new EventDebugger(Unsafe.initialized(this));
 
 	private final PlayerShops playerShops = new PlayerShops(Unsafe.initialized(this));
@@ -151,6 +157,10 @@ public class SKShopkeepersPlugin extends JavaPlugin implements InternalShopkeepe
 			Unsafe.initialized(this),
 			protectedContainers
 	);
+	private final ContainerStockTracker containerStockTracker = new ContainerStockTracker(
+			Unsafe.initialized(this),
+			protectedContainers
+	);
 
 	private final LivingShops livingShops = new LivingShops(Unsafe.initialized(this));
 	private final BaseBlockShops blockShops = new BaseBlockShops(Unsafe.initialized(this));
@@ -168,6 +178,7 @@ public class SKShopkeepersPlugin extends JavaPlugin implements InternalShopkeepe
 	);
 
 	private final PluginMetrics pluginMetrics = new PluginMetrics(Unsafe.initialized(this));
+	private final MetricsExporter metricsExporter = new MetricsExporter(Unsafe.initialized(this));
 
 	private boolean outdatedServer = false;
 	private boolean incompatibleServer = false;
@@ -366,6 +377,9 @@ public class SKShopkeepersPlugin extends JavaPlugin implements InternalShopkeepe
 		protectedContainers.enable();
 		removeShopOnContainerBreak.onEnable();
 
+		// Enable container stock tracking:
+		containerStockTracker.onEnable();
+
 		// Register events:
 		PluginManager pm = Bukkit.getPluginManager();
 		pm.registerEvents(new PlayerJoinQuitListener(this), this);
@@ -443,12 +457,18 @@ public class SKShopkeepersPlugin extends JavaPlugin implements InternalShopkeepe
 		// Trade notifications:
 		tradeNotifications.onEnable();
 
+		// Trade statistics:
+		tradeStatistics.onEnable();
+
 		// Save all updated shopkeeper data (e.g. after data migrations):
 		shopkeeperStorage.saveIfDirty();
 
 		// Plugin metrics:
 		pluginMetrics.onEnable();
 
+		// Internal metrics:
+		metricsExporter.onEnable();
+
 		// Event debugger:
 		eventDebugger.onEnable();
 	}
@@ -462,6 +482,9 @@ public class SKShopkeepersPlugin extends JavaPlugin implements InternalShopkeepe
 				this.getLogger()
 		);
 
+		// Internal metrics: Exports the final values.
+		metricsExporter.onDisable();
+
 		// Inform UI registry about disable:
 		uiRegistry.onDisable();
 
@@ -482,6 +505,9 @@ public class SKShopkeepersPlugin extends JavaPlugin implements InternalShopkeepe
 		protectedContainers.disable();
 		removeShopOnContainerBreak.onDisable();
 
+		// Disable container stock tracking:
+		containerStockTracker.onDisable();
+
 		// Disable shopkeeper registry: Unloads all shopkeepers.
 		shopkeeperRegistry.onDisable();
 
@@ -520,6 +546,9 @@ public class SKShopkeepersPlugin extends JavaPlugin implements InternalShopkeepe
 		// Trade notifications:
 		tradeNotifications.onDisable();
 
+		// Trade statistics:
+		tradeStatistics.onDisable();
+
 		// Clear all types of registers:
 		shopTypesRegistry.clearAll();
 		shopObjectTypesRegistry.clearAll();
@@ -638,6 +667,12 @@ public class SKShopkeepersPlugin extends JavaPlugin implements InternalShopkeepe
 		return removeShopOnContainerBreak;
 	}
 
+	// CONTAINER STOCK TRACKING
+
+	public ContainerStockTracker getContainerStockTracker() {
+		return containerStockTracker;
+	}
+
 	// LIVING ENTITY SHOPS
 
 	public LivingShops getLivingShops() {
@@ -737,4 +772,16 @@ public class SKShopkeepersPlugin extends JavaPlugin implements InternalShopkeepe
 	public TradeNotifications getTradeNotifications() {
 		return tradeNotifications;
 	}
+
+	// TRADE STATISTICS
+
+	public TradeStatisticsTracker getTradeStatistics() {
+		return tradeStatistics;
+	}
+
+	// INTERNAL METRICS
+
+	public MetricsExporter getMetricsExporter() {
+		return metricsExporter;
+	}
 }
@@ -8,7 +8,7 @@ import java.util.stream.Stream;
 import org.bukkit.command.CommandSender;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
-import com.nisovin.shopkeepers.api.ShopkeepersAPI;
+import com.nisovin.shopkeepers.SKShopkeepersPlugin;
 import com.nisovin.shopkeepers.api.internal.util.Unsafe;
 import com.nisovin.shopkeepers.api.shopkeeper.Shopkeeper;
 import com.nisovin.shopkeepers.commands.lib.CommandInput;
@@ -18,6 +18,7 @@ import com.nisovin.shopkeepers.commands.lib.arguments.ObjectIdArgument;
 import com.nisovin.shopkeepers.commands.lib.context.CommandContextView;
 import com.nisovin.shopkeepers.commands.util.ShopkeeperArgumentUtils;
 import com.nisovin.shopkeepers.commands.util.ShopkeeperArgumentUtils.TargetShopkeeperFilter;
+import com.nisovin.shopkeepers.shopkeeper.registry.SKShopkeeperRegistry;
 import com.nisovin.shopkeepers.util.java.ConversionUtils;
 import com.nisovin.shopkeepers.util.java.PredicateUtils;
 
@@ -91,7 +92,7 @@ public class ShopkeeperIdArgument extends ObjectIdArgument<@NonNull Integer> {
 			return Collections.emptyList();
 		}
 
-		// Suggestion for the id(s) of the targeted shopkeeper(s):
+		// Suggestions for the id(s) of the targeted shopkeeper(s):
 		CommandSender sender = input.getSender();
 		List<? extends @NonNull Shopkeeper> targetedShopkeepers = ShopkeeperArgumentUtils.getTargetedShopkeepers(
 				sender,
@@ -101,9 +102,14 @@ public class ShopkeeperIdArgument extends ObjectIdArgument<@NonNull Integer> {
 		// Only provide other suggestions if there is a minimum length input:
 		Stream<@NonNull Shopkeeper> shopkeepersStream;
 		if (idPrefix.length() >= minimumCompletionInput) {
+			// The search index only visits the shopkeepers whose ids match the prefix, and returns
+			// shorter ids first (e.g. input "2": suggests "20", "21", "22",.. before "200", "201",
+			// "202",..).
+			SKShopkeeperRegistry shopkeeperRegistry = SKShopkeepersPlugin.getInstance()
+					.getShopkeeperRegistry();
 			shopkeepersStream = Stream.concat(
 					targetedShopkeepers.stream(),
-					ShopkeepersAPI.getShopkeeperRegistry().getAllShopkeepers().stream()
+					shopkeeperRegistry.getSearchIndex().getByIdPrefix(idPrefix)
 							.filter(shopkeeper -> !targetedShopkeepers.contains(shopkeeper))
 			);
 		} else {
@@ -112,8 +118,6 @@ public class ShopkeeperIdArgument extends ObjectIdArgument<@NonNull Integer> {
 		}
 
 		// Note: No normalization required.
-		// TODO Prefer short ids (e.g. input "2", suggest "20", "21", "22",.. instead of "200",
-		// "201", "202",..)
 		return shopkeepersStream
 				.filter(filter)
 				.mapToInt(Shopkeeper::getId)
@@ -9,7 +9,7 @@ import java.util.stream.Stream;
 import org.bukkit.command.CommandSender;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
-import com.nisovin.shopkeepers.api.ShopkeepersAPI;
+import com.nisovin.shopkeepers.SKShopkeepersPlugin;
 import com.nisovin.shopkeepers.api.internal.util.Unsafe;
 import com.nisovin.shopkeepers.api.shopkeeper.Shopkeeper;
 import com.nisovin.shopkeepers.commands.lib.CommandInput;
@@ -18,6 +18,7 @@ import com.nisovin.shopkeepers.commands.lib.arguments.ObjectUUIDArgument;
 import com.nisovin.shopkeepers.commands.lib.context.CommandContextView;
 import com.nisovin.shopkeepers.commands.util.ShopkeeperArgumentUtils;
 import com.nisovin.shopkeepers.commands.util.ShopkeeperArgumentUtils.TargetShopkeeperFilter;
+import com.nisovin.shopkeepers.shopkeeper.registry.SKShopkeeperRegistry;
 import com.nisovin.shopkeepers.util.java.PredicateUtils;
 
 /**
@@ -90,10 +91,12 @@ public class ShopkeeperUUIDArgument extends ObjectUUIDArgument {
 		// Only provide other suggestions if there is a minimum length input:
 		Stream<@NonNull Shopkeeper> shopkeepersStream;
 		if (uuidPrefix.length() >= minimumCompletionInput) {
-			// TODO Improve by using a TreeMap for the prefix matching?
+			// The search index only visits the shopkeepers whose unique ids match the prefix:
+			SKShopkeeperRegistry shopkeeperRegistry = SKShopkeepersPlugin.getInstance()
+					.getShopkeeperRegistry();
 			shopkeepersStream = Stream.concat(
 					targetedShopkeepers.stream(),
-					ShopkeepersAPI.getShopkeeperRegistry().getAllShopkeepers().stream()
+					shopkeeperRegistry.getSearchIndex().getByUniqueIdPrefix(normalizedUUIDPrefix)
 							.filter(shopkeeper -> !targetedShopkeepers.contains(shopkeeper))
 			);
 		} else {
@@ -59,6 +59,9 @@ public abstract class Command {
 			.placeholder("usage") // The usage format
 			.placeholder("description") // The description format
 			.buildRoot();
+	private static final MessageArguments NO_MESSAGE_ARGS = MessageArguments.ofMap(
+			Collections.emptyMap()
+	);
 
 	private final String name;
 	private final List<? extends @NonNull String> aliases; // Unmodifiable
@@ -438,6 +441,28 @@ public abstract class Command {
 		return commonMessageArgs;
 	}
 
+	/**
+	 * Gets additional message arguments that are available to the
+	 * {@link #setHelpTitleFormat(Text) help title format}, in addition to the
+	 * {@link #getCommonMessageArgs() common message arguments}.
+	 * <p>
+	 * By default, this returns the help title message arguments of the parent command, since child
+	 * commands may inherit the help title format of their parent. If there is no parent command,
+	 * this returns no message arguments.
+	 * 
+	 * @return the additional help title message arguments, not <code>null</code>
+	 */
+	protected MessageArguments getHelpTitleMessageArgs() {
+		Command parent = this.parent;
+		if (parent == null) return NO_MESSAGE_ARGS;
+		return parent.getHelpTitleMessageArgs();
+	}
+
+	// Gets the message arguments with which the help title format is formatted.
+	final MessageArguments getHelpTitleArgs() {
+		return this.getCommonMessageArgs().combinedWith(this.getHelpTitleMessageArgs());
+	}
+
 	public final @Nullable Command getParent() {
 		return parent;
 	}
@@ -1344,7 +1369,8 @@ public abstract class Command {
 	 * Sets the format to use for the title when sending the help via
 	 * {@link #sendHelp(CommandSender)}.
 	 * <p>
-	 * See {@link #getCommonMessageArgs()} for the available placeholders.
+	 * See {@link #getCommonMessageArgs()} and {@link #getHelpTitleMessageArgs()} for the available
+	 * placeholders.
 	 * <p>
 	 * If the format is {@link Text#isPlainTextEmpty() empty}, no title will be used in the help
 	 * pages. If the format is <code>null</code>, the format of the parent command gets used. If no
@@ -1588,7 +1614,7 @@ public abstract class Command {
 		Text titleFormat = this.getHelpTitleFormat();
 		assert titleFormat != null;
 		if (!titleFormat.isPlainTextEmpty()) {
-			TextUtils.sendMessage(recipient, titleFormat, commonMsgArgs);
+			TextUtils.sendMessage(recipient, titleFormat, this.getHelpTitleArgs());
 		}
 
 		// Skip info about the command if it is hidden or the recipient does not have the required
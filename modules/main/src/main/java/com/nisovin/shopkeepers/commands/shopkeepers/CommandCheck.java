@@ -32,6 +32,7 @@ import com.nisovin.shopkeepers.config.Settings;
 import com.nisovin.shopkeepers.shopkeeper.activation.ShopkeeperChunkActivator;
 import com.nisovin.shopkeepers.shopkeeper.registry.SKShopkeeperRegistry;
 import com.nisovin.shopkeepers.shopkeeper.spawning.ShopkeeperSpawner;
+import com.nisovin.shopkeepers.shopobjects.citizens.CitizensNpcSaveScheduler;
 import com.nisovin.shopkeepers.shopobjects.living.LivingEntityAI;
 import com.nisovin.shopkeepers.text.Text;
 import com.nisovin.shopkeepers.util.bukkit.TextUtils;
@@ -98,10 +99,23 @@ class CommandCheck extends Command {
 		sender.sendMessage("    With active AI: " + livingEntityAI.getActiveAIChunksCount());
 		sender.sendMessage("    With active gravity: " + livingEntityAI.getActiveGravityChunksCount());
 		sender.sendMessage("  Active shopkeepers: " + shopkeeperRegistry.getActiveShopkeepers().size());
+		sender.sendMessage("  Spawned shop entities: "
+				+ shopkeeperRegistry.getShopObjectRegistry().getShopEntityCount());
 		sender.sendMessage("    With AI: " + livingEntityAI.getEntityCount());
-		sender.sendMessage("    With active AI: " + livingEntityAI.getActiveAIEntityCount());
+		sender.sendMessage("    With active AI: " + livingEntityAI.getActiveAIEntityCount()
+				+ "    (Full rate | reduced rate: " + livingEntityAI.getFullRateAIEntityCount()
+				+ " | " + livingEntityAI.getReducedRateAIEntityCount() + ")");
 		sender.sendMessage("    With active gravity: " + livingEntityAI.getActiveGravityEntityCount());
 
+		sender.sendMessage("  Scheduled shopkeeper timers: "
+				+ shopkeeperRegistry.getShopkeeperTicker().getScheduledTimersCount());
+
+		CitizensNpcSaveScheduler npcSaveScheduler = plugin.getCitizensShops().getNpcSaveScheduler();
+		sender.sendMessage("  Citizens NPC save requests | saves | coalesced: "
+				+ npcSaveScheduler.getSaveRequestsCount()
+				+ " | " + npcSaveScheduler.getSavesCount()
+				+ " | " + npcSaveScheduler.getCoalescedSaveRequestsCount());
+
 		TaskQueueStatistics spawnQueueStatistics = shopkeeperSpawner.getSpawnQueueStatistics();
 		sender.sendMessage("  Pending shopkeeper spawns | max: " + spawnQueueStatistics.getPendingCount()
 				+ " | " + spawnQueueStatistics.getMaxPendingCount());
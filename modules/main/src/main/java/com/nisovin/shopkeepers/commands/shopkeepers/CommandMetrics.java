@@ -0,0 +1,40 @@
+package com.nisovin.shopkeepers.commands.shopkeepers;
+
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+
+import com.nisovin.shopkeepers.SKShopkeepersPlugin;
+import com.nisovin.shopkeepers.api.ShopkeepersPlugin;
+import com.nisovin.shopkeepers.commands.lib.Command;
+import com.nisovin.shopkeepers.commands.lib.CommandException;
+import com.nisovin.shopkeepers.commands.lib.CommandInput;
+import com.nisovin.shopkeepers.commands.lib.context.CommandContextView;
+import com.nisovin.shopkeepers.lang.Messages;
+import com.nisovin.shopkeepers.metrics.MetricsExporter;
+
+class CommandMetrics extends Command {
+
+	private final SKShopkeepersPlugin plugin;
+
+	CommandMetrics(SKShopkeepersPlugin plugin) {
+		super("metrics");
+		this.plugin = plugin;
+
+		// Set permission:
+		this.setPermission(ShopkeepersPlugin.DEBUG_PERMISSION);
+
+		// Set description:
+		this.setDescription(Messages.commandDescriptionMetrics);
+	}
+
+	@Override
+	protected void execute(CommandInput input, CommandContextView context) throws CommandException {
+		CommandSender sender = input.getSender();
+		// Toggle the internal metrics:
+		// This does not persist the setting, similar to the toggling of the debug mode.
+		MetricsExporter metricsExporter = plugin.getMetricsExporter();
+		metricsExporter.setEnabled(!metricsExporter.isEnabled());
+		sender.sendMessage(ChatColor.GREEN + "Internal metrics "
+				+ (metricsExporter.isEnabled() ? "enabled" : "disabled"));
+	}
+}
@@ -11,13 +11,14 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
+import com.nisovin.shopkeepers.api.ShopkeepersAPI;
 import com.nisovin.shopkeepers.api.ShopkeepersPlugin;
 import com.nisovin.shopkeepers.api.events.PlayerDeleteShopkeeperEvent;
 import com.nisovin.shopkeepers.api.internal.util.Unsafe;
+import com.nisovin.shopkeepers.api.shopkeeper.ShopType;
 import com.nisovin.shopkeepers.api.shopkeeper.Shopkeeper;
 import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperRegistry;
-import com.nisovin.shopkeepers.api.shopkeeper.admin.AdminShopkeeper;
-import com.nisovin.shopkeepers.api.shopkeeper.player.PlayerShopkeeper;
+import com.nisovin.shopkeepers.api.shopkeeper.admin.AdminShopType;
 import com.nisovin.shopkeepers.commands.Confirmations;
 import com.nisovin.shopkeepers.commands.lib.Command;
 import com.nisovin.shopkeepers.commands.lib.CommandException;
@@ -154,21 +155,15 @@ class CommandRemoveAll extends Command {
 		if (allAdmin) {
 			// Search all admin shops:
 			List<@NonNull Shopkeeper> adminShops = new ArrayList<>();
-			for (Shopkeeper shopkeeper : shopkeeperRegistry.getAllShopkeepers()) {
-				if (shopkeeper instanceof AdminShopkeeper) {
-					adminShops.add(shopkeeper);
+			for (ShopType<?> shopType : ShopkeepersAPI.getShopTypeRegistry().getRegisteredTypes()) {
+				if (shopType instanceof AdminShopType) {
+					adminShops.addAll(shopkeeperRegistry.getShopkeepersByType(shopType));
 				}
 			}
 			affectedShops = adminShops;
 		} else if (allPlayers) {
 			// Search all player shops:
-			List<@NonNull Shopkeeper> playerShops = new ArrayList<>();
-			for (Shopkeeper shopkeeper : shopkeeperRegistry.getAllShopkeepers()) {
-				if (shopkeeper instanceof PlayerShopkeeper) {
-					playerShops.add(shopkeeper);
-				}
-			}
-			affectedShops = playerShops;
+			affectedShops = new ArrayList<>(shopkeeperRegistry.getAllPlayerShopkeepers());
 		} else {
 			assert targetPlayerUUID != null ^ targetPlayerName != null;
 			// Search for shops owned by the target player:
@@ -1,5 +1,7 @@
 package com.nisovin.shopkeepers.commands.shopkeepers;
 
+import java.util.Collections;
+
 import org.bukkit.FluidCollisionMode;
 import org.bukkit.Location;
 import org.bukkit.block.Block;
@@ -28,6 +30,7 @@ import com.nisovin.shopkeepers.commands.lib.CommandInput;
 import com.nisovin.shopkeepers.commands.lib.CommandRegistry;
 import com.nisovin.shopkeepers.commands.lib.commands.PlayerCommand;
 import com.nisovin.shopkeepers.commands.lib.context.CommandContextView;
+import com.nisovin.shopkeepers.commands.shopkeepers.history.CommandHistory;
 import com.nisovin.shopkeepers.commands.shopkeepers.snapshot.CommandSnapshot;
 import com.nisovin.shopkeepers.config.Settings;
 import com.nisovin.shopkeepers.lang.Messages;
@@ -37,6 +40,7 @@ import com.nisovin.shopkeepers.util.bukkit.PermissionUtils;
 import com.nisovin.shopkeepers.util.bukkit.TextUtils;
 import com.nisovin.shopkeepers.util.inventory.ItemUtils;
 import com.nisovin.shopkeepers.util.java.ObjectUtils;
+import com.nisovin.shopkeepers.util.text.MessageArguments;
 
 public class ShopkeepersCommand extends BaseCommand {
 
@@ -47,11 +51,16 @@ public class ShopkeepersCommand extends BaseCommand {
 
 	private final SKShopkeepersPlugin plugin;
 	private final SKShopkeeperRegistry shopkeeperRegistry;
+	private final MessageArguments helpTitleMessageArgs;
 
 	public ShopkeepersCommand(SKShopkeepersPlugin plugin, Confirmations confirmations) {
 		super(plugin, COMMAND_NAME);
 		this.plugin = plugin;
 		this.shopkeeperRegistry = plugin.getShopkeeperRegistry();
+		this.helpTitleMessageArgs = MessageArguments.ofMap(Collections.singletonMap(
+				"version",
+				plugin.getDescription().getVersion()
+		));
 
 		// Permission gets checked by testPermission and during execution.
 
@@ -59,9 +68,7 @@ public class ShopkeepersCommand extends BaseCommand {
 		this.setDescription(Messages.commandDescriptionShopkeeper);
 
 		// Formatting:
-		this.setHelpTitleFormat(Messages.commandHelpTitle.setPlaceholderArguments(
-				"version", plugin.getDescription().getVersion()
-		));
+		this.setHelpTitleFormat(Messages.commandHelpTitle);
 		this.setHelpUsageFormat(Messages.commandHelpUsageFormat);
 		this.setHelpDescFormat(Messages.commandHelpDescriptionFormat);
 
@@ -74,6 +81,7 @@ public class ShopkeepersCommand extends BaseCommand {
 		childCommands.register(new CommandHelp(Unsafe.initialized(this)));
 		childCommands.register(new CommandReload(plugin));
 		childCommands.register(new CommandDebug());
+		childCommands.register(new CommandMetrics(plugin));
 		childCommands.register(new CommandNotify());
 		childCommands.register(new CommandList(shopkeeperRegistry));
 		childCommands.register(new CommandRemove(confirmations));
@@ -89,6 +97,7 @@ public class ShopkeepersCommand extends BaseCommand {
 		childCommands.register(new CommandSetTradedCommand());
 		childCommands.register(new CommandSetForHire());
 		childCommands.register(new CommandSnapshot(confirmations));
+		childCommands.register(new CommandHistory(plugin));
 		childCommands.register(new CommandEditVillager());
 		// Hidden commands:
 		childCommands.register(new CommandConfirm(confirmations));
@@ -104,6 +113,11 @@ public class ShopkeepersCommand extends BaseCommand {
 		childCommands.register(new CommandTestSpawn(plugin));
 	}
 
+	@Override
+	protected MessageArguments getHelpTitleMessageArgs() {
+		return helpTitleMessageArgs;
+	}
+
 	// This also hides the command from the help page if the player shop creation via command is
 	// disabled.
 	@Override
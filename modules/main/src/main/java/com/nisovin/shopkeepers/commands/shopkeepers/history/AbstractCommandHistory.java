@@ -0,0 +1,161 @@
+package com.nisovin.shopkeepers.commands.shopkeepers.history;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import com.nisovin.shopkeepers.SKShopkeepersPlugin;
+import com.nisovin.shopkeepers.api.ShopkeepersPlugin;
+import com.nisovin.shopkeepers.api.shopkeeper.Shopkeeper;
+import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperRegistry;
+import com.nisovin.shopkeepers.commands.lib.Command;
+import com.nisovin.shopkeepers.commands.lib.arguments.PositiveIntegerArgument;
+import com.nisovin.shopkeepers.lang.Messages;
+import com.nisovin.shopkeepers.text.MessageTemplate;
+import com.nisovin.shopkeepers.text.Text;
+import com.nisovin.shopkeepers.tradelog.csv.CsvTradeHistory;
+import com.nisovin.shopkeepers.tradelog.csv.CsvTradeLogIndex.KeyType;
+import com.nisovin.shopkeepers.tradelog.csv.CsvTradeLogger;
+import com.nisovin.shopkeepers.tradelog.csv.LoggedTrade;
+import com.nisovin.shopkeepers.util.bukkit.SchedulerUtils;
+import com.nisovin.shopkeepers.util.bukkit.TextUtils;
+import com.nisovin.shopkeepers.util.java.EnumUtils;
+import com.nisovin.shopkeepers.util.logging.Log;
+import com.nisovin.shopkeepers.util.text.MessageArguments;
+
+/**
+ * Base class of the commands that show the trades logged by the CSV trade logger.
+ * <p>
+ * The trade log files are searched asynchronously, starting with the most recent trades, and only
+ * until the requested page has been filled.
+ */
+abstract class AbstractCommandHistory extends Command {
+
+	protected static final String ARGUMENT_PAGE = "page";
+
+	private static final int ENTRIES_PER_PAGE = 8;
+
+	private final SKShopkeepersPlugin plugin;
+
+	AbstractCommandHistory(SKShopkeepersPlugin plugin, String name) {
+		super(name);
+		this.plugin = plugin;
+
+		// Set permission:
+		this.setPermission(ShopkeepersPlugin.HISTORY_PERMISSION);
+	}
+
+	protected final void addPageArgument() {
+		this.addArgument(new PositiveIntegerArgument(ARGUMENT_PAGE).orDefaultValue(1));
+	}
+
+	/**
+	 * Searches the trade history asynchronously and then sends the specified page to the given
+	 * recipient.
+	 * 
+	 * @param recipient
+	 *            the recipient, not <code>null</code>
+	 * @param keyType
+	 *            the key type, not <code>null</code>
+	 * @param uniqueId
+	 *            the unique id of the shop or player, not <code>null</code>
+	 * @param page
+	 *            the page, starting at <code>1</code>
+	 * @param header
+	 *            the header message, not <code>null</code>
+	 * @param headerArguments
+	 *            the arguments of the header message, except for the page, not <code>null</code>
+	 */
+	protected final void sendHistory(
+			CommandSender recipient,
+			KeyType keyType,
+			UUID uniqueId,
+			int page,
+			Text header,
+			MessageArguments headerArguments
+	) {
+		CsvTradeHistory history = new CsvTradeHistory(CsvTradeLogger.getTradeLogsFolder(plugin));
+		int skip = (page - 1) * ENTRIES_PER_PAGE;
+		SchedulerUtils.runAsyncTaskOrOmit(plugin, () -> {
+			List<@NonNull LoggedTrade> trades = new ArrayList<>(ENTRIES_PER_PAGE);
+			boolean failed = false;
+			try {
+				int[] skipped = { 0 };
+				history.forEachTrade(keyType, uniqueId, (trade) -> {
+					if (skipped[0] < skip) {
+						skipped[0]++;
+						return true;
+					}
+					trades.add(trade);
+					return (trades.size() < ENTRIES_PER_PAGE);
+				});
+			} catch (IOException e) {
+				Log.severe("Failed to read the trade history!", e);
+				failed = true;
+			}
+
+			boolean readFailed = failed;
+			SchedulerUtils.runOnMainThreadOrOmit(plugin, () -> {
+				if (recipient instanceof Player && !((Player) recipient).isOnline()) return;
+				if (readFailed) {
+					TextUtils.sendMessage(recipient, Messages.historyReadFailed);
+					return;
+				}
+
+				TextUtils.sendMessage(recipient, header, headerArguments.combinedWith(
+						MessageArguments.ofMap(Collections.singletonMap("page", page))
+				));
+				if (trades.isEmpty()) {
+					TextUtils.sendMessage(recipient, Messages.historyNoTradesFound);
+					return;
+				}
+				trades.forEach(trade -> this.sendEntry(recipient, trade));
+			});
+		});
+	}
+
+	private void sendEntry(CommandSender recipient, LoggedTrade trade) {
+		Text item2 = Text.EMPTY;
+		String item2Type = trade.getField("item2_type");
+		if (!item2Type.isEmpty()) {
+			item2 = MessageTemplate.of(Messages.historyEntryItem2).format(
+					"item2Amount", trade.getField("item2_amount"),
+					"item2", EnumUtils.formatEnumName(item2Type)
+			).toText();
+		}
+
+		TextUtils.sendMessage(recipient, Messages.historyEntry,
+				"date", trade.getLogDate(),
+				"time", trade.getField("time"),
+				"player", trade.getField("player_name"),
+				"shop", this.getShopDisplayName(trade.getField("shop_uuid")),
+				"resultItemAmount", trade.getField("result_item_amount"),
+				"resultItem", EnumUtils.formatEnumName(trade.getField("result_item_type")),
+				"item1Amount", trade.getField("item1_amount"),
+				"item1", EnumUtils.formatEnumName(trade.getField("item1_type")),
+				"item2", item2,
+				"tradeCount", trade.getField("trade_count")
+		);
+	}
+
+	// The id of the shopkeeper if it still exists, or otherwise a shortened unique id.
+	private String getShopDisplayName(String shopUniqueId) {
+		try {
+			UUID uniqueId = UUID.fromString(shopUniqueId);
+			ShopkeeperRegistry shopkeeperRegistry = plugin.getShopkeeperRegistry();
+			Shopkeeper shopkeeper = shopkeeperRegistry.getShopkeeperByUniqueId(uniqueId);
+			if (shopkeeper != null) {
+				return String.valueOf(shopkeeper.getId());
+			}
+		} catch (IllegalArgumentException e) {
+			// Invalid unique id. Ignored.
+		}
+		return shopUniqueId.substring(0, Math.min(8, shopUniqueId.length()));
+	}
+}
@@ -0,0 +1,28 @@
+package com.nisovin.shopkeepers.commands.shopkeepers.history;
+
+import com.nisovin.shopkeepers.SKShopkeepersPlugin;
+import com.nisovin.shopkeepers.api.ShopkeepersPlugin;
+import com.nisovin.shopkeepers.commands.lib.Command;
+import com.nisovin.shopkeepers.commands.lib.CommandRegistry;
+import com.nisovin.shopkeepers.tradelog.csv.CsvTradeLogIndex.KeyType;
+
+public class CommandHistory extends Command {
+
+	public CommandHistory(SKShopkeepersPlugin plugin) {
+		super("history");
+
+		// Set permission:
+		this.setPermission(ShopkeepersPlugin.HISTORY_PERMISSION);
+
+		// Flatten in help:
+		this.setHiddenInOwnHelp(true);
+		this.setHiddenInParentHelp(true);
+		this.setIncludeChildsInParentHelp(true);
+
+		// Register child commands:
+		CommandRegistry childCommands = this.getChildCommands();
+		childCommands.register(new CommandHistoryShop(plugin));
+		childCommands.register(new CommandHistoryPlayer(plugin, "player", KeyType.PLAYER));
+		childCommands.register(new CommandHistoryPlayer(plugin, "owner", KeyType.SHOP_OWNER));
+	}
+}
@@ -0,0 +1,84 @@
+package com.nisovin.shopkeepers.commands.shopkeepers.history;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+
+import org.bukkit.entity.Player;
+
+import com.nisovin.shopkeepers.SKShopkeepersPlugin;
+import com.nisovin.shopkeepers.commands.lib.CommandException;
+import com.nisovin.shopkeepers.commands.lib.CommandInput;
+import com.nisovin.shopkeepers.commands.lib.arguments.FirstOfArgument;
+import com.nisovin.shopkeepers.commands.lib.arguments.PlayerByNameArgument;
+import com.nisovin.shopkeepers.commands.lib.arguments.PlayerUUIDArgument;
+import com.nisovin.shopkeepers.commands.lib.context.CommandContextView;
+import com.nisovin.shopkeepers.lang.Messages;
+import com.nisovin.shopkeepers.text.Text;
+import com.nisovin.shopkeepers.tradelog.csv.CsvTradeLogIndex.KeyType;
+import com.nisovin.shopkeepers.util.java.Validate;
+import com.nisovin.shopkeepers.util.text.MessageArguments;
+
+/**
+ * Shows the trades of a specific player, or the trades with the shops of a specific player.
+ */
+class CommandHistoryPlayer extends AbstractCommandHistory {
+
+	private static final String ARGUMENT_PLAYER = "player";
+	private static final String ARGUMENT_PLAYER_UUID = "player:uuid";
+	private static final String ARGUMENT_PLAYER_NAME = "player:name";
+
+	private final KeyType keyType;
+
+	CommandHistoryPlayer(SKShopkeepersPlugin plugin, String name, KeyType keyType) {
+		super(plugin, name);
+		Validate.isTrue(keyType == KeyType.PLAYER || keyType == KeyType.SHOP_OWNER,
+				"keyType is not a player key");
+		this.keyType = keyType;
+
+		// Set description:
+		if (keyType == KeyType.PLAYER) {
+			this.setDescription(Messages.commandDescriptionHistoryPlayer);
+		} else {
+			this.setDescription(Messages.commandDescriptionHistoryOwner);
+		}
+
+		// Arguments:
+		// Players that are not online can be specified by their unique id.
+		this.addArgument(new FirstOfArgument(ARGUMENT_PLAYER, Arrays.asList(
+				new PlayerUUIDArgument(ARGUMENT_PLAYER_UUID),
+				new PlayerByNameArgument(ARGUMENT_PLAYER_NAME)
+		), false));
+		this.addPageArgument();
+	}
+
+	@Override
+	protected void execute(CommandInput input, CommandContextView context) throws CommandException {
+		UUID playerUUID = context.getOrNull(ARGUMENT_PLAYER_UUID);
+		Player player = context.getOrNull(ARGUMENT_PLAYER_NAME);
+		String playerName;
+		if (player != null) {
+			playerUUID = player.getUniqueId();
+			playerName = player.getName();
+		} else {
+			assert playerUUID != null;
+			playerName = playerUUID.toString();
+		}
+		int page = context.get(ARGUMENT_PAGE);
+
+		Text header;
+		if (keyType == KeyType.PLAYER) {
+			header = Messages.historyPlayerHeader;
+		} else {
+			header = Messages.historyOwnerHeader;
+		}
+		this.sendHistory(
+				input.getSender(),
+				keyType,
+				playerUUID,
+				page,
+				header,
+				MessageArguments.ofMap(Collections.singletonMap("player", playerName))
+		);
+	}
+}
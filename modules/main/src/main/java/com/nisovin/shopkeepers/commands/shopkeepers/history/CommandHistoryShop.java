@@ -0,0 +1,45 @@
+package com.nisovin.shopkeepers.commands.shopkeepers.history;
+
+import com.nisovin.shopkeepers.SKShopkeepersPlugin;
+import com.nisovin.shopkeepers.commands.arguments.ShopkeeperArgument;
+import com.nisovin.shopkeepers.commands.arguments.TargetShopkeeperFallback;
+import com.nisovin.shopkeepers.commands.lib.CommandException;
+import com.nisovin.shopkeepers.commands.lib.CommandInput;
+import com.nisovin.shopkeepers.commands.lib.context.CommandContextView;
+import com.nisovin.shopkeepers.commands.util.ShopkeeperArgumentUtils.TargetShopkeeperFilter;
+import com.nisovin.shopkeepers.lang.Messages;
+import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
+import com.nisovin.shopkeepers.tradelog.csv.CsvTradeLogIndex.KeyType;
+
+class CommandHistoryShop extends AbstractCommandHistory {
+
+	private static final String ARGUMENT_SHOPKEEPER = "shopkeeper";
+
+	CommandHistoryShop(SKShopkeepersPlugin plugin) {
+		super(plugin, "shop");
+
+		// Set description:
+		this.setDescription(Messages.commandDescriptionHistoryShop);
+
+		// Arguments:
+		this.addArgument(new TargetShopkeeperFallback(
+				new ShopkeeperArgument(ARGUMENT_SHOPKEEPER),
+				TargetShopkeeperFilter.ANY
+		));
+		this.addPageArgument();
+	}
+
+	@Override
+	protected void execute(CommandInput input, CommandContextView context) throws CommandException {
+		AbstractShopkeeper shopkeeper = context.get(ARGUMENT_SHOPKEEPER);
+		int page = context.get(ARGUMENT_PAGE);
+		this.sendHistory(
+				input.getSender(),
+				KeyType.SHOP,
+				shopkeeper.getUniqueId(),
+				page,
+				Messages.historyShopHeader,
+				shopkeeper.getMessageArguments("shop_")
+		);
+	}
+}
@@ -20,6 +20,8 @@ import com.nisovin.shopkeepers.config.Settings.DerivedSettings;
 import com.nisovin.shopkeepers.lang.Messages;
 import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
 import com.nisovin.shopkeepers.util.bukkit.TextUtils;
+import com.nisovin.shopkeepers.util.java.MapUtils;
+import com.nisovin.shopkeepers.util.text.MessageArguments;
 
 class CommandSnapshotList extends Command {
 
@@ -56,11 +58,14 @@ class CommandSnapshotList extends Command {
 		int maxPage = Math.max(1, (int) Math.ceil((double) snapshotsCount / ENTRIES_PER_PAGE));
 		page = Math.max(1, Math.min(page, maxPage));
 
-		Messages.snapshotListHeader.setPlaceholderArguments(shopkeeper.getMessageArguments("shop_"));
 		TextUtils.sendMessage(sender, Messages.snapshotListHeader,
-				"snapshotsCount", snapshotsCount,
-				"page", page,
-				"maxPage", maxPage
+				shopkeeper.getMessageArguments("shop_").combinedWith(MessageArguments.ofMap(
+						MapUtils.createMap(
+								"snapshotsCount", snapshotsCount,
+								"page", page,
+								"maxPage", maxPage
+						)
+				))
 		);
 
 		int startIndex = (page - 1) * ENTRIES_PER_PAGE;
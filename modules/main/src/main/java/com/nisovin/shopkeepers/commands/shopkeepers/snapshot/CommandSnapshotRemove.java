@@ -1,6 +1,7 @@
 package com.nisovin.shopkeepers.commands.shopkeepers.snapshot;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Supplier;
 
@@ -27,6 +28,7 @@ import com.nisovin.shopkeepers.lang.Messages;
 import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
 import com.nisovin.shopkeepers.util.bukkit.TextUtils;
 import com.nisovin.shopkeepers.util.java.Validate;
+import com.nisovin.shopkeepers.util.text.MessageArguments;
 
 class CommandSnapshotRemove extends Command {
 
@@ -83,19 +85,17 @@ class CommandSnapshotRemove extends Command {
 				shopkeeper.removeAllSnapshots();
 				shopkeeper.save();
 
-				Messages.snapshotRemovedAll.setPlaceholderArguments(
-						shopkeeper.getMessageArguments("shop_")
-				);
 				TextUtils.sendMessage(sender, Messages.snapshotRemovedAll,
-						"snapshotsCount", snapshotsCount
+						shopkeeper.getMessageArguments("shop_").combinedWith(MessageArguments.ofMap(
+								Collections.singletonMap("snapshotsCount", snapshotsCount)
+						))
 				);
 			});
 
-			Messages.confirmRemoveAllSnapshots.setPlaceholderArguments(
-					shopkeeper.getMessageArguments("shop_")
-			);
 			TextUtils.sendMessage(sender, Messages.confirmRemoveAllSnapshots,
-					"snapshotsCount", snapshotsCount
+					shopkeeper.getMessageArguments("shop_").combinedWith(MessageArguments.ofMap(
+							Collections.singletonMap("snapshotsCount", snapshotsCount)
+					))
 			);
 			TextUtils.sendMessage(sender, Messages.confirmationRequired);
 			return;
@@ -55,6 +55,10 @@ public class Settings extends Config {
 	// See DebugOptions for all available options.
 	public static List<@NonNull String> debugOptions = new ArrayList<>(0);
 	public static boolean enableMetrics = true;
+	public static boolean internalMetrics = false;
+	public static int internalMetricsExportInterval = 60;
+	public static boolean internalMetricsFile = true;
+	public static int internalMetricsHttpPort = 0;
 
 	/*
 	 * Messages
@@ -222,6 +226,7 @@ public class Settings extends Config {
 	public static Trilean citizenNpcFluidPushable = Trilean.FALSE;
 	public static boolean cancelCitizenNpcInteractions = true;
 	public static boolean saveCitizenNpcsInstantly = false;
+	public static int citizenNpcSaveDelayTicks = 10;
 	public static boolean snapshotsSaveCitizenNpcData = true;
 	public static boolean deleteInvalidCitizenShopkeepers = false;
 
@@ -282,6 +287,7 @@ public class Settings extends Config {
 	public static ItemData containerItem = new ItemData(Material.CHEST);
 
 	public static ItemData tradeNotificationsItem = new ItemData(Material.BELL);
+	public static ItemData tradeStatisticsItem = new ItemData(Material.CLOCK);
 	public static ItemData deleteItem = new ItemData(Material.BONE);
 
 	/*
@@ -797,6 +803,15 @@ public class Settings extends Config {
 
 	@Override
 	protected void validateSettings() {
+		if (internalMetricsExportInterval <= 0) {
+			Log.warning(this.getLogPrefix() + "'internal-metrics-export-interval' has to be positive.");
+			internalMetricsExportInterval = 60;
+		}
+		if (internalMetricsHttpPort < 0 || internalMetricsHttpPort > 65535) {
+			Log.warning(this.getLogPrefix() + "'internal-metrics-http-port' has to be between 0 and "
+					+ "65535.");
+			internalMetricsHttpPort = 0;
+		}
 		if (maxContainerDistance > 50) {
 			Log.warning(this.getLogPrefix() + "'max-container-distance' can be at most 50.");
 			maxContainerDistance = 50;
@@ -849,6 +864,11 @@ public class Settings extends Config {
 			taxRate = 100;
 		}
 
+		if (citizenNpcSaveDelayTicks < 0) {
+			Log.warning(this.getLogPrefix() + "'citizen-npc-save-delay-ticks' cannot be negative.");
+			citizenNpcSaveDelayTicks = 0;
+		}
+
 		if (tradeLogMergeDurationTicks < 0) {
 			Log.warning(this.getLogPrefix() + "'trade-log-merge-duration-ticks' cannot be negative.");
 			tradeLogMergeDurationTicks = 0;
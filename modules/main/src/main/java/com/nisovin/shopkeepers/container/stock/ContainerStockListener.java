@@ -0,0 +1,83 @@
+package com.nisovin.shopkeepers.container.stock;
+
+import org.bukkit.Location;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.inventory.InventoryMoveItemEvent;
+import org.bukkit.event.inventory.InventoryPickupItemEvent;
+import org.bukkit.inventory.Inventory;
+
+import com.nisovin.shopkeepers.api.events.ShopkeeperTradeCompletedEvent;
+import com.nisovin.shopkeepers.api.shopkeeper.Shopkeeper;
+import com.nisovin.shopkeepers.container.ShopContainers;
+import com.nisovin.shopkeepers.shopkeeper.player.AbstractPlayerShopkeeper;
+
+/**
+ * Detects changes to the contents of shop containers.
+ * <p>
+ * We only react to the events after they have been handled by all other plugins, and then update
+ * the stock of the affected shops during the next tick, after the inventory changes have been
+ * applied.
+ */
+class ContainerStockListener implements Listener {
+
+	private final ContainerStockTracker stockTracker;
+
+	ContainerStockListener(ContainerStockTracker stockTracker) {
+		this.stockTracker = stockTracker;
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	void onInventoryClick(InventoryClickEvent event) {
+		// This also covers items that are moved into the container from the player's inventory:
+		this.onInventoryChanged(event.getView().getTopInventory());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	void onInventoryDrag(InventoryDragEvent event) {
+		this.onInventoryChanged(event.getView().getTopInventory());
+	}
+
+	// Accounts for container changes that we do not detect otherwise, e.g. due to other plugins
+	// directly modifying the container contents while it is open.
+	@EventHandler(priority = EventPriority.MONITOR)
+	void onInventoryClose(InventoryCloseEvent event) {
+		this.onInventoryChanged(event.getView().getTopInventory());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	void onInventoryMoveItem(InventoryMoveItemEvent event) {
+		this.onInventoryChanged(event.getSource());
+		this.onInventoryChanged(event.getDestination());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	void onInventoryPickupItem(InventoryPickupItemEvent event) {
+		this.onInventoryChanged(event.getInventory());
+	}
+
+	// Trades with player shops add and remove items to and from the shop container:
+	@EventHandler(priority = EventPriority.MONITOR)
+	void onTradeCompleted(ShopkeeperTradeCompletedEvent event) {
+		Shopkeeper shopkeeper = event.getShopkeeper();
+		if (!(shopkeeper instanceof AbstractPlayerShopkeeper)) return;
+		((AbstractPlayerShopkeeper) shopkeeper).onContainerContentsChanged();
+	}
+
+	private void onInventoryChanged(Inventory inventory) {
+		assert inventory != null;
+		// Note: We avoid calling Inventory#getHolder here for performance reasons. For block
+		// inventories this creates a snapshot of the block's BlockState.
+		Location inventoryLocation = inventory.getLocation(); // Can be null
+		if (inventoryLocation == null) return;
+		Block block = inventoryLocation.getBlock(); // Not null
+		if (!ShopContainers.isSupportedContainer(block.getType())) return;
+		// Also checks for protected connected chests (double chests):
+		stockTracker.markContainerDirty(block);
+	}
+}
@@ -0,0 +1,115 @@
+package com.nisovin.shopkeepers.container.stock;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.bukkit.Bukkit;
+import org.bukkit.block.Block;
+import org.bukkit.event.HandlerList;
+import org.bukkit.scheduler.BukkitTask;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.SKShopkeepersPlugin;
+import com.nisovin.shopkeepers.api.internal.util.Unsafe;
+import com.nisovin.shopkeepers.api.shopkeeper.player.PlayerShopkeeper;
+import com.nisovin.shopkeepers.container.protection.ProtectedContainers;
+import com.nisovin.shopkeepers.debug.DebugOptions;
+import com.nisovin.shopkeepers.shopkeeper.player.AbstractPlayerShopkeeper;
+import com.nisovin.shopkeepers.util.java.Validate;
+import com.nisovin.shopkeepers.util.logging.Log;
+
+/**
+ * Keeps track of the {@link PlayerShopkeeper#getOfferStocks() stock} of player shops.
+ * <p>
+ * Instead of repeatedly scanning the shop containers whenever the stock of a shop is required, we
+ * listen for changes to the {@link ProtectedContainers protected shop containers} and then mark the
+ * affected shops as 'stock dirty'. The stock of all dirty shops is updated once during the next
+ * tick. This coalesces the potentially many inventory events that are triggered by a single
+ * inventory interaction into a single container scan.
+ */
+public class ContainerStockTracker {
+
+	private final SKShopkeepersPlugin plugin;
+	private final ProtectedContainers protectedContainers;
+	private final ContainerStockListener listener = new ContainerStockListener(Unsafe.initialized(this));
+
+	private final Set<@NonNull AbstractPlayerShopkeeper> dirtyShopkeepers = new LinkedHashSet<>();
+	private @Nullable BukkitTask updateTask = null;
+	// Gets reused:
+	private final List<@NonNull AbstractPlayerShopkeeper> pendingUpdates = new ArrayList<>();
+
+	public ContainerStockTracker(
+			SKShopkeepersPlugin plugin,
+			ProtectedContainers protectedContainers
+	) {
+		Validate.notNull(plugin, "plugin is null");
+		Validate.notNull(protectedContainers, "protectedContainers is null");
+		this.plugin = plugin;
+		this.protectedContainers = protectedContainers;
+	}
+
+	public void onEnable() {
+		Bukkit.getPluginManager().registerEvents(listener, plugin);
+	}
+
+	public void onDisable() {
+		HandlerList.unregisterAll(listener);
+		if (updateTask != null) {
+			updateTask.cancel();
+			updateTask = null;
+		}
+		dirtyShopkeepers.clear();
+	}
+
+	/**
+	 * Marks the stock of the given shopkeeper as outdated.
+	 * <p>
+	 * The stock is updated during the next tick.
+	 *
+	 * @param shopkeeper
+	 *            the shopkeeper, not <code>null</code>
+	 */
+	public void markStockDirty(AbstractPlayerShopkeeper shopkeeper) {
+		Validate.notNull(shopkeeper, "shopkeeper is null");
+		if (!dirtyShopkeepers.add(shopkeeper)) return; // Already dirty
+		if (updateTask == null && plugin.isEnabled()) {
+			updateTask = Bukkit.getScheduler().runTask(plugin, this::updateDirtyStocks);
+		}
+	}
+
+	/**
+	 * Informs all shopkeepers that use the given container block, either directly or via a
+	 * connected chest, that the contents of their container might have changed.
+	 * <p>
+	 * This also marks the stock of these shopkeepers as outdated.
+	 *
+	 * @param containerBlock
+	 *            the container block, not <code>null</code>
+	 * @see AbstractPlayerShopkeeper#onContainerContentsChanged()
+	 */
+	public void markContainerDirty(Block containerBlock) {
+		List<? extends @NonNull PlayerShopkeeper> shopkeepers = protectedContainers.getShopkeepersUsingContainer(
+				containerBlock
+		);
+		for (PlayerShopkeeper shopkeeper : shopkeepers) {
+			((AbstractPlayerShopkeeper) shopkeeper).onContainerContentsChanged();
+		}
+	}
+
+	private void updateDirtyStocks() {
+		updateTask = null;
+		// Updating the stocks calls events, whose handlers might mark further shopkeepers as dirty:
+		pendingUpdates.addAll(dirtyShopkeepers);
+		dirtyShopkeepers.clear();
+		Log.debug(DebugOptions.regularTickActivities,
+				() -> "Updating the stock of " + pendingUpdates.size() + " player shops.");
+		for (AbstractPlayerShopkeeper shopkeeper : pendingUpdates) {
+			if (!shopkeeper.isValid()) continue;
+			shopkeeper.updateStock();
+		}
+		pendingUpdates.clear();
+	}
+}
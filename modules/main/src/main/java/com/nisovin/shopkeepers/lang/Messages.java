@@ -15,9 +15,11 @@ import com.nisovin.shopkeepers.config.lib.ConfigData;
 import com.nisovin.shopkeepers.config.lib.ConfigLoadException;
 import com.nisovin.shopkeepers.config.lib.annotation.WithDefaultValueType;
 import com.nisovin.shopkeepers.config.lib.annotation.WithValueTypeProvider;
+import com.nisovin.shopkeepers.config.lib.setting.Setting;
 import com.nisovin.shopkeepers.config.lib.value.ValueLoadException;
 import com.nisovin.shopkeepers.config.lib.value.types.ColoredStringListValue;
 import com.nisovin.shopkeepers.config.lib.value.types.ColoredStringValue;
+import com.nisovin.shopkeepers.text.MessageTemplate;
 import com.nisovin.shopkeepers.text.Text;
 import com.nisovin.shopkeepers.util.data.persistence.DataStore;
 import com.nisovin.shopkeepers.util.data.persistence.bukkit.BukkitConfigDataStore;
@@ -93,6 +95,16 @@ public class Messages extends Config {
 			"for this shopkeeper on/off.",
 			"Currently: {state}"
 	));
+	public static String buttonTradeStatistics = c("&aTrade Statistics");
+	public static List<@NonNull String> buttonTradeStatisticsLore = c(Arrays.asList(
+			"Trades in the last hour: {hourTrades}",
+			"Trades in the last 24 hours: {dayTrades}",
+			"Trades in the last 7 days: {weekTrades}",
+			"Trades in total: {totalTrades}",
+			"Items sold / bought in total: {totalItemsSold} / {totalItemsBought}",
+			"Currency volume in total: {totalCurrencyVolume}",
+			"Click to refresh."
+	));
 	public static String buttonDelete = c("&4Delete");
 	public static List<@NonNull String> buttonDeleteLore = c(Arrays.asList(
 			"Closes and removes",
@@ -732,6 +744,14 @@ public class Messages extends Config {
 	public static Text snapshotRestoreFailed = Text.parse("&cFailed to restore snapshot: &e({id}) &2{name} &8(&7{timestamp}&8)");
 	public static Text snapshotRestored = Text.parse("&aSnapshot restored: &e({id}) &2{name} &8(&7{timestamp}&8)");
 
+	public static Text historyShopHeader = Text.parse("&9Trade history of shop &e{shop_id}&9: &e(Page {page})");
+	public static Text historyPlayerHeader = Text.parse("&9Trade history of player &e{player}&9: &e(Page {page})");
+	public static Text historyOwnerHeader = Text.parse("&9Trade history of the shops of player &e{player}&9: &e(Page {page})");
+	public static Text historyEntry = Text.parse("  &8{date} {time} &e{player}&7 at shop &e{shop}&7: &e{resultItemAmount}x {resultItem}&7 for &e{item1Amount}x {item1}{item2}&8 ({tradeCount}x)");
+	public static Text historyEntryItem2 = Text.parse("&7 and &e{item2Amount}x {item2}");
+	public static Text historyNoTradesFound = Text.parse("&7No logged trades were found.");
+	public static Text historyReadFailed = Text.parse("&cFailed to read the trade history! Check the server log for details.");
+
 	public static Text noPermission = Text.parse("&cYou don't have the permission to do that.");
 
 	public static Text commandUnknown = Text.parse("&cUnknown command '&e{command}&c'!");
@@ -759,6 +779,7 @@ public class Messages extends Config {
 	public static Text commandDescriptionHelp = Text.parse("Shows this help page.");
 	public static Text commandDescriptionReload = Text.parse("Reloads this plugin.");
 	public static Text commandDescriptionDebug = Text.parse("Toggles debug mode on and off.");
+	public static Text commandDescriptionMetrics = Text.parse("Toggles the collection of internal metrics on and off.");
 	public static Text commandDescriptionNotify = Text.parse("Turns trade notifications for you on or off.");
 	public static Text commandDescriptionList = Text.parse("Lists all shops of a specific player, or all admin shops.");
 	public static Text commandDescriptionRemove = Text.parse("Removes a specific shop.");
@@ -777,6 +798,9 @@ public class Messages extends Config {
 	public static Text commandDescriptionSnapshotCreate = Text.parse("Creates a new shop snapshot.");
 	public static Text commandDescriptionSnapshotRemove = Text.parse("Removes a specific or all snapshots of a shop.");
 	public static Text commandDescriptionSnapshotRestore = Text.parse("Restores a specific shop snapshot.");
+	public static Text commandDescriptionHistoryShop = Text.parse("Shows the logged trades of a shop.");
+	public static Text commandDescriptionHistoryPlayer = Text.parse("Shows the logged trades of a player.");
+	public static Text commandDescriptionHistoryOwner = Text.parse("Shows the logged trades with the shops of a player.");
 	public static Text commandDescriptionEditVillager = Text.parse("Opens the editor for the target villager.");
 	public static Text commandDescriptionReplaceAllWithVanillaVillagers = Text.parse("Replaces all shopkeepers with vanilla villagers without AI.");
 
@@ -857,6 +881,19 @@ public class Messages extends Config {
 				Log.warning("Could not load language file '" + languageFile.getName() + "'!", e);
 			}
 		}
+
+		compileMessageTemplates();
+	}
+
+	// Compiles the message Texts into immutable templates, so that they can be formatted without
+	// modifying the shared message Texts.
+	private static void compileMessageTemplates() {
+		for (Setting<?> setting : INSTANCE.getSettings()) {
+			Object value = setting.getValue();
+			if (value instanceof Text) {
+				MessageTemplate.compile((Text) value);
+			}
+		}
 	}
 
 	/////
@@ -0,0 +1,19 @@
+package com.nisovin.shopkeepers.metrics;
+
+import org.bstats.bukkit.Metrics;
+
+import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperRegistry;
+import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperStatistics;
+
+/**
+ * Checks whether this server is using Citizens shopkeepers.
+ */
+public class CitizensShopkeepersChart extends Metrics.SimplePie {
+
+	public CitizensShopkeepersChart(ShopkeeperRegistry shopkeeperRegistry) {
+		super("uses_citizens_shopkeepers", () -> {
+			ShopkeeperStatistics statistics = shopkeeperRegistry.getShopkeeperStatistics();
+			return (statistics.getCitizensShopkeeperCount() > 0) ? "Yes" : "No";
+		});
+	}
+}
@@ -0,0 +1,78 @@
+package com.nisovin.shopkeepers.metrics;
+
+import com.nisovin.shopkeepers.util.metrics.Counter;
+import com.nisovin.shopkeepers.util.metrics.Histogram;
+import com.nisovin.shopkeepers.util.metrics.MetricsRegistry;
+
+/**
+ * The internal performance metrics of the plugin.
+ * <p>
+ * Unlike the {@link PluginMetrics}, these metrics are not reported to any external service, but
+ * can be exported to a local file or a local Prometheus endpoint by the {@link MetricsExporter}.
+ * The metrics are disabled by default and then do not record any values.
+ */
+public final class InternalMetrics {
+
+	public static final MetricsRegistry REGISTRY = new MetricsRegistry("shopkeepers_");
+
+	// Trading:
+	public static final Counter TRADES = REGISTRY.counter(
+			"trades_total",
+			"Completed trades."
+	);
+
+	// UIs:
+	public static final Counter UI_OPENS = REGISTRY.counter(
+			"ui_opens_total",
+			"Opened UIs."
+	);
+	public static final Histogram UI_OPEN_DURATION = REGISTRY.histogram(
+			"ui_open_duration_seconds",
+			"Duration of opening UIs."
+	);
+	public static final Histogram UI_INVENTORY_EVENT_DURATION = REGISTRY.histogram(
+			"ui_inventory_event_duration_seconds",
+			"Duration of the handling of inventory events (such as trading clicks) by UIs."
+	);
+
+	// Shopkeeper interactions:
+	public static final Counter SHOPKEEPER_INTERACTIONS = REGISTRY.counter(
+			"shopkeeper_interactions_total",
+			"Player interactions with shopkeepers."
+	);
+
+	// Shopkeeper storage:
+	public static final Counter SAVES = REGISTRY.counter(
+			"saves_total",
+			"Saves of the shopkeeper data."
+	);
+	public static final Counter FAILED_SAVES = REGISTRY.counter(
+			"saves_failed_total",
+			"Failed saves of the shopkeeper data."
+	);
+	public static final Histogram SAVE_PREPARATION_DURATION = REGISTRY.histogram(
+			"save_preparation_duration_seconds",
+			"Duration of preparing the shopkeeper data for a save on the main thread."
+	);
+	public static final Histogram SAVE_EXECUTION_DURATION = REGISTRY.histogram(
+			"save_execution_duration_seconds",
+			"Duration of writing the shopkeeper data to the save file."
+	);
+
+	// Trade logging:
+	public static final Counter LOGGED_TRADES = REGISTRY.counter(
+			"trade_log_records_total",
+			"Trades that were submitted to the trade loggers."
+	);
+	public static final Counter FAILED_TRADE_LOG_WRITES = REGISTRY.counter(
+			"trade_log_writes_failed_total",
+			"Failed writes of logged trades."
+	);
+	public static final Histogram TRADE_LOG_WRITE_DURATION = REGISTRY.histogram(
+			"trade_log_write_duration_seconds",
+			"Duration of writing logged trades to disk."
+	);
+
+	private InternalMetrics() {
+	}
+}
@@ -0,0 +1,179 @@
+package com.nisovin.shopkeepers.metrics;
+
+import java.io.IOException;
+import java.time.Instant;
+
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.SKShopkeepersPlugin;
+import com.nisovin.shopkeepers.config.Settings;
+import com.nisovin.shopkeepers.shopkeeper.registry.SKShopkeeperRegistry;
+import com.nisovin.shopkeepers.shopobjects.living.LivingEntityAI;
+import com.nisovin.shopkeepers.util.bukkit.Ticks;
+import com.nisovin.shopkeepers.util.java.Validate;
+import com.nisovin.shopkeepers.util.logging.Log;
+import com.nisovin.shopkeepers.util.metrics.MetricsRegistry;
+import com.nisovin.shopkeepers.util.timer.Timings;
+
+/**
+ * Periodically exports the {@link InternalMetrics} to a rolling local file and to an optional local
+ * Prometheus endpoint.
+ * <p>
+ * The metrics are exported on the main thread, so that the gauges can safely sample the state of
+ * the plugin. The file is written asynchronously, and the endpoint serves the most recent export.
+ */
+public class MetricsExporter {
+
+	private static final String METRICS_FOLDER = "metrics";
+	private static final String METRICS_FILE = "metrics.txt";
+
+	private final SKShopkeepersPlugin plugin;
+	private final MetricsRegistry registry = InternalMetrics.REGISTRY;
+
+	private @Nullable RollingMetricsFile metricsFile = null;
+	private @Nullable MetricsHttpEndpoint httpEndpoint = null;
+	private @Nullable BukkitTask exportTask = null;
+	// The most recent export, served by the HTTP endpoint:
+	private volatile String latestExport = "";
+
+	public MetricsExporter(SKShopkeepersPlugin plugin) {
+		Validate.notNull(plugin, "plugin is null");
+		this.plugin = plugin;
+	}
+
+	public void onEnable() {
+		this.registerGauges();
+		this.setEnabled(Settings.internalMetrics);
+	}
+
+	public void onDisable() {
+		this.setEnabled(false);
+	}
+
+	private void registerGauges() {
+		// Re-registering the gauges replaces the gauges of any previous plugin enable.
+		SKShopkeeperRegistry shopkeeperRegistry = plugin.getShopkeeperRegistry();
+		registry.gauge("shopkeepers", "Loaded shopkeepers.",
+				() -> shopkeeperRegistry.getAllShopkeepers().size());
+		registry.gauge("active_shopkeepers", "Shopkeepers in active chunks.",
+				() -> shopkeeperRegistry.getActiveShopkeepers().size());
+		registry.gauge("ui_sessions", "Open UI sessions.",
+				() -> plugin.getUIRegistry().getUISessions().size());
+		registry.gauge("unsaved_dirty_shopkeepers", "Shopkeepers with unsaved changes.",
+				() -> plugin.getShopkeeperStorage().getUnsavedDirtyShopkeepersCount());
+
+		this.registerTimingsGauges(
+				"chunk_activation",
+				"chunk activations",
+				shopkeeperRegistry.getChunkActivator().getChunkActivationTimings()
+		);
+		LivingEntityAI livingEntityAI = plugin.getLivingShops().getLivingEntityAI();
+		this.registerTimingsGauges("living_entity_ai", "shop entity AI ticks",
+				livingEntityAI.getTotalTimings());
+	}
+
+	private void registerTimingsGauges(String name, String description, Timings timings) {
+		registry.gauge(name + "_average_seconds", "Average duration of " + description + ".",
+				() -> timings.getAverageTimeMillis() / 1000.0D);
+		registry.gauge(name + "_max_seconds", "Max duration of " + description + ".",
+				() -> timings.getMaxTimeMillis() / 1000.0D);
+	}
+
+	/**
+	 * Checks if the internal metrics are enabled.
+	 * 
+	 * @return <code>true</code> if enabled
+	 */
+	public boolean isEnabled() {
+		return registry.isEnabled();
+	}
+
+	/**
+	 * Enables or disables the recording and export of the internal metrics.
+	 * <p>
+	 * Enabling the metrics resets all previously recorded values.
+	 * 
+	 * @param enabled
+	 *            <code>true</code> to enable the metrics
+	 */
+	public void setEnabled(boolean enabled) {
+		if (enabled == this.isEnabled()) return;
+		if (enabled) {
+			registry.setEnabled(true);
+			this.startExport();
+		} else {
+			this.stopExport();
+			registry.setEnabled(false);
+		}
+	}
+
+	private void startExport() {
+		if (Settings.internalMetricsFile) {
+			metricsFile = new RollingMetricsFile(
+					plugin.getDataFolder().toPath().resolve(METRICS_FOLDER).resolve(METRICS_FILE)
+			);
+		}
+
+		int httpPort = Settings.internalMetricsHttpPort;
+		if (httpPort > 0) {
+			MetricsHttpEndpoint httpEndpoint = new MetricsHttpEndpoint(httpPort, () -> latestExport);
+			try {
+				httpEndpoint.start();
+				this.httpEndpoint = httpEndpoint;
+				Log.info("Serving internal metrics at http://localhost:" + httpPort + "/metrics");
+			} catch (IOException e) {
+				Log.warning("Failed to start the internal metrics endpoint on port " + httpPort, e);
+			}
+		}
+
+		long periodTicks = Ticks.fromSeconds(Settings.internalMetricsExportInterval);
+		exportTask = Bukkit.getScheduler().runTaskTimer(
+				plugin,
+				() -> this.export(true),
+				periodTicks,
+				periodTicks
+		);
+	}
+
+	private void stopExport() {
+		BukkitTask exportTask = this.exportTask;
+		if (exportTask != null) {
+			exportTask.cancel();
+			this.exportTask = null;
+			// Export the final values:
+			this.export(false);
+		}
+
+		MetricsHttpEndpoint httpEndpoint = this.httpEndpoint;
+		if (httpEndpoint != null) {
+			httpEndpoint.stop();
+			this.httpEndpoint = null;
+		}
+		metricsFile = null;
+		latestExport = "";
+	}
+
+	private void export(boolean async) {
+		String export = registry.toPrometheusText();
+		latestExport = export;
+
+		RollingMetricsFile metricsFile = this.metricsFile;
+		if (metricsFile == null) return;
+
+		Instant timestamp = Instant.now();
+		Runnable writeTask = () -> {
+			try {
+				metricsFile.append(timestamp, export);
+			} catch (IOException e) {
+				Log.warning("Failed to write the internal metrics to file!", e);
+			}
+		};
+		if (async) {
+			Bukkit.getScheduler().runTaskAsynchronously(plugin, writeTask);
+		} else {
+			writeTask.run();
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package com.nisovin.shopkeepers.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.util.java.Validate;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serves the most recently exported metrics in the Prometheus text format.
+ * <p>
+ * The endpoint is only bound to the loopback address, so that it is only reachable from the local
+ * machine.
+ */
+class MetricsHttpEndpoint {
+
+	private static final String PATH = "/metrics";
+	private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+	private final int port;
+	private final Supplier<@NonNull String> exportedMetrics;
+	private @Nullable HttpServer server = null;
+
+	MetricsHttpEndpoint(int port, Supplier<@NonNull String> exportedMetrics) {
+		Validate.isTrue(port > 0 && port <= 65535, () -> "Invalid port: " + port);
+		Validate.notNull(exportedMetrics, "exportedMetrics is null");
+		this.port = port;
+		this.exportedMetrics = exportedMetrics;
+	}
+
+	/**
+	 * Starts the endpoint.
+	 * 
+	 * @throws IOException
+	 *             if the server cannot be started, for example because the port is already in use
+	 */
+	void start() throws IOException {
+		Validate.State.isTrue(server == null, "Already started!");
+		HttpServer server = HttpServer.create(
+				new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+				0
+		);
+		server.createContext(PATH, this::handle);
+		// Requests are handled by the server's dispatcher thread.
+		server.setExecutor(null);
+		server.start();
+		this.server = server;
+	}
+
+	/**
+	 * Stops the endpoint, if it is running.
+	 */
+	void stop() {
+		HttpServer server = this.server;
+		if (server == null) return;
+		this.server = null;
+		server.stop(0);
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try {
+			if (!"GET".equals(exchange.getRequestMethod())) {
+				exchange.sendResponseHeaders(405, -1);
+				return;
+			}
+
+			byte[] response = exportedMetrics.get().getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+			exchange.sendResponseHeaders(200, response.length);
+			try (OutputStream body = exchange.getResponseBody()) {
+				body.write(response);
+			}
+		} finally {
+			exchange.close();
+		}
+	}
+}
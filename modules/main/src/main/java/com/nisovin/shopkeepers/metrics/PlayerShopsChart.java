@@ -3,6 +3,7 @@ package com.nisovin.shopkeepers.metrics;
 import org.bstats.bukkit.Metrics;
 
 import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperRegistry;
+import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperStatistics;
 
 /**
  * Reports whether the server uses player shopkeepers.
@@ -11,7 +12,8 @@ public class PlayerShopsChart extends Metrics.SimplePie {
 
 	public PlayerShopsChart(ShopkeeperRegistry shopkeeperRegistry) {
 		super("uses_player_shops", () -> {
-			return (shopkeeperRegistry.getAllPlayerShopkeepers().size() > 0) ? "Yes" : "No";
+			ShopkeeperStatistics statistics = shopkeeperRegistry.getShopkeeperStatistics();
+			return (statistics.getPlayerShopkeeperCount() > 0) ? "Yes" : "No";
 		});
 	}
 }
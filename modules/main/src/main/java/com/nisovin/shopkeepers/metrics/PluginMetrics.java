@@ -32,6 +32,7 @@ public class PluginMetrics {
 		ShopkeeperRegistry shopkeeperRegistry = plugin.getShopkeeperRegistry();
 		Metrics metrics = new Metrics(plugin);
 		metrics.addCustomChart(new CitizensChart());
+		metrics.addCustomChart(new CitizensShopkeepersChart(shopkeeperRegistry));
 		metrics.addCustomChart(new WorldGuardChart());
 		metrics.addCustomChart(new TownyChart());
 		metrics.addCustomChart(new VaultEconomyChart());
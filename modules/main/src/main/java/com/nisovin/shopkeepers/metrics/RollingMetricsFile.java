@@ -0,0 +1,85 @@
+package com.nisovin.shopkeepers.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+import com.nisovin.shopkeepers.util.java.FileUtils;
+import com.nisovin.shopkeepers.util.java.Validate;
+
+/**
+ * Appends exported metrics to a file, and rolls the file over once it exceeds a certain size.
+ * <p>
+ * The rolled over files are suffixed with increasing numbers, with <code>1</code> being the most
+ * recent one. Only a limited number of rolled over files is kept.
+ * <p>
+ * This is thread-safe, so that the file can be written asynchronously.
+ */
+class RollingMetricsFile {
+
+	private static final long MAX_FILE_SIZE_BYTES = 1024L * 1024L; // 1 MiB
+	private static final int MAX_ROLLED_FILES = 3;
+
+	private final Path file;
+
+	RollingMetricsFile(Path file) {
+		Validate.notNull(file, "file is null");
+		this.file = file;
+	}
+
+	/**
+	 * Appends the given exported metrics, preceded by a timestamp comment.
+	 * 
+	 * @param timestamp
+	 *            the time of the export, not <code>null</code>
+	 * @param exportedMetrics
+	 *            the exported metrics, not <code>null</code>
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	synchronized void append(Instant timestamp, String exportedMetrics) throws IOException {
+		FileUtils.createParentDirectories(file);
+		if (Files.exists(file) && Files.size(file) >= MAX_FILE_SIZE_BYTES) {
+			this.rollOver();
+		}
+
+		try (Writer writer = Files.newBufferedWriter(
+				file,
+				StandardCharsets.UTF_8,
+				StandardOpenOption.CREATE,
+				StandardOpenOption.APPEND
+		)) {
+			writer.write("# Timestamp: " + timestamp + "\n");
+			writer.write(exportedMetrics);
+			writer.write("\n");
+		}
+	}
+
+	private void rollOver() throws IOException {
+		FileUtils.deleteIfExists(this.getRolledFile(MAX_ROLLED_FILES));
+		for (int index = MAX_ROLLED_FILES - 1; index >= 1; index--) {
+			Path rolledFile = this.getRolledFile(index);
+			if (Files.exists(rolledFile)) {
+				Files.move(rolledFile, this.getRolledFile(index + 1));
+			}
+		}
+		Files.move(file, this.getRolledFile(1));
+	}
+
+	private Path getRolledFile(int index) {
+		String fileName = file.getFileName().toString();
+		int extensionIndex = fileName.lastIndexOf('.');
+		String rolledFileName;
+		if (extensionIndex <= 0) {
+			rolledFileName = fileName + "." + index;
+		} else {
+			rolledFileName = fileName.substring(0, extensionIndex) + "." + index
+					+ fileName.substring(extensionIndex);
+		}
+		return file.resolveSibling(rolledFileName);
+	}
+}
@@ -3,6 +3,7 @@ package com.nisovin.shopkeepers.metrics;
 import org.bstats.bukkit.Metrics;
 
 import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperRegistry;
+import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperStatistics;
 
 /**
  * Reports the (rough) number of shopkeepers.
@@ -11,7 +12,8 @@ public class ShopkeepersCountChart extends Metrics.SimplePie {
 
 	public ShopkeepersCountChart(ShopkeeperRegistry shopkeeperRegistry) {
 		super("shopkeepers_count", () -> {
-			int numberOfShopkeepers = shopkeeperRegistry.getAllShopkeepers().size();
+			ShopkeeperStatistics statistics = shopkeeperRegistry.getShopkeeperStatistics();
+			int numberOfShopkeepers = statistics.getShopkeeperCount();
 			if (numberOfShopkeepers >= 100) {
 				int hundreds = (numberOfShopkeepers / 100);
 				return "[" + hundreds + "00," + (hundreds + 1) + "00)";
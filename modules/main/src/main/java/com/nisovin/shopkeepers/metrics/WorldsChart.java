@@ -3,6 +3,7 @@ package com.nisovin.shopkeepers.metrics;
 import org.bstats.bukkit.Metrics;
 
 import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperRegistry;
+import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperStatistics;
 
 /**
  * Reports the number of worlds containing shopkeepers.
@@ -11,7 +12,8 @@ public class WorldsChart extends Metrics.SimplePie {
 
 	public WorldsChart(ShopkeeperRegistry shopkeeperRegistry) {
 		super("worlds_with_shops", () -> {
-			return String.valueOf(shopkeeperRegistry.getWorldsWithShopkeepers().size());
+			ShopkeeperStatistics statistics = shopkeeperRegistry.getShopkeeperStatistics();
+			return String.valueOf(statistics.getShopkeeperCountsByWorld().size());
 		});
 	}
 }
@@ -32,6 +32,7 @@ import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperCreateException;
 import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperLoadException;
 import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperRegistry;
 import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperSnapshot;
+import com.nisovin.shopkeepers.api.shopkeeper.TradeStatistics;
 import com.nisovin.shopkeepers.api.shopkeeper.TradingRecipe;
 import com.nisovin.shopkeepers.api.shopobjects.ShopObjectType;
 import com.nisovin.shopkeepers.api.shopobjects.virtual.VirtualShopObject;
@@ -48,6 +49,7 @@ import com.nisovin.shopkeepers.shopkeeper.migration.Migration;
 import com.nisovin.shopkeepers.shopkeeper.migration.MigrationPhase;
 import com.nisovin.shopkeepers.shopkeeper.migration.ShopkeeperDataMigrator;
 import com.nisovin.shopkeepers.shopkeeper.ticking.ShopkeeperTicker;
+import com.nisovin.shopkeepers.shopkeeper.ticking.ShopkeeperTimer;
 import com.nisovin.shopkeepers.shopobjects.AbstractShopObject;
 import com.nisovin.shopkeepers.shopobjects.AbstractShopObjectType;
 import com.nisovin.shopkeepers.shopobjects.ShopObjectData;
@@ -161,6 +163,8 @@ public abstract class AbstractShopkeeper implements Shopkeeper {
 	// of. A value of 'false' only indicates that the storage is aware of the latest data of the
 	// shopkeeper, not that it has actually persisted the data to disk yet.
 	private boolean dirty = false;
+	// Incremented whenever the shopkeeper is marked dirty:
+	private int dataVersion = 0;
 	// Is currently registered:
 	private boolean valid = false;
 	private boolean active = false;
@@ -171,6 +175,12 @@ public abstract class AbstractShopkeeper implements Shopkeeper {
 
 	// Internally used for load balancing purposes:
 	private final int tickingGroup = ShopkeeperTicker.nextTickingGroup();
+	// Only scheduled if the shopkeeper requires regular ticking:
+	private final ShopkeeperTimer regularTickTimer = new ShopkeeperTimer(
+			Unsafe.initialized(this),
+			1,
+			() -> Unsafe.initialized(this).onTick()
+	);
 
 	// CONSTRUCTION AND SETUP
 
@@ -574,11 +584,15 @@ public abstract class AbstractShopkeeper implements Shopkeeper {
 	 */
 	public final void markDirty() {
 		dirty = true;
+		dataVersion++;
 		// Inform the storage that the shopkeeper is dirty:
 		if (this.isValid()) {
 			// If the shopkeeper is marked as dirty during creation or loading (while it is not yet
 			// valid), the storage is informed once the shopkeeper becomes valid.
-			SKShopkeepersPlugin.getInstance().getShopkeeperStorage().markDirty(this);
+			SKShopkeepersPlugin plugin = SKShopkeepersPlugin.getInstance();
+			plugin.getShopkeeperStorage().markDirty(this);
+			// Update the registry snapshot:
+			plugin.getShopkeeperRegistry().onShopkeeperChanged(this);
 		}
 	}
 
@@ -595,6 +609,19 @@ public abstract class AbstractShopkeeper implements Shopkeeper {
 		return dirty;
 	}
 
+	/**
+	 * Gets the current version of this shopkeeper's data.
+	 * <p>
+	 * The version changes whenever this shopkeeper is {@link #markDirty() marked dirty}. This can
+	 * be used to detect whether data that is derived from the shopkeeper's data, such as cached
+	 * trading recipes, is outdated.
+	 * 
+	 * @return the data version
+	 */
+	public final int getDataVersion() {
+		return dataVersion;
+	}
+
 	// Called by shopkeeper storage when it has retrieved the shopkeeper's latest data for the next
 	// save. The data might not yet have been persisted at that point.
 	// This may not be called if the shopkeeper was deleted.
@@ -763,6 +790,13 @@ public abstract class AbstractShopkeeper implements Shopkeeper {
 			.dataKeyAccessor("id", NumberSerializers.INTEGER)
 			.validator(IntegerValidators.POSITIVE)
 			.build();
+	// The shopkeeper data version with which the shopkeeper data was last saved. This is written by
+	// the shopkeeper storage, and used to skip the data migrations for up-to-date shopkeeper data.
+	// Shopkeeper data without a data version is treated as outdated.
+	public static final Property<@NonNull Integer> DATA_VERSION = new BasicProperty<@NonNull Integer>()
+			.dataKeyAccessor("data-version", NumberSerializers.INTEGER)
+			.validator(IntegerValidators.NON_NEGATIVE)
+			.build();
 	public static final Property<@NonNull UUID> UNIQUE_ID = new BasicProperty<@NonNull UUID>()
 			.dataKeyAccessor("uniqueId", UUIDSerializers.LENIENT)
 			.build();
@@ -1216,6 +1250,8 @@ public abstract class AbstractShopkeeper implements Shopkeeper {
 			.build();
 
 	static {
+		// The snapshot data needs to be migrated along with the shopkeeper data of any data version,
+		// including the migrations that are always applied:
 		ShopkeeperDataMigrator.registerMigration(new Migration(
 				"snapshots",
 				MigrationPhase.DEFAULT
@@ -1230,13 +1266,19 @@ public abstract class AbstractShopkeeper implements Shopkeeper {
 
 				int shopkeeperId = shopkeeperData.get(ID);
 				String shopkeeperPrefix = getLogPrefix(shopkeeperId);
+				// The snapshot data is saved with the data version of the shopkeeper data:
+				int dataVersion = ShopkeeperDataMigrator.getDataVersion(shopkeeperData);
 
 				boolean migrated = false;
 				int snapshotId = 1;
 				for (SKShopkeeperSnapshot snapshot : snapshots) {
 					String snapshotLogPrefix = shopkeeperPrefix + "Snapshot " + snapshotId
 							+ " ('" + snapshot.getName() + "'): ";
-					migrated |= snapshot.getShopkeeperData().migrate(snapshotLogPrefix);
+					migrated |= ShopkeeperDataMigrator.migrateNested(
+							snapshot.getShopkeeperData(),
+							dataVersion,
+							snapshotLogPrefix
+					);
 					snapshotId++;
 				}
 				return migrated;
@@ -1382,6 +1424,11 @@ public abstract class AbstractShopkeeper implements Shopkeeper {
 			@Nullable Player player
 	);
 
+	@Override
+	public final TradeStatistics getTradeStatistics() {
+		return SKShopkeepersPlugin.getInstance().getTradeStatistics().getStatistics(this);
+	}
+
 	// USER INTERFACES
 
 	@Override
@@ -1487,8 +1534,13 @@ public abstract class AbstractShopkeeper implements Shopkeeper {
 
 	/**
 	 * This is called when the shopkeeper starts ticking.
+	 * <p>
+	 * This is the place to schedule any {@link ShopkeeperTimer timers} for periodic work.
 	 */
 	protected void onStartTicking() {
+		if (this.isRegularTickingRequired()) {
+			regularTickTimer.schedule(1);
+		}
 		shopObject.onStartTicking();
 	}
 
@@ -1506,8 +1558,11 @@ public abstract class AbstractShopkeeper implements Shopkeeper {
 
 	/**
 	 * This is called when the shopkeeper stops ticking.
+	 * <p>
+	 * This is the place to cancel any previously scheduled {@link ShopkeeperTimer timers}.
 	 */
 	protected void onStopTicking() {
+		regularTickTimer.cancel();
 		shopObject.onStopTicking();
 	}
 
@@ -1524,12 +1579,16 @@ public abstract class AbstractShopkeeper implements Shopkeeper {
 	}
 
 	/**
-	 * Ticks this shopkeeper.
+	 * Ticks this shopkeeper by running the task of the given due {@link ShopkeeperTimer}.
 	 * <p>
 	 * This method is meant to only be used internally by the Shopkeepers plugin itself!
+	 * 
+	 * @param timer
+	 *            the due timer of this shopkeeper
 	 */
-	public final void tick() {
+	public final void tick(ShopkeeperTimer timer) {
 		assert this.isTicking();
+		assert timer.getShopkeeper() == this;
 
 		// An exception during onTickStart will abort the tick.
 		this.onTickStart();
@@ -1537,15 +1596,32 @@ public abstract class AbstractShopkeeper implements Shopkeeper {
 		if (!this.isTicking()) return;
 
 		try {
-			this.onTick();
+			timer.run();
 		} finally {
-			// onTickEnd is always called, even if onTick was aborted by an exception.
+			// onTickEnd is always called, even if the timer task was aborted by an exception.
 			this.onTickEnd();
 		}
 	}
 
 	/**
-	 * This is called at the beginning of a shopkeeper tick.
+	 * Checks if this shopkeeper requires {@link #onTick()} to be called regularly, i.e. roughly
+	 * once per second.
+	 * <p>
+	 * This is checked whenever the shopkeeper starts ticking. Shopkeepers and components that only
+	 * need to perform work in larger intervals should schedule their own {@link ShopkeeperTimer}
+	 * instead, so that the shopkeeper does not need to be visited every second.
+	 * <p>
+	 * By default, this delegates to {@link AbstractShopObject#isRegularTickingRequired()}.
+	 * 
+	 * @return <code>true</code> if the shopkeeper requires regular ticking
+	 */
+	protected boolean isRegularTickingRequired() {
+		return shopObject.isRegularTickingRequired();
+	}
+
+	/**
+	 * This is called at the beginning of a shopkeeper tick, i.e. before the task of a due
+	 * {@link ShopkeeperTimer} is run.
 	 */
 	protected void onTickStart() {
 		shopObject.onTickStart();
@@ -1556,15 +1632,13 @@ public abstract class AbstractShopkeeper implements Shopkeeper {
 	// TODO Maybe also (optionally) tick virtual shopkeepers.
 	// TODO Indicate tick activity, similar to shop objects.
 	/**
-	 * This is called periodically (roughly once per second) for shopkeepers in active chunks.
+	 * This is called periodically (roughly once per second) for shopkeepers in active chunks that
+	 * {@link #isRegularTickingRequired() require regular ticking}.
 	 * <p>
 	 * This is not called for {@link Shopkeeper#isVirtual() virtual} shopkeepers currently.
 	 * <p>
-	 * This can for example be used for checks that need to happen periodically, such as checking if
-	 * the container of a player shop still exists.
-	 * <p>
-	 * If the checks to perform are potentially costly performance-wise, or not required to happen
-	 * every second, the shopkeeper may decide to run them only every X invocations.
+	 * Checks that are not required to happen every second, such as checking if the container of a
+	 * player shop still exists, should use their own {@link ShopkeeperTimer} instead.
 	 * <p>
 	 * The ticking of shopkeepers in active chunks may be spread across multiple ticks and might
 	 * therefore not happen for all shopkeepers within the same tick.
@@ -1585,7 +1659,8 @@ public abstract class AbstractShopkeeper implements Shopkeeper {
 	}
 
 	/**
-	 * This is called at the end of a shopkeeper tick.
+	 * This is called at the end of a shopkeeper tick, i.e. after the task of a due
+	 * {@link ShopkeeperTimer} has been run.
 	 */
 	protected void onTickEnd() {
 		shopObject.onTickEnd();
@@ -3,9 +3,7 @@ package com.nisovin.shopkeepers.shopkeeper.activation;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Queue;
 import java.util.function.Predicate;
 
@@ -28,8 +26,10 @@ import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
 import com.nisovin.shopkeepers.shopkeeper.registry.SKShopkeeperRegistry;
 import com.nisovin.shopkeepers.shopkeeper.spawning.ShopkeeperSpawner;
 import com.nisovin.shopkeepers.shopkeeper.ticking.ShopkeeperTicker;
-import com.nisovin.shopkeepers.util.bukkit.MutableChunkCoords;
+import com.nisovin.shopkeepers.util.bukkit.ChunkKeys;
 import com.nisovin.shopkeepers.util.bukkit.TextUtils;
+import com.nisovin.shopkeepers.util.bukkit.WorldChunkMap;
+import com.nisovin.shopkeepers.util.java.LongHashMap;
 import com.nisovin.shopkeepers.util.java.Validate;
 import com.nisovin.shopkeepers.util.logging.Log;
 import com.nisovin.shopkeepers.util.timer.Timer;
@@ -61,7 +61,6 @@ public class ShopkeeperChunkActivator {
 	private static final Predicate<@NonNull AbstractShopkeeper> SHOPKEEPER_IS_INACTIVE = Unsafe.assertNonNull(SHOPKEEPER_IS_ACTIVE.negate());
 
 	private static final Location sharedLocation = new Location(null, 0, 0, 0);
-	private static final MutableChunkCoords sharedChunkCoords = new MutableChunkCoords();
 
 	private final SKShopkeepersPlugin plugin;
 	private final SKShopkeeperRegistry shopkeeperRegistry;
@@ -69,7 +68,8 @@ public class ShopkeeperChunkActivator {
 	private final ShopkeeperSpawner shopkeeperSpawner;
 	private final ChunkActivationListener listener = new ChunkActivationListener(Unsafe.initialized(this));
 
-	private final Map<@NonNull ChunkCoords, @NonNull ChunkData> chunks = new HashMap<>();
+	// Lookups by chunk do not allocate and do not compare world names:
+	private final WorldChunkMap<@NonNull ChunkData> chunks = new WorldChunkMap<>();
 
 	private boolean chunkActivationInProgress = false;
 	// This does not consider pending delayed chunk activation tasks, but only tracks actual
@@ -128,13 +128,7 @@ public class ShopkeeperChunkActivator {
 
 	private @Nullable ChunkData getChunkData(Chunk chunk) {
 		assert chunk != null;
-		sharedChunkCoords.set(chunk);
-		return this.getChunkData(sharedChunkCoords);
-	}
-
-	private @Nullable ChunkData getChunkData(String worldName, int chunkX, int chunkZ) {
-		sharedChunkCoords.set(worldName, chunkX, chunkZ);
-		return this.getChunkData(sharedChunkCoords);
+		return chunks.get(chunk);
 	}
 
 	// Returns null if there is no data for the specified chunk, i.e. if there are no shopkeepers in
@@ -359,14 +353,15 @@ public class ShopkeeperChunkActivator {
 			int chunkRadius
 	) {
 		assert world != null && chunkRadius >= 0;
-		String worldName = world.getName();
+		LongHashMap<@NonNull ChunkData> worldChunks = chunks.getWorld(world.getName());
+		if (worldChunks == null) return; // There are no shopkeepers in this world
 		int minChunkX = centerChunkX - chunkRadius;
 		int maxChunkX = centerChunkX + chunkRadius;
 		int minChunkZ = centerChunkZ - chunkRadius;
 		int maxChunkZ = centerChunkZ + chunkRadius;
 		for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
 			for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
-				ChunkData chunkData = this.getChunkData(worldName, chunkX, chunkZ);
+				ChunkData chunkData = worldChunks.get(ChunkKeys.of(chunkX, chunkZ));
 				if (chunkData == null) continue;
 
 				// Activate the chunk if it is currently pending a delayed activation:
@@ -450,6 +445,7 @@ public class ShopkeeperChunkActivator {
 
 		// Mark the chunk as active:
 		chunkData.setActive(true);
+		shopkeeperRegistry.onChunkActiveChanged(chunkCoords, true);
 
 		// Mark the shopkeepers as active:
 		shopkeepers.forEach(shopkeeper -> shopkeeper.setActive(true));
@@ -536,6 +532,7 @@ public class ShopkeeperChunkActivator {
 		// Mark the chunk as inactive:
 		// This also sets its 'should-be-inactive' state.
 		chunkData.setActive(false);
+		shopkeeperRegistry.onChunkActiveChanged(chunkCoords, false);
 
 		// Get the chunk shopkeepers:
 		Collection<? extends @NonNull AbstractShopkeeper> shopkeepers = shopkeeperRegistry.getShopkeepersInChunkSnapshot(chunkCoords);
@@ -92,7 +92,8 @@ public class SKRegularAdminShopkeeper
 		// Register shopkeeper data migrations:
 		ShopkeeperDataMigrator.registerMigration(new Migration(
 				"admin-offers",
-				MigrationPhase.ofShopkeeperClass(SKRegularAdminShopkeeper.class)
+				MigrationPhase.ofShopkeeperClass(SKRegularAdminShopkeeper.class),
+				2
 		) {
 			@Override
 			public boolean migrate(
@@ -11,14 +11,27 @@ import com.nisovin.shopkeepers.util.java.Validate;
  * <p>
  * {@link Migration}s can be registered via
  * {@link ShopkeeperDataMigrator#registerMigration(Migration)}.
+ * <p>
+ * Each migration declares the range of shopkeeper data versions that it applies to: A migration
+ * only needs to be applied to shopkeeper data whose data version is less than or equal to its
+ * {@link #getMaxDataVersion() max data version}. Shopkeeper data of the current shopkeeper data
+ * version skips all migrations. Consequently, when adding a new migration, the shopkeeper data
+ * version needs to be incremented, and the migration specifies the previous shopkeeper data
+ * version as its max data version.
+ * <p>
+ * Migrations whose outcome does not only depend on the data itself, but also on the current
+ * configuration, are {@link #isAlwaysApplied() always applied}, regardless of the data version.
  */
 public abstract class Migration {
 
+	private static final int ALWAYS_APPLIED = Integer.MAX_VALUE;
+
 	private final String name;
 	private final MigrationPhase targetPhase;
+	private final int maxDataVersion;
 
 	/**
-	 * Creates a new {@link Migration}.
+	 * Creates a new {@link Migration} that is {@link #isAlwaysApplied() always applied}.
 	 * 
 	 * @param name
 	 *            the migration name, not <code>null</code> or empty
@@ -26,10 +39,27 @@ public abstract class Migration {
 	 *            the target migration phase, not <code>null</code>
 	 */
 	public Migration(String name, MigrationPhase targetPhase) {
+		this(name, targetPhase, ALWAYS_APPLIED);
+	}
+
+	/**
+	 * Creates a new {@link Migration}.
+	 * 
+	 * @param name
+	 *            the migration name, not <code>null</code> or empty
+	 * @param targetPhase
+	 *            the target migration phase, not <code>null</code>
+	 * @param maxDataVersion
+	 *            the last shopkeeper data version whose data might require this migration, not
+	 *            negative
+	 */
+	public Migration(String name, MigrationPhase targetPhase, int maxDataVersion) {
 		Validate.notEmpty(name, "name is null or empty");
 		Validate.notNull(targetPhase, "targetPhase is null");
+		Validate.isTrue(maxDataVersion >= 0, "maxDataVersion is negative");
 		this.name = name;
 		this.targetPhase = targetPhase;
+		this.maxDataVersion = maxDataVersion;
 	}
 
 	/**
@@ -50,6 +80,40 @@ public abstract class Migration {
 		return targetPhase;
 	}
 
+	/**
+	 * Gets the last shopkeeper data version whose data might require this migration.
+	 * 
+	 * @return the max data version, or {@link Integer#MAX_VALUE} if this migration is
+	 *         {@link #isAlwaysApplied() always applied}
+	 */
+	public final int getMaxDataVersion() {
+		return maxDataVersion;
+	}
+
+	/**
+	 * Checks if this migration is applied to shopkeeper data of any data version, including
+	 * shopkeeper data of the current data version.
+	 * <p>
+	 * This is required for migrations that depend on the current configuration, since the
+	 * configuration can change without a change of the shopkeeper data version.
+	 * 
+	 * @return <code>true</code> if this migration is always applied
+	 */
+	public final boolean isAlwaysApplied() {
+		return maxDataVersion == ALWAYS_APPLIED;
+	}
+
+	/**
+	 * Checks if this migration applies to shopkeeper data of the given data version.
+	 * 
+	 * @param dataVersion
+	 *            the shopkeeper data version
+	 * @return <code>true</code> if this migration applies to data of the given data version
+	 */
+	public final boolean isApplicable(int dataVersion) {
+		return dataVersion <= maxDataVersion;
+	}
+
 	/**
 	 * Applies the data migrations to the given shopkeeper data.
 	 * <p>
@@ -98,6 +162,8 @@ public abstract class Migration {
 		builder.append(name);
 		builder.append(", targetPhase=");
 		builder.append(targetPhase);
+		builder.append(", maxDataVersion=");
+		builder.append(this.isAlwaysApplied() ? "always" : maxDataVersion);
 		builder.append("]");
 		return builder.toString();
 	}
@@ -11,16 +11,51 @@ import com.nisovin.shopkeepers.shopkeeper.ShopkeeperData;
 import com.nisovin.shopkeepers.shopobjects.AbstractShopObject;
 import com.nisovin.shopkeepers.shopobjects.AbstractShopObjectType;
 import com.nisovin.shopkeepers.shopobjects.ShopObjectData;
+import com.nisovin.shopkeepers.storage.DataVersion;
+import com.nisovin.shopkeepers.util.bukkit.TextUtils;
 import com.nisovin.shopkeepers.util.data.serialization.InvalidDataException;
 import com.nisovin.shopkeepers.util.java.Validate;
 import com.nisovin.shopkeepers.util.logging.Log;
 
 /**
  * Access point to register and invoke shopkeeper data migrations.
+ * <p>
+ * Shopkeeper data whose {@link AbstractShopkeeper#DATA_VERSION data version} is current skips all
+ * migrations, except the ones that are {@link Migration#isAlwaysApplied() always applied}. For
+ * other shopkeeper data, only the migrations that are {@link Migration#isApplicable(int)
+ * applicable} to its data version are invoked.
+ * <p>
+ * The number and duration of the migration invocations are recorded, so that they can be
+ * {@link #logStatistics() logged} after the shopkeepers have been loaded.
  */
 public final class ShopkeeperDataMigrator {
 
-	private static final List<@NonNull Migration> migrations = new ArrayList<>();
+	private static final class RegisteredMigration {
+
+		final Migration migration;
+
+		// Statistics:
+		int invocations = 0;
+		int hits = 0; // The number of invocations that changed the data
+		long durationNanos = 0L;
+
+		RegisteredMigration(Migration migration) {
+			this.migration = migration;
+		}
+
+		void resetStatistics() {
+			invocations = 0;
+			hits = 0;
+			durationNanos = 0L;
+		}
+	}
+
+	private static final List<@NonNull RegisteredMigration> migrations = new ArrayList<>();
+	private static int alwaysAppliedMigrationsCount = 0;
+
+	// Statistics:
+	private static int upToDateCount = 0;
+	private static int outdatedCount = 0;
 
 	/**
 	 * Registers the given {@link Migration}.
@@ -35,14 +70,17 @@ public final class ShopkeeperDataMigrator {
 		Validate.notNull(migration, "migration is null");
 		// Check for migrations with duplicate names:
 		String migrationName = migration.getName();
-		for (Migration otherMigration : migrations) {
-			if (otherMigration.getName().equalsIgnoreCase(migrationName)) {
+		for (RegisteredMigration otherMigration : migrations) {
+			if (otherMigration.migration.getName().equalsIgnoreCase(migrationName)) {
 				Validate.error("There already exists another shopkeeper data migration with the same name: "
 						+ migrationName);
 			}
 		}
 
-		migrations.add(migration);
+		migrations.add(new RegisteredMigration(migration));
+		if (migration.isAlwaysApplied()) {
+			alwaysAppliedMigrationsCount++;
+		}
 	}
 
 	/**
@@ -50,11 +88,57 @@ public final class ShopkeeperDataMigrator {
 	 */
 	public static void logRegisteredMigrations() {
 		Log.info("Registered shopkeeper data migrations:");
-		migrations.forEach(migration -> {
-			Log.info("  - " + migration.getName() + " (" + migration.getTargetPhase().getName() + ")");
+		migrations.forEach(registeredMigration -> {
+			Migration migration = registeredMigration.migration;
+			String dataVersions = migration.isAlwaysApplied() ? "always"
+					: "data version <= " + migration.getMaxDataVersion();
+			Log.info("  - " + migration.getName() + " (" + migration.getTargetPhase().getName()
+					+ ", " + dataVersions + ")");
 		});
 	}
 
+	/**
+	 * Logs and then resets the statistics about the migrations that were applied since the last
+	 * reset.
+	 * <p>
+	 * This is meant to be called once after the shopkeepers have been loaded.
+	 */
+	public static void logStatistics() {
+		if (outdatedCount == 0) {
+			Log.debug(() -> "Shopkeeper data migrations: All " + upToDateCount
+					+ " shopkeepers are up-to-date.");
+		} else {
+			long totalDurationNanos = 0L;
+			for (RegisteredMigration registeredMigration : migrations) {
+				totalDurationNanos += registeredMigration.durationNanos;
+			}
+			Log.info("Shopkeeper data migrations: " + outdatedCount + " of "
+					+ (upToDateCount + outdatedCount) + " shopkeepers were outdated ("
+					+ formatMillis(totalDurationNanos) + " ms).");
+			for (RegisteredMigration registeredMigration : migrations) {
+				if (registeredMigration.invocations == 0) continue;
+				Log.info("  - " + registeredMigration.migration.getName() + ": "
+						+ registeredMigration.invocations + " applied, "
+						+ registeredMigration.hits + " migrated ("
+						+ formatMillis(registeredMigration.durationNanos) + " ms)");
+			}
+		}
+		resetStatistics();
+	}
+
+	private static String formatMillis(long nanos) {
+		return TextUtils.format(nanos / 1000000.0D);
+	}
+
+	/**
+	 * Resets the statistics about the applied migrations.
+	 */
+	public static void resetStatistics() {
+		upToDateCount = 0;
+		outdatedCount = 0;
+		migrations.forEach(RegisteredMigration::resetStatistics);
+	}
+
 	// TODO Replace the logPrefix with a PrefixedLogger or similar.
 	/**
 	 * Applies migrations to the given shopkeeper data.
@@ -64,6 +148,11 @@ public final class ShopkeeperDataMigrator {
 	 * migration may cause the migration to fail with an {@link InvalidDataException}. However,
 	 * missing data should never result in the migration to fail, but rather cause the affected
 	 * migrations to be silently skipped.
+	 * <p>
+	 * If the {@link #getDataVersion(ShopkeeperData) data version} of the given shopkeeper data is
+	 * current, only the migrations that are {@link Migration#isAlwaysApplied() always applied} are
+	 * applied. Shopkeeper data without data version is migrated by all migrations. This does not
+	 * update the data version of the given shopkeeper data.
 	 * 
 	 * @param shopkeeperData
 	 *            the shopkeeper data, not <code>null</code>
@@ -79,21 +168,88 @@ public final class ShopkeeperDataMigrator {
 	) throws InvalidDataException {
 		Validate.notNull(shopkeeperData, "shopkeeperData is null");
 		Validate.notNull(logPrefix, "logPrefix is null");
+		int dataVersion = getDataVersion(shopkeeperData);
+		if (isUpToDate(dataVersion)) {
+			upToDateCount++;
+		} else {
+			outdatedCount++;
+		}
+		return applyMigrations(shopkeeperData, dataVersion, logPrefix);
+	}
+
+	/**
+	 * Applies migrations to the given shopkeeper data that is nested inside other shopkeeper data,
+	 * such as the shopkeeper data of a snapshot.
+	 * <p>
+	 * Nested shopkeeper data does not store its own data version, but is saved with the data
+	 * version of the enclosing shopkeeper data. Only the migrations that are applicable to the
+	 * given data version are applied. Unlike {@link #migrate(ShopkeeperData, String)}, this does
+	 * not count the given shopkeeper data towards the number of up-to-date or outdated shopkeepers.
+	 * 
+	 * @param shopkeeperData
+	 *            the nested shopkeeper data, not <code>null</code>
+	 * @param dataVersion
+	 *            the data version of the enclosing shopkeeper data
+	 * @param logPrefix
+	 *            a context specific log prefix, can be empty, not <code>null</code>
+	 * @return <code>true</code> if the data has changed as a result of these migrations
+	 * @throws InvalidDataException
+	 *             if the data is invalid and cannot be migrated
+	 */
+	public static boolean migrateNested(
+			ShopkeeperData shopkeeperData,
+			int dataVersion,
+			String logPrefix
+	) throws InvalidDataException {
+		Validate.notNull(shopkeeperData, "shopkeeperData is null");
+		Validate.notNull(logPrefix, "logPrefix is null");
+		return applyMigrations(shopkeeperData, dataVersion, logPrefix);
+	}
+
+	/**
+	 * Gets the {@link AbstractShopkeeper#DATA_VERSION data version} of the given shopkeeper data.
+	 * 
+	 * @param shopkeeperData
+	 *            the shopkeeper data, not <code>null</code>
+	 * @return the data version, or <code>0</code> if the shopkeeper data has no data version
+	 * @throws InvalidDataException
+	 *             if the stored data version is invalid
+	 */
+	public static int getDataVersion(ShopkeeperData shopkeeperData) throws InvalidDataException {
+		Validate.notNull(shopkeeperData, "shopkeeperData is null");
+		Integer dataVersion = shopkeeperData.getOrNullIfMissing(AbstractShopkeeper.DATA_VERSION);
+		return (dataVersion != null) ? dataVersion : 0;
+	}
+
+	private static boolean isUpToDate(int dataVersion) {
+		return dataVersion >= DataVersion.getCurrentShopkeeperDataVersion();
+	}
+
+	private static boolean applyMigrations(
+			ShopkeeperData shopkeeperData,
+			int dataVersion,
+			String logPrefix
+	) throws InvalidDataException {
+		if (isUpToDate(dataVersion) && alwaysAppliedMigrationsCount == 0) {
+			// Fast path: The data is up-to-date.
+			return false;
+		}
+
 		boolean migrated = false;
 
 		// Early migration phase:
 		MigrationPhase currentPhase = MigrationPhase.EARLY;
-		migrated |= migrate(currentPhase, shopkeeperData, logPrefix);
+		migrated |= migrate(currentPhase, dataVersion, shopkeeperData, logPrefix);
 
 		// Default migration phase:
 		currentPhase = MigrationPhase.DEFAULT;
-		migrated |= migrate(currentPhase, shopkeeperData, logPrefix);
+		migrated |= migrate(currentPhase, dataVersion, shopkeeperData, logPrefix);
 
 		// Shopkeeper class specific data migrations:
 		AbstractShopType<?> shopType = shopkeeperData.getOrNullIfMissing(AbstractShopkeeper.SHOP_TYPE);
 		if (shopType != null) {
 			currentPhase = MigrationPhase.ofShopkeeperClass(shopType.getShopkeeperClass());
-			migrated |= migrate(currentPhase, shopkeeperData, logPrefix);
+			migrated |= migrate(currentPhase, dataVersion, shopkeeperData, logPrefix);
 		}
 
 		// Shop object class specific data migrations:
@@ -102,26 +258,36 @@ public final class ShopkeeperDataMigrator {
 			AbstractShopObjectType<?> shopObjectType = shopObjectData.getOrNullIfMissing(AbstractShopObject.SHOP_OBJECT_TYPE);
 			if (shopObjectType != null) {
 				currentPhase = MigrationPhase.ofShopObjectClass(shopObjectType.getShopObjectClass());
-				migrated |= migrate(currentPhase, shopkeeperData, logPrefix);
+				migrated |= migrate(currentPhase, dataVersion, shopkeeperData, logPrefix);
 			}
 		}
 
 		// Late migration phase:
 		currentPhase = MigrationPhase.LATE;
-		migrated |= migrate(currentPhase, shopkeeperData, logPrefix);
+		migrated |= migrate(currentPhase, dataVersion, shopkeeperData, logPrefix);
 
 		return migrated;
 	}
 
 	private static boolean migrate(
 			MigrationPhase currentPhase,
+			int dataVersion,
 			ShopkeeperData shopkeeperData,
 			String logPrefix
 	) throws InvalidDataException {
 		boolean migrated = false;
-		for (Migration migration : migrations) {
-			if (migration.getTargetPhase().isApplicable(currentPhase)) {
-				migrated |= migration.migrate(shopkeeperData, logPrefix);
+		for (RegisteredMigration registeredMigration : migrations) {
+			Migration migration = registeredMigration.migration;
+			if (!migration.isApplicable(dataVersion)) continue;
+			if (!migration.getTargetPhase().isApplicable(currentPhase)) continue;
+
+			long startNanos = System.nanoTime();
+			boolean dataChanged = migration.migrate(shopkeeperData, logPrefix);
+			registeredMigration.durationNanos += System.nanoTime() - startNanos;
+			registeredMigration.invocations++;
+			if (dataChanged) {
+				registeredMigration.hits++;
+				migrated = true;
 			}
 		}
 		return migrated;
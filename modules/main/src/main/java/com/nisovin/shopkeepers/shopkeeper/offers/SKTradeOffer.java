@@ -26,6 +26,7 @@ import com.nisovin.shopkeepers.util.data.serialization.InvalidDataException;
 import com.nisovin.shopkeepers.util.data.serialization.MissingDataException;
 import com.nisovin.shopkeepers.util.data.serialization.bukkit.ItemStackSerializers;
 import com.nisovin.shopkeepers.util.data.serialization.java.DataContainerSerializers;
+import com.nisovin.shopkeepers.util.inventory.ItemInterner;
 import com.nisovin.shopkeepers.util.inventory.ItemMigration;
 import com.nisovin.shopkeepers.util.inventory.ItemUtils;
 import com.nisovin.shopkeepers.util.java.CollectionUtils;
@@ -61,7 +62,8 @@ public class SKTradeOffer extends SKTradingRecipe implements TradeOffer {
 	 * Creates a new {@link SKTradeOffer}.
 	 * <p>
 	 * The given item stacks are assumed to be immutable and therefore not copied before they are
-	 * stored by the trade offer.
+	 * stored by the trade offer. They are {@link ItemInterner#intern(UnmodifiableItemStack)
+	 * interned}, so the offer might end up storing equal canonical item stacks instead.
 	 * 
 	 * @param resultItem
 	 *            the result item, not empty
@@ -75,7 +77,11 @@ public class SKTradeOffer extends SKTradingRecipe implements TradeOffer {
 			UnmodifiableItemStack item1,
 			@Nullable UnmodifiableItemStack item2
 	) {
-		super(resultItem, item1, item2);
+		super(
+				ItemInterner.intern(resultItem),
+				ItemInterner.intern(item1),
+				ItemInterner.intern(item2)
+		);
 	}
 
 	@Override
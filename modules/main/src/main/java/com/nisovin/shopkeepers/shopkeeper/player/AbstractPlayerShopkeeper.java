@@ -1,5 +1,9 @@
 package com.nisovin.shopkeepers.shopkeeper.player;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
@@ -18,6 +22,8 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 
 import com.nisovin.shopkeepers.SKShopkeepersPlugin;
 import com.nisovin.shopkeepers.api.ShopkeepersPlugin;
+import com.nisovin.shopkeepers.api.events.PlayerShopkeeperBackInStockEvent;
+import com.nisovin.shopkeepers.api.events.PlayerShopkeeperOutOfStockEvent;
 import com.nisovin.shopkeepers.api.events.ShopkeeperAddedEvent;
 import com.nisovin.shopkeepers.api.events.ShopkeeperRemoveEvent;
 import com.nisovin.shopkeepers.api.internal.util.Unsafe;
@@ -28,11 +34,13 @@ import com.nisovin.shopkeepers.api.shopkeeper.player.PlayerShopCreationData;
 import com.nisovin.shopkeepers.api.shopkeeper.player.PlayerShopkeeper;
 import com.nisovin.shopkeepers.api.ui.DefaultUITypes;
 import com.nisovin.shopkeepers.api.user.User;
+import com.nisovin.shopkeepers.api.util.ChunkCoords;
 import com.nisovin.shopkeepers.api.util.UnmodifiableItemStack;
 import com.nisovin.shopkeepers.config.Settings;
 import com.nisovin.shopkeepers.config.Settings.DerivedSettings;
 import com.nisovin.shopkeepers.container.ShopContainers;
 import com.nisovin.shopkeepers.container.protection.ProtectedContainers;
+import com.nisovin.shopkeepers.container.stock.ContainerStockTracker;
 import com.nisovin.shopkeepers.currency.Currencies;
 import com.nisovin.shopkeepers.currency.Currency;
 import com.nisovin.shopkeepers.debug.DebugOptions;
@@ -44,8 +52,10 @@ import com.nisovin.shopkeepers.shopkeeper.ShopkeeperData;
 import com.nisovin.shopkeepers.shopkeeper.migration.Migration;
 import com.nisovin.shopkeepers.shopkeeper.migration.MigrationPhase;
 import com.nisovin.shopkeepers.shopkeeper.migration.ShopkeeperDataMigrator;
+import com.nisovin.shopkeepers.shopkeeper.ticking.ShopkeeperTimer;
 import com.nisovin.shopkeepers.ui.UIHandler;
 import com.nisovin.shopkeepers.user.SKUser;
+import com.nisovin.shopkeepers.util.annotations.ReadOnly;
 import com.nisovin.shopkeepers.util.bukkit.BlockLocation;
 import com.nisovin.shopkeepers.util.bukkit.LocationUtils;
 import com.nisovin.shopkeepers.util.bukkit.MutableBlockLocation;
@@ -66,7 +76,6 @@ import com.nisovin.shopkeepers.util.inventory.InventoryUtils;
 import com.nisovin.shopkeepers.util.inventory.ItemMigration;
 import com.nisovin.shopkeepers.util.inventory.ItemUtils;
 import com.nisovin.shopkeepers.util.java.CyclicCounter;
-import com.nisovin.shopkeepers.util.java.RateLimiter;
 import com.nisovin.shopkeepers.util.java.Validate;
 import com.nisovin.shopkeepers.util.logging.Log;
 
@@ -89,12 +98,25 @@ public abstract class AbstractPlayerShopkeeper
 	private boolean notifyOnTrades = NOTIFY_ON_TRADES.getDefaultValue();
 	private @Nullable UnmodifiableItemStack hireCost = null; // Null if not for hire
 
-	// Initial threshold between [1, CHECK_CONTAINER_PERIOD_SECONDS] for load balancing:
-	private final RateLimiter checkContainerLimiter = new RateLimiter(
+	// Initial delay between [1, CHECK_CONTAINER_PERIOD_SECONDS] for load balancing:
+	private final int checkingOffset = nextCheckingOffset.getAndIncrement();
+	private final ShopkeeperTimer checkContainerTimer = new ShopkeeperTimer(
+			Unsafe.initialized(this),
 			CHECK_CONTAINER_PERIOD_SECONDS,
-			nextCheckingOffset.getAndIncrement()
+			() -> Unsafe.initialized(this).checkDeleteIfContainerBroken()
 	);
 
+	// Ordered like the offers. Null if the stock has not been determined yet:
+	private int @Nullable [] offerStocks = null;
+	private List<? extends @NonNull Integer> offerStocksView = Collections.emptyList();
+	// Whether the offers have changed since the last stock update:
+	private boolean offersChanged = false;
+
+	// Only valid for the cached data version and out-of-stock offers:
+	private @Nullable List<? extends @NonNull TradingRecipe> cachedTradingRecipes = null;
+	private int cachedTradingRecipesVersion = 0;
+	private final BitSet cachedOutOfStockOffers = new BitSet();
+
 	/**
 	 * Creates a new and not yet initialized {@link AbstractPlayerShopkeeper}.
 	 * <p>
@@ -394,7 +416,8 @@ public abstract class AbstractPlayerShopkeeper
 		// Register shopkeeper data migrations:
 		ShopkeeperDataMigrator.registerMigration(new Migration(
 				"hire-cost-item",
-				MigrationPhase.ofShopkeeperClass(AbstractPlayerShopkeeper.class)
+				MigrationPhase.ofShopkeeperClass(AbstractPlayerShopkeeper.class),
+				2
 		) {
 			@Override
 			public boolean migrate(
@@ -554,6 +577,7 @@ public abstract class AbstractPlayerShopkeeper
 		if (this.isValid()) {
 			// Enable the protection for the new container:
 			this.protectContainer();
+			this.onContainerContentsChanged();
 		}
 	}
 
@@ -609,9 +633,19 @@ public abstract class AbstractPlayerShopkeeper
 
 	@Override
 	public int getCurrencyInContainer() {
-		int totalCurrency = 0;
 		// Empty if the container is not found:
-		@Nullable ItemStack[] contents = this.getContainerContents();
+		return getCurrencyInContents(this.getContainerContents());
+	}
+
+	/**
+	 * Gets the total value of the currency items in the given contents.
+	 * 
+	 * @param contents
+	 *            the contents, not <code>null</code>
+	 * @return the total currency value
+	 */
+	protected static int getCurrencyInContents(@ReadOnly @Nullable ItemStack @ReadOnly [] contents) {
+		int totalCurrency = 0;
 		for (ItemStack itemStack : contents) {
 			if (itemStack == null) continue;
 			Currency currency = Currencies.match(itemStack);
@@ -622,6 +656,172 @@ public abstract class AbstractPlayerShopkeeper
 		return totalCurrency;
 	}
 
+	// TRADING RECIPES
+
+	/**
+	 * Gets the previously {@link #setCachedTradingRecipes(BitSet, List) cached} trading recipes.
+	 * <p>
+	 * The trading recipes of player shopkeepers only depend on the offers and whether these offers
+	 * are out of stock. Unless the data of this shopkeeper has changed, or a different set of offers
+	 * is out of stock, the previously created trading recipes can therefore be reused. Apart from
+	 * avoiding the creation of the trading recipes and their currency items, this also allows the
+	 * trading UI to reuse the merchant recipes that it has created for the cached trading recipes.
+	 * 
+	 * @param outOfStockOffers
+	 *            the indices of the offers that are currently out of stock, not <code>null</code>
+	 * @return the cached trading recipes, or <code>null</code> if they are outdated
+	 */
+	protected final @Nullable List<? extends @NonNull TradingRecipe> getCachedTradingRecipes(
+			BitSet outOfStockOffers
+	) {
+		Validate.notNull(outOfStockOffers, "outOfStockOffers is null");
+		if (cachedTradingRecipes == null) return null;
+		if (cachedTradingRecipesVersion != this.getDataVersion()) return null;
+		if (!cachedOutOfStockOffers.equals(outOfStockOffers)) return null;
+		return cachedTradingRecipes;
+	}
+
+	/**
+	 * Caches the given trading recipes until the data of this shopkeeper changes, or a different set
+	 * of offers is out of stock.
+	 * 
+	 * @param outOfStockOffers
+	 *            the indices of the offers that were out of stock when the trading recipes were
+	 *            created, not <code>null</code>
+	 * @param tradingRecipes
+	 *            the unmodifiable trading recipes, not <code>null</code>
+	 */
+	protected final void setCachedTradingRecipes(
+			BitSet outOfStockOffers,
+			List<? extends @NonNull TradingRecipe> tradingRecipes
+	) {
+		Validate.notNull(outOfStockOffers, "outOfStockOffers is null");
+		Validate.notNull(tradingRecipes, "tradingRecipes is null");
+		cachedTradingRecipes = tradingRecipes;
+		cachedTradingRecipesVersion = this.getDataVersion();
+		cachedOutOfStockOffers.clear();
+		cachedOutOfStockOffers.or(outOfStockOffers);
+	}
+
+	// STOCK
+
+	@Override
+	public List<? extends @NonNull Integer> getOfferStocks() {
+		return offerStocksView;
+	}
+
+	/**
+	 * Marks the {@link #getOfferStocks() stock} of this shopkeeper as outdated, e.g. because the
+	 * contents of its container have changed.
+	 * <p>
+	 * The stock is updated by the {@link ContainerStockTracker} during the next tick. This has no
+	 * effect if this shopkeeper is not {@link #isValid() valid}.
+	 */
+	public final void markStockDirty() {
+		if (!this.isValid()) return;
+		SKShopkeepersPlugin.getInstance().getContainerStockTracker().markStockDirty(this);
+	}
+
+	/**
+	 * This needs to be invoked whenever the contents of this shopkeeper's container might have
+	 * changed, or when this shopkeeper has switched to a different container.
+	 * <p>
+	 * This {@link #invalidateContainerContentsCaches() invalidates} any information that this
+	 * shopkeeper has cached about the container contents, and
+	 * {@link #markStockDirty() marks the stock dirty}.
+	 */
+	public final void onContainerContentsChanged() {
+		this.invalidateContainerContentsCaches();
+		this.markStockDirty();
+	}
+
+	/**
+	 * Invalidates any information that this shopkeeper has cached about the contents of its
+	 * container.
+	 * <p>
+	 * This is called when the container contents might have changed. Shopkeepers that cache
+	 * information about their container contents can override this method. By default, this does
+	 * nothing.
+	 */
+	protected void invalidateContainerContentsCaches() {
+	}
+
+	/**
+	 * This needs to be invoked whenever the offers of this shopkeeper change.
+	 * <p>
+	 * The {@link #getOfferStocks() stock} of this shopkeeper is updated during the next tick. Since
+	 * the stock counts of the previous offers cannot be matched to the new offers, no stock events
+	 * are called for this update.
+	 */
+	protected final void onOffersChanged() {
+		offersChanged = true;
+		cachedTradingRecipes = null;
+		this.markStockDirty();
+	}
+
+	/**
+	 * Calculates the stock of each offer of this shopkeeper, i.e. how many times each offer can be
+	 * traded, based on the given container contents.
+	 * 
+	 * @param containerContents
+	 *            the container contents, not <code>null</code>, empty if the container is not found
+	 * @return the stock of each offer, ordered like the offers, not <code>null</code>
+	 */
+	protected abstract int[] calculateOfferStocks(
+			@ReadOnly @Nullable ItemStack @ReadOnly [] containerContents
+	);
+
+	/**
+	 * Calculates the stock of this shopkeeper from the current contents of its container, and
+	 * calls the corresponding stock events for offers that ran out of stock or that are back in
+	 * stock.
+	 * <p>
+	 * This is only supposed to be invoked by the {@link ContainerStockTracker}. This has no effect
+	 * if the chunk of the container is not loaded currently. The previously known stock is retained
+	 * in that case.
+	 */
+	public final void updateStock() {
+		World world = container.getWorld();
+		if (world == null) return;
+		int chunkX = ChunkCoords.fromBlock(container.getX());
+		int chunkZ = ChunkCoords.fromBlock(container.getZ());
+		if (!world.isChunkLoaded(chunkX, chunkZ)) return;
+
+		int[] newOfferStocks = this.calculateOfferStocks(this.getContainerContents());
+		int[] oldOfferStocks = offerStocks;
+		boolean callEvents = (oldOfferStocks != null && !offersChanged);
+		offerStocks = newOfferStocks;
+		offersChanged = false;
+		List<@NonNull Integer> offerStocksList = new ArrayList<>(newOfferStocks.length);
+		for (int stock : newOfferStocks) {
+			offerStocksList.add(stock);
+		}
+		offerStocksView = Collections.unmodifiableList(offerStocksList);
+
+		if (!callEvents) return;
+		assert oldOfferStocks != null;
+		int offerCount = Math.min(oldOfferStocks.length, newOfferStocks.length);
+		for (int i = 0; i < offerCount; i++) {
+			int offerIndex = i;
+			boolean wasInStock = (oldOfferStocks[offerIndex] > 0);
+			boolean isInStock = (newOfferStocks[offerIndex] > 0);
+			if (wasInStock == isInStock) continue;
+			if (!this.isValid()) return; // Removed by a previous event handler
+
+			Log.debug(() -> this.getLogPrefix() + "Offer " + offerIndex + " is "
+					+ (isInStock ? "back in stock." : "out of stock."));
+			if (isInStock) {
+				Bukkit.getPluginManager().callEvent(
+						new PlayerShopkeeperBackInStockEvent(this, offerIndex)
+				);
+			} else {
+				Bukkit.getPluginManager().callEvent(
+						new PlayerShopkeeperOutOfStockEvent(this, offerIndex)
+				);
+			}
+		}
+	}
+
 	// Returns null (and logs a warning) if the price cannot be represented correctly by currency
 	// items.
 	protected final @Nullable TradingRecipe createSellingRecipe(
@@ -733,18 +933,25 @@ public abstract class AbstractPlayerShopkeeper
 	// TICKING
 
 	@Override
-	protected void onTick() {
-		this.onTickCheckDeleteIfContainerBroken();
-		super.onTick();
+	protected void onStartTicking() {
+		if (Settings.deleteShopkeeperOnBreakContainer) {
+			checkContainerTimer.schedule(checkingOffset);
+		}
+		// The container contents might have changed while the shopkeeper was inactive:
+		this.markStockDirty();
+		super.onStartTicking();
+	}
+
+	@Override
+	protected void onStopTicking() {
+		checkContainerTimer.cancel();
+		super.onStopTicking();
 	}
 
 	// Deletes the shopkeeper if the container is no longer present (e.g. if it got removed
 	// externally by another plugin, such as WorldEdit, etc.):
-	private void onTickCheckDeleteIfContainerBroken() {
-		if (!Settings.deleteShopkeeperOnBreakContainer) return;
-		if (!checkContainerLimiter.request()) {
-			return;
-		}
+	private void checkDeleteIfContainerBroken() {
+		assert Settings.deleteShopkeeperOnBreakContainer;
 
 		// This checks if the block is still a valid container:
 		Block containerBlock = this.getContainer();
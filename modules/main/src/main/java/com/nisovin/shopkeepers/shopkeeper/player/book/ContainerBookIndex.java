@@ -0,0 +1,163 @@
+package com.nisovin.shopkeepers.shopkeeper.player.book;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.BookMeta;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.util.annotations.ReadOnly;
+import com.nisovin.shopkeepers.util.inventory.BookItems;
+import com.nisovin.shopkeepers.util.inventory.ItemUtils;
+import com.nisovin.shopkeepers.util.java.Validate;
+
+/**
+ * An index of the {@link BookItems#isCopyable(BookMeta) copyable} written books and the blank
+ * books inside the contents of a book shop's container.
+ * <p>
+ * Building the index requires to inspect the item meta of every container slot. Once built, the
+ * slots of the books with a certain title can be looked up in constant time. The index does not
+ * track any changes to the container contents, but needs to be rebuilt when the container
+ * contents change.
+ */
+final class ContainerBookIndex {
+
+	/**
+	 * Creates a {@link ContainerBookIndex} for the given container contents.
+	 * <p>
+	 * Book items without title are omitted.
+	 * 
+	 * @param contents
+	 *            the container contents, not <code>null</code>
+	 * @return the index, not <code>null</code>
+	 */
+	static ContainerBookIndex create(@ReadOnly @Nullable ItemStack @ReadOnly [] contents) {
+		Validate.notNull(contents, "contents is null");
+		// Linked Map: Preserves the order of encountered items.
+		Map<@NonNull String, @NonNull List<@NonNull Integer>> slotsByTitle = new LinkedHashMap<>();
+		int blankBookCount = 0;
+		for (int slot = 0; slot < contents.length; slot++) {
+			ItemStack itemStack = contents[slot];
+			if (itemStack == null) continue;
+			if (ItemUtils.isEmpty(itemStack)) continue;
+			if (isBlankBook(itemStack)) {
+				blankBookCount += itemStack.getAmount();
+				continue;
+			}
+
+			BookMeta bookMeta = BookItems.getBookMeta(itemStack);
+			if (bookMeta == null) continue; // Not a written book
+			if (!BookItems.isCopyable(bookMeta)) continue;
+			String title = BookItems.getTitle(bookMeta);
+			if (title == null) continue;
+
+			slotsByTitle.computeIfAbsent(title, key -> new ArrayList<>(1)).add(slot);
+		}
+		return new ContainerBookIndex(slotsByTitle, blankBookCount);
+	}
+
+	/**
+	 * Counts the blank books (i.e. items of type {@link Material#WRITABLE_BOOK}) inside the given
+	 * container contents.
+	 * <p>
+	 * Unlike {@link #create(ItemStack[])}, this only checks the item types, but not the item meta
+	 * of the container slots. This can be used to check if the
+	 * {@link #getBlankBookCount() blank book count} of a previously built index is still valid.
+	 * 
+	 * @param contents
+	 *            the container contents, not <code>null</code>
+	 * @return the number of blank books
+	 */
+	static int countBlankBooks(@ReadOnly @Nullable ItemStack @ReadOnly [] contents) {
+		Validate.notNull(contents, "contents is null");
+		int blankBookCount = 0;
+		for (ItemStack itemStack : contents) {
+			if (itemStack == null) continue;
+			if (ItemUtils.isEmpty(itemStack)) continue;
+			if (isBlankBook(itemStack)) {
+				blankBookCount += itemStack.getAmount();
+			}
+		}
+		return blankBookCount;
+	}
+
+	private static boolean isBlankBook(@ReadOnly ItemStack itemStack) {
+		return itemStack.getType() == Material.WRITABLE_BOOK;
+	}
+
+	private final Map<? extends @NonNull String, ? extends @NonNull List<@NonNull Integer>> slotsByTitle;
+	private final int blankBookCount;
+
+	private ContainerBookIndex(
+			Map<? extends @NonNull String, ? extends @NonNull List<@NonNull Integer>> slotsByTitle,
+			int blankBookCount
+	) {
+		this.slotsByTitle = slotsByTitle;
+		this.blankBookCount = blankBookCount;
+	}
+
+	/**
+	 * Gets the titles of the indexed books.
+	 * 
+	 * @return an unmodifiable view on the book titles, in the order in which they were first
+	 *         encountered, not <code>null</code>
+	 */
+	Set<? extends @NonNull String> getTitles() {
+		return Collections.unmodifiableSet(slotsByTitle.keySet());
+	}
+
+	/**
+	 * Checks if the container contains a copyable book with the given title.
+	 * 
+	 * @param title
+	 *            the book title
+	 * @return <code>true</code> if there is a book with the given title
+	 */
+	boolean containsBook(String title) {
+		return slotsByTitle.containsKey(title);
+	}
+
+	/**
+	 * Gets the container slots that contain copyable books with the given title.
+	 * 
+	 * @param title
+	 *            the book title
+	 * @return an unmodifiable view on the slots, in ascending order, not <code>null</code>, empty
+	 *         if there are no books with the given title
+	 */
+	List<? extends @NonNull Integer> getSlots(String title) {
+		List<@NonNull Integer> slots = slotsByTitle.get(title);
+		if (slots == null) return Collections.emptyList();
+		return Collections.unmodifiableList(slots);
+	}
+
+	/**
+	 * Gets the first container slot that contains a copyable book with the given title.
+	 * 
+	 * @param title
+	 *            the book title
+	 * @return the slot, or <code>-1</code> if there is no book with the given title
+	 */
+	int getFirstSlot(String title) {
+		List<@NonNull Integer> slots = slotsByTitle.get(title);
+		if (slots == null) return -1;
+		return slots.get(0);
+	}
+
+	/**
+	 * Gets the number of blank books (i.e. items of type {@link Material#WRITABLE_BOOK}) inside
+	 * the container.
+	 * 
+	 * @return the number of blank books
+	 */
+	int getBlankBookCount() {
+		return blankBookCount;
+	}
+}
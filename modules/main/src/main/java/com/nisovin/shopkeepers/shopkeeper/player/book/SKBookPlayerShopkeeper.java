@@ -39,6 +39,7 @@ import com.nisovin.shopkeepers.util.data.serialization.InvalidDataException;
 import com.nisovin.shopkeepers.util.inventory.BookItems;
 import com.nisovin.shopkeepers.util.java.CollectionUtils;
 import com.nisovin.shopkeepers.util.java.Validate;
+import com.nisovin.shopkeepers.util.logging.Log;
 
 public class SKBookPlayerShopkeeper
 		extends AbstractPlayerShopkeeper implements BookPlayerShopkeeper {
@@ -47,6 +48,9 @@ public class SKBookPlayerShopkeeper
 	private final List<@NonNull BookOffer> offers = new ArrayList<>();
 	private final List<? extends @NonNull BookOffer> offersView = Collections.unmodifiableList(offers);
 
+	// Null if not yet built or outdated:
+	private @Nullable ContainerBookIndex containerBookIndex = null;
+
 	/**
 	 * Creates a new and not yet initialized {@link SKBookPlayerShopkeeper}.
 	 * <p>
@@ -90,13 +94,16 @@ public class SKBookPlayerShopkeeper
 
 	@Override
 	public List<? extends @NonNull TradingRecipe> getTradingRecipes(@Nullable Player player) {
-		Map<? extends @NonNull String, ? extends @NonNull ItemStack> containerBooksByTitle = this.getCopyableBooksFromContainer();
+		Inventory containerInventory = this.getContainerInventory(); // Can be null
 		boolean hasBlankBooks = this.hasContainerBlankBooks();
 		List<? extends @NonNull BookOffer> offers = this.getOffers();
 		List<@NonNull TradingRecipe> recipes = new ArrayList<>(offers.size());
 		offers.forEach(bookOffer -> {
 			String bookTitle = bookOffer.getBookTitle();
-			ItemStack bookItem = containerBooksByTitle.get(bookTitle);
+			ItemStack bookItem = null;
+			if (containerInventory != null) {
+				bookItem = this.getContainerBook(containerInventory, bookTitle);
+			}
 			boolean outOfStock = !hasBlankBooks;
 			if (bookItem == null) {
 				outOfStock = true;
@@ -122,6 +129,85 @@ public class SKBookPlayerShopkeeper
 		return Collections.unmodifiableList(recipes);
 	}
 
+	@Override
+	protected int[] calculateOfferStocks(
+			@ReadOnly @Nullable ItemStack @ReadOnly [] containerContents
+	) {
+		// The stock is updated after the container contents have changed. We therefore also
+		// rebuild the book index from these contents. The contents are empty if the container was
+		// not found, in which case we do not cache the index.
+		ContainerBookIndex bookIndex = ContainerBookIndex.create(containerContents);
+		if (containerContents.length > 0) {
+			containerBookIndex = bookIndex;
+		}
+
+		// Each trade copies a book from the container onto one of the blank books. The blank book
+		// count of the freshly built index matches the given contents:
+		int blankBooks = bookIndex.getBlankBookCount();
+		List<? extends @NonNull BookOffer> offers = this.getOffers();
+		int[] stocks = new int[offers.size()];
+		for (int i = 0; i < stocks.length; i++) {
+			String bookTitle = offers.get(i).getBookTitle();
+			stocks[i] = bookIndex.containsBook(bookTitle) ? blankBooks : 0;
+		}
+		return stocks;
+	}
+
+	@Override
+	protected void invalidateContainerContentsCaches() {
+		super.invalidateContainerContentsCaches();
+		containerBookIndex = null;
+	}
+
+	/**
+	 * Gets the {@link ContainerBookIndex} for the current contents of the shopkeeper's
+	 * {@link PlayerShopkeeper#getContainer() container}.
+	 * <p>
+	 * The index is cached until the container contents change.
+	 * 
+	 * @return the book index, or <code>null</code> if the container is not found
+	 */
+	private @Nullable ContainerBookIndex getContainerBookIndex() {
+		ContainerBookIndex bookIndex = containerBookIndex;
+		if (bookIndex != null) return bookIndex;
+
+		Inventory containerInventory = this.getContainerInventory();
+		if (containerInventory == null) return null; // Container not found
+		bookIndex = ContainerBookIndex.create(Unsafe.cast(containerInventory.getContents()));
+		containerBookIndex = bookIndex;
+		return bookIndex;
+	}
+
+	// Returns null if the container does not contain a copyable book with the given title.
+	private @Nullable ItemStack getContainerBook(Inventory containerInventory, String bookTitle) {
+		ContainerBookIndex bookIndex = this.getContainerBookIndex();
+		if (bookIndex == null) return null;
+		int slot = bookIndex.getFirstSlot(bookTitle);
+		if (slot == -1) return null;
+
+		ItemStack bookItem = containerInventory.getItem(slot);
+		if (bookItem != null && isCopyableBook(bookItem, bookTitle)) {
+			return bookItem;
+		}
+
+		// The index is outdated, e.g. because another plugin modified the container contents
+		// without calling any events. Rebuild the index:
+		Log.debug(() -> this.getLogPrefix() + "Rebuilding the outdated container book index.");
+		this.invalidateContainerContentsCaches();
+		bookIndex = this.getContainerBookIndex();
+		if (bookIndex == null) return null;
+		slot = bookIndex.getFirstSlot(bookTitle);
+		if (slot == -1) return null;
+		return containerInventory.getItem(slot);
+	}
+
+	private static boolean isCopyableBook(@ReadOnly ItemStack itemStack, String bookTitle) {
+		BookMeta bookMeta = BookItems.getBookMeta(itemStack);
+		if (bookMeta == null) return false; // Not a written book
+		if (!BookItems.isCopyable(bookMeta)) return false;
+		return bookTitle.equals(BookItems.getTitle(bookMeta));
+	}
+
 	/**
 	 * Gets the {@link BookItems#isCopyableBook(ItemStack) copyable}
 	 * {@link BookItems#isWrittenBook(ItemStack) written book} items from the shopkeeper's
@@ -133,21 +219,17 @@ public class SKBookPlayerShopkeeper
 	 * @return the book items mapped by their title, or an empty Map if the container is not found
 	 */
 	protected Map<? extends @NonNull String, ? extends @NonNull ItemStack> getCopyableBooksFromContainer() {
+		Inventory containerInventory = this.getContainerInventory();
+		if (containerInventory == null) return Collections.emptyMap(); // Container not found
+		ContainerBookIndex bookIndex = Unsafe.assertNonNull(this.getContainerBookIndex());
+
 		// Linked Map: Preserves the order of encountered items.
 		Map<@NonNull String, @NonNull ItemStack> booksByTitle = new LinkedHashMap<>();
-		// Empty if the container is not found:
-		@Nullable ItemStack[] contents = this.getContainerContents();
-		for (ItemStack itemStack : contents) {
-			if (itemStack == null) continue;
-			BookMeta bookMeta = BookItems.getBookMeta(itemStack);
-			if (bookMeta == null) continue; // Not a written book
-			if (!BookItems.isCopyable(bookMeta)) continue;
-			String title = BookItems.getTitle(bookMeta);
-			if (title == null) continue;
-
-			// The item is ignored if we already encountered another book item with the same title
-			// before:
-			booksByTitle.putIfAbsent(title, itemStack);
+		for (String title : bookIndex.getTitles()) {
+			// If multiple book items share the same title, we only use the first one:
+			ItemStack bookItem = this.getContainerBook(containerInventory, title);
+			if (bookItem == null) continue;
+			booksByTitle.put(title, bookItem);
 		}
 		return booksByTitle;
 	}
@@ -161,7 +243,20 @@ public class SKBookPlayerShopkeeper
 	protected boolean hasContainerBlankBooks() {
 		Inventory containerInventory = this.getContainerInventory();
 		if (containerInventory == null) return false; // Container not found
-		return containerInventory.contains(Material.WRITABLE_BOOK);
+
+		// Counting the blank books only requires to check the item types. Unlike the cached index,
+		// this also accounts for changes to the container contents that we did not notice, e.g.
+		// because another plugin modified the container contents without calling any events.
+		int blankBooks = ContainerBookIndex.countBlankBooks(
+				Unsafe.cast(containerInventory.getContents())
+		);
+		ContainerBookIndex bookIndex = containerBookIndex;
+		if (bookIndex != null && bookIndex.getBlankBookCount() != blankBooks) {
+			// The offer stocks are outdated as well:
+			Log.debug(() -> this.getLogPrefix() + "Rebuilding the outdated container book index.");
+			this.onContainerContentsChanged();
+		}
+		return blankBooks > 0;
 	}
 
 	/**
@@ -212,7 +307,8 @@ public class SKBookPlayerShopkeeper
 		// Register shopkeeper data migrations:
 		ShopkeeperDataMigrator.registerMigration(new Migration(
 				"book-offers",
-				MigrationPhase.ofShopkeeperClass(SKBookPlayerShopkeeper.class)
+				MigrationPhase.ofShopkeeperClass(SKBookPlayerShopkeeper.class),
+				2
 		) {
 			@Override
 			public boolean migrate(
@@ -274,6 +370,7 @@ public class SKBookPlayerShopkeeper
 		while (iterator.hasNext()) {
 			if (iterator.next().getBookTitle().equals(bookTitle)) {
 				iterator.remove();
+				this.onOffersChanged();
 				this.markDirty();
 				break;
 			}
@@ -288,6 +385,7 @@ public class SKBookPlayerShopkeeper
 
 	private void _clearOffers() {
 		offers.clear();
+		this.onOffersChanged();
 	}
 
 	@Override
@@ -322,6 +420,7 @@ public class SKBookPlayerShopkeeper
 
 		// Add the new offer:
 		offers.add(skOffer);
+		this.onOffersChanged();
 	}
 
 	@Override
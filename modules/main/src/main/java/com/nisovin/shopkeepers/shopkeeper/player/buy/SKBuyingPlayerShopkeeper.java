@@ -1,6 +1,7 @@
 package com.nisovin.shopkeepers.shopkeeper.player.buy;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -82,22 +83,51 @@ public class SKBuyingPlayerShopkeeper
 	public List<? extends @NonNull TradingRecipe> getTradingRecipes(@Nullable Player player) {
 		int currencyInContainer = this.getCurrencyInContainer();
 		List<? extends @NonNull PriceOffer> offers = this.getOffers();
-		List<@NonNull TradingRecipe> recipes = new ArrayList<>(offers.size());
-		offers.forEach(offer -> {
+		int offerCount = offers.size();
+		BitSet outOfStockOffers = new BitSet(offerCount);
+		for (int i = 0; i < offerCount; i++) {
+			if (currencyInContainer < offers.get(i).getPrice()) {
+				outOfStockOffers.set(i);
+			}
+		}
+
+		List<? extends @NonNull TradingRecipe> cachedRecipes = this.getCachedTradingRecipes(
+				outOfStockOffers
+		);
+		if (cachedRecipes != null) return cachedRecipes;
+
+		List<@NonNull TradingRecipe> recipes = new ArrayList<>(offerCount);
+		for (int i = 0; i < offerCount; i++) {
+			PriceOffer offer = offers.get(i);
 			// Both the offer's and the trading recipe's items are immutable. So there is no need to
 			// copy the item.
 			UnmodifiableItemStack tradedItem = offer.getItem();
-			boolean outOfStock = (currencyInContainer < offer.getPrice());
 			TradingRecipe recipe = this.createBuyingRecipe(
 					tradedItem,
 					offer.getPrice(),
-					outOfStock
+					outOfStockOffers.get(i)
 			);
 			if (recipe != null) {
 				recipes.add(recipe);
 			} // Else: Price is invalid (cannot be represented by currency items).
-		});
-		return Collections.unmodifiableList(recipes);
+		}
+		List<? extends @NonNull TradingRecipe> recipesView = Collections.unmodifiableList(recipes);
+		this.setCachedTradingRecipes(outOfStockOffers, recipesView);
+		return recipesView;
+	}
+
+	@Override
+	protected int[] calculateOfferStocks(
+			@ReadOnly @Nullable ItemStack @ReadOnly [] containerContents
+	) {
+		// The stock of buying shops is limited by the currency that is available to pay the sellers:
+		int currencyInContainer = getCurrencyInContents(containerContents);
+		List<? extends @NonNull PriceOffer> offers = this.getOffers();
+		int[] stocks = new int[offers.size()];
+		for (int i = 0; i < stocks.length; i++) {
+			stocks[i] = currencyInContainer / offers.get(i).getPrice();
+		}
+		return stocks;
 	}
 
 	// OFFERS
@@ -113,7 +143,8 @@ public class SKBuyingPlayerShopkeeper
 		// Register shopkeeper data migrations:
 		ShopkeeperDataMigrator.registerMigration(new Migration(
 				"buying-offers",
-				MigrationPhase.ofShopkeeperClass(SKBuyingPlayerShopkeeper.class)
+				MigrationPhase.ofShopkeeperClass(SKBuyingPlayerShopkeeper.class),
+				2
 		) {
 			@Override
 			public boolean migrate(
@@ -168,6 +199,7 @@ public class SKBuyingPlayerShopkeeper
 			PriceOffer offer = iterator.next();
 			if (offer.getItem().isSimilar(tradedItem)) {
 				iterator.remove();
+				this.onOffersChanged();
 				this.markDirty();
 				break;
 			}
@@ -188,6 +220,7 @@ public class SKBuyingPlayerShopkeeper
 
 	private void _clearOffers() {
 		offers.clear();
+		this.onOffersChanged();
 	}
 
 	@Override
@@ -221,6 +254,7 @@ public class SKBuyingPlayerShopkeeper
 
 		// Add the new offer:
 		offers.add(skOffer);
+		this.onOffersChanged();
 	}
 
 	@Override
@@ -1,6 +1,7 @@
 package com.nisovin.shopkeepers.shopkeeper.player.sell;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -84,26 +85,56 @@ public class SKSellingPlayerShopkeeper
 		// Empty if the container is not found:
 		@Nullable ItemStack[] containerContents = this.getContainerContents();
 		List<? extends @NonNull PriceOffer> offers = this.getOffers();
-		List<@NonNull TradingRecipe> recipes = new ArrayList<>(offers.size());
-		offers.forEach(offer -> {
-			// Both the offer's and the trading recipe's items are immutable. So there is no need to
-			// copy the item.
-			UnmodifiableItemStack tradedItem = offer.getItem();
-			boolean outOfStock = !InventoryUtils.containsAtLeast(
+		int offerCount = offers.size();
+		BitSet outOfStockOffers = new BitSet(offerCount);
+		for (int i = 0; i < offerCount; i++) {
+			UnmodifiableItemStack tradedItem = offers.get(i).getItem();
+			if (!InventoryUtils.containsAtLeast(
 					containerContents,
 					tradedItem,
 					tradedItem.getAmount()
-			);
+			)) {
+				outOfStockOffers.set(i);
+			}
+		}
+
+		List<? extends @NonNull TradingRecipe> cachedRecipes = this.getCachedTradingRecipes(
+				outOfStockOffers
+		);
+		if (cachedRecipes != null) return cachedRecipes;
+
+		List<@NonNull TradingRecipe> recipes = new ArrayList<>(offerCount);
+		for (int i = 0; i < offerCount; i++) {
+			PriceOffer offer = offers.get(i);
+			// Both the offer's and the trading recipe's items are immutable. So there is no need to
+			// copy the item.
+			UnmodifiableItemStack tradedItem = offer.getItem();
 			TradingRecipe recipe = this.createSellingRecipe(
 					tradedItem,
 					offer.getPrice(),
-					outOfStock
+					outOfStockOffers.get(i)
 			);
 			if (recipe != null) {
 				recipes.add(recipe);
 			} // Else: Price is invalid (cannot be represented by currency items).
-		});
-		return Collections.unmodifiableList(recipes);
+		}
+		List<? extends @NonNull TradingRecipe> recipesView = Collections.unmodifiableList(recipes);
+		this.setCachedTradingRecipes(outOfStockOffers, recipesView);
+		return recipesView;
+	}
+
+	@Override
+	protected int[] calculateOfferStocks(
+			@ReadOnly @Nullable ItemStack @ReadOnly [] containerContents
+	) {
+		List<? extends @NonNull PriceOffer> offers = this.getOffers();
+		int[] stocks = new int[offers.size()];
+		for (int i = 0; i < stocks.length; i++) {
+			UnmodifiableItemStack tradedItem = offers.get(i).getItem();
+			stocks[i] = InventoryUtils.countItems(containerContents, tradedItem)
+					/ tradedItem.getAmount();
+		}
+		return stocks;
 	}
 
 	// OFFERS
@@ -119,7 +150,8 @@ public class SKSellingPlayerShopkeeper
 		// Register shopkeeper data migrations:
 		ShopkeeperDataMigrator.registerMigration(new Migration(
 				"selling-offers",
-				MigrationPhase.ofShopkeeperClass(SKSellingPlayerShopkeeper.class)
+				MigrationPhase.ofShopkeeperClass(SKSellingPlayerShopkeeper.class),
+				2
 		) {
 			@Override
 			public boolean migrate(
@@ -174,6 +206,7 @@ public class SKSellingPlayerShopkeeper
 			PriceOffer offer = iterator.next();
 			if (offer.getItem().isSimilar(tradedItem)) {
 				iterator.remove();
+				this.onOffersChanged();
 				this.markDirty();
 				break;
 			}
@@ -194,6 +227,7 @@ public class SKSellingPlayerShopkeeper
 
 	private void _clearOffers() {
 		offers.clear();
+		this.onOffersChanged();
 	}
 
 	@Override
@@ -227,6 +261,7 @@ public class SKSellingPlayerShopkeeper
 
 		// Add the new offer:
 		offers.add(skOffer);
+		this.onOffersChanged();
 	}
 
 	@Override
@@ -24,7 +24,8 @@ public final class SellingPlayerShopType
 		// TODO Remove this again. This was added in v2.1.0 (2018).
 		ShopkeeperDataMigrator.registerMigration(new Migration(
 				"shop-type-player-to-sell",
-				MigrationPhase.EARLY
+				MigrationPhase.EARLY,
+				2
 		) {
 			@Override
 			public boolean migrate(
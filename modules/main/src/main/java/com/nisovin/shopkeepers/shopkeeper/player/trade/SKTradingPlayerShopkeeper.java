@@ -1,6 +1,7 @@
 package com.nisovin.shopkeepers.shopkeeper.player.trade;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
 
@@ -22,6 +23,7 @@ import com.nisovin.shopkeepers.shopkeeper.migration.MigrationPhase;
 import com.nisovin.shopkeepers.shopkeeper.migration.ShopkeeperDataMigrator;
 import com.nisovin.shopkeepers.shopkeeper.offers.SKTradeOffer;
 import com.nisovin.shopkeepers.shopkeeper.player.AbstractPlayerShopkeeper;
+import com.nisovin.shopkeepers.util.annotations.ReadOnly;
 import com.nisovin.shopkeepers.util.data.property.BasicProperty;
 import com.nisovin.shopkeepers.util.data.property.Property;
 import com.nisovin.shopkeepers.util.data.serialization.InvalidDataException;
@@ -82,18 +84,49 @@ public class SKTradingPlayerShopkeeper
 		// Empty if the container is not found
 		@Nullable ItemStack[] containerContents = this.getContainerContents();
 		List<? extends @NonNull TradeOffer> offers = this.getOffers();
-		List<@NonNull TradingRecipe> recipes = new ArrayList<>(offers.size());
-		offers.forEach(offer -> {
-			UnmodifiableItemStack resultItem = offer.getResultItem();
-			boolean outOfStock = !InventoryUtils.containsAtLeast(
+		int offerCount = offers.size();
+		BitSet outOfStockOffers = new BitSet(offerCount);
+		for (int i = 0; i < offerCount; i++) {
+			UnmodifiableItemStack resultItem = offers.get(i).getResultItem();
+			if (!InventoryUtils.containsAtLeast(
 					containerContents,
 					resultItem,
 					resultItem.getAmount()
+			)) {
+				outOfStockOffers.set(i);
+			}
+		}
+
+		List<? extends @NonNull TradingRecipe> cachedRecipes = this.getCachedTradingRecipes(
+				outOfStockOffers
+		);
+		if (cachedRecipes != null) return cachedRecipes;
+
+		List<@NonNull TradingRecipe> recipes = new ArrayList<>(offerCount);
+		for (int i = 0; i < offerCount; i++) {
+			TradingRecipe recipe = SKTradeOffer.toTradingRecipe(
+					offers.get(i),
+					outOfStockOffers.get(i)
 			);
-			TradingRecipe recipe = SKTradeOffer.toTradingRecipe(offer, outOfStock);
 			recipes.add(recipe);
-		});
-		return Collections.unmodifiableList(recipes);
+		}
+		List<? extends @NonNull TradingRecipe> recipesView = Collections.unmodifiableList(recipes);
+		this.setCachedTradingRecipes(outOfStockOffers, recipesView);
+		return recipesView;
+	}
+
+	@Override
+	protected int[] calculateOfferStocks(
+			@ReadOnly @Nullable ItemStack @ReadOnly [] containerContents
+	) {
+		List<? extends @NonNull TradeOffer> offers = this.getOffers();
+		int[] stocks = new int[offers.size()];
+		for (int i = 0; i < stocks.length; i++) {
+			UnmodifiableItemStack resultItem = offers.get(i).getResultItem();
+			stocks[i] = InventoryUtils.countItems(containerContents, resultItem)
+					/ resultItem.getAmount();
+		}
+		return stocks;
 	}
 
 	// OFFERS
@@ -109,7 +142,8 @@ public class SKTradingPlayerShopkeeper
 		// Register shopkeeper data migrations:
 		ShopkeeperDataMigrator.registerMigration(new Migration(
 				"trading-offers",
-				MigrationPhase.ofShopkeeperClass(SKTradingPlayerShopkeeper.class)
+				MigrationPhase.ofShopkeeperClass(SKTradingPlayerShopkeeper.class),
+				2
 		) {
 			@Override
 			public boolean migrate(
@@ -166,6 +200,7 @@ public class SKTradingPlayerShopkeeper
 
 	private void _clearOffers() {
 		offers.clear();
+		this.onOffersChanged();
 	}
 
 	@Override
@@ -196,6 +231,7 @@ public class SKTradingPlayerShopkeeper
 
 		// Add the new offer:
 		offers.add(skOffer);
+		this.onOffersChanged();
 	}
 
 	@Override
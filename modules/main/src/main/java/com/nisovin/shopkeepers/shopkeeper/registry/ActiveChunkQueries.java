@@ -16,48 +16,38 @@ import com.nisovin.shopkeepers.util.java.Validate;
 /**
  * Queries that combine information from the {@link ShopkeeperChunkMap} and the
  * {@link ShopkeeperChunkActivator}.
+ * <p>
+ * The {@link ShopkeeperChunkMap} keeps track of the chunks that are currently active according to
+ * the {@link ShopkeeperChunkActivator}, and of the number of shopkeepers inside these chunks. The
+ * sizes of the returned views are therefore determined in constant time, and their iteration only
+ * visits the active chunks.
  */
 public class ActiveChunkQueries {
 
 	private final ShopkeeperChunkMap shopkeeperChunkMap;
-	private final ShopkeeperChunkActivator shopkeeperActivator;
 
 	// Note: Already unmodifiable.
 	private final Set<? extends @NonNull AbstractShopkeeper> shopkeepersInActiveChunksView = new AbstractSet<@NonNull AbstractShopkeeper>() {
 		@Override
 		public Iterator<AbstractShopkeeper> iterator() {
-			return Unsafe.assertNonNull(shopkeeperChunkMap).getWorldsWithShopkeepers().stream()
-					.<AbstractShopkeeper>flatMap(worldName -> {
-						return Unsafe.initialized(ActiveChunkQueries.this)
-								.getShopkeepersInActiveChunks(worldName)
-								.stream();
+			if (this.isEmpty()) {
+				return Collections.emptyIterator();
+			}
+			return Unsafe.assertNonNull(shopkeeperChunkMap).getAllWorldShopkeepers().stream()
+					.<AbstractShopkeeper>flatMap(worldShopkeepers -> {
+						return worldShopkeepers.getActiveShopkeepers().stream();
 					}).iterator();
 		}
 
 		@Override
 		public int size() {
-			return Unsafe.assertNonNull(shopkeeperChunkMap).getWorldsWithShopkeepers().stream()
-					.mapToInt(worldName -> {
-						return Unsafe.initialized(ActiveChunkQueries.this)
-								.getShopkeepersInActiveChunks(worldName)
-								.size();
-					}).sum();
+			return Unsafe.assertNonNull(shopkeeperChunkMap).getActiveShopkeeperCount();
 		}
 	};
 
-	ActiveChunkQueries(
-			ShopkeeperChunkMap shopkeeperChunkMap,
-			ShopkeeperChunkActivator shopkeeperActivator
-	) {
+	ActiveChunkQueries(ShopkeeperChunkMap shopkeeperChunkMap) {
 		Validate.notNull(shopkeeperChunkMap, "shopkeeperChunkMap is null");
-		Validate.notNull(shopkeeperActivator, "shopkeeperActivator is null");
 		this.shopkeeperChunkMap = shopkeeperChunkMap;
-		this.shopkeeperActivator = shopkeeperActivator;
-	}
-
-	private boolean isChunkActive(ChunkCoords chunkCoords) {
-		assert chunkCoords != null;
-		return shopkeeperActivator.isChunkActive(chunkCoords);
 	}
 
 	// QUERIES
@@ -66,54 +56,17 @@ public class ActiveChunkQueries {
 		return shopkeepersInActiveChunksView;
 	}
 
-	// TODO Cache these query objects per world?
+	// The returned views are cached by the WorldShopkeepers.
 
 	public Set<? extends @NonNull ChunkCoords> getActiveChunks(String worldName) {
 		WorldShopkeepers worldShopkeepers = shopkeeperChunkMap.getWorldShopkeepers(worldName);
 		if (worldShopkeepers == null) return Collections.emptySet();
-
-		// Note: Already unmodifiable.
-		Set<? extends @NonNull ChunkCoords> activeChunksView = new AbstractSet<@NonNull ChunkCoords>() {
-			@Override
-			public Iterator<ChunkCoords> iterator() {
-				return Unsafe.cast(worldShopkeepers.getShopkeepersByChunk().keySet().stream()
-						.filter(ActiveChunkQueries.this::isChunkActive)
-						.iterator());
-			}
-
-			@Override
-			public int size() {
-				return worldShopkeepers.getShopkeepersByChunk().keySet().stream()
-						.filter(ActiveChunkQueries.this::isChunkActive)
-						.mapToInt(chunkCoords -> 1)
-						.sum();
-			}
-		};
-		return activeChunksView;
+		return worldShopkeepers.getActiveChunks();
 	}
 
 	public Set<? extends @NonNull AbstractShopkeeper> getShopkeepersInActiveChunks(String worldName) {
 		WorldShopkeepers worldShopkeepers = shopkeeperChunkMap.getWorldShopkeepers(worldName);
 		if (worldShopkeepers == null) return Collections.emptySet();
-
-		// Note: Already unmodifiable.
-		Set<? extends @NonNull AbstractShopkeeper> shopkeepersInActiveChunksView = new AbstractSet<@NonNull AbstractShopkeeper>() {
-			@Override
-			public Iterator<AbstractShopkeeper> iterator() {
-				return worldShopkeepers.getShopkeepersByChunk().entrySet().stream()
-						.filter(chunkEntry -> isChunkActive(chunkEntry.getKey()))
-						.<AbstractShopkeeper>flatMap(chunkEntry -> chunkEntry.getValue().stream())
-						.iterator();
-			}
-
-			@Override
-			public int size() {
-				return worldShopkeepers.getShopkeepersByChunk().entrySet().stream()
-						.filter(chunkEntry -> isChunkActive(chunkEntry.getKey()))
-						.mapToInt(chunkEntry -> chunkEntry.getValue().size())
-						.sum();
-			}
-		};
-		return shopkeepersInActiveChunksView;
+		return worldShopkeepers.getActiveShopkeepers();
 	}
 }
@@ -21,6 +21,8 @@ final class ChunkShopkeepers {
 	private final List<? extends @NonNull AbstractShopkeeper> shopkeepersView = Collections.unmodifiableList(shopkeepers);
 	// Unmodifiable:
 	private @Nullable List<? extends @NonNull AbstractShopkeeper> shopkeepersSnapshot = null;
+	// Mirrors the chunk's activation state inside the ShopkeeperChunkActivator:
+	private boolean active = false;
 
 	ChunkShopkeepers(ChunkCoords chunkCoords) {
 		Validate.notNull(chunkCoords, "chunkCoords is null");
@@ -50,8 +52,17 @@ final class ChunkShopkeepers {
 		shopkeepersSnapshot = null; // Reset snapshot
 	}
 
+	// Only supposed to be called by the WorldShopkeepers, which keeps track of its active chunks.
+	void setActive(boolean active) {
+		this.active = active;
+	}
+
 	// QUERIES
 
+	public boolean isActive() {
+		return active;
+	}
+
 	public List<? extends @NonNull AbstractShopkeeper> getShopkeepers() {
 		return shopkeepersView;
 	}
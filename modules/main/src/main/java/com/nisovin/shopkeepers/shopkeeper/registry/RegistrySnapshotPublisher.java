@@ -0,0 +1,219 @@
+package com.nisovin.shopkeepers.shopkeeper.registry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.SKShopkeepersPlugin;
+import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperRegistrySnapshot;
+import com.nisovin.shopkeepers.debug.DebugOptions;
+import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
+import com.nisovin.shopkeepers.shopkeeper.registry.SKShopkeeperRegistrySnapshot.Group;
+import com.nisovin.shopkeepers.util.logging.Log;
+
+/**
+ * Maintains the {@link ShopkeeperRegistrySnapshot} of the {@link SKShopkeeperRegistry}.
+ * <p>
+ * Changed shopkeepers are collected and then applied to the snapshot data at most once per tick.
+ * Only the {@link SKShopkeeperInfo} entries of the changed shopkeepers are recreated, and only the
+ * {@link Group groups} (i.e. worlds) that contain changed shopkeepers are rebuilt. All other groups
+ * are shared with the previous snapshot.
+ * <p>
+ * Apart from {@link #getSnapshot()}, this is only supposed to be used on the server's main thread.
+ */
+class RegistrySnapshotPublisher {
+
+	private final SKShopkeepersPlugin plugin;
+	private final SKShopkeeperRegistry shopkeeperRegistry;
+
+	// Mutable copies of the snapshot data:
+	private final Map<@NonNull Integer, @NonNull SKShopkeeperInfo> entries = new HashMap<>();
+	private final Map<@NonNull String, @NonNull Map<@NonNull Integer, @NonNull SKShopkeeperInfo>> entriesByWorld = new HashMap<>();
+	private final Map<@NonNull Integer, @NonNull SKShopkeeperInfo> virtualEntries = new LinkedHashMap<>();
+
+	private final Set<@NonNull AbstractShopkeeper> pendingShopkeepers = new LinkedHashSet<>();
+	private final Set<@NonNull String> dirtyWorlds = new LinkedHashSet<>();
+	private boolean virtualDirty = false;
+	private @Nullable BukkitTask publishTask = null;
+
+	private volatile SKShopkeeperRegistrySnapshot snapshot = SKShopkeeperRegistrySnapshot.EMPTY;
+
+	RegistrySnapshotPublisher(SKShopkeepersPlugin plugin, SKShopkeeperRegistry shopkeeperRegistry) {
+		assert plugin != null && shopkeeperRegistry != null;
+		this.plugin = plugin;
+		this.shopkeeperRegistry = shopkeeperRegistry;
+	}
+
+	void onDisable() {
+		if (publishTask != null) {
+			publishTask.cancel();
+			publishTask = null;
+		}
+		pendingShopkeepers.clear();
+		dirtyWorlds.clear();
+		virtualDirty = false;
+		entries.clear();
+		entriesByWorld.clear();
+		virtualEntries.clear();
+		// Keep the version increasing across reloads:
+		snapshot = new SKShopkeeperRegistrySnapshot(
+				snapshot.getVersion() + 1,
+				Collections.emptyMap(),
+				null
+		);
+	}
+
+	/**
+	 * Marks the given shopkeeper as changed.
+	 * <p>
+	 * This is expected to be called whenever the shopkeeper is added, removed, or its data changes.
+	 * 
+	 * @param shopkeeper
+	 *            the shopkeeper, not <code>null</code>
+	 */
+	void onShopkeeperChanged(AbstractShopkeeper shopkeeper) {
+		assert shopkeeper != null;
+		if (!pendingShopkeepers.add(shopkeeper)) return; // Already pending
+		if (publishTask == null && plugin.isEnabled()) {
+			publishTask = Bukkit.getScheduler().runTask(plugin, this::publish);
+		}
+	}
+
+	/**
+	 * Gets the latest published snapshot.
+	 * <p>
+	 * This can be called from any thread. When called on the server's main thread, pending changes
+	 * are published first.
+	 * 
+	 * @return the snapshot, not <code>null</code>
+	 */
+	SKShopkeeperRegistrySnapshot getSnapshot() {
+		if (Bukkit.isPrimaryThread() && !pendingShopkeepers.isEmpty()) {
+			this.publish();
+		}
+		return snapshot;
+	}
+
+	private void publish() {
+		if (publishTask != null) {
+			publishTask.cancel();
+			publishTask = null;
+		}
+		if (pendingShopkeepers.isEmpty()) return;
+
+		int changedCount = pendingShopkeepers.size();
+		for (AbstractShopkeeper shopkeeper : pendingShopkeepers) {
+			this.updateEntry(shopkeeper);
+		}
+		pendingShopkeepers.clear();
+
+		SKShopkeeperRegistrySnapshot newSnapshot = this.createSnapshot(snapshot);
+		snapshot = newSnapshot;
+		dirtyWorlds.clear();
+		virtualDirty = false;
+
+		Log.debug(DebugOptions.regularTickActivities, () -> "Published shopkeeper registry snapshot "
+				+ newSnapshot.getVersion() + " (" + changedCount + " changed shopkeepers).");
+	}
+
+	private void updateEntry(AbstractShopkeeper shopkeeper) {
+		int shopkeeperId = shopkeeper.getId();
+		SKShopkeeperInfo oldEntry = entries.get(shopkeeperId);
+		if (oldEntry != null && !oldEntry.getUniqueId().equals(shopkeeper.getUniqueId())) {
+			// The entry belongs to a different shopkeeper that uses the same id.
+			oldEntry = null;
+		}
+
+		boolean registered = shopkeeper.isValid()
+				&& shopkeeperRegistry.getShopkeeperById(shopkeeperId) == shopkeeper;
+		if (oldEntry == null && !registered) return; // Nothing to update
+
+		if (oldEntry != null) {
+			this.removeFromGroups(oldEntry);
+			if (!registered) {
+				entries.remove(shopkeeperId);
+			}
+		}
+
+		if (registered) {
+			SKShopkeeperInfo newEntry = SKShopkeeperInfo.of(shopkeeper);
+			entries.put(shopkeeperId, newEntry);
+			this.addToGroups(newEntry);
+		}
+	}
+
+	private void addToGroups(SKShopkeeperInfo entry) {
+		String worldName = entry.getWorldName();
+		if (worldName != null) {
+			entriesByWorld.computeIfAbsent(worldName, key -> new LinkedHashMap<>())
+					.put(entry.getId(), entry);
+			dirtyWorlds.add(worldName);
+		} else {
+			virtualEntries.put(entry.getId(), entry);
+			virtualDirty = true;
+		}
+	}
+
+	private void removeFromGroups(SKShopkeeperInfo entry) {
+		String worldName = entry.getWorldName();
+		if (worldName != null) {
+			Map<@NonNull Integer, @NonNull SKShopkeeperInfo> worldEntries = entriesByWorld.get(
+					worldName
+			);
+			if (worldEntries != null) {
+				worldEntries.remove(entry.getId());
+				if (worldEntries.isEmpty()) {
+					entriesByWorld.remove(worldName);
+				}
+			}
+			dirtyWorlds.add(worldName);
+		} else {
+			virtualEntries.remove(entry.getId());
+			virtualDirty = true;
+		}
+	}
+
+	private SKShopkeeperRegistrySnapshot createSnapshot(SKShopkeeperRegistrySnapshot previous) {
+		// Reuse the groups of all unchanged worlds:
+		Map<@NonNull String, @NonNull Group> worldGroups = new LinkedHashMap<>(
+				previous.getWorldGroups()
+		);
+		for (String worldName : dirtyWorlds) {
+			Map<@NonNull Integer, @NonNull SKShopkeeperInfo> worldEntries = entriesByWorld.get(
+					worldName
+			);
+			if (worldEntries == null) {
+				worldGroups.remove(worldName);
+			} else {
+				worldGroups.put(worldName, createGroup(worldEntries));
+			}
+		}
+
+		Group virtualGroup = previous.getVirtualGroup();
+		if (virtualDirty) {
+			virtualGroup = virtualEntries.isEmpty() ? null : createGroup(virtualEntries);
+		}
+
+		return new SKShopkeeperRegistrySnapshot(
+				previous.getVersion() + 1,
+				Collections.unmodifiableMap(worldGroups),
+				virtualGroup
+		);
+	}
+
+	private static Group createGroup(
+			Map<@NonNull Integer, @NonNull SKShopkeeperInfo> entries
+	) {
+		assert !entries.isEmpty();
+		return new Group(new ArrayList<>(entries.values()));
+	}
+}
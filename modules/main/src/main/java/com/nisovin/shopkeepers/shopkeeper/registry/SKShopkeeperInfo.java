@@ -0,0 +1,187 @@
+package com.nisovin.shopkeepers.shopkeeper.registry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperInfo;
+import com.nisovin.shopkeepers.api.shopkeeper.admin.regular.RegularAdminShopkeeper;
+import com.nisovin.shopkeepers.api.shopkeeper.offers.ShopOffer;
+import com.nisovin.shopkeepers.api.shopkeeper.player.book.BookPlayerShopkeeper;
+import com.nisovin.shopkeepers.api.shopkeeper.player.buy.BuyingPlayerShopkeeper;
+import com.nisovin.shopkeepers.api.shopkeeper.player.sell.SellingPlayerShopkeeper;
+import com.nisovin.shopkeepers.api.shopkeeper.player.trade.TradingPlayerShopkeeper;
+import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
+import com.nisovin.shopkeepers.shopkeeper.player.AbstractPlayerShopkeeper;
+import com.nisovin.shopkeepers.util.java.Validate;
+
+/**
+ * Immutable implementation of {@link ShopkeeperInfo}.
+ */
+public final class SKShopkeeperInfo implements ShopkeeperInfo {
+
+	/**
+	 * Captures the current data of the given shopkeeper.
+	 * <p>
+	 * This is expected to be called on the server's main thread.
+	 * 
+	 * @param shopkeeper
+	 *            the shopkeeper, not <code>null</code>
+	 * @return the shopkeeper info, not <code>null</code>
+	 */
+	public static SKShopkeeperInfo of(AbstractShopkeeper shopkeeper) {
+		Validate.notNull(shopkeeper, "shopkeeper is null");
+		return new SKShopkeeperInfo(shopkeeper);
+	}
+
+	// The offers themselves are immutable. We only need to copy the (mutable) list.
+	private static List<? extends @NonNull ShopOffer> getOffers(AbstractShopkeeper shopkeeper) {
+		List<? extends @NonNull ShopOffer> offers;
+		if (shopkeeper instanceof RegularAdminShopkeeper) {
+			offers = ((RegularAdminShopkeeper) shopkeeper).getOffers();
+		} else if (shopkeeper instanceof SellingPlayerShopkeeper) {
+			offers = ((SellingPlayerShopkeeper) shopkeeper).getOffers();
+		} else if (shopkeeper instanceof BuyingPlayerShopkeeper) {
+			offers = ((BuyingPlayerShopkeeper) shopkeeper).getOffers();
+		} else if (shopkeeper instanceof TradingPlayerShopkeeper) {
+			offers = ((TradingPlayerShopkeeper) shopkeeper).getOffers();
+		} else if (shopkeeper instanceof BookPlayerShopkeeper) {
+			offers = ((BookPlayerShopkeeper) shopkeeper).getOffers();
+		} else {
+			return Collections.emptyList();
+		}
+		if (offers.isEmpty()) return Collections.emptyList();
+		return Collections.unmodifiableList(new ArrayList<>(offers));
+	}
+
+	private final int id;
+	private final UUID uniqueId;
+	private final String shopTypeId;
+	private final String shopObjectTypeId;
+	private final String name;
+	private final boolean virtual;
+	private final @Nullable String worldName;
+	private final int x;
+	private final int y;
+	private final int z;
+	private final @Nullable UUID ownerUUID;
+	private final @Nullable String ownerName;
+	private final List<? extends @NonNull ShopOffer> offers;
+
+	private SKShopkeeperInfo(AbstractShopkeeper shopkeeper) {
+		this.id = shopkeeper.getId();
+		this.uniqueId = shopkeeper.getUniqueId();
+		this.shopTypeId = shopkeeper.getType().getIdentifier();
+		this.shopObjectTypeId = shopkeeper.getShopObject().getType().getIdentifier();
+		this.name = shopkeeper.getName();
+		this.virtual = shopkeeper.isVirtual();
+		this.worldName = shopkeeper.getWorldName();
+		this.x = shopkeeper.getX();
+		this.y = shopkeeper.getY();
+		this.z = shopkeeper.getZ();
+		if (shopkeeper instanceof AbstractPlayerShopkeeper) {
+			AbstractPlayerShopkeeper playerShopkeeper = (AbstractPlayerShopkeeper) shopkeeper;
+			this.ownerUUID = playerShopkeeper.getOwnerUUID();
+			this.ownerName = playerShopkeeper.getOwnerName();
+		} else {
+			this.ownerUUID = null;
+			this.ownerName = null;
+		}
+		this.offers = getOffers(shopkeeper);
+	}
+
+	@Override
+	public int getId() {
+		return id;
+	}
+
+	@Override
+	public UUID getUniqueId() {
+		return uniqueId;
+	}
+
+	@Override
+	public String getShopTypeId() {
+		return shopTypeId;
+	}
+
+	@Override
+	public String getShopObjectTypeId() {
+		return shopObjectTypeId;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public boolean isVirtual() {
+		return virtual;
+	}
+
+	@Override
+	public @Nullable String getWorldName() {
+		return worldName;
+	}
+
+	@Override
+	public int getX() {
+		return x;
+	}
+
+	@Override
+	public int getY() {
+		return y;
+	}
+
+	@Override
+	public int getZ() {
+		return z;
+	}
+
+	@Override
+	public boolean isPlayerShop() {
+		return ownerUUID != null;
+	}
+
+	@Override
+	public @Nullable UUID getOwnerUUID() {
+		return ownerUUID;
+	}
+
+	@Override
+	public @Nullable String getOwnerName() {
+		return ownerName;
+	}
+
+	@Override
+	public List<? extends @NonNull ShopOffer> getOffers() {
+		return offers;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("SKShopkeeperInfo [id=");
+		builder.append(id);
+		builder.append(", uniqueId=");
+		builder.append(uniqueId);
+		builder.append(", shopTypeId=");
+		builder.append(shopTypeId);
+		builder.append(", worldName=");
+		builder.append(worldName);
+		builder.append(", x=");
+		builder.append(x);
+		builder.append(", y=");
+		builder.append(y);
+		builder.append(", z=");
+		builder.append(z);
+		builder.append("]");
+		return builder.toString();
+	}
+}
@@ -12,6 +12,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 import org.bukkit.Bukkit;
@@ -31,7 +32,9 @@ import com.nisovin.shopkeepers.api.shopkeeper.ShopType;
 import com.nisovin.shopkeepers.api.shopkeeper.Shopkeeper;
 import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperCreateException;
 import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperRegistry;
-import com.nisovin.shopkeepers.api.shopkeeper.player.PlayerShopkeeper;
+import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperRegistrySnapshot;
+import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperStatistics;
+import com.nisovin.shopkeepers.api.shopobjects.ShopObjectType;
 import com.nisovin.shopkeepers.api.util.ChunkCoords;
 import com.nisovin.shopkeepers.shopkeeper.AbstractShopType;
 import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
@@ -46,7 +49,6 @@ import com.nisovin.shopkeepers.shopobjects.block.BlockShopObjectIds;
 import com.nisovin.shopkeepers.shopobjects.entity.EntityShopObjectIds;
 import com.nisovin.shopkeepers.storage.SKShopkeeperStorage;
 import com.nisovin.shopkeepers.util.bukkit.LocationUtils;
-import com.nisovin.shopkeepers.util.bukkit.TextUtils;
 import com.nisovin.shopkeepers.util.data.serialization.InvalidDataException;
 import com.nisovin.shopkeepers.util.java.StringUtils;
 import com.nisovin.shopkeepers.util.java.Validate;
@@ -76,6 +78,10 @@ public class SKShopkeeperRegistry implements ShopkeeperRegistry {
 				AbstractShopkeeper shopkeeper,
 				ChunkShopkeepers chunkShopkeepers
 		) {
+			Unsafe.assertNonNull(statisticsTracker).onWorldShopkeeperCountChanged(
+					chunkShopkeepers.getChunkCoords().getWorldName(),
+					1
+			);
 		}
 
 		@Override
@@ -83,6 +89,10 @@ public class SKShopkeeperRegistry implements ShopkeeperRegistry {
 				AbstractShopkeeper shopkeeper,
 				ChunkShopkeepers chunkShopkeepers
 		) {
+			Unsafe.assertNonNull(statisticsTracker).onWorldShopkeeperCountChanged(
+					chunkShopkeepers.getChunkCoords().getWorldName(),
+					-1
+			);
 		}
 
 		@Override
@@ -101,7 +111,12 @@ public class SKShopkeeperRegistry implements ShopkeeperRegistry {
 			// shopkeeper activation (ticking, spawning, etc.). This ensures that all queries
 			// involving active chunks provide a consistent view.
 			Unsafe.assertNonNull(chunkActivator);
-			chunkActivator.onShopkeeperChunkAdded(chunkShopkeepers.getChunkCoords());
+			ChunkCoords chunkCoords = chunkShopkeepers.getChunkCoords();
+			chunkActivator.onShopkeeperChunkAdded(chunkCoords);
+			// The chunk entry is initialized as active if the chunk is currently loaded:
+			if (chunkActivator.isChunkActive(chunkCoords)) {
+				Unsafe.assertNonNull(chunkMap).setChunkActive(chunkCoords, true);
+			}
 		}
 
 		@Override
@@ -112,31 +127,26 @@ public class SKShopkeeperRegistry implements ShopkeeperRegistry {
 	};
 
 	// Player shopkeepers:
-	private int playerShopCount = 0;
-	// Note: Already unmodifiable.
-	private final Set<? extends @NonNull AbstractPlayerShopkeeper> allPlayerShopkeepersView = new AbstractSet<@NonNull AbstractPlayerShopkeeper>() {
-		@Override
-		public Iterator<AbstractPlayerShopkeeper> iterator() {
-			if (this.isEmpty()) {
-				return Collections.emptyIterator();
-			}
-			return Unsafe.initialized(SKShopkeeperRegistry.this).getAllShopkeepers().stream()
-					.filter(shopkeeper -> shopkeeper instanceof PlayerShopkeeper)
-					.map(shopkeeper -> (AbstractPlayerShopkeeper) shopkeeper)
-					.iterator();
-		}
+	// Set: Allows for fast removal.
+	private final Set<@NonNull AbstractPlayerShopkeeper> playerShopkeepers = new LinkedHashSet<>();
+	private final Set<? extends @NonNull AbstractPlayerShopkeeper> allPlayerShopkeepersView = Collections.unmodifiableSet(playerShopkeepers);
 
-		@Override
-		public int size() {
-			return playerShopCount;
-		}
-	};
+	// Shopkeepers by shop type and shop object type:
+	// Note: Neither the shop type nor the shop object type of a shopkeeper can change while the
+	// shopkeeper is registered.
+	private final ShopkeeperTypeIndex<@NonNull ShopType<?>> shopkeepersByType = new ShopkeeperTypeIndex<>();
+	private final ShopkeeperTypeIndex<@NonNull ShopObjectType<?>> shopkeepersByObjectType = new ShopkeeperTypeIndex<>();
+	// Used for name lookups and command completions:
+	private final ShopkeeperSearchIndex<@NonNull AbstractShopkeeper> searchIndex = new ShopkeeperSearchIndex<>();
 
 	private final ShopObjectRegistry shopObjectRegistry = new ShopObjectRegistry();
 	private final ShopkeeperTicker shopkeeperTicker;
 	private final ShopkeeperSpawner shopkeeperSpawner;
 	private final ShopkeeperChunkActivator chunkActivator;
 	private final ActiveChunkQueries activeChunkQueries;
+	private final SpatialQueries spatialQueries;
+	private final RegistrySnapshotPublisher snapshotPublisher;
+	private final ShopkeeperStatisticsTracker statisticsTracker;
 
 	public SKShopkeeperRegistry(SKShopkeepersPlugin plugin) {
 		this.plugin = plugin;
@@ -149,7 +159,13 @@ public class SKShopkeeperRegistry implements ShopkeeperRegistry {
 				shopkeeperTicker,
 				shopkeeperSpawner
 		);
-		this.activeChunkQueries = new ActiveChunkQueries(chunkMap, chunkActivator);
+		this.activeChunkQueries = new ActiveChunkQueries(chunkMap);
+		this.spatialQueries = new SpatialQueries(chunkMap);
+		this.snapshotPublisher = new RegistrySnapshotPublisher(plugin, Unsafe.initialized(this));
+		this.statisticsTracker = new ShopkeeperStatisticsTracker(
+				plugin,
+				chunkMap::getActiveShopkeeperCount
+		);
 	}
 
 	public void onEnable() {
@@ -171,20 +187,31 @@ public class SKShopkeeperRegistry implements ShopkeeperRegistry {
 		shopkeeperSpawner.onDisable();
 		chunkActivator.onDisable();
 		shopObjectRegistry.onDisable();
+		snapshotPublisher.onDisable();
+		statisticsTracker.onDisable();
 	}
 
 	private void ensureEmpty() {
 		if (!shopkeepersByUUID.isEmpty() || !shopkeepersById.isEmpty()
-				|| !virtualShopkeepers.isEmpty() || playerShopCount != 0) {
+				|| !virtualShopkeepers.isEmpty() || !playerShopkeepers.isEmpty()
+				|| !shopkeepersByType.isEmpty() || !shopkeepersByObjectType.isEmpty()
+				|| !searchIndex.isEmpty()) {
 			Log.warning("Some shopkeepers were not properly unregistered!");
 			shopkeepersByUUID.clear();
 			shopkeepersById.clear();
 			virtualShopkeepers.clear();
-			playerShopCount = 0;
+			playerShopkeepers.clear();
+			shopkeepersByType.clear();
+			shopkeepersByObjectType.clear();
+			searchIndex.clear();
 		}
 		chunkMap.ensureEmpty();
 	}
 
+	public ShopkeeperTicker getShopkeeperTicker() {
+		return shopkeeperTicker;
+	}
+
 	public ShopkeeperSpawner getShopkeeperSpawner() {
 		return shopkeeperSpawner;
 	}
@@ -301,10 +328,17 @@ public class SKShopkeeperRegistry implements ShopkeeperRegistry {
 			chunkMap.addShopkeeper(shopkeeper);
 		}
 
-		// Update player shop count:
-		if (shopkeeper instanceof PlayerShopkeeper) {
-			playerShopCount++;
+		// Add shopkeeper to the player shops and the type indexes:
+		if (shopkeeper instanceof AbstractPlayerShopkeeper) {
+			playerShopkeepers.add((AbstractPlayerShopkeeper) shopkeeper);
 		}
+		shopkeepersByType.add(shopkeeper.getType(), shopkeeper);
+		shopkeepersByObjectType.add(shopkeeper.getShopObject().getType(), shopkeeper);
+		searchIndex.add(shopkeeper, shopkeeperId, shopkeeperUniqueId, shopkeeper.getName());
+
+		// Update the registry snapshot and statistics:
+		snapshotPublisher.onShopkeeperChanged(shopkeeper);
+		statisticsTracker.onShopkeeperAdded(shopkeeper);
 
 		// Log a warning if either the shop type or the shop object type is disabled. The shopkeeper
 		// is still added (so containers are still protected), but it might not get spawned, and
@@ -384,10 +418,17 @@ public class SKShopkeeperRegistry implements ShopkeeperRegistry {
 			chunkMap.removeShopkeeper(shopkeeper);
 		}
 
-		// Update player shop count:
-		if (shopkeeper instanceof PlayerShopkeeper) {
-			playerShopCount--;
+		// Remove shopkeeper from the player shops and the type indexes:
+		if (shopkeeper instanceof AbstractPlayerShopkeeper) {
+			playerShopkeepers.remove(shopkeeper);
 		}
+		shopkeepersByType.remove(shopkeeper.getType(), shopkeeper);
+		shopkeepersByObjectType.remove(shopkeeper.getShopObject().getType(), shopkeeper);
+		searchIndex.remove(shopkeeper);
+
+		// Update the registry snapshot and statistics:
+		snapshotPublisher.onShopkeeperChanged(shopkeeper);
+		statisticsTracker.onShopkeeperRemoved(shopkeeper);
 
 		if (cause == ShopkeeperRemoveEvent.Cause.DELETE) {
 			// Remove shopkeeper from storage:
@@ -402,6 +443,7 @@ public class SKShopkeeperRegistry implements ShopkeeperRegistry {
 		Validate.isTrue(!shopkeeper.isVirtual(), "shopkeeper is virtual");
 
 		ChunkCoords oldChunk = Unsafe.assertNonNull(shopkeeper.getLastChunkCoords());
+		snapshotPublisher.onShopkeeperChanged(shopkeeper);
 
 		// Update the shopkeeper's location inside the chunk map:
 		if (!chunkMap.moveShopkeeper(shopkeeper)) {
@@ -439,6 +481,15 @@ public class SKShopkeeperRegistry implements ShopkeeperRegistry {
 		new ArrayList<>(this.getAllShopkeepers()).forEach(this::deleteShopkeeper);
 	}
 
+	// Called by shopkeepers when they are marked dirty, i.e. whenever their data changes.
+	public void onShopkeeperChanged(AbstractShopkeeper shopkeeper) {
+		Validate.notNull(shopkeeper, "shopkeeper is null");
+		if (!shopkeeper.isValid()) return;
+		snapshotPublisher.onShopkeeperChanged(shopkeeper);
+		// The shopkeeper might have been renamed:
+		searchIndex.updateName(shopkeeper, shopkeeper.getName());
+	}
+
 	///// QUERYING
 
 	@Override
@@ -501,42 +552,54 @@ public class SKShopkeeperRegistry implements ShopkeeperRegistry {
 		};
 	}
 
+	// BY TYPE
+
+	@Override
+	public Collection<? extends @NonNull AbstractShopkeeper> getShopkeepersByType(
+			ShopType<?> shopType
+	) {
+		Validate.notNull(shopType, "shopType is null");
+		return shopkeepersByType.getShopkeepers(shopType);
+	}
+
+	@Override
+	public Collection<? extends @NonNull AbstractShopkeeper> getShopkeepersByObjectType(
+			ShopObjectType<?> shopObjectType
+	) {
+		Validate.notNull(shopObjectType, "shopObjectType is null");
+		return shopkeepersByObjectType.getShopkeepers(shopObjectType);
+	}
+
 	// BY NAME
 
 	@Override
 	public Stream<? extends @NonNull AbstractShopkeeper> getShopkeepersByName(String shopName) {
-		String normalizedShopName = StringUtils.normalize(TextUtils.stripColor(shopName));
+		Validate.notNull(shopName, "shopName is null");
+		String normalizedShopName = ShopkeeperSearchIndex.normalizeName(shopName);
 		if (StringUtils.isEmpty(normalizedShopName)) return Stream.empty();
-
-		// TODO Improve via (Tree)Map?
-		return this.getAllShopkeepers().stream().filter(shopkeeper -> {
-			String shopkeeperName = shopkeeper.getName(); // Can be empty
-			if (shopkeeperName.isEmpty()) return false; // Has no name, filter
-
-			shopkeeperName = TextUtils.stripColor(shopkeeperName);
-			shopkeeperName = StringUtils.normalize(shopkeeperName);
-			// Include shopkeeper if name matches:
-			return (shopkeeperName.equals(normalizedShopName));
-		});
+		return searchIndex.getByName(normalizedShopName);
 	}
 
 	@Override
 	public Stream<? extends @NonNull AbstractShopkeeper> getShopkeepersByNamePrefix(
 			String shopNamePrefix
 	) {
-		String normalizedShopNamePrefix = StringUtils.normalize(TextUtils.stripColor(shopNamePrefix));
+		Validate.notNull(shopNamePrefix, "shopNamePrefix is null");
+		String normalizedShopNamePrefix = ShopkeeperSearchIndex.normalizeName(shopNamePrefix);
 		if (StringUtils.isEmpty(normalizedShopNamePrefix)) return Stream.empty();
+		return searchIndex.getByNamePrefix(normalizedShopNamePrefix);
+	}
 
-		// TODO Improve via TreeMap?
-		return this.getAllShopkeepers().stream().filter(shopkeeper -> {
-			String shopkeeperName = shopkeeper.getName(); // Can be empty
-			if (shopkeeperName.isEmpty()) return false; // Has no name, filter
-
-			shopkeeperName = TextUtils.stripColor(shopkeeperName);
-			shopkeeperName = StringUtils.normalize(shopkeeperName);
-			// Include shopkeeper if name matches:
-			return shopkeeperName.startsWith(normalizedShopNamePrefix);
-		});
+	/**
+	 * Gets the {@link ShopkeeperSearchIndex} of the registered shopkeepers.
+	 * <p>
+	 * For example, this can be used to efficiently provide completion suggestions for the names,
+	 * ids, and unique ids of shopkeepers.
+	 * 
+	 * @return the search index, not <code>null</code>
+	 */
+	public ShopkeeperSearchIndex<? extends @NonNull AbstractShopkeeper> getSearchIndex() {
+		return searchIndex;
 	}
 
 	// BY WORLD
@@ -566,6 +629,12 @@ public class SKShopkeeperRegistry implements ShopkeeperRegistry {
 
 	// ACTIVE CHUNKS
 
+	// Called by the ShopkeeperChunkActivator when it has activated or deactivated a chunk.
+	public void onChunkActiveChanged(ChunkCoords chunkCoords, boolean active) {
+		chunkMap.setChunkActive(chunkCoords, active);
+		statisticsTracker.onActiveShopkeepersChanged();
+	}
+
 	@Override
 	public Collection<? extends @NonNull ChunkCoords> getActiveChunks(String worldName) {
 		return activeChunkQueries.getActiveChunks(worldName);
@@ -632,6 +701,57 @@ public class SKShopkeeperRegistry implements ShopkeeperRegistry {
 		return shopkeepers;
 	}
 
+	// BY AREA
+
+	@Override
+	public List<? extends @NonNull AbstractShopkeeper> getShopkeepersInRadius(
+			Location location,
+			double radius
+	) {
+		World world = LocationUtils.getWorld(location);
+		Validate.isTrue(radius >= 0.0D, "radius cannot be negative");
+		return spatialQueries.getShopkeepersInRadius(
+				world.getName(),
+				location.getX(),
+				location.getY(),
+				location.getZ(),
+				radius
+		);
+	}
+
+	@Override
+	public List<? extends @NonNull AbstractShopkeeper> getNearestShopkeepers(
+			Location location,
+			int count,
+			Predicate<? super @NonNull Shopkeeper> filter
+	) {
+		World world = LocationUtils.getWorld(location);
+		Validate.isTrue(count > 0, "count has to be positive");
+		Validate.notNull(filter, "filter is null");
+		return spatialQueries.getNearestShopkeepers(
+				world.getName(),
+				location.getX(),
+				location.getY(),
+				location.getZ(),
+				count,
+				filter
+		);
+	}
+
+	@Override
+	public List<? extends @NonNull AbstractShopkeeper> getShopkeepersInBoundingBox(
+			String worldName,
+			int minX,
+			int minY,
+			int minZ,
+			int maxX,
+			int maxY,
+			int maxZ
+	) {
+		Validate.notEmpty(worldName, "worldName is null or empty");
+		return spatialQueries.getShopkeepersInBox(worldName, minX, minY, minZ, maxX, maxY, maxZ);
+	}
+
 	// BY SHOP OBJECT
 
 	public ShopObjectRegistry getShopObjectRegistry() {
@@ -641,6 +761,8 @@ public class SKShopkeeperRegistry implements ShopkeeperRegistry {
 	@Override
 	public @Nullable AbstractShopkeeper getShopkeeperByEntity(Entity entity) {
 		Validate.notNull(entity, "entity is null");
+		// Cheap pre-filter: Most entities, e.g. of mob farms, can never be shopkeepers.
+		if (!shopObjectRegistry.mightBeShopEntity(entity)) return null;
 		Object objectId = EntityShopObjectIds.getObjectId(entity);
 		return shopObjectRegistry.getShopkeeperByObjectId(objectId);
 	}
@@ -671,4 +793,18 @@ public class SKShopkeeperRegistry implements ShopkeeperRegistry {
 	public boolean isShopkeeper(Block block) {
 		return (this.getShopkeeperByBlock(block) != null);
 	}
+
+	// SNAPSHOT
+
+	@Override
+	public ShopkeeperRegistrySnapshot getSnapshot() {
+		return snapshotPublisher.getSnapshot();
+	}
+
+	// STATISTICS
+
+	@Override
+	public ShopkeeperStatistics getShopkeeperStatistics() {
+		return statisticsTracker.getStatistics();
+	}
 }
@@ -0,0 +1,221 @@
+package com.nisovin.shopkeepers.shopkeeper.registry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperRegistrySnapshot;
+
+/**
+ * Immutable implementation of {@link ShopkeeperRegistrySnapshot}.
+ * <p>
+ * The shopkeepers are split into {@link Group groups}: One group per world, and one group for the
+ * virtual shopkeepers. Groups are immutable and shared with subsequent snapshots for as long as
+ * none of their shopkeepers change. The lookup maps of each group, as well as the flat list of all
+ * shopkeepers, are only built on first access.
+ * <p>
+ * All collections are expected to be unmodifiable and to not be modified by anyone after they have
+ * been passed to the constructor. Since the lazily built data is derived from this immutable state,
+ * concurrent threads that build it at the same time produce equal results. The snapshot can
+ * therefore be safely shared with other threads.
+ */
+final class SKShopkeeperRegistrySnapshot implements ShopkeeperRegistrySnapshot {
+
+	/**
+	 * The immutable shopkeepers of a single world, or the virtual shopkeepers.
+	 */
+	static final class Group {
+
+		private final List<? extends @NonNull SKShopkeeperInfo> shopkeepers;
+		// Lazily built:
+		private volatile @Nullable Map<@NonNull Integer, @NonNull SKShopkeeperInfo> byId = null;
+		private volatile @Nullable Map<@NonNull UUID, @NonNull SKShopkeeperInfo> byUniqueId = null;
+		private volatile @Nullable Map<@NonNull UUID, @NonNull List<@NonNull SKShopkeeperInfo>> byOwner = null;
+
+		/**
+		 * Creates a new {@link Group}.
+		 * 
+		 * @param shopkeepers
+		 *            the shopkeepers, not <code>null</code> or empty, and not modified afterwards
+		 */
+		Group(List<? extends @NonNull SKShopkeeperInfo> shopkeepers) {
+			assert shopkeepers != null && !shopkeepers.isEmpty();
+			this.shopkeepers = Collections.unmodifiableList(shopkeepers);
+		}
+
+		List<? extends @NonNull SKShopkeeperInfo> getShopkeepers() {
+			return shopkeepers;
+		}
+
+		@Nullable SKShopkeeperInfo getById(int shopkeeperId) {
+			Map<@NonNull Integer, @NonNull SKShopkeeperInfo> byId = this.byId;
+			if (byId == null) {
+				byId = new HashMap<>(getHashMapCapacity(shopkeepers.size()));
+				for (SKShopkeeperInfo shopkeeper : shopkeepers) {
+					byId.put(shopkeeper.getId(), shopkeeper);
+				}
+				this.byId = byId;
+			}
+			return byId.get(shopkeeperId);
+		}
+
+		@Nullable SKShopkeeperInfo getByUniqueId(UUID shopkeeperUniqueId) {
+			Map<@NonNull UUID, @NonNull SKShopkeeperInfo> byUniqueId = this.byUniqueId;
+			if (byUniqueId == null) {
+				byUniqueId = new HashMap<>(getHashMapCapacity(shopkeepers.size()));
+				for (SKShopkeeperInfo shopkeeper : shopkeepers) {
+					byUniqueId.put(shopkeeper.getUniqueId(), shopkeeper);
+				}
+				this.byUniqueId = byUniqueId;
+			}
+			return byUniqueId.get(shopkeeperUniqueId);
+		}
+
+		List<? extends @NonNull SKShopkeeperInfo> getByOwner(UUID ownerUUID) {
+			Map<@NonNull UUID, @NonNull List<@NonNull SKShopkeeperInfo>> byOwner = this.byOwner;
+			if (byOwner == null) {
+				byOwner = new HashMap<>();
+				for (SKShopkeeperInfo shopkeeper : shopkeepers) {
+					UUID shopOwnerUUID = shopkeeper.getOwnerUUID();
+					if (shopOwnerUUID == null) continue;
+					byOwner.computeIfAbsent(shopOwnerUUID, key -> new ArrayList<>()).add(shopkeeper);
+				}
+				this.byOwner = byOwner;
+			}
+			List<? extends @NonNull SKShopkeeperInfo> ownerShopkeepers = byOwner.get(ownerUUID);
+			if (ownerShopkeepers == null) return Collections.emptyList();
+			return Collections.unmodifiableList(ownerShopkeepers);
+		}
+	}
+
+	private static int getHashMapCapacity(int size) {
+		return (int) (size / 0.75F) + 1;
+	}
+
+	static final SKShopkeeperRegistrySnapshot EMPTY = new SKShopkeeperRegistrySnapshot(
+			0L,
+			Collections.emptyMap(),
+			null
+	);
+
+	private final long version;
+	private final Map<? extends @NonNull String, ? extends @NonNull Group> worldGroups;
+	private final @Nullable Group virtualGroup;
+	private final int size;
+	// Lazily built. RandomAccess: Parallel streams can split this evenly.
+	private volatile @Nullable List<? extends @NonNull SKShopkeeperInfo> allShopkeepers = null;
+
+	SKShopkeeperRegistrySnapshot(
+			long version,
+			Map<? extends @NonNull String, ? extends @NonNull Group> worldGroups,
+			@Nullable Group virtualGroup
+	) {
+		this.version = version;
+		this.worldGroups = worldGroups;
+		this.virtualGroup = virtualGroup;
+		int size = (virtualGroup != null) ? virtualGroup.getShopkeepers().size() : 0;
+		for (Group group : worldGroups.values()) {
+			size += group.getShopkeepers().size();
+		}
+		this.size = size;
+	}
+
+	private Stream<? extends @NonNull Group> groups() {
+		Stream<? extends @NonNull Group> groups = worldGroups.values().stream();
+		Group virtualGroup = this.virtualGroup;
+		if (virtualGroup == null) return groups;
+		return Stream.concat(groups, Stream.of(virtualGroup));
+	}
+
+	@Override
+	public long getVersion() {
+		return version;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public List<? extends @NonNull SKShopkeeperInfo> getAllShopkeepers() {
+		List<? extends @NonNull SKShopkeeperInfo> allShopkeepers = this.allShopkeepers;
+		if (allShopkeepers == null) {
+			List<@NonNull SKShopkeeperInfo> shopkeepers = new ArrayList<>(size);
+			this.groups().forEach(group -> shopkeepers.addAll(group.getShopkeepers()));
+			allShopkeepers = Collections.unmodifiableList(shopkeepers);
+			this.allShopkeepers = allShopkeepers;
+		}
+		return allShopkeepers;
+	}
+
+	@Override
+	public Stream<? extends @NonNull SKShopkeeperInfo> stream() {
+		// Avoids building the flat list of all shopkeepers:
+		return this.groups().flatMap(group -> group.getShopkeepers().stream());
+	}
+
+	@Override
+	public Stream<? extends @NonNull SKShopkeeperInfo> parallelStream() {
+		return this.getAllShopkeepers().parallelStream();
+	}
+
+	@Override
+	public @Nullable SKShopkeeperInfo getShopkeeperById(int shopkeeperId) {
+		// The number of groups is expected to be small:
+		for (Group group : worldGroups.values()) {
+			SKShopkeeperInfo shopkeeper = group.getById(shopkeeperId);
+			if (shopkeeper != null) return shopkeeper;
+		}
+		Group virtualGroup = this.virtualGroup;
+		return (virtualGroup != null) ? virtualGroup.getById(shopkeeperId) : null;
+	}
+
+	@Override
+	public @Nullable SKShopkeeperInfo getShopkeeperByUniqueId(UUID shopkeeperUniqueId) {
+		for (Group group : worldGroups.values()) {
+			SKShopkeeperInfo shopkeeper = group.getByUniqueId(shopkeeperUniqueId);
+			if (shopkeeper != null) return shopkeeper;
+		}
+		Group virtualGroup = this.virtualGroup;
+		return (virtualGroup != null) ? virtualGroup.getByUniqueId(shopkeeperUniqueId) : null;
+	}
+
+	@Override
+	public Collection<? extends @NonNull String> getWorldsWithShopkeepers() {
+		return worldGroups.keySet();
+	}
+
+	@Override
+	public List<? extends @NonNull SKShopkeeperInfo> getShopkeepersInWorld(String worldName) {
+		Group group = worldGroups.get(worldName);
+		if (group == null) return Collections.emptyList();
+		return group.getShopkeepers();
+	}
+
+	@Override
+	public List<? extends @NonNull SKShopkeeperInfo> getPlayerShopkeepersByOwner(UUID ownerUUID) {
+		List<@NonNull SKShopkeeperInfo> ownerShopkeepers = new ArrayList<>();
+		this.groups().forEach(group -> ownerShopkeepers.addAll(group.getByOwner(ownerUUID)));
+		if (ownerShopkeepers.isEmpty()) return Collections.emptyList();
+		return Collections.unmodifiableList(ownerShopkeepers);
+	}
+
+	// Used when creating the next snapshot:
+
+	Map<? extends @NonNull String, ? extends @NonNull Group> getWorldGroups() {
+		return worldGroups;
+	}
+
+	@Nullable Group getVirtualGroup() {
+		return virtualGroup;
+	}
+}
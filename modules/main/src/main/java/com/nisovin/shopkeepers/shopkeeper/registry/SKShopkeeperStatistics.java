@@ -0,0 +1,110 @@
+package com.nisovin.shopkeepers.shopkeeper.registry;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperStatistics;
+
+/**
+ * Immutable implementation of {@link ShopkeeperStatistics}.
+ * <p>
+ * The maps are expected to be unmodifiable and to not be modified by anyone after they have been
+ * passed to the constructor. Since all fields are final, the statistics can then be safely shared
+ * with other threads.
+ */
+final class SKShopkeeperStatistics implements ShopkeeperStatistics {
+
+	static final SKShopkeeperStatistics EMPTY = new SKShopkeeperStatistics(
+			0,
+			0,
+			0,
+			0,
+			0,
+			Collections.emptyMap(),
+			Collections.emptyMap(),
+			Collections.emptyMap()
+	);
+
+	private final int shopkeeperCount;
+	private final int playerShopkeeperCount;
+	private final int virtualShopkeeperCount;
+	private final int citizensShopkeeperCount;
+	private final int activeShopkeeperCount;
+	private final Map<? extends @NonNull String, ? extends @NonNull Integer> countsByShopType;
+	private final Map<? extends @NonNull String, ? extends @NonNull Integer> countsByObjectType;
+	private final Map<? extends @NonNull String, ? extends @NonNull Integer> countsByWorld;
+
+	SKShopkeeperStatistics(
+			int shopkeeperCount,
+			int playerShopkeeperCount,
+			int virtualShopkeeperCount,
+			int citizensShopkeeperCount,
+			int activeShopkeeperCount,
+			Map<? extends @NonNull String, ? extends @NonNull Integer> countsByShopType,
+			Map<? extends @NonNull String, ? extends @NonNull Integer> countsByObjectType,
+			Map<? extends @NonNull String, ? extends @NonNull Integer> countsByWorld
+	) {
+		this.shopkeeperCount = shopkeeperCount;
+		this.playerShopkeeperCount = playerShopkeeperCount;
+		this.virtualShopkeeperCount = virtualShopkeeperCount;
+		this.citizensShopkeeperCount = citizensShopkeeperCount;
+		this.activeShopkeeperCount = activeShopkeeperCount;
+		this.countsByShopType = countsByShopType;
+		this.countsByObjectType = countsByObjectType;
+		this.countsByWorld = countsByWorld;
+	}
+
+	@Override
+	public int getShopkeeperCount() {
+		return shopkeeperCount;
+	}
+
+	@Override
+	public int getPlayerShopkeeperCount() {
+		return playerShopkeeperCount;
+	}
+
+	@Override
+	public int getVirtualShopkeeperCount() {
+		return virtualShopkeeperCount;
+	}
+
+	@Override
+	public int getCitizensShopkeeperCount() {
+		return citizensShopkeeperCount;
+	}
+
+	@Override
+	public int getActiveShopkeeperCount() {
+		return activeShopkeeperCount;
+	}
+
+	@Override
+	public Map<? extends @NonNull String, ? extends @NonNull Integer> getShopkeeperCountsByShopType() {
+		return countsByShopType;
+	}
+
+	@Override
+	public Map<? extends @NonNull String, ? extends @NonNull Integer> getShopkeeperCountsByObjectType() {
+		return countsByObjectType;
+	}
+
+	@Override
+	public Map<? extends @NonNull String, ? extends @NonNull Integer> getShopkeeperCountsByWorld() {
+		return countsByWorld;
+	}
+
+	@Override
+	public String toString() {
+		return "ShopkeeperStatistics [shopkeeperCount=" + shopkeeperCount
+				+ ", playerShopkeeperCount=" + playerShopkeeperCount
+				+ ", virtualShopkeeperCount=" + virtualShopkeeperCount
+				+ ", citizensShopkeeperCount=" + citizensShopkeeperCount
+				+ ", activeShopkeeperCount=" + activeShopkeeperCount
+				+ ", countsByShopType=" + countsByShopType
+				+ ", countsByObjectType=" + countsByObjectType
+				+ ", countsByWorld=" + countsByWorld + "]";
+	}
+}
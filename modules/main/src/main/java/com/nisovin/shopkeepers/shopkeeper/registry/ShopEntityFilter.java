@@ -0,0 +1,151 @@
+package com.nisovin.shopkeepers.shopkeeper.registry;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.util.bukkit.EntityUtils;
+
+/**
+ * A cheap pre-filter for the lookup of shopkeepers by entity.
+ * <p>
+ * Some entity events, such as entity damage or targeting events, can be called very frequently,
+ * for example by mob farms. Most of the involved entities can never be shopkeepers. This filter
+ * keeps track of the types of the currently spawned shop entities, so that most of these entities
+ * can be ruled out without resolving their shop object id and looking it up.
+ * <p>
+ * The filter does not take the worlds of the shop entities into account: Shop entities can be
+ * moved to other worlds without us noticing, e.g. when they are teleported by other plugins.
+ * <p>
+ * The filter is conservative: If {@link #mightBeShopEntity(Entity)} returns <code>false</code>,
+ * the entity is guaranteed to not be a registered shop entity. Otherwise, the entity needs to be
+ * looked up.
+ */
+final class ShopEntityFilter {
+
+	// The entity types for which there is at least one shop entity. Indexed by the ordinal.
+	private final BitSet entityTypes = new BitSet();
+	private final int[] entityTypeCounts = new int[EntityType.values().length];
+	// The entity types of the shop entities, keyed by their shop object ids:
+	private final Map<@NonNull Object, @NonNull EntityType> shopEntities = new HashMap<>();
+	// The ids of entity-based shop objects for which we could not determine the entity. If there
+	// are any, this filter is disabled.
+	private final Set<@NonNull Object> unknownShopEntities = new HashSet<>();
+
+	ShopEntityFilter() {
+	}
+
+	/**
+	 * Checks if the given entity might be a registered shop entity.
+	 * <p>
+	 * If the given entity is a complex entity part, this checks its parent entity.
+	 * 
+	 * @param entity
+	 *            the entity, not <code>null</code>
+	 * @return <code>false</code> if the entity is guaranteed to not be a registered shop entity
+	 */
+	boolean mightBeShopEntity(Entity entity) {
+		assert entity != null;
+		if (!unknownShopEntities.isEmpty()) return true;
+		if (entityTypes.isEmpty()) return false;
+
+		Entity resolvedEntity = EntityUtils.resolveComplexEntity(entity);
+		return entityTypes.get(resolvedEntity.getType().ordinal());
+	}
+
+	/**
+	 * Adds the shop entity with the given shop object id.
+	 * <p>
+	 * If there is already a shop entity with the same object id, it is replaced.
+	 * 
+	 * @param objectId
+	 *            the shop object id, not <code>null</code>
+	 * @param entity
+	 *            the shop entity, or <code>null</code> if the entity of the entity-based shop
+	 *            object is unknown
+	 */
+	void add(Object objectId, @Nullable Entity entity) {
+		assert objectId != null;
+		this.remove(objectId);
+		if (entity == null) {
+			unknownShopEntities.add(objectId);
+			return;
+		}
+
+		EntityType entityType = entity.getType();
+		shopEntities.put(objectId, entityType);
+
+		int typeIndex = entityType.ordinal();
+		if (entityTypeCounts[typeIndex]++ == 0) {
+			entityTypes.set(typeIndex);
+		}
+	}
+
+	/**
+	 * Updates the shop entity with the given shop object id, if its type has changed.
+	 * 
+	 * @param objectId
+	 *            the shop object id, not <code>null</code>
+	 * @param entity
+	 *            the shop entity, or <code>null</code> if the entity of the entity-based shop
+	 *            object is unknown
+	 */
+	void update(Object objectId, @Nullable Entity entity) {
+		assert objectId != null;
+		if (entity != null) {
+			if (shopEntities.get(objectId) == entity.getType()) {
+				return; // Unchanged
+			}
+		}
+		this.add(objectId, entity);
+	}
+
+	/**
+	 * Removes the shop entity with the given shop object id.
+	 * <p>
+	 * This has no effect if there is no shop entity with the given object id.
+	 * 
+	 * @param objectId
+	 *            the shop object id, not <code>null</code>
+	 */
+	void remove(Object objectId) {
+		assert objectId != null;
+		EntityType entityType = shopEntities.remove(objectId);
+		if (entityType == null) {
+			unknownShopEntities.remove(objectId);
+			return;
+		}
+
+		int typeIndex = entityType.ordinal();
+		if (--entityTypeCounts[typeIndex] == 0) {
+			entityTypes.clear(typeIndex);
+		}
+	}
+
+	/**
+	 * Gets the number of shop entities.
+	 * 
+	 * @return the number of shop entities
+	 */
+	int getShopEntityCount() {
+		return shopEntities.size() + unknownShopEntities.size();
+	}
+
+	/**
+	 * Removes all shop entities.
+	 */
+	void clear() {
+		entityTypes.clear();
+		Arrays.fill(entityTypeCounts, 0);
+		shopEntities.clear();
+		unknownShopEntities.clear();
+	}
+}
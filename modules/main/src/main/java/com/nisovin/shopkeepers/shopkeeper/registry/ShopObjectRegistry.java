@@ -4,13 +4,16 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 
+import org.bukkit.entity.Entity;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import com.nisovin.shopkeepers.api.shopkeeper.Shopkeeper;
+import com.nisovin.shopkeepers.api.shopobjects.entity.EntityShopObject;
 import com.nisovin.shopkeepers.debug.DebugOptions;
 import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
 import com.nisovin.shopkeepers.shopobjects.AbstractShopObject;
+import com.nisovin.shopkeepers.shopobjects.entity.EntityShopObjectIds;
 import com.nisovin.shopkeepers.util.java.Validate;
 import com.nisovin.shopkeepers.util.logging.Log;
 
@@ -25,6 +28,7 @@ public class ShopObjectRegistry {
 	// Since some types of shop objects may handle their spawning themselves, shop objects might
 	// already be spawned before their chunk is activated.
 	private final Map<@NonNull Object, @NonNull AbstractShopkeeper> shopkeepersByObjectId = new HashMap<>();
+	private final ShopEntityFilter shopEntityFilter = new ShopEntityFilter();
 
 	ShopObjectRegistry() {
 	}
@@ -40,6 +44,7 @@ public class ShopObjectRegistry {
 		if (!shopkeepersByObjectId.isEmpty()) {
 			Log.warning("Some spawned shop objects were not properly unregistered!");
 			shopkeepersByObjectId.clear();
+			shopEntityFilter.clear();
 		}
 	}
 
@@ -54,6 +59,32 @@ public class ShopObjectRegistry {
 		return shopkeepersByObjectId.get(objectId);
 	}
 
+	/**
+	 * Checks if the given entity might be a spawned shop entity.
+	 * <p>
+	 * This is a cheap check that is based on the entity types of the currently spawned shop
+	 * entities. If this returns <code>false</code>, the entity is guaranteed to not be a
+	 * registered shop entity. Otherwise, its shopkeeper still needs to be looked up via its
+	 * {@link EntityShopObjectIds#getObjectId(Entity) object id}.
+	 * 
+	 * @param entity
+	 *            the entity, not <code>null</code>
+	 * @return <code>false</code> if the entity is guaranteed to not be a registered shop entity
+	 */
+	public boolean mightBeShopEntity(Entity entity) {
+		Validate.notNull(entity, "entity is null");
+		return shopEntityFilter.mightBeShopEntity(entity);
+	}
+
+	/**
+	 * Gets the number of spawned shop entities.
+	 * 
+	 * @return the number of spawned shop entities
+	 */
+	public int getShopEntityCount() {
+		return shopEntityFilter.getShopEntityCount();
+	}
+
 	/**
 	 * Handles the registration and unregistration of spawned shop objects.
 	 * <p>
@@ -76,7 +107,9 @@ public class ShopObjectRegistry {
 		Object currentObjectId = shopObject.getId();
 		if (Objects.equals(lastObjectId, currentObjectId)) {
 			// The current object id equals the last object id, so there is no need to update the
-			// registration.
+			// registration. However, the shop entity might have been respawned with a different
+			// entity type.
+			this.updateShopEntity(shopkeeper);
 			return;
 		}
 
@@ -113,6 +146,9 @@ public class ShopObjectRegistry {
 			return;
 		} else {
 			shopObject.setLastId(objectId); // Remember the object id
+			if (shopObject instanceof EntityShopObject) {
+				shopEntityFilter.add(objectId, ((EntityShopObject) shopObject).getEntity());
+			}
 		}
 	}
 
@@ -126,6 +162,24 @@ public class ShopObjectRegistry {
 				+ "Unregistering object with id '" + objectId + "'.");
 		assert shopkeepersByObjectId.get(objectId) == shopkeeper;
 		shopkeepersByObjectId.remove(objectId);
+		shopEntityFilter.remove(objectId);
 		shopObject.setLastId(null);
 	}
+
+	/**
+	 * Updates the tracked entity type of the shopkeeper's spawned shop entity, if it has changed.
+	 * 
+	 * @param shopkeeper
+	 *            the shopkeeper, not <code>null</code>
+	 */
+	private void updateShopEntity(AbstractShopkeeper shopkeeper) {
+		assert shopkeeper != null;
+		AbstractShopObject shopObject = shopkeeper.getShopObject();
+		if (!(shopObject instanceof EntityShopObject)) return;
+
+		Object objectId = shopObject.getLastId();
+		if (objectId == null) return; // Not registered
+
+		shopEntityFilter.update(objectId, ((EntityShopObject) shopObject).getEntity());
+	}
 }
@@ -55,6 +55,9 @@ class ShopkeeperChunkMap {
 	// By world name:
 	private final Map<@NonNull String, @NonNull WorldShopkeepers> shopkeepersByWorld = new LinkedHashMap<>();
 	private final Set<@NonNull String> shopkeeperWorldsView = Collections.unmodifiableSet(shopkeepersByWorld.keySet());
+	private final Collection<? extends @NonNull WorldShopkeepers> worldShopkeepersView = Collections.unmodifiableCollection(shopkeepersByWorld.values());
+	// The number of shopkeepers in active chunks across all worlds:
+	private int activeShopkeeperCount = 0;
 
 	private final ChangeListener changeListener; // Not null
 
@@ -95,7 +98,9 @@ class ShopkeeperChunkMap {
 				WorldShopkeepers::new
 		);
 		assert worldShopkeepers != null;
+		int oldActiveShopkeeperCount = worldShopkeepers.getActiveShopkeeperCount();
 		ChunkShopkeepers chunkShopkeepers = worldShopkeepers.addShopkeeper(shopkeeper);
+		activeShopkeeperCount += (worldShopkeepers.getActiveShopkeeperCount() - oldActiveShopkeeperCount);
 
 		// Inform change listener:
 		if (worldShopkeepers.getShopkeeperCount() == 1) {
@@ -124,7 +129,9 @@ class ShopkeeperChunkMap {
 		WorldShopkeepers worldShopkeepers = shopkeepersByWorld.get(worldName);
 		if (worldShopkeepers == null) return null; // Could not find the shopkeeper
 
+		int oldActiveShopkeeperCount = worldShopkeepers.getActiveShopkeeperCount();
 		ChunkShopkeepers chunkShopkeepers = worldShopkeepers.removeShopkeeper(shopkeeper);
+		activeShopkeeperCount += (worldShopkeepers.getActiveShopkeeperCount() - oldActiveShopkeeperCount);
 		boolean worldRemoved = false;
 		if (!skipWorldCleanup && worldShopkeepers.getShopkeeperCount() == 0) {
 			worldRemoved = true;
@@ -162,11 +169,22 @@ class ShopkeeperChunkMap {
 		return true;
 	}
 
+	// Called when the ShopkeeperChunkActivator has activated or deactivated the specified chunk.
+	void setChunkActive(ChunkCoords chunkCoords, boolean active) {
+		assert chunkCoords != null;
+		WorldShopkeepers worldShopkeepers = this.getWorldShopkeepers(chunkCoords.getWorldName());
+		if (worldShopkeepers == null) return; // There are no shopkeepers in this world
+		int oldActiveShopkeeperCount = worldShopkeepers.getActiveShopkeeperCount();
+		worldShopkeepers.setChunkActive(chunkCoords, active);
+		activeShopkeeperCount += (worldShopkeepers.getActiveShopkeeperCount() - oldActiveShopkeeperCount);
+	}
+
 	void ensureEmpty() {
 		if (!shopkeepersByWorld.isEmpty()) {
 			Log.warning("Some shopkeepers were not properly removed from the chunk map!");
 			shopkeepersByWorld.clear();
 		}
+		activeShopkeeperCount = 0;
 	}
 
 	// QUERIES
@@ -174,4 +192,12 @@ class ShopkeeperChunkMap {
 	public Collection<? extends @NonNull String> getWorldsWithShopkeepers() {
 		return shopkeeperWorldsView;
 	}
+
+	public Collection<? extends @NonNull WorldShopkeepers> getAllWorldShopkeepers() {
+		return worldShopkeepersView;
+	}
+
+	public int getActiveShopkeeperCount() {
+		return activeShopkeeperCount;
+	}
 }
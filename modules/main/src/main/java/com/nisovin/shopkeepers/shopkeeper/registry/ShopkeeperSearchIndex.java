@@ -0,0 +1,358 @@
+package com.nisovin.shopkeepers.shopkeeper.registry;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.util.bukkit.TextUtils;
+import com.nisovin.shopkeepers.util.java.CollectionUtils;
+import com.nisovin.shopkeepers.util.java.StringUtils;
+import com.nisovin.shopkeepers.util.java.Validate;
+
+/**
+ * Sorted indexes of the normalized names, ids, and unique ids of shopkeepers, which allow to look
+ * up the shopkeepers that match a given prefix without having to check every shopkeeper.
+ * <p>
+ * This is used for example to provide command completion suggestions. The returned streams are
+ * lazily evaluated, so that a caller that only requires a limited number of matches only visits
+ * those matches. Streams that are not consumed right away are not guaranteed to reflect later
+ * changes to the index, and can fail if the index is modified during their iteration.
+ * <p>
+ * The shopkeeper names are normalized by removing colors and
+ * {@link StringUtils#normalize(String) normalizing} the remaining name. Shopkeepers without a
+ * name are not included in the name index.
+ * 
+ * @param <T>
+ *            the type of the indexed shopkeepers
+ */
+public final class ShopkeeperSearchIndex<T> {
+
+	// The natural order of the String representations of unique ids: The String representation
+	// consists of fixed-width hexadecimal digits of the most and least significant bits.
+	private static final Comparator<@NonNull UUID> UUID_STRING_ORDER = (uuid1, uuid2) -> {
+		int result = Long.compareUnsigned(
+				uuid1.getMostSignificantBits(),
+				uuid2.getMostSignificantBits()
+		);
+		if (result != 0) return result;
+		return Long.compareUnsigned(
+				uuid1.getLeastSignificantBits(),
+				uuid2.getLeastSignificantBits()
+		);
+	};
+	private static final String MIN_UUID = "00000000-0000-0000-0000-000000000000";
+	private static final String MAX_UUID = "ffffffff-ffff-ffff-ffff-ffffffffffff";
+
+	// The largest number of decimal digits of a positive int:
+	private static final int MAX_ID_DIGITS = String.valueOf(Integer.MAX_VALUE).length();
+
+	private static final class Entry {
+
+		final int id;
+		final UUID uniqueId;
+		// The name from which the name key has been derived:
+		String name;
+		// Null if the shopkeeper has no name:
+		@Nullable String nameKey;
+
+		Entry(int id, UUID uniqueId, String name, @Nullable String nameKey) {
+			this.id = id;
+			this.uniqueId = uniqueId;
+			this.name = name;
+			this.nameKey = nameKey;
+		}
+	}
+
+	private final Map<@NonNull T, @NonNull Entry> entries = new HashMap<>();
+	// Set: Allows for fast removal. Shopkeeper names are not unique.
+	private final NavigableMap<@NonNull String, @NonNull Set<@NonNull T>> byName = new TreeMap<>();
+	private final NavigableMap<@NonNull Integer, @NonNull T> byId = new TreeMap<>();
+	private final NavigableMap<@NonNull UUID, @NonNull T> byUniqueId = new TreeMap<>(UUID_STRING_ORDER);
+
+	public ShopkeeperSearchIndex() {
+	}
+
+	/**
+	 * Gets the normalized name that is used to index and look up shopkeepers by name.
+	 * 
+	 * @param name
+	 *            the name, not <code>null</code>
+	 * @return the normalized name, can be empty
+	 */
+	public static String normalizeName(String name) {
+		return StringUtils.normalize(TextUtils.stripColor(name));
+	}
+
+	// UPDATES
+
+	/**
+	 * Adds the given shopkeeper to the index.
+	 * 
+	 * @param shopkeeper
+	 *            the shopkeeper, not <code>null</code>
+	 * @param id
+	 *            the shopkeeper's id
+	 * @param uniqueId
+	 *            the shopkeeper's unique id, not <code>null</code>
+	 * @param name
+	 *            the shopkeeper's name, can be empty, not <code>null</code>
+	 */
+	public void add(@NonNull T shopkeeper, int id, UUID uniqueId, String name) {
+		Validate.notNull(shopkeeper, "shopkeeper is null");
+		Validate.notNull(uniqueId, "uniqueId is null");
+		Validate.notNull(name, "name is null");
+		Validate.isTrue(!entries.containsKey(shopkeeper), "shopkeeper is already indexed");
+
+		String nameKey = toNameKey(name);
+		entries.put(shopkeeper, new Entry(id, uniqueId, name, nameKey));
+		byId.put(id, shopkeeper);
+		byUniqueId.put(uniqueId, shopkeeper);
+		if (nameKey != null) {
+			this.addName(nameKey, shopkeeper);
+		}
+	}
+
+	private static @Nullable String toNameKey(String name) {
+		if (name.isEmpty()) return null;
+		String nameKey = normalizeName(name);
+		return nameKey.isEmpty() ? null : nameKey;
+	}
+
+	private void addName(String nameKey, @NonNull T shopkeeper) {
+		byName.computeIfAbsent(nameKey, key -> new LinkedHashSet<>()).add(shopkeeper);
+	}
+
+	private void removeName(String nameKey, @NonNull T shopkeeper) {
+		Set<@NonNull T> shopkeepers = byName.get(nameKey);
+		if (shopkeepers == null) return;
+		shopkeepers.remove(shopkeeper);
+		if (shopkeepers.isEmpty()) {
+			byName.remove(nameKey);
+		}
+	}
+
+	/**
+	 * Updates the indexed name of the given shopkeeper.
+	 * <p>
+	 * This has no effect if the shopkeeper is not indexed, or if its name did not change. Checking
+	 * for an unchanged name is cheap, so this can be called whenever the shopkeeper might have been
+	 * renamed.
+	 * 
+	 * @param shopkeeper
+	 *            the shopkeeper, not <code>null</code>
+	 * @param name
+	 *            the shopkeeper's current name, can be empty, not <code>null</code>
+	 */
+	public void updateName(@NonNull T shopkeeper, String name) {
+		Validate.notNull(name, "name is null");
+		Entry entry = entries.get(shopkeeper);
+		if (entry == null) return;
+		if (entry.name.equals(name)) return; // Unchanged
+
+		String oldNameKey = entry.nameKey;
+		String newNameKey = toNameKey(name);
+		entry.name = name;
+		entry.nameKey = newNameKey;
+		if (oldNameKey != null ? oldNameKey.equals(newNameKey) : newNameKey == null) {
+			return; // The name key did not change
+		}
+
+		if (oldNameKey != null) {
+			this.removeName(oldNameKey, shopkeeper);
+		}
+		if (newNameKey != null) {
+			this.addName(newNameKey, shopkeeper);
+		}
+	}
+
+	/**
+	 * Removes the given shopkeeper from the index.
+	 * 
+	 * @param shopkeeper
+	 *            the shopkeeper, not <code>null</code>
+	 */
+	public void remove(@NonNull T shopkeeper) {
+		Entry entry = entries.remove(shopkeeper);
+		if (entry == null) return;
+
+		byId.remove(entry.id);
+		byUniqueId.remove(entry.uniqueId);
+		String nameKey = entry.nameKey;
+		if (nameKey != null) {
+			this.removeName(nameKey, shopkeeper);
+		}
+	}
+
+	public boolean isEmpty() {
+		return entries.isEmpty();
+	}
+
+	public void clear() {
+		entries.clear();
+		byName.clear();
+		byId.clear();
+		byUniqueId.clear();
+	}
+
+	// QUERIES
+
+	/**
+	 * Gets the shopkeepers whose {@link #normalizeName(String) normalized} names equal the given
+	 * normalized name.
+	 * 
+	 * @param normalizedName
+	 *            the normalized name, not <code>null</code>
+	 * @return a stream over the matching shopkeepers, not <code>null</code>
+	 */
+	public Stream<@NonNull T> getByName(String normalizedName) {
+		Validate.notNull(normalizedName, "normalizedName is null");
+		Set<@NonNull T> shopkeepers = byName.get(normalizedName);
+		if (shopkeepers == null) return Stream.empty();
+		return shopkeepers.stream();
+	}
+
+	/**
+	 * Gets the shopkeepers whose {@link #normalizeName(String) normalized} names start with the
+	 * given normalized prefix, sorted by their normalized names.
+	 * <p>
+	 * If the prefix is empty, this returns all shopkeepers that have a name.
+	 * 
+	 * @param normalizedPrefix
+	 *            the normalized name prefix, not <code>null</code>
+	 * @return a stream over the matching shopkeepers, not <code>null</code>
+	 */
+	public Stream<@NonNull T> getByNamePrefix(String normalizedPrefix) {
+		Validate.notNull(normalizedPrefix, "normalizedPrefix is null");
+		NavigableMap<@NonNull String, @NonNull Set<@NonNull T>> matches;
+		if (normalizedPrefix.isEmpty()) {
+			matches = byName;
+		} else {
+			// All Strings that start with the prefix are sorted before the prefix followed by the
+			// largest char:
+			matches = byName.subMap(
+					normalizedPrefix,
+					true,
+					normalizedPrefix + Character.MAX_VALUE,
+					false
+			);
+		}
+		return matches.values().stream().flatMap(Set::stream);
+	}
+
+	/**
+	 * Gets the shopkeepers whose decimal ids start with the given prefix.
+	 * <p>
+	 * Shorter ids are returned first, and ids of the same length are returned in ascending order.
+	 * For example, the prefix "2" matches the ids 2, 20 to 29, 200 to 299, etc. If the prefix is
+	 * empty, this returns all shopkeepers in the order of their ids.
+	 * <p>
+	 * Only the ranges of ids that match the prefix are visited.
+	 * 
+	 * @param idPrefix
+	 *            the id prefix, not <code>null</code>
+	 * @return a stream over the matching shopkeepers, not <code>null</code>
+	 */
+	public Stream<@NonNull T> getByIdPrefix(String idPrefix) {
+		Validate.notNull(idPrefix, "idPrefix is null");
+		if (idPrefix.isEmpty()) {
+			return byId.values().stream();
+		}
+
+		// Shopkeeper ids are positive. Their decimal representation has no sign and no leading
+		// zeros:
+		int length = idPrefix.length();
+		if (length > MAX_ID_DIGITS || idPrefix.charAt(0) == '0') return Stream.empty();
+		for (int i = 0; i < length; i++) {
+			char c = idPrefix.charAt(i);
+			if (c < '0' || c > '9') return Stream.empty();
+		}
+		long prefix = Long.parseLong(idPrefix);
+		if (prefix > Integer.MAX_VALUE || byId.isEmpty()) return Stream.empty();
+		int maxId = byId.lastKey();
+		Iterable<@NonNull T> matches = () -> new IdRangesIterator(prefix, maxId);
+		return CollectionUtils.stream(matches);
+	}
+
+	// Iterates the ranges of ids with the same prefix in the order of increasing id length.
+	private final class IdRangesIterator implements Iterator<@NonNull T> {
+
+		private final int maxId;
+		// The next range of ids:
+		private long rangeStart;
+		private long rangeEnd;
+		private Iterator<@NonNull T> rangeIterator = Collections.emptyIterator();
+
+		IdRangesIterator(long prefix, int maxId) {
+			this.maxId = maxId;
+			this.rangeStart = prefix;
+			this.rangeEnd = prefix;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (!rangeIterator.hasNext()) {
+				if (rangeStart > maxId) return false;
+
+				// The start of the range is within the int range here:
+				int start = (int) rangeStart;
+				int end = (int) Math.min(rangeEnd, maxId);
+				rangeIterator = byId.subMap(start, true, end, true).values().iterator();
+
+				// The next range contains the ids with one more digit:
+				rangeStart = rangeStart * 10;
+				rangeEnd = rangeEnd * 10 + 9;
+			}
+			return true;
+		}
+
+		@Override
+		public @NonNull T next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return rangeIterator.next();
+		}
+	}
+
+	/**
+	 * Gets the shopkeepers whose unique ids, in their {@link UUID#toString() String
+	 * representation}, start with the given prefix, sorted by their unique ids.
+	 * <p>
+	 * The prefix is expected to be in lower case. If the prefix is empty, this returns all
+	 * shopkeepers.
+	 * 
+	 * @param uniqueIdPrefix
+	 *            the unique id prefix, not <code>null</code>
+	 * @return a stream over the matching shopkeepers, not <code>null</code>
+	 */
+	public Stream<@NonNull T> getByUniqueIdPrefix(String uniqueIdPrefix) {
+		Validate.notNull(uniqueIdPrefix, "uniqueIdPrefix is null");
+		int length = uniqueIdPrefix.length();
+		if (length > MIN_UUID.length()) return Stream.empty();
+		for (int i = 0; i < length; i++) {
+			char c = uniqueIdPrefix.charAt(i);
+			if (MIN_UUID.charAt(i) == '-') {
+				if (c != '-') return Stream.empty();
+			} else if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+				return Stream.empty();
+			}
+		}
+
+		// The smallest and largest unique ids with the given prefix:
+		UUID first = UUID.fromString(uniqueIdPrefix + MIN_UUID.substring(length));
+		UUID last = UUID.fromString(uniqueIdPrefix + MAX_UUID.substring(length));
+		return byUniqueId.subMap(first, true, last, true).values().stream();
+	}
+}
@@ -0,0 +1,170 @@
+package com.nisovin.shopkeepers.shopkeeper.registry;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntSupplier;
+
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.SKShopkeepersPlugin;
+import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
+import com.nisovin.shopkeepers.shopkeeper.player.AbstractPlayerShopkeeper;
+import com.nisovin.shopkeepers.shopobjects.citizens.SKCitizensShopObjectType;
+
+/**
+ * Maintains the {@link SKShopkeeperStatistics} of the {@link SKShopkeeperRegistry}.
+ * <p>
+ * The counters are updated incrementally on the server's main thread whenever shopkeepers are
+ * added, removed, or moved. Changes are published as new immutable statistics at most once per
+ * tick, so that other threads, such as the bStats thread, can read the counters without locking
+ * and without accessing the registry.
+ * <p>
+ * Apart from {@link #getStatistics()}, this is only supposed to be used on the server's main
+ * thread.
+ */
+class ShopkeeperStatisticsTracker {
+
+	private final SKShopkeepersPlugin plugin;
+	private final IntSupplier activeShopkeeperCount;
+
+	private int shopkeeperCount = 0;
+	private int playerShopkeeperCount = 0;
+	private int virtualShopkeeperCount = 0;
+	private int citizensShopkeeperCount = 0;
+	private final Map<@NonNull String, @NonNull Integer> countsByShopType = new LinkedHashMap<>();
+	private final Map<@NonNull String, @NonNull Integer> countsByObjectType = new LinkedHashMap<>();
+	private final Map<@NonNull String, @NonNull Integer> countsByWorld = new LinkedHashMap<>();
+
+	private boolean dirty = false;
+	private @Nullable BukkitTask publishTask = null;
+
+	private volatile SKShopkeeperStatistics statistics = SKShopkeeperStatistics.EMPTY;
+
+	ShopkeeperStatisticsTracker(SKShopkeepersPlugin plugin, IntSupplier activeShopkeeperCount) {
+		assert plugin != null && activeShopkeeperCount != null;
+		this.plugin = plugin;
+		this.activeShopkeeperCount = activeShopkeeperCount;
+	}
+
+	void onDisable() {
+		if (publishTask != null) {
+			publishTask.cancel();
+			publishTask = null;
+		}
+		dirty = false;
+		shopkeeperCount = 0;
+		playerShopkeeperCount = 0;
+		virtualShopkeeperCount = 0;
+		citizensShopkeeperCount = 0;
+		countsByShopType.clear();
+		countsByObjectType.clear();
+		countsByWorld.clear();
+		statistics = SKShopkeeperStatistics.EMPTY;
+	}
+
+	// Called when the shopkeeper has been added to the registry.
+	void onShopkeeperAdded(AbstractShopkeeper shopkeeper) {
+		this.updateCounts(shopkeeper, 1);
+	}
+
+	// Called when the shopkeeper has been removed from the registry.
+	void onShopkeeperRemoved(AbstractShopkeeper shopkeeper) {
+		this.updateCounts(shopkeeper, -1);
+	}
+
+	private void updateCounts(AbstractShopkeeper shopkeeper, int delta) {
+		assert shopkeeper != null;
+		shopkeeperCount += delta;
+		if (shopkeeper instanceof AbstractPlayerShopkeeper) {
+			playerShopkeeperCount += delta;
+		}
+		if (shopkeeper.isVirtual()) {
+			virtualShopkeeperCount += delta;
+		}
+		if (shopkeeper.getShopObject().getType() instanceof SKCitizensShopObjectType) {
+			citizensShopkeeperCount += delta;
+		}
+		// Neither the shop type nor the shop object type can change while the shopkeeper is
+		// registered.
+		addCount(countsByShopType, shopkeeper.getType().getIdentifier(), delta);
+		addCount(countsByObjectType, shopkeeper.getShopObject().getType().getIdentifier(), delta);
+		this.markDirty();
+	}
+
+	// Called by the chunk map whenever a shopkeeper is added to or removed from a world, including
+	// when it is moved between worlds.
+	void onWorldShopkeeperCountChanged(String worldName, int delta) {
+		assert worldName != null;
+		addCount(countsByWorld, worldName, delta);
+		this.markDirty();
+	}
+
+	// Called whenever the number of shopkeepers in active chunks might have changed.
+	void onActiveShopkeepersChanged() {
+		this.markDirty();
+	}
+
+	private static void addCount(Map<@NonNull String, @NonNull Integer> counts, String key, int delta) {
+		Integer oldCount = counts.get(key);
+		int newCount = (oldCount != null ? oldCount : 0) + delta;
+		assert newCount >= 0;
+		if (newCount == 0) {
+			counts.remove(key);
+		} else {
+			counts.put(key, newCount);
+		}
+	}
+
+	private void markDirty() {
+		dirty = true;
+		if (publishTask == null && plugin.isEnabled()) {
+			publishTask = Bukkit.getScheduler().runTask(plugin, this::publish);
+		}
+	}
+
+	/**
+	 * Gets the latest published statistics.
+	 * <p>
+	 * This can be called from any thread. When called on the server's main thread, pending changes
+	 * are published first.
+	 * 
+	 * @return the statistics, not <code>null</code>
+	 */
+	SKShopkeeperStatistics getStatistics() {
+		if (Bukkit.isPrimaryThread() && dirty) {
+			this.publish();
+		}
+		return statistics;
+	}
+
+	private void publish() {
+		if (publishTask != null) {
+			publishTask.cancel();
+			publishTask = null;
+		}
+		if (!dirty) return;
+		dirty = false;
+
+		statistics = new SKShopkeeperStatistics(
+				shopkeeperCount,
+				playerShopkeeperCount,
+				virtualShopkeeperCount,
+				citizensShopkeeperCount,
+				activeShopkeeperCount.getAsInt(),
+				copyCounts(countsByShopType),
+				copyCounts(countsByObjectType),
+				copyCounts(countsByWorld)
+		);
+	}
+
+	private static Map<? extends @NonNull String, ? extends @NonNull Integer> copyCounts(
+			Map<? extends @NonNull String, ? extends @NonNull Integer> counts
+	) {
+		if (counts.isEmpty()) return Collections.emptyMap();
+		return Collections.unmodifiableMap(new LinkedHashMap<>(counts));
+	}
+}
@@ -0,0 +1,78 @@
+package com.nisovin.shopkeepers.shopkeeper.registry;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
+
+/**
+ * Partitions shopkeepers by a type that does not change during the lifetime of a shopkeeper, such
+ * as its shop type or shop object type.
+ * <p>
+ * Once a type has been queried or added, its partition is retained even if it becomes empty. This
+ * ensures that the returned views remain valid. Since there is only a small number of types, this
+ * does not waste any significant amount of memory.
+ * 
+ * @param <T>
+ *            the type of the partitioning keys
+ */
+final class ShopkeeperTypeIndex<T> {
+
+	private static final class Partition {
+
+		// Set: Allows for fast removal.
+		final Set<@NonNull AbstractShopkeeper> shopkeepers = new LinkedHashSet<>();
+		final Collection<? extends @NonNull AbstractShopkeeper> shopkeepersView = Collections.unmodifiableCollection(shopkeepers);
+	}
+
+	private final Map<@NonNull T, @NonNull Partition> partitions = new HashMap<>();
+
+	ShopkeeperTypeIndex() {
+	}
+
+	private Partition getOrCreatePartition(@NonNull T type) {
+		return partitions.computeIfAbsent(type, key -> new Partition());
+	}
+
+	void add(@NonNull T type, AbstractShopkeeper shopkeeper) {
+		assert type != null && shopkeeper != null;
+		this.getOrCreatePartition(type).shopkeepers.add(shopkeeper);
+	}
+
+	void remove(@NonNull T type, AbstractShopkeeper shopkeeper) {
+		assert type != null && shopkeeper != null;
+		Partition partition = partitions.get(type);
+		if (partition == null) return;
+		partition.shopkeepers.remove(shopkeeper);
+	}
+
+	/**
+	 * Gets the shopkeepers of the specified type.
+	 * 
+	 * @param type
+	 *            the type, not <code>null</code>
+	 * @return an unmodifiable view on the shopkeepers of the specified type, not <code>null</code>
+	 */
+	Collection<? extends @NonNull AbstractShopkeeper> getShopkeepers(@NonNull T type) {
+		assert type != null;
+		return this.getOrCreatePartition(type).shopkeepersView;
+	}
+
+	boolean isEmpty() {
+		for (Partition partition : partitions.values()) {
+			if (!partition.shopkeepers.isEmpty()) return false;
+		}
+		return true;
+	}
+
+	void clear() {
+		// Retains the partitions, so that any previously returned views remain valid:
+		partitions.values().forEach(partition -> partition.shopkeepers.clear());
+	}
+}
@@ -0,0 +1,178 @@
+package com.nisovin.shopkeepers.shopkeeper.registry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import com.nisovin.shopkeepers.api.internal.util.Unsafe;
+import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
+import com.nisovin.shopkeepers.util.bukkit.ChunkRegionGrid;
+import com.nisovin.shopkeepers.util.java.Validate;
+
+/**
+ * Area queries that are backed by the {@link ChunkRegionGrid} of the {@link WorldShopkeepers}.
+ * <p>
+ * Distances are measured between the given coordinates and the shopkeepers' block coordinates.
+ */
+final class SpatialQueries {
+
+	private static final class Candidate {
+
+		static final Comparator<@NonNull Candidate> BY_DISTANCE = Comparator.comparingDouble(
+				candidate -> candidate.distanceSquared
+		);
+
+		final AbstractShopkeeper shopkeeper;
+		final double distanceSquared;
+
+		Candidate(AbstractShopkeeper shopkeeper, double distanceSquared) {
+			this.shopkeeper = shopkeeper;
+			this.distanceSquared = distanceSquared;
+		}
+	}
+
+	private static double getDistanceSquared(
+			AbstractShopkeeper shopkeeper,
+			double x,
+			double y,
+			double z
+	) {
+		double dx = shopkeeper.getX() - x;
+		double dy = shopkeeper.getY() - y;
+		double dz = shopkeeper.getZ() - z;
+		return dx * dx + dy * dy + dz * dz;
+	}
+
+	private static int floor(double value) {
+		// Saturates for values outside the int range:
+		return (int) Math.floor(value);
+	}
+
+	private final ShopkeeperChunkMap shopkeeperChunkMap;
+
+	SpatialQueries(ShopkeeperChunkMap shopkeeperChunkMap) {
+		Validate.notNull(shopkeeperChunkMap, "shopkeeperChunkMap is null");
+		this.shopkeeperChunkMap = shopkeeperChunkMap;
+	}
+
+	// The bounds are inclusive.
+	public List<? extends @NonNull AbstractShopkeeper> getShopkeepersInBox(
+			String worldName,
+			int minX,
+			int minY,
+			int minZ,
+			int maxX,
+			int maxY,
+			int maxZ
+	) {
+		WorldShopkeepers worldShopkeepers = shopkeeperChunkMap.getWorldShopkeepers(worldName);
+		if (worldShopkeepers == null) return Collections.emptyList();
+
+		List<@NonNull AbstractShopkeeper> shopkeepers = new ArrayList<>();
+		worldShopkeepers.getRegionGrid().forEachInChunkRange(
+				minX >> 4,
+				minZ >> 4,
+				maxX >> 4,
+				maxZ >> 4,
+				chunkShopkeepers -> {
+					for (AbstractShopkeeper shopkeeper : chunkShopkeepers.getShopkeepers()) {
+						int x = shopkeeper.getX();
+						int y = shopkeeper.getY();
+						int z = shopkeeper.getZ();
+						if (x < minX || x > maxX) continue;
+						if (y < minY || y > maxY) continue;
+						if (z < minZ || z > maxZ) continue;
+						shopkeepers.add(shopkeeper);
+					}
+				}
+		);
+		return shopkeepers;
+	}
+
+	public List<? extends @NonNull AbstractShopkeeper> getShopkeepersInRadius(
+			String worldName,
+			double x,
+			double y,
+			double z,
+			double radius
+	) {
+		assert radius >= 0.0D;
+		WorldShopkeepers worldShopkeepers = shopkeeperChunkMap.getWorldShopkeepers(worldName);
+		if (worldShopkeepers == null) return Collections.emptyList();
+
+		double radiusSquared = radius * radius;
+		List<@NonNull AbstractShopkeeper> shopkeepers = new ArrayList<>();
+		worldShopkeepers.getRegionGrid().forEachInChunkRange(
+				floor(x - radius) >> 4,
+				floor(z - radius) >> 4,
+				floor(x + radius) >> 4,
+				floor(z + radius) >> 4,
+				chunkShopkeepers -> {
+					for (AbstractShopkeeper shopkeeper : chunkShopkeepers.getShopkeepers()) {
+						if (getDistanceSquared(shopkeeper, x, y, z) <= radiusSquared) {
+							shopkeepers.add(shopkeeper);
+						}
+					}
+				}
+		);
+		return shopkeepers;
+	}
+
+	// The returned shopkeepers are sorted by their distance, starting with the closest shopkeeper.
+	public List<? extends @NonNull AbstractShopkeeper> getNearestShopkeepers(
+			String worldName,
+			double x,
+			double y,
+			double z,
+			int count,
+			Predicate<? super @NonNull AbstractShopkeeper> filter
+	) {
+		assert count > 0 && filter != null;
+		WorldShopkeepers worldShopkeepers = shopkeeperChunkMap.getWorldShopkeepers(worldName);
+		if (worldShopkeepers == null) return Collections.emptyList();
+
+		// Max-heap: The head is the farthest of the closest candidates found so far.
+		PriorityQueue<@NonNull Candidate> candidates = new PriorityQueue<>(
+				Math.min(count, worldShopkeepers.getShopkeeperCount()) + 1,
+				Candidate.BY_DISTANCE.reversed()
+		);
+		worldShopkeepers.getRegionGrid().forEachInRings(
+				floor(x),
+				floor(z),
+				ring -> {
+					if (candidates.size() < count) return true;
+					// Stop once the remaining rings cannot contain any closer shopkeepers:
+					double minDistance = ChunkRegionGrid.getMinBlockDistance(ring);
+					Candidate farthest = Unsafe.assertNonNull(candidates.peek());
+					return (minDistance * minDistance < farthest.distanceSquared);
+				},
+				chunkShopkeepers -> {
+					for (AbstractShopkeeper shopkeeper : chunkShopkeepers.getShopkeepers()) {
+						double distanceSquared = getDistanceSquared(shopkeeper, x, y, z);
+						if (candidates.size() >= count) {
+							Candidate farthest = Unsafe.assertNonNull(candidates.peek());
+							if (distanceSquared >= farthest.distanceSquared) continue;
+						}
+						if (!filter.test(shopkeeper)) continue;
+
+						if (candidates.size() >= count) {
+							candidates.poll();
+						}
+						candidates.add(new Candidate(shopkeeper, distanceSquared));
+					}
+				}
+		);
+
+		if (candidates.isEmpty()) return Collections.emptyList();
+		List<@NonNull Candidate> sortedCandidates = new ArrayList<>(candidates);
+		sortedCandidates.sort(Candidate.BY_DISTANCE);
+		List<@NonNull AbstractShopkeeper> shopkeepers = new ArrayList<>(sortedCandidates.size());
+		sortedCandidates.forEach(candidate -> shopkeepers.add(candidate.shopkeeper));
+		return shopkeepers;
+	}
+}
@@ -3,9 +3,9 @@ package com.nisovin.shopkeepers.shopkeeper.registry;
 import java.util.AbstractSet;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -16,17 +16,30 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 import com.nisovin.shopkeepers.api.internal.util.Unsafe;
 import com.nisovin.shopkeepers.api.util.ChunkCoords;
 import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
+import com.nisovin.shopkeepers.util.bukkit.ChunkKeys;
+import com.nisovin.shopkeepers.util.bukkit.ChunkRegionGrid;
+import com.nisovin.shopkeepers.util.java.LongHashMap;
 import com.nisovin.shopkeepers.util.java.Validate;
 
 final class WorldShopkeepers {
 
 	private final String worldName;
-	private final Map<@NonNull ChunkCoords, @NonNull ChunkShopkeepers> shopkeepersByChunk = new HashMap<>();
+	// Keyed by the packed chunk coordinates, so that lookups do not allocate:
+	private final LongHashMap<@NonNull ChunkShopkeepers> shopkeepersByChunk = new LongHashMap<>();
 	// Unmodifiable entries:
 	private final Map<@NonNull ChunkCoords, @NonNull List<? extends @NonNull AbstractShopkeeper>> shopkeeperViewsByChunk = new LinkedHashMap<>();
 	// Unmodifiable map with unmodifiable entries:
 	private final Map<@NonNull ChunkCoords, @NonNull List<? extends @NonNull AbstractShopkeeper>> shopkeepersByChunkView = Collections.unmodifiableMap(shopkeeperViewsByChunk);
 	private int shopkeeperCount = 0;
+	// Spatial index of the chunks with shopkeepers, used by area queries:
+	private final ChunkRegionGrid<@NonNull ChunkShopkeepers> regionGrid = new ChunkRegionGrid<>(
+			chunkShopkeepers -> ChunkKeys.of(chunkShopkeepers.getChunkCoords())
+	);
+
+	// Maintained incrementally on chunk activation and deactivation, and when shopkeepers are added
+	// to or removed from active chunks:
+	private final Set<@NonNull ChunkShopkeepers> activeChunks = new LinkedHashSet<>();
+	private int activeShopkeeperCount = 0;
 
 	// Note: Already unmodifiable.
 	private final Set<? extends @NonNull AbstractShopkeeper> shopkeepersView = new AbstractSet<@NonNull AbstractShopkeeper>() {
@@ -46,6 +59,53 @@ final class WorldShopkeepers {
 		}
 	};
 
+	// Note: Already unmodifiable.
+	private final Set<? extends @NonNull ChunkCoords> activeChunksView = new AbstractSet<@NonNull ChunkCoords>() {
+		@Override
+		public Iterator<ChunkCoords> iterator() {
+			if (this.isEmpty()) {
+				return Collections.emptyIterator();
+			}
+			return activeChunks.stream()
+					.map(ChunkShopkeepers::getChunkCoords)
+					.iterator();
+		}
+
+		@Override
+		public int size() {
+			return activeChunks.size();
+		}
+
+		@Override
+		public boolean contains(@Nullable Object object) {
+			if (!(object instanceof ChunkCoords)) return false;
+			ChunkCoords chunkCoords = (ChunkCoords) object;
+			if (!chunkCoords.getWorldName().equals(worldName)) return false;
+			ChunkShopkeepers chunkShopkeepers = shopkeepersByChunk.get(ChunkKeys.of(chunkCoords));
+			return (chunkShopkeepers != null && chunkShopkeepers.isActive());
+		}
+	};
+
+	// Note: Already unmodifiable.
+	private final Set<? extends @NonNull AbstractShopkeeper> activeShopkeepersView = new AbstractSet<@NonNull AbstractShopkeeper>() {
+		@Override
+		public Iterator<AbstractShopkeeper> iterator() {
+			if (this.isEmpty()) {
+				return Collections.emptyIterator();
+			}
+			return activeChunks.stream()
+					.<AbstractShopkeeper>flatMap(chunkShopkeepers -> {
+						return chunkShopkeepers.getShopkeepers().stream();
+					})
+					.iterator();
+		}
+
+		@Override
+		public int size() {
+			return activeShopkeeperCount;
+		}
+	};
+
 	WorldShopkeepers(String worldName) {
 		Validate.notEmpty(worldName, "worldName is null or empty");
 		this.worldName = worldName;
@@ -60,7 +120,7 @@ final class WorldShopkeepers {
 	ChunkShopkeepers getChunkShopkeepers(ChunkCoords chunkCoords) {
 		assert chunkCoords != null;
 		assert chunkCoords.getWorldName().equals(this.getWorldName());
-		return shopkeepersByChunk.get(chunkCoords);
+		return shopkeepersByChunk.get(ChunkKeys.of(chunkCoords));
 	}
 
 	ChunkShopkeepers addShopkeeper(AbstractShopkeeper shopkeeper) {
@@ -69,10 +129,11 @@ final class WorldShopkeepers {
 		ChunkCoords chunkCoords = Unsafe.assertNonNull(shopkeeper.getChunkCoords());
 		assert chunkCoords.getWorldName().equals(this.getWorldName());
 		ChunkShopkeepers chunkShopkeepers = shopkeepersByChunk.computeIfAbsent(
-				chunkCoords,
-				chkCoords -> {
-					ChunkShopkeepers newChunkShopkeepers = new ChunkShopkeepers(chkCoords);
-					shopkeeperViewsByChunk.put(chkCoords, newChunkShopkeepers.getShopkeepers());
+				ChunkKeys.of(chunkCoords),
+				chunkKey -> {
+					ChunkShopkeepers newChunkShopkeepers = new ChunkShopkeepers(chunkCoords);
+					shopkeeperViewsByChunk.put(chunkCoords, newChunkShopkeepers.getShopkeepers());
+					regionGrid.add(newChunkShopkeepers);
 					return newChunkShopkeepers;
 				}
 		);
@@ -80,6 +141,9 @@ final class WorldShopkeepers {
 		assert !chunkShopkeepers.getShopkeepers().contains(shopkeeper);
 		chunkShopkeepers.addShopkeeper(shopkeeper);
 		shopkeeperCount += 1;
+		if (chunkShopkeepers.isActive()) {
+			activeShopkeeperCount += 1;
+		}
 		return chunkShopkeepers;
 	}
 
@@ -87,17 +151,41 @@ final class WorldShopkeepers {
 		assert shopkeeper != null;
 		ChunkCoords chunkCoords = Unsafe.assertNonNull(shopkeeper.getLastChunkCoords());
 		assert chunkCoords.getWorldName().equals(this.getWorldName());
-		ChunkShopkeepers chunkShopkeepers = Unsafe.assertNonNull(shopkeepersByChunk.get(chunkCoords));
+		long chunkKey = ChunkKeys.of(chunkCoords);
+		ChunkShopkeepers chunkShopkeepers = Unsafe.assertNonNull(shopkeepersByChunk.get(chunkKey));
 		assert chunkShopkeepers.getShopkeepers().contains(shopkeeper);
 		chunkShopkeepers.removeShopkeeper(shopkeeper);
 		shopkeeperCount -= 1;
+		if (chunkShopkeepers.isActive()) {
+			activeShopkeeperCount -= 1;
+		}
 		if (chunkShopkeepers.getShopkeepers().isEmpty()) {
-			shopkeepersByChunk.remove(chunkCoords);
+			shopkeepersByChunk.remove(chunkKey);
 			shopkeeperViewsByChunk.remove(chunkCoords);
+			regionGrid.remove(chunkShopkeepers);
+			activeChunks.remove(chunkShopkeepers);
 		}
 		return chunkShopkeepers;
 	}
 
+	// Called when the ShopkeeperChunkActivator has activated or deactivated the specified chunk.
+	void setChunkActive(ChunkCoords chunkCoords, boolean active) {
+		assert chunkCoords != null;
+		ChunkShopkeepers chunkShopkeepers = this.getChunkShopkeepers(chunkCoords);
+		if (chunkShopkeepers == null) return; // There are no shopkeepers in this chunk
+		if (chunkShopkeepers.isActive() == active) return; // No change
+
+		chunkShopkeepers.setActive(active);
+		int chunkShopkeeperCount = chunkShopkeepers.getShopkeepers().size();
+		if (active) {
+			activeChunks.add(chunkShopkeepers);
+			activeShopkeeperCount += chunkShopkeeperCount;
+		} else {
+			activeChunks.remove(chunkShopkeepers);
+			activeShopkeeperCount -= chunkShopkeeperCount;
+		}
+	}
+
 	// QUERIES
 
 	public int getShopkeeperCount() {
@@ -111,4 +199,21 @@ final class WorldShopkeepers {
 	public Map<? extends @NonNull ChunkCoords, ? extends @NonNull List<? extends @NonNull AbstractShopkeeper>> getShopkeepersByChunk() {
 		return shopkeepersByChunkView;
 	}
+
+	// The returned grid is not supposed to be modified.
+	public ChunkRegionGrid<@NonNull ChunkShopkeepers> getRegionGrid() {
+		return regionGrid;
+	}
+
+	public int getActiveShopkeeperCount() {
+		return activeShopkeeperCount;
+	}
+
+	public Set<? extends @NonNull ChunkCoords> getActiveChunks() {
+		return activeChunksView;
+	}
+
+	public Set<? extends @NonNull AbstractShopkeeper> getActiveShopkeepers() {
+		return activeShopkeepersView;
+	}
 }
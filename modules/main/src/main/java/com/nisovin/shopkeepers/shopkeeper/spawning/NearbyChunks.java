@@ -0,0 +1,80 @@
+package com.nisovin.shopkeepers.shopkeeper.spawning;
+
+import java.util.Arrays;
+
+import com.nisovin.shopkeepers.util.bukkit.ChunkKeys;
+import com.nisovin.shopkeepers.util.java.Validate;
+
+/**
+ * The chunks within a certain chunk radius around a set of center chunks, such as the chunks of the
+ * players inside a world.
+ * <p>
+ * The number of center chunks is expected to be small, so this simply checks the distance to each
+ * center chunk.
+ * <p>
+ * Not thread-safe.
+ */
+final class NearbyChunks {
+
+	private final int chunkRadius;
+	private long[] centerChunkKeys = new long[8];
+	private int size = 0;
+
+	/**
+	 * Creates a new {@link NearbyChunks} without any center chunks.
+	 * 
+	 * @param chunkRadius
+	 *            the chunk radius around each center chunk, not negative. A radius of {@code zero}
+	 *            only includes the center chunks themselves.
+	 */
+	NearbyChunks(int chunkRadius) {
+		Validate.isTrue(chunkRadius >= 0, "chunkRadius is negative");
+		this.chunkRadius = chunkRadius;
+	}
+
+	/**
+	 * Adds a center chunk.
+	 * 
+	 * @param chunkX
+	 *            the chunk's x coordinate
+	 * @param chunkZ
+	 *            the chunk's z coordinate
+	 */
+	void addCenter(int chunkX, int chunkZ) {
+		if (size == centerChunkKeys.length) {
+			centerChunkKeys = Arrays.copyOf(centerChunkKeys, size * 2);
+		}
+		centerChunkKeys[size++] = ChunkKeys.of(chunkX, chunkZ);
+	}
+
+	/**
+	 * Checks if there are no center chunks, i.e. if no chunk is nearby.
+	 * 
+	 * @return <code>true</code> if there are no center chunks
+	 */
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Checks if the specified chunk is within the chunk radius of any of the center chunks.
+	 * 
+	 * @param chunkX
+	 *            the chunk's x coordinate
+	 * @param chunkZ
+	 *            the chunk's z coordinate
+	 * @return <code>true</code> if the chunk is nearby
+	 */
+	boolean contains(int chunkX, int chunkZ) {
+		for (int i = 0; i < size; i++) {
+			long centerChunkKey = centerChunkKeys[i];
+			// Compared as longs to avoid int overflows:
+			long dx = Math.abs((long) chunkX - ChunkKeys.getChunkX(centerChunkKey));
+			long dz = Math.abs((long) chunkZ - ChunkKeys.getChunkZ(centerChunkKey));
+			if (dx <= chunkRadius && dz <= chunkRadius) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -52,13 +52,14 @@ public class ShopkeeperSpawner {
 	// However, in order to avoid that players have to wait for shopkeepers to spawn, there are some
 	// situations in which we spawn shopkeepers immediately instead of adding them to the queue.
 	// This includes: When a shopkeeper is newly created, when shopkeepers are loaded (i.e. on
-	// plugin reloads), and when shopkeepers are respawned after world saves. In the latter two
-	// cases, a potentially large number of shopkeepers is expected to be spawned at the same time.
-	// Due to its limited throughput, the queue would not be able to deal with this sudden peak
-	// appropriately.
+	// plugin reloads), and when shopkeepers near players are respawned after world saves. In the
+	// latter two cases, a potentially large number of shopkeepers is expected to be spawned at the
+	// same time. Due to its limited throughput, the queue would not be able to deal with this
+	// sudden peak appropriately.
 	// However, since these situations are associated with a certain performance impact anyways, we
 	// prefer to spawn all affected shopkeepers immediately, instead of causing confusion due to
-	// players having to wait for shopkeepers to respawn.
+	// players having to wait for shopkeepers to respawn. Shopkeepers without any players nearby are
+	// added to the queue when they are respawned after world saves.
 	private final ShopkeeperSpawnQueue spawnQueue;
 
 	// World entries are lazily added: They might not be added immediately when a shopkeeper is
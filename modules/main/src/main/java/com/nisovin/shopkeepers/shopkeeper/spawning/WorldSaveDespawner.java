@@ -1,14 +1,19 @@
 package com.nisovin.shopkeepers.shopkeeper.spawning;
 
+import java.util.Collection;
 import java.util.function.Predicate;
 
 import org.bukkit.Bukkit;
+import org.bukkit.Location;
 import org.bukkit.World;
+import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitTask;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import com.nisovin.shopkeepers.SKShopkeepersPlugin;
+import com.nisovin.shopkeepers.api.internal.util.Unsafe;
+import com.nisovin.shopkeepers.api.util.ChunkCoords;
 import com.nisovin.shopkeepers.debug.DebugOptions;
 import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
 import com.nisovin.shopkeepers.shopkeeper.registry.SKShopkeeperRegistry;
@@ -20,6 +25,12 @@ import com.nisovin.shopkeepers.util.logging.Log;
 /**
  * Handles the temporary despawning and later respawning of shop objects that need to be despawned
  * during world saves.
+ * <p>
+ * Shop objects are only despawned if they are located in active chunks, because these are the only
+ * chunks that can contain spawned shop objects. Since world saves are performed synchronously
+ * right after the world save event, the despawning cannot be spread over several ticks. However,
+ * only the shop objects near players are respawned immediately after the world save, and the
+ * remaining shop objects are added to the spawn queue.
  */
 class WorldSaveDespawner {
 
@@ -97,6 +108,44 @@ class WorldSaveDespawner {
 		);
 	}
 
+	/**
+	 * Creates a {@link Predicate} that checks if a chunk of the specified world is within the given
+	 * view distance of any of the given players.
+	 * <p>
+	 * The players are only checked once, when the predicate is created.
+	 * 
+	 * @param worldName
+	 *            the world name, not <code>null</code>
+	 * @param players
+	 *            the players, not <code>null</code>
+	 * @param viewDistance
+	 *            the view distance in chunks
+	 * @return the predicate, not <code>null</code>, returns <code>false</code> for
+	 *         <code>null</code> chunk coordinates
+	 */
+	static Predicate<@Nullable ChunkCoords> isNearPlayers(
+			String worldName,
+			Collection<? extends @NonNull Player> players,
+			int viewDistance
+	) {
+		assert worldName != null && players != null;
+		NearbyChunks playerChunks = new NearbyChunks(viewDistance);
+		for (Player player : players) {
+			Location location = player.getLocation();
+			World world = Unsafe.assertNonNull(location.getWorld());
+			if (!world.getName().equals(worldName)) continue;
+
+			playerChunks.addCenter(
+					ChunkCoords.fromBlock(location.getBlockX()),
+					ChunkCoords.fromBlock(location.getBlockZ())
+			);
+		}
+		return (chunkCoords) -> {
+			if (chunkCoords == null) return false;
+			return playerChunks.contains(chunkCoords.getChunkX(), chunkCoords.getChunkZ());
+		};
+	}
+
 	private void setPendingWorldSaveRespawn(AbstractShopkeeper shopkeeper) {
 		assert shopkeeper != null;
 		ShopkeeperSpawnState spawnState = shopkeeper.getComponents().getOrAdd(ShopkeeperSpawnState.class);
@@ -124,14 +173,55 @@ class WorldSaveDespawner {
 			// Assert: World is still loaded (the task is cancelled on world unload).
 			worldData.setWorldSaveRespawnTask(null);
 
+			String worldName = worldData.getWorldName();
+			Predicate<@Nullable ChunkCoords> isNearPlayerChunk = isNearPlayers(
+					worldName,
+					Bukkit.getOnlinePlayers(),
+					Bukkit.getViewDistance()
+			);
+			Predicate<@NonNull AbstractShopkeeper> isNearPlayer = (shopkeeper) -> {
+				return isNearPlayerChunk.test(shopkeeper.getLastChunkCoords());
+			};
+			Predicate<@NonNull AbstractShopkeeper> isRespawnedImmediately = Unsafe.assertNonNull(
+					IS_DESPAWNED_DURING_WORLD_SAVE.and(isNearPlayer)
+			);
+			Predicate<@NonNull AbstractShopkeeper> isRespawnQueued = Unsafe.assertNonNull(
+					IS_DESPAWNED_DURING_WORLD_SAVE.and(isNearPlayer.negate())
+			);
+
+			Log.debug(DebugOptions.shopkeeperActivation, () -> {
+				int immediately = 0;
+				int queued = 0;
+				Collection<? extends @NonNull AbstractShopkeeper> shopkeepers = shopkeeperRegistry
+						.getShopkeepersInWorld(worldName);
+				for (AbstractShopkeeper shopkeeper : shopkeepers) {
+					if (!shopkeeper.isActive()) continue;
+					if (isRespawnedImmediately.test(shopkeeper)) immediately++;
+					else if (isRespawnQueued.test(shopkeeper)) queued++;
+				}
+				return "Respawning shopkeepers after saving of world '" + worldName + "': "
+						+ immediately + " immediately, " + queued + " queued";
+			});
+
 			// In order to not have players wait for shopkeepers to respawn after world saves, we
-			// respawn the shopkeepers immediately in this case:
+			// respawn the shopkeepers near players immediately:
 			spawner.spawnShopkeepersInWorld(
-					worldData.getWorldName(),
+					worldName,
 					"world saving finished",
-					IS_DESPAWNED_DURING_WORLD_SAVE,
+					isRespawnedImmediately,
 					true
 			);
+
+			// The remaining shopkeepers are located in chunks that are kept loaded without any
+			// players nearby, for example by the world's spawn area or by other plugins. Nobody is
+			// waiting for these shopkeepers, so we add them to the spawn queue to avoid a burst of
+			// spawns after every world save.
+			spawner.spawnShopkeepersInWorld(
+					worldName,
+					"world saving finished, no players nearby",
+					isRespawnQueued,
+					false
+			);
 		}
 
 		public void cancel() {
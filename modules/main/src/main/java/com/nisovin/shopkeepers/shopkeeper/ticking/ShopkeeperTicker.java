@@ -1,15 +1,6 @@
 package com.nisovin.shopkeepers.shopkeeper.ticking;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
-
 import org.bukkit.scheduler.BukkitRunnable;
-import org.checkerframework.checker.nullness.qual.NonNull;
 
 import com.nisovin.shopkeepers.SKShopkeepersPlugin;
 import com.nisovin.shopkeepers.debug.DebugOptions;
@@ -18,6 +9,14 @@ import com.nisovin.shopkeepers.util.java.CyclicCounter;
 import com.nisovin.shopkeepers.util.java.Validate;
 import com.nisovin.shopkeepers.util.logging.Log;
 
+/**
+ * Ticks the active shopkeepers.
+ * <p>
+ * Instead of visiting every active shopkeeper every second, shopkeepers and their components
+ * schedule {@link ShopkeeperTimer timers} for the work that they need to perform periodically. The
+ * timers are stored inside a {@link TimerWheel}, so that each tick only visits the shopkeepers
+ * whose timers are actually due.
+ */
 public class ShopkeeperTicker {
 
 	/**
@@ -37,8 +36,8 @@ public class ShopkeeperTicker {
 	 * load balancing; but this is associated with a large overhead due to having to do some
 	 * processing each Minecraft tick).
 	 * <p>
-	 * With {@code 4} ticking groups, one fourth of the active shopkeepers are processed every
-	 * {@code 5} ticks.
+	 * With {@code 4} ticking groups, the due timers of one fourth of the active shopkeepers are
+	 * processed every {@code 5} ticks.
 	 */
 	public static final int TICKING_GROUPS = 4;
 	private static final CyclicCounter tickingGroupCounter = new CyclicCounter(TICKING_GROUPS);
@@ -47,54 +46,14 @@ public class ShopkeeperTicker {
 		return tickingGroupCounter.getAndIncrement();
 	}
 
-	private static final class TickingGroup {
-
-		private final Set<@NonNull AbstractShopkeeper> shopkeepers = new LinkedHashSet<>();
-
-		TickingGroup() {
-		}
-
-		Collection<? extends @NonNull AbstractShopkeeper> getShopkeepers() {
-			return shopkeepers;
-		}
-
-		void addShopkeeper(AbstractShopkeeper shopkeeper) {
-			assert shopkeeper != null;
-			shopkeepers.add(shopkeeper);
-		}
-
-		void removeShopkeeper(AbstractShopkeeper shopkeeper) {
-			assert shopkeeper != null;
-			shopkeepers.remove(shopkeeper);
-		}
-
-		void clear() {
-			shopkeepers.clear();
-		}
-	}
-
 	private final SKShopkeepersPlugin plugin;
 
-	private final List<? extends @NonNull TickingGroup> tickingGroups;
-	{
-		List<@NonNull TickingGroup> tickingGroups = new ArrayList<>(TICKING_GROUPS);
-		for (int i = 0; i < TICKING_GROUPS; i++) {
-			tickingGroups.add(new TickingGroup());
-		}
-		this.tickingGroups = tickingGroups;
-	}
-
-	private final CyclicCounter activeTickingGroup = new CyclicCounter(TICKING_GROUPS);
+	// The wheel advances by one step every time the next ticking group is processed. The due steps
+	// of the timers of a shopkeeper are aligned to the shopkeeper's ticking group.
+	private final TimerWheel timerWheel = new TimerWheel();
 	private boolean currentlyTicking = false;
 	private boolean dirty;
 
-	// True: Ticking started, False: Ticking stopped
-	// Note: The start/stop-ticking callbacks for these pending changes have already been invoked
-	// and only the actual registration change is deferred, because if a shopkeeper changes its
-	// ticking state multiple times during the same tick we would otherwise lose the callbacks for
-	// the intermediate ticking state changes.
-	private final Map<@NonNull AbstractShopkeeper, @NonNull Boolean> pendingTickingChanges = new LinkedHashMap<>();
-
 	public ShopkeeperTicker(SKShopkeepersPlugin plugin) {
 		Validate.notNull(plugin, "plugin is null");
 		this.plugin = plugin;
@@ -106,52 +65,39 @@ public class ShopkeeperTicker {
 		// ensures that the particle colors of our tick visualization remain the same across reloads
 		// (avoids possible confusion for users).
 		tickingGroupCounter.reset();
-		activeTickingGroup.setValue(0);
 
 		// Start shopkeeper ticking task:
 		this.startShopkeeperTickTask();
 	}
 
 	public void onDisable() {
-		// Usually, there should be no need to clean up the registered ticking shopkeepers here,
-		// since shopkeepers should stop their ticking automatically once they are deactivated.
-		// However, if the plugin is shut down during shopkeeper ticking, we can end up with still
-		// pending registration changes.
+		// Usually, there should be no need to clean up any scheduled timers here, since shopkeepers
+		// should cancel their timers automatically once they are deactivated. However, if the
+		// plugin is shut down during shopkeeper ticking, we can end up with still scheduled timers.
 		if (currentlyTicking) {
 			// Reset:
 			currentlyTicking = false;
 			dirty = false;
-			tickingGroups.forEach(TickingGroup::clear);
-			pendingTickingChanges.clear();
+			timerWheel.clear();
 		} else {
 			this.ensureEmpty();
 		}
 	}
 
 	private void ensureEmpty() {
-		boolean anyNonEmptyTickingGroup = tickingGroups.stream()
-				.anyMatch(tickingGroup -> !tickingGroup.getShopkeepers().isEmpty());
-		if (anyNonEmptyTickingGroup) {
-			Log.warning("Some ticking shopkeepers were not properly unregistered!");
-			tickingGroups.forEach(TickingGroup::clear);
-		}
-		if (!pendingTickingChanges.isEmpty()) {
-			Log.warning("Unexpected pending shopkeeper ticking changes!");
-			pendingTickingChanges.clear();
+		if (timerWheel.getSize() > 0) {
+			Log.warning("Some shopkeeper timers were not properly cancelled!");
+			timerWheel.clear();
 		}
 	}
 
-	private TickingGroup getTickingGroup(int tickingGroupIndex) {
-		assert tickingGroupIndex >= 0 && tickingGroupIndex < tickingGroups.size();
-		TickingGroup tickingGroup = tickingGroups.get(tickingGroupIndex);
-		assert tickingGroup != null;
-		return tickingGroup;
-	}
-
-	private TickingGroup getTickingGroup(AbstractShopkeeper shopkeeper) {
-		assert shopkeeper != null;
-		int tickingGroupIndex = shopkeeper.getTickingGroup();
-		return this.getTickingGroup(tickingGroupIndex);
+	/**
+	 * Gets the number of currently scheduled {@link ShopkeeperTimer timers}.
+	 * 
+	 * @return the number of scheduled timers
+	 */
+	public int getScheduledTimersCount() {
+		return timerWheel.getSize();
 	}
 
 	// TICKING START / STOP
@@ -162,16 +108,9 @@ public class ShopkeeperTicker {
 		if (shopkeeper.isTicking()) return; // Already ticking
 
 		Log.debug(DebugOptions.shopkeeperActivation, () -> shopkeeper.getLogPrefix()
-				+ "Ticking started." + (currentlyTicking ? " (Deferred registration)" : ""));
-
-		if (currentlyTicking) {
-			// Defer registration until after ticking:
-			pendingTickingChanges.put(shopkeeper, true); // Replaces any previous value
-		} else {
-			this.addShopkeeper(shopkeeper);
-		}
+				+ "Ticking started.");
 
-		// Inform the shopkeeper:
+		// Inform the shopkeeper: The shopkeeper and its components schedule their timers.
 		try {
 			shopkeeper.informStartTicking();
 		} catch (Throwable e) {
@@ -185,16 +124,10 @@ public class ShopkeeperTicker {
 		if (!shopkeeper.isTicking()) return; // Already not ticking
 
 		Log.debug(DebugOptions.shopkeeperActivation, () -> shopkeeper.getLogPrefix()
-				+ "Ticking stopped." + (currentlyTicking ? " (Deferred unregistration)" : ""));
+				+ "Ticking stopped.");
 
-		if (currentlyTicking) {
-			// Defer unregistration until after ticking:
-			pendingTickingChanges.put(shopkeeper, false); // Replaces any previous value
-		} else {
-			this.removeShopkeeper(shopkeeper);
-		}
-
-		// Inform the shopkeeper:
+		// Inform the shopkeeper: The shopkeeper and its components cancel their timers. Any timers
+		// that are not cancelled are discarded once they are due.
 		try {
 			shopkeeper.informStopTicking();
 		} catch (Throwable e) {
@@ -202,18 +135,30 @@ public class ShopkeeperTicker {
 		}
 	}
 
-	private void addShopkeeper(AbstractShopkeeper shopkeeper) {
-		assert shopkeeper != null;
-		TickingGroup tickingGroup = this.getTickingGroup(shopkeeper);
-		assert tickingGroup != null;
-		tickingGroup.addShopkeeper(shopkeeper);
+	// TIMERS
+
+	/**
+	 * Schedules the given timer to be due after the specified number of seconds.
+	 * <p>
+	 * The due time is aligned to the ticking group of the timer's shopkeeper: A delay of {@code 1}
+	 * second schedules the timer for the next time the shopkeeper's ticking group is processed.
+	 * 
+	 * @param timer
+	 *            the timer
+	 * @param delaySeconds
+	 *            the delay in seconds, has to be positive
+	 */
+	void schedule(ShopkeeperTimer timer, int delaySeconds) {
+		assert timer != null && delaySeconds >= 1;
+		int tickingGroup = timer.getShopkeeper().getTickingGroup();
+		long minDueStep = timerWheel.getCurrentStep() + 1 + (long) (delaySeconds - 1) * TICKING_GROUPS;
+		long dueStep = minDueStep + Math.floorMod(tickingGroup - minDueStep, (long) TICKING_GROUPS);
+		timerWheel.schedule(timer, dueStep);
 	}
 
-	private void removeShopkeeper(AbstractShopkeeper shopkeeper) {
-		assert shopkeeper != null;
-		TickingGroup tickingGroup = this.getTickingGroup(shopkeeper);
-		assert tickingGroup != null;
-		tickingGroup.removeShopkeeper(shopkeeper);
+	void cancel(ShopkeeperTimer timer) {
+		assert timer != null;
+		timerWheel.cancel(timer);
 	}
 
 	// TICKING
@@ -239,39 +184,34 @@ public class ShopkeeperTicker {
 	private void tickShopkeepers() {
 		dirty = false;
 
+		// Process the due timers of the next ticking group:
 		currentlyTicking = true;
-		TickingGroup tickingGroup = this.getTickingGroup(activeTickingGroup.getValue());
-		tickingGroup.getShopkeepers().forEach(this::tickShopkeeper);
+		timerWheel.advance(this::onTimerDue);
 		currentlyTicking = false;
 
-		// Process pending shopkeeper ticking registration changes:
-		pendingTickingChanges.forEach((shopkeeper, isTicking) -> {
-			if (isTicking) {
-				this.addShopkeeper(shopkeeper);
-			} else {
-				this.removeShopkeeper(shopkeeper);
-			}
-		});
-		pendingTickingChanges.clear();
-
 		// Trigger a delayed save if any of the shopkeepers got marked as dirty:
 		if (dirty) {
 			plugin.getShopkeeperStorage().saveDelayed();
 		}
-
-		// Update the active ticking group:
-		activeTickingGroup.getAndIncrement();
 	}
 
-	private void tickShopkeeper(AbstractShopkeeper shopkeeper) {
-		assert shopkeeper != null;
-		// Skip if the shopkeeper is no longer ticking (e.g. if it got removed or deactivated while
-		// it was pending to be ticked):
+	private void onTimerDue(TimerWheel.Timer wheelTimer) {
+		ShopkeeperTimer timer = (ShopkeeperTimer) wheelTimer;
+		AbstractShopkeeper shopkeeper = timer.getShopkeeper();
+		// Skip if the shopkeeper is no longer ticking (e.g. if it got removed or deactivated
+		// without cancelling its timer):
 		if (!shopkeeper.isTicking()) return;
 
+		// Reschedule periodic timers prior to running them, so that the task is able to cancel or
+		// reschedule its timer:
+		int periodSeconds = timer.getPeriodSeconds();
+		if (periodSeconds > 0) {
+			this.schedule(timer, periodSeconds);
+		}
+
 		// Tick the shopkeeper:
 		try {
-			shopkeeper.tick();
+			shopkeeper.tick(timer);
 		} catch (Throwable e) {
 			Log.severe(shopkeeper.getLogPrefix() + "Error during ticking!", e);
 		}
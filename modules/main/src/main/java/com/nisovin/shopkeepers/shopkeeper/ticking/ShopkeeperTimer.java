@@ -0,0 +1,125 @@
+package com.nisovin.shopkeepers.shopkeeper.ticking;
+
+import com.nisovin.shopkeepers.SKShopkeepersPlugin;
+import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
+import com.nisovin.shopkeepers.util.java.Validate;
+
+/**
+ * A timer that runs a task of a certain shopkeeper, or one of its components, once it is due.
+ * <p>
+ * Shopkeepers and their components, such as their shop objects, can use these timers to perform
+ * periodic work without having to be ticked every second. Only the shopkeepers whose timers are
+ * due are visited by the {@link ShopkeeperTicker}.
+ * <p>
+ * Timers can only be scheduled while their shopkeeper is {@link AbstractShopkeeper#isTicking()
+ * ticking}. Components are expected to (re-)schedule their timers when the shopkeeper starts
+ * ticking, and to cancel them when the shopkeeper stops ticking. Timers that are still due after
+ * the shopkeeper stopped ticking are silently discarded.
+ * <p>
+ * Timers are due in the ticking group of their shopkeeper, so that the periodic work of all active
+ * shopkeepers remains spread across multiple ticks.
+ */
+public final class ShopkeeperTimer extends TimerWheel.Timer {
+
+	private final AbstractShopkeeper shopkeeper;
+	private final Runnable task;
+	private int periodSeconds;
+
+	/**
+	 * Creates a new {@link ShopkeeperTimer}.
+	 *
+	 * @param shopkeeper
+	 *            the shopkeeper, not <code>null</code>
+	 * @param periodSeconds
+	 *            the period in seconds after which the timer is automatically rescheduled each time
+	 *            it is due, or {@code 0} if the timer is only due once each time it is scheduled
+	 * @param task
+	 *            the task to run once the timer is due, not <code>null</code>
+	 */
+	public ShopkeeperTimer(AbstractShopkeeper shopkeeper, int periodSeconds, Runnable task) {
+		Validate.notNull(shopkeeper, "shopkeeper is null");
+		Validate.notNull(task, "task is null");
+		this.shopkeeper = shopkeeper;
+		this.task = task;
+		this.setPeriodSeconds(periodSeconds);
+	}
+
+	/**
+	 * Gets the shopkeeper.
+	 *
+	 * @return the shopkeeper, not <code>null</code>
+	 */
+	public AbstractShopkeeper getShopkeeper() {
+		return shopkeeper;
+	}
+
+	/**
+	 * Gets the period in seconds after which the timer is automatically rescheduled each time it
+	 * is due.
+	 *
+	 * @return the period in seconds, or {@code 0} if the timer is not periodic
+	 */
+	public int getPeriodSeconds() {
+		return periodSeconds;
+	}
+
+	/**
+	 * Sets the period in seconds after which the timer is automatically rescheduled each time it
+	 * is due.
+	 * <p>
+	 * This does not affect the next due time if the timer is already scheduled.
+	 *
+	 * @param periodSeconds
+	 *            the period in seconds, or {@code 0} if the timer is not periodic
+	 */
+	public void setPeriodSeconds(int periodSeconds) {
+		Validate.isTrue(periodSeconds >= 0, "periodSeconds cannot be negative");
+		this.periodSeconds = periodSeconds;
+	}
+
+	/**
+	 * Schedules this timer to be due after the specified number of seconds.
+	 * <p>
+	 * If the timer is already scheduled, it is rescheduled. This has no effect if the shopkeeper
+	 * is not ticking currently.
+	 *
+	 * @param delaySeconds
+	 *            the delay in seconds, has to be positive
+	 */
+	public void schedule(int delaySeconds) {
+		Validate.isTrue(delaySeconds >= 1, "delaySeconds has to be positive");
+		if (!shopkeeper.isTicking()) return;
+		getTicker().schedule(this, delaySeconds);
+	}
+
+	/**
+	 * Cancels this timer.
+	 * <p>
+	 * This has no effect if the timer is not scheduled currently.
+	 */
+	public void cancel() {
+		if (!this.isScheduled()) return;
+		getTicker().cancel(this);
+	}
+
+	private static ShopkeeperTicker getTicker() {
+		return SKShopkeepersPlugin.getInstance().getShopkeeperRegistry().getShopkeeperTicker();
+	}
+
+	/**
+	 * Runs the task of this timer.
+	 * <p>
+	 * This is only supposed to be invoked by the {@link ShopkeeperTicker}, wrapped by the
+	 * shopkeeper's {@link AbstractShopkeeper#tick(ShopkeeperTimer) tick}.
+	 */
+	public void run() {
+		task.run();
+	}
+
+	@Override
+	public String toString() {
+		return "ShopkeeperTimer [shopkeeper=" + shopkeeper.getId()
+				+ ", periodSeconds=" + periodSeconds
+				+ ", scheduled=" + this.isScheduled() + "]";
+	}
+}
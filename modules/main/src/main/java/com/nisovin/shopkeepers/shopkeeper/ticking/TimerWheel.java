@@ -0,0 +1,275 @@
+package com.nisovin.shopkeepers.shopkeeper.ticking;
+
+import java.util.function.Consumer;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.util.java.Validate;
+
+/**
+ * A hierarchical timer wheel that keeps track of {@link Timer timers} that are due at certain
+ * discrete points in time, called "steps".
+ * <p>
+ * Scheduling, rescheduling and cancelling a timer are constant time operations. Advancing the
+ * wheel by one step only visits the timers that are due in that step, plus occasionally the timers
+ * of one higher-level bucket that are cascaded into the lower levels. Timers that are not due are
+ * not visited. This makes the wheel well suited for a large number of timers that are due only
+ * rarely, as is the case for the periodic checks of shopkeepers and their shop objects.
+ * <p>
+ * The wheel consists of {@link #LEVELS} levels with {@link #SLOTS} buckets each. Timers that are
+ * due within the next {@link #SLOTS} steps are stored in the lowest level. Timers that are due
+ * later are stored in a higher level and are moved to the lower levels once their due step comes
+ * closer. Timers that are due beyond the range of the highest level are stored in the highest
+ * level and then repeatedly rescheduled until they are actually due.
+ * <p>
+ * The timers are linked intrusively, i.e. scheduling and firing timers does not allocate any
+ * objects.
+ * <p>
+ * Not thread-safe.
+ */
+public final class TimerWheel {
+
+	/**
+	 * A timer that can be scheduled in a {@link TimerWheel}.
+	 * <p>
+	 * A timer can be scheduled in at most one timer wheel at the same time.
+	 */
+	public abstract static class Timer {
+
+		private @Nullable TimerWheel wheel = null;
+		private long dueStep = 0L;
+		// The bucket that currently contains this timer:
+		private int level = 0;
+		private int slot = 0;
+		private @Nullable Timer previous = null;
+		private @Nullable Timer next = null;
+
+		/**
+		 * Creates a new {@link Timer}.
+		 */
+		protected Timer() {
+		}
+
+		/**
+		 * Checks if this timer is currently scheduled.
+		 *
+		 * @return <code>true</code> if this timer is scheduled
+		 */
+		public final boolean isScheduled() {
+			return wheel != null;
+		}
+
+		/**
+		 * Gets the step at which this timer is due.
+		 * <p>
+		 * Only valid while this timer is {@link #isScheduled() scheduled}.
+		 *
+		 * @return the due step
+		 */
+		public final long getDueStep() {
+			return dueStep;
+		}
+	}
+
+	/**
+	 * The number of bits of the step that are covered by each level.
+	 */
+	private static final int SLOT_BITS = 6;
+	/**
+	 * The number of buckets per level.
+	 */
+	public static final int SLOTS = 1 << SLOT_BITS;
+	private static final int SLOT_MASK = SLOTS - 1;
+	/**
+	 * The number of levels.
+	 */
+	public static final int LEVELS = 4;
+	/**
+	 * The maximum number of steps a timer can be scheduled ahead before it needs to be rescheduled
+	 * once it reaches the end of the wheel's range.
+	 */
+	private static final long MAX_DELAY = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+	// The heads of the doubly-linked timer lists of each bucket, indexed by [level][slot]:
+	private final @Nullable Timer[][] buckets = new @Nullable Timer[LEVELS][SLOTS];
+	// The last step that has been processed:
+	private long currentStep = 0L;
+	private int size = 0;
+
+	/**
+	 * Creates a new and empty {@link TimerWheel}.
+	 */
+	public TimerWheel() {
+	}
+
+	/**
+	 * Gets the last step that this wheel has {@link #advance(Consumer) advanced} to.
+	 *
+	 * @return the current step
+	 */
+	public long getCurrentStep() {
+		return currentStep;
+	}
+
+	/**
+	 * Gets the number of currently scheduled timers.
+	 *
+	 * @return the number of scheduled timers
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Schedules the given timer to be due at the given step.
+	 * <p>
+	 * If the timer is already scheduled, it is rescheduled. If the given step is not after the
+	 * {@link #getCurrentStep() current step}, the timer is due in the next step.
+	 *
+	 * @param timer
+	 *            the timer, not <code>null</code>
+	 * @param dueStep
+	 *            the step at which the timer is due
+	 */
+	public void schedule(Timer timer, long dueStep) {
+		Validate.notNull(timer, "timer is null");
+		Validate.isTrue(timer.wheel == null || timer.wheel == this,
+				"timer is scheduled in another wheel");
+		if (timer.wheel == this) {
+			this.unlink(timer);
+		} else {
+			timer.wheel = this;
+			size++;
+		}
+		timer.dueStep = Math.max(dueStep, currentStep + 1);
+		this.link(timer);
+	}
+
+	/**
+	 * Cancels the given timer.
+	 * <p>
+	 * This has no effect if the timer is not scheduled in this wheel.
+	 *
+	 * @param timer
+	 *            the timer, not <code>null</code>
+	 */
+	public void cancel(Timer timer) {
+		Validate.notNull(timer, "timer is null");
+		if (timer.wheel != this) return;
+		this.unlink(timer);
+		timer.wheel = null;
+		size--;
+	}
+
+	/**
+	 * Cancels all scheduled timers.
+	 */
+	public void clear() {
+		for (int level = 0; level < LEVELS; level++) {
+			@Nullable Timer[] levelBuckets = buckets[level];
+			for (int slot = 0; slot < SLOTS; slot++) {
+				Timer timer = levelBuckets[slot];
+				while (timer != null) {
+					Timer next = timer.next;
+					timer.wheel = null;
+					timer.previous = null;
+					timer.next = null;
+					timer = next;
+				}
+				levelBuckets[slot] = null;
+			}
+		}
+		size = 0;
+	}
+
+	/**
+	 * Advances this wheel by one step and passes all timers that are due in the new current step
+	 * to the given callback.
+	 * <p>
+	 * The timers are no longer {@link Timer#isScheduled() scheduled} when they are passed to the
+	 * callback. The callback is allowed to schedule and cancel timers, including the timer that is
+	 * currently being processed.
+	 *
+	 * @param callback
+	 *            the callback that is invoked for each due timer, not <code>null</code>
+	 */
+	public void advance(Consumer<? super @NonNull Timer> callback) {
+		Validate.notNull(callback, "callback is null");
+		long step = ++currentStep;
+
+		// Cascade the timers of the higher levels whose range starts with the new step:
+		for (int level = 1; level < LEVELS; level++) {
+			int shift = SLOT_BITS * level;
+			if ((step & ((1L << shift) - 1)) != 0) break;
+			this.cascade(level, (int) ((step >>> shift) & SLOT_MASK));
+		}
+
+		// Fire the timers that are due in the new step:
+		int slot = (int) (step & SLOT_MASK);
+		@Nullable Timer[] levelBuckets = buckets[0];
+		Timer timer;
+		while ((timer = levelBuckets[slot]) != null) {
+			this.unlink(timer);
+			if (timer.dueStep > step) {
+				// Scheduled beyond the wheel's range: Reschedule.
+				this.link(timer);
+				continue;
+			}
+			timer.wheel = null;
+			size--;
+			callback.accept(timer);
+		}
+	}
+
+	private void cascade(int level, int slot) {
+		@Nullable Timer[] levelBuckets = buckets[level];
+		Timer timer = levelBuckets[slot];
+		levelBuckets[slot] = null;
+		while (timer != null) {
+			Timer next = timer.next;
+			timer.previous = null;
+			timer.next = null;
+			this.link(timer);
+			timer = next;
+		}
+	}
+
+	private void link(Timer timer) {
+		long delay = Math.min(timer.dueStep - currentStep, MAX_DELAY);
+		assert delay >= 0;
+		long effectiveDueStep = currentStep + delay;
+		int level = 0;
+		while (level < LEVELS - 1 && delay >= (1L << (SLOT_BITS * (level + 1)))) {
+			level++;
+		}
+		int slot = (int) ((effectiveDueStep >>> (SLOT_BITS * level)) & SLOT_MASK);
+
+		@Nullable Timer[] levelBuckets = buckets[level];
+		Timer head = levelBuckets[slot];
+		timer.level = level;
+		timer.slot = slot;
+		timer.previous = null;
+		timer.next = head;
+		if (head != null) {
+			head.previous = timer;
+		}
+		levelBuckets[slot] = timer;
+	}
+
+	private void unlink(Timer timer) {
+		Timer previous = timer.previous;
+		Timer next = timer.next;
+		if (previous != null) {
+			previous.next = next;
+		} else {
+			// The timer is the head of its bucket:
+			buckets[timer.level][timer.slot] = next;
+		}
+		if (next != null) {
+			next.previous = previous;
+		}
+		timer.previous = null;
+		timer.next = null;
+	}
+}
@@ -24,6 +24,7 @@ import com.nisovin.shopkeepers.shopkeeper.ShopkeeperData;
 import com.nisovin.shopkeepers.shopkeeper.ShopkeeperPropertyValuesHolder;
 import com.nisovin.shopkeepers.shopkeeper.registry.ShopObjectRegistry;
 import com.nisovin.shopkeepers.shopkeeper.spawning.ShopkeeperSpawnState;
+import com.nisovin.shopkeepers.shopkeeper.ticking.ShopkeeperTimer;
 import com.nisovin.shopkeepers.ui.editor.Button;
 import com.nisovin.shopkeepers.ui.editor.EditorHandler;
 import com.nisovin.shopkeepers.util.bukkit.BlockFaceUtils;
@@ -403,18 +404,35 @@ public abstract class AbstractShopObject implements ShopObject {
 
 	/**
 	 * This is called when the shopkeeper starts ticking.
+	 * <p>
+	 * This is the place to schedule any {@link ShopkeeperTimer timers} for periodic checks.
 	 */
 	public void onStartTicking() {
 	}
 
 	/**
 	 * This is called when the shopkeeper stops ticking.
+	 * <p>
+	 * This is the place to cancel any previously scheduled {@link ShopkeeperTimer timers}.
 	 */
 	public void onStopTicking() {
 	}
 
 	/**
-	 * This is called at the beginning of a shopkeeper tick.
+	 * Checks if this shop object requires {@link #onTick()} to be called regularly, i.e. roughly
+	 * once per second.
+	 * <p>
+	 * This is checked whenever the shopkeeper starts ticking.
+	 * 
+	 * @return <code>true</code> if this shop object requires regular ticking
+	 */
+	public boolean isRegularTickingRequired() {
+		return false;
+	}
+
+	/**
+	 * This is called at the beginning of a shopkeeper tick, i.e. before the task of a due
+	 * {@link ShopkeeperTimer} is run.
 	 */
 	public void onTickStart() {
 		// Reset activity indicator:
@@ -422,12 +440,13 @@ public abstract class AbstractShopObject implements ShopObject {
 	}
 
 	/**
-	 * This is called periodically (roughly once per second) for shopkeepers in active chunks.
+	 * This is called periodically (roughly once per second) for shopkeepers in active chunks, if
+	 * the shop object {@link #isRegularTickingRequired() requires regular ticking}.
 	 * <p>
-	 * This can for example be used to check if everything is still okay with the shop object, such
-	 * as if it still exists and if it is still in its expected location and state. If any of these
-	 * checks fail, the shop object may be respawned, teleported back into place, or otherwise
-	 * brought back into its expected state.
+	 * Checks that are not required to happen every second, such as checking if the shop object
+	 * still exists and if it is still in its expected location and state, should use their own
+	 * {@link ShopkeeperTimer} instead. If any of these checks fail, the shop object may be
+	 * respawned, teleported back into place, or otherwise brought back into its expected state.
 	 * <p>
 	 * However, note that shop objects may already be ticked while they are still
 	 * {@link #isSpawningScheduled() scheduled} to be spawned. It is usually recommended to skip any
@@ -437,10 +456,9 @@ public abstract class AbstractShopObject implements ShopObject {
 	 * This is also called for shop objects that manage their spawning and despawning
 	 * {@link AbstractShopObjectType#mustBeSpawned() manually}.
 	 * <p>
-	 * If the checks to perform are potentially costly performance-wise, or not required to happen
-	 * every second, the shop object may decide to run them only every X invocations. For debugging
-	 * purposes, the shop object can indicate tick activity by calling
-	 * {@link #indicateTickActivity()} whenever it is doing actual work.
+	 * For debugging purposes, the shop object can indicate tick activity by calling
+	 * {@link #indicateTickActivity()} whenever it is doing actual work, both inside this method and
+	 * inside the tasks of its timers.
 	 * <p>
 	 * The ticking of shop objects in active chunks may be spread across multiple ticks and might
 	 * therefore not happen for all shopkeepers within the same tick.
@@ -455,7 +473,8 @@ public abstract class AbstractShopObject implements ShopObject {
 	}
 
 	/**
-	 * This is called at the end of a shopkeeper tick.
+	 * This is called at the end of a shopkeeper tick, i.e. after the task of a due
+	 * {@link ShopkeeperTimer} has been run.
 	 */
 	public void onTickEnd() {
 	}
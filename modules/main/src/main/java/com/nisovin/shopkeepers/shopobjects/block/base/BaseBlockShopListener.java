@@ -27,6 +27,7 @@ import com.nisovin.shopkeepers.SKShopkeepersPlugin;
 import com.nisovin.shopkeepers.api.internal.util.Unsafe;
 import com.nisovin.shopkeepers.api.shopkeeper.Shopkeeper;
 import com.nisovin.shopkeepers.config.Settings;
+import com.nisovin.shopkeepers.metrics.InternalMetrics;
 import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
 import com.nisovin.shopkeepers.shopkeeper.registry.SKShopkeeperRegistry;
 import com.nisovin.shopkeepers.util.bukkit.BlockFaceUtils;
@@ -138,6 +139,7 @@ class BaseBlockShopListener implements Listener {
 		}
 
 		// Handle interaction:
+		InternalMetrics.SHOPKEEPER_INTERACTIONS.increment();
 		shopkeeper.onPlayerInteraction(player);
 	}
 
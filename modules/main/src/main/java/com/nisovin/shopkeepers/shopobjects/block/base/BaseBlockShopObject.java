@@ -13,10 +13,10 @@ import com.nisovin.shopkeepers.api.internal.util.Unsafe;
 import com.nisovin.shopkeepers.api.shopkeeper.ShopCreationData;
 import com.nisovin.shopkeepers.debug.DebugOptions;
 import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
+import com.nisovin.shopkeepers.shopkeeper.ticking.ShopkeeperTimer;
 import com.nisovin.shopkeepers.shopobjects.ShopkeeperMetadata;
 import com.nisovin.shopkeepers.shopobjects.block.AbstractBlockShopObject;
 import com.nisovin.shopkeepers.util.java.CyclicCounter;
-import com.nisovin.shopkeepers.util.java.RateLimiter;
 import com.nisovin.shopkeepers.util.logging.Log;
 
 /**
@@ -37,10 +37,12 @@ public abstract class BaseBlockShopObject extends AbstractBlockShopObject {
 
 	private final BaseBlockShops blockShops;
 
-	// Initial threshold between [1, CHECK_PERIOD_SECONDS] for load balancing:
-	private final RateLimiter checkLimiter = new RateLimiter(
+	// Initial delay between [1, CHECK_PERIOD_SECONDS] for load balancing:
+	private final int checkingOffset = nextCheckingOffset.getAndIncrement();
+	private final ShopkeeperTimer checkTimer = new ShopkeeperTimer(
+			shopkeeper,
 			CHECK_PERIOD_SECONDS,
-			nextCheckingOffset.getAndIncrement()
+			() -> Unsafe.initialized(this).onCheckTimer()
 	);
 
 	private @Nullable Block block = null;
@@ -206,12 +208,18 @@ public abstract class BaseBlockShopObject extends AbstractBlockShopObject {
 	// TICKING
 
 	@Override
-	public void onTick() {
-		super.onTick();
-		if (!checkLimiter.request()) {
-			return;
-		}
+	public void onStartTicking() {
+		super.onStartTicking();
+		checkTimer.schedule(checkingOffset);
+	}
+
+	@Override
+	public void onStopTicking() {
+		super.onStopTicking();
+		checkTimer.cancel();
+	}
 
+	private void onCheckTimer() {
 		if (this.isSpawningScheduled()) {
 			Log.debug(DebugOptions.regularTickActivities, () -> shopkeeper.getLogPrefix()
 					+ "Spawning is scheduled. Skipping block check.");
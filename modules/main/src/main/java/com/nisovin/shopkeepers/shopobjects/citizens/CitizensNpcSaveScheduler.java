@@ -0,0 +1,144 @@
+package com.nisovin.shopkeepers.shopobjects.citizens;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.config.Settings;
+import com.nisovin.shopkeepers.util.java.Validate;
+import com.nisovin.shopkeepers.util.logging.Log;
+
+/**
+ * Merges the requests to save the Citizens NPCs that are issued within a short period of time into
+ * a single save.
+ * <p>
+ * Saving the Citizens NPCs is a heavy operation, and a single edit of a shopkeeper can result in
+ * several NPC modifications within the same tick. The first save request starts a window of
+ * {@link Settings#citizenNpcSaveDelayTicks} ticks, and all subsequent save requests within this
+ * window are merged into the save that is triggered at the end of the window. Since the window is
+ * not extended by subsequent save requests, the save is not postponed indefinitely by frequent
+ * save requests.
+ * <p>
+ * Pending saves need to be {@link #flush() flushed} before the Citizens shops are disabled.
+ */
+public final class CitizensNpcSaveScheduler {
+
+	private final Plugin plugin;
+	private final Runnable saveAction;
+
+	private @Nullable BukkitTask delayedSaveTask = null;
+	// The number of save requests that are merged into the next save:
+	private int pendingSaveRequests = 0;
+
+	// Statistics:
+	private long saveRequestsCount = 0L;
+	private long savesCount = 0L;
+
+	/**
+	 * Creates a new {@link CitizensNpcSaveScheduler}.
+	 * 
+	 * @param plugin
+	 *            the plugin that is used to schedule the delayed saves, not <code>null</code>
+	 * @param saveAction
+	 *            saves the Citizens NPCs, not <code>null</code>
+	 */
+	CitizensNpcSaveScheduler(Plugin plugin, Runnable saveAction) {
+		Validate.notNull(plugin, "plugin is null");
+		Validate.notNull(saveAction, "saveAction is null");
+		this.plugin = plugin;
+		this.saveAction = saveAction;
+	}
+
+	/**
+	 * Requests a save of the Citizens NPCs.
+	 * <p>
+	 * If {@link Settings#citizenNpcSaveDelayTicks} is <code>0</code>, the NPCs are saved
+	 * immediately. Otherwise, the save is delayed and merged with any subsequent save requests.
+	 */
+	void requestSave() {
+		saveRequestsCount++;
+		pendingSaveRequests++;
+
+		int delayTicks = Settings.citizenNpcSaveDelayTicks;
+		if (delayTicks <= 0) {
+			this.flush();
+			return;
+		}
+
+		if (delayedSaveTask == null) {
+			delayedSaveTask = Bukkit.getScheduler().runTaskLater(plugin, this::flush, delayTicks);
+		}
+		// Else: The request is merged into the already scheduled save.
+	}
+
+	/**
+	 * Checks if there is a pending save.
+	 * 
+	 * @return <code>true</code> if there is a pending save
+	 */
+	boolean hasPendingSave() {
+		return pendingSaveRequests > 0;
+	}
+
+	/**
+	 * Immediately performs the pending save, if there is one.
+	 */
+	void flush() {
+		this.cancelDelayedSaveTask();
+		if (pendingSaveRequests == 0) return; // Nothing to save
+
+		int mergedSaveRequests = pendingSaveRequests;
+		pendingSaveRequests = 0;
+		savesCount++;
+		Log.debug(() -> "Saving Citizens NPCs (merged save requests: " + mergedSaveRequests
+				+ ").");
+		saveAction.run();
+	}
+
+	/**
+	 * Discards the pending save, if there is one.
+	 * <p>
+	 * This can be used if the Citizens NPCs are known to have already been saved by other means.
+	 */
+	void discardPendingSave() {
+		this.cancelDelayedSaveTask();
+		pendingSaveRequests = 0;
+	}
+
+	private void cancelDelayedSaveTask() {
+		BukkitTask delayedSaveTask = this.delayedSaveTask;
+		if (delayedSaveTask != null) {
+			delayedSaveTask.cancel();
+			this.delayedSaveTask = null;
+		}
+	}
+
+	/**
+	 * Gets the total number of requested saves.
+	 * 
+	 * @return the number of save requests
+	 */
+	public long getSaveRequestsCount() {
+		return saveRequestsCount;
+	}
+
+	/**
+	 * Gets the total number of performed saves.
+	 * 
+	 * @return the number of performed saves
+	 */
+	public long getSavesCount() {
+		return savesCount;
+	}
+
+	/**
+	 * Gets the total number of save requests that were merged into the save of another save
+	 * request, or that were discarded.
+	 * 
+	 * @return the number of coalesced save requests
+	 */
+	public long getCoalescedSaveRequestsCount() {
+		return saveRequestsCount - savesCount - pendingSaveRequests;
+	}
+}
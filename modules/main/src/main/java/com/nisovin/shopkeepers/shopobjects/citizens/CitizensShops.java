@@ -73,6 +73,7 @@ public class CitizensShops {
 			Unsafe.initialized(this)
 	);
 	private final PluginListener pluginListener = new PluginListener(Unsafe.initialized(this));
+	private final CitizensNpcSaveScheduler npcSaveScheduler;
 
 	private final CitizensListener citizensListener;
 	private boolean citizensShopsEnabled = false;
@@ -89,6 +90,10 @@ public class CitizensShops {
 		Validate.notNull(plugin, "plugin is null");
 		this.plugin = plugin;
 		this.citizensListener = new CitizensListener(plugin, Unsafe.initialized(this));
+		this.npcSaveScheduler = new CitizensNpcSaveScheduler(
+				plugin,
+				Unsafe.initialized(this)::saveNPCs
+		);
 	}
 
 	// This is called on plugin enable.
@@ -108,6 +113,10 @@ public class CitizensShops {
 		return citizensShopObjectType;
 	}
 
+	public CitizensNpcSaveScheduler getNpcSaveScheduler() {
+		return npcSaveScheduler;
+	}
+
 	/**
 	 * Returns whether Citizens shopkeepers are currently enabled.
 	 * 
@@ -213,6 +222,19 @@ public class CitizensShops {
 			((SKCitizensShopObject) shopkeeper.getShopObject()).onCitizensShopsDisabled();
 		});
 
+		// Flush any pending NPC save:
+		if (npcSaveScheduler.hasPendingSave()) {
+			if (CitizensDependency.isPluginEnabled() && this.isCitizensAPIAvailable()) {
+				npcSaveScheduler.flush();
+			} else {
+				// The Citizens plugin has already been disabled, and it saves its NPCs itself
+				// during its shutdown. Our NPC modifications are therefore already saved. Or the
+				// Citizens API is no longer available, in which case we cannot save the NPCs.
+				Log.debug("Citizens not available: Discarding the pending NPC save.");
+				npcSaveScheduler.discardPendingSave();
+			}
+		}
+
 		Plugin citizensPlugin = CitizensDependency.getPlugin();
 		if (citizensPlugin != null) {
 			// Unregister the shopkeeper trait:
@@ -367,12 +389,11 @@ public class CitizensShops {
 	}
 
 	void onNPCEdited(NPC npc) {
-		// TODO We may sometimes unnecessarily call this multiple times within the same tick. Merge
-		// all save requests within a short time period (i.e. a few ticks)? But we would also need
-		// to ensure that the save is triggered on plugin shutdown, including when Citizens shuts
-		// down.
 		if (Settings.saveCitizenNpcsInstantly) {
-			this.saveNPCs();
+			// This can be called multiple times within the same tick. The save requests within a
+			// short period of time are merged. Any pending save is flushed when the Citizens shops
+			// are disabled, i.e. on plugin shutdown and when the Citizens plugin is disabled.
+			npcSaveScheduler.requestSave();
 		}
 		// Else: Saving is controlled only by Citizens itself: Periodically, manually, and on
 		// shutdown.
@@ -415,11 +436,7 @@ public class CitizensShops {
 
 		SKShopkeeperRegistry shopkeeperRegistry = plugin.getShopkeeperRegistry();
 		List<Shopkeeper> invalidShopkeepers = new ArrayList<>();
-		shopkeeperRegistry.getAllShopkeepers().forEach(shopkeeper -> {
-			if (!(shopkeeper.getShopObject() instanceof SKCitizensShopObject)) {
-				return;
-			}
-
+		shopkeeperRegistry.getShopkeepersByObjectType(citizensShopObjectType).forEach(shopkeeper -> {
 			SKCitizensShopObject citizensShop = (SKCitizensShopObject) shopkeeper.getShopObject();
 			UUID npcUniqueId = citizensShop.getNPCUniqueId();
 			if (npcUniqueId == null) {
@@ -24,6 +24,7 @@ import com.nisovin.shopkeepers.shopkeeper.ShopkeeperData;
 import com.nisovin.shopkeepers.shopkeeper.migration.Migration;
 import com.nisovin.shopkeepers.shopkeeper.migration.MigrationPhase;
 import com.nisovin.shopkeepers.shopkeeper.migration.ShopkeeperDataMigrator;
+import com.nisovin.shopkeepers.shopkeeper.ticking.ShopkeeperTimer;
 import com.nisovin.shopkeepers.shopobjects.SKDefaultShopObjectTypes;
 import com.nisovin.shopkeepers.shopobjects.ShopObjectData;
 import com.nisovin.shopkeepers.shopobjects.entity.AbstractEntityShopObject;
@@ -37,7 +38,6 @@ import com.nisovin.shopkeepers.util.data.serialization.InvalidDataException;
 import com.nisovin.shopkeepers.util.data.serialization.java.DataContainerSerializers;
 import com.nisovin.shopkeepers.util.data.serialization.java.UUIDSerializers;
 import com.nisovin.shopkeepers.util.java.CyclicCounter;
-import com.nisovin.shopkeepers.util.java.RateLimiter;
 import com.nisovin.shopkeepers.util.logging.Log;
 
 import net.citizensnpcs.api.CitizensAPI;
@@ -113,10 +113,12 @@ public class SKCitizensShopObject extends AbstractEntityShopObject implements Ci
 	// If false, this will not remove the NPC on deletion:
 	private boolean destroyNPC = true;
 
-	// Initial threshold between [1, CHECK_PERIOD_SECONDS] for load balancing:
-	private final RateLimiter checkLimiter = new RateLimiter(
+	// Initial delay between [1, CHECK_PERIOD_SECONDS] for load balancing:
+	private final int checkingOffset = nextCheckingOffset.getAndIncrement();
+	private final ShopkeeperTimer checkTimer = new ShopkeeperTimer(
+			shopkeeper,
 			CHECK_PERIOD_SECONDS,
-			nextCheckingOffset.getAndIncrement()
+			() -> Unsafe.initialized(this).onCheckTimer()
 	);
 
 	private @Nullable Entity entity = null;
@@ -342,6 +344,7 @@ public class SKCitizensShopObject extends AbstractEntityShopObject implements Ci
 
 	static {
 		// Register shopkeeper data migrations:
+		// This depends on the current configuration and is therefore always applied.
 		ShopkeeperDataMigrator.registerMigration(new Migration(
 				"citizens-npc-data-cleanup",
 				MigrationPhase.ofShopObjectClass(SKCitizensShopObject.class)
@@ -662,9 +665,16 @@ public class SKCitizensShopObject extends AbstractEntityShopObject implements Ci
 
 	// TICKING
 
+	@Override
+	public void onStartTicking() {
+		super.onStartTicking();
+		checkTimer.schedule(checkingOffset);
+	}
+
 	@Override
 	public void onStopTicking() {
 		super.onStopTicking();
+		checkTimer.cancel();
 
 		// Update the shopkeeper's location if the NPC moved since the last shopkeeper tick. This
 		// ensures that we activate the NPC's current chunk and that we therefore continue to tick
@@ -672,18 +682,12 @@ public class SKCitizensShopObject extends AbstractEntityShopObject implements Ci
 		this.updateShopkeeperLocation();
 	}
 
-	@Override
-	public void onTick() {
-		super.onTick();
+	private void onCheckTimer() {
 		// TODO If the NPC is moved to a different world, and the previous chunk is unloaded, it may
 		// take up to 10 seconds before the NPC can be interacted with again because it is no longer
 		// part of the active shopkeepers.
 		// TODO Actually, the NPC is no longer considered a shopkeeper during these 10 seconds! This
 		// could result is all kinds of issues.
-		if (!checkLimiter.request()) {
-			return;
-		}
-
 		NPC npc = this.getNPC();
 		if (npc == null) {
 			// The NPC is not available currently.
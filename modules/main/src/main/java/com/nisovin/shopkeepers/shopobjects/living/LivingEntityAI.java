@@ -3,7 +3,6 @@ package com.nisovin.shopkeepers.shopobjects.living;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -30,10 +29,13 @@ import com.nisovin.shopkeepers.api.internal.util.Unsafe;
 import com.nisovin.shopkeepers.api.util.ChunkCoords;
 import com.nisovin.shopkeepers.compat.NMSManager;
 import com.nisovin.shopkeepers.config.Settings;
+import com.nisovin.shopkeepers.util.bukkit.ChunkKeys;
 import com.nisovin.shopkeepers.util.bukkit.EntityUtils;
-import com.nisovin.shopkeepers.util.bukkit.MutableChunkCoords;
+import com.nisovin.shopkeepers.util.bukkit.LocationUtils;
+import com.nisovin.shopkeepers.util.bukkit.WorldChunkMap;
 import com.nisovin.shopkeepers.util.bukkit.WorldUtils;
 import com.nisovin.shopkeepers.util.java.CyclicCounter;
+import com.nisovin.shopkeepers.util.java.LongHashMap;
 import com.nisovin.shopkeepers.util.java.RateLimiter;
 import com.nisovin.shopkeepers.util.java.Validate;
 import com.nisovin.shopkeepers.util.timer.Timer;
@@ -80,6 +82,35 @@ public class LivingEntityAI implements Listener {
 	 * limit the AI ticking to the direct chunks around the player.
 	 */
 	private static final int AI_ACTIVATION_CHUNK_RANGE = 1;
+	/**
+	 * The range in blocks around players in which the AI of entities is ticked at the full rate.
+	 * <p>
+	 * The AI of entities that are outside this range, but still inside the
+	 * {@link #AI_ACTIVATION_CHUNK_RANGE}, is only ticked every {@link #REDUCED_AI_TICK_PERIOD}
+	 * behavior updates. This range is determined per chunk, based on the distance between the
+	 * nearest player and the chunk's bounds. It is larger than the {@link #LOOK_RANGE}, because
+	 * players can move several blocks in between two AI activation updates: A sprinting player
+	 * covers around 8 blocks within {@link #AI_ACTIVATION_TICK_RATE} ticks.
+	 * <p>
+	 * With an {@link #AI_ACTIVATION_CHUNK_RANGE} of only 1 chunk, the gain of the reduced tick rate
+	 * is small: The player's own chunk is always ticked at the full rate. A directly adjacent chunk
+	 * is only ticked at the reduced rate if the player is within 2 blocks of the opposite border of
+	 * its chunk, and a diagonal chunk in about 40% of the player's positions. For entities that
+	 * are evenly distributed across the chunks around a player, this reduces the AI ticks by about
+	 * a sixth. Larger AI activation ranges would allow larger savings, but would also tick the AI
+	 * of additional entities that are currently not ticked at all.
+	 */
+	private static final double FULL_RATE_AI_RANGE = LOOK_RANGE + 8.0D;
+	private static final double FULL_RATE_AI_RANGE_SQ = FULL_RATE_AI_RANGE * FULL_RATE_AI_RANGE;
+	/**
+	 * The period in behavior updates in which we tick the AI of entities outside the
+	 * {@link #FULL_RATE_AI_RANGE}.
+	 */
+	private static final int REDUCED_AI_TICK_PERIOD = 4;
+	private static final CyclicCounter nextReducedAITickOffset = new CyclicCounter(
+			1,
+			REDUCED_AI_TICK_PERIOD + 1
+	);
 	// Regarding gravity activation range:
 	// Players can see shop entities from further away, so we use a large enough range for the
 	// activation of falling checks (configurable in the config, default 4).
@@ -110,7 +141,6 @@ public class LivingEntityAI implements Listener {
 
 	// Temporarily re-used objects:
 	private static final Location sharedLocation = new Location(null, 0, 0, 0);
-	private static final MutableChunkCoords sharedChunkCoords = new MutableChunkCoords();
 
 	private final SKShopkeepersPlugin plugin;
 	/**
@@ -146,6 +176,11 @@ public class LivingEntityAI implements Listener {
 		);
 		public boolean falling = false;
 		public double distanceToGround = 0.0D;
+		// Initial threshold between [1, REDUCED_AI_TICK_PERIOD] for load balancing:
+		public final RateLimiter reducedAITickLimiter = new RateLimiter(
+				REDUCED_AI_TICK_PERIOD,
+				nextReducedAITickOffset.getAndIncrement()
+		);
 
 		public EntityData(SKLivingShopObject<?> shopObject, ChunkData chunkData) {
 			this.shopObject = shopObject;
@@ -170,6 +205,9 @@ public class LivingEntityAI implements Listener {
 		// Active by default for fast initial reactions in case players are nearby:
 		public boolean activeGravity;
 		public boolean activeAI = true;
+		// The squared horizontal block distance between the chunk's bounds and the nearest player
+		// that activated the chunk's AI. Only valid while the AI is active.
+		public double nearestPlayerDistanceSq = 0.0D;
 
 		public ChunkData(ChunkCoords chunkCoords, boolean activeGravity) {
 			this.chunkCoords = chunkCoords;
@@ -177,7 +215,8 @@ public class LivingEntityAI implements Listener {
 		}
 	}
 
-	private final Map<@NonNull ChunkCoords, @NonNull ChunkData> chunks = new LinkedHashMap<>();
+	// Lookups by chunk do not allocate and do not compare world names:
+	private final WorldChunkMap<@NonNull ChunkData> chunks = new WorldChunkMap<>();
 	// Index for fast removal: Shop object -> EntityData
 	private final Map<@NonNull SKLivingShopObject<?>, @NonNull EntityData> shopObjects = new HashMap<>();
 
@@ -187,6 +226,8 @@ public class LivingEntityAI implements Listener {
 	// Statistics:
 	private int activeAIChunksCount = 0;
 	private int activeAIEntityCount = 0;
+	private int fullRateAIEntityCount = 0;
+	private int reducedRateAIEntityCount = 0;
 
 	private int activeGravityChunksCount = 0;
 	private int activeGravityEntityCount = 0;
@@ -243,13 +284,15 @@ public class LivingEntityAI implements Listener {
 		// Determine entity chunk (asserts that the entity won't move!):
 		// We assert that the chunk is loaded (checked above by isValid call).
 		Location entityLocation = Unsafe.assertNonNull(entity.getLocation(sharedLocation));
-		sharedChunkCoords.set(entityLocation);
+		String worldName = LocationUtils.getWorld(entityLocation).getName();
+		int chunkX = ChunkCoords.fromBlock(entityLocation.getBlockX());
+		int chunkZ = ChunkCoords.fromBlock(entityLocation.getBlockZ());
 		sharedLocation.setWorld(null); // Reset
 
 		// Add chunk entry:
-		ChunkData chunkData = chunks.get(sharedChunkCoords);
+		ChunkData chunkData = chunks.get(worldName, chunkX, chunkZ);
 		if (chunkData == null) {
-			ChunkCoords chunkCoords = new ChunkCoords(sharedChunkCoords); // Copy
+			ChunkCoords chunkCoords = new ChunkCoords(worldName, chunkX, chunkZ);
 			chunkData = new ChunkData(chunkCoords, customGravityEnabled);
 			chunks.put(chunkCoords, chunkData);
 
@@ -319,6 +362,8 @@ public class LivingEntityAI implements Listener {
 	private void resetStatistics() {
 		activeAIChunksCount = 0;
 		activeAIEntityCount = 0;
+		fullRateAIEntityCount = 0;
+		reducedRateAIEntityCount = 0;
 
 		activeGravityChunksCount = 0;
 		activeGravityEntityCount = 0;
@@ -341,6 +386,14 @@ public class LivingEntityAI implements Listener {
 		return activeAIEntityCount;
 	}
 
+	public int getFullRateAIEntityCount() {
+		return fullRateAIEntityCount;
+	}
+
+	public int getReducedRateAIEntityCount() {
+		return reducedRateAIEntityCount;
+	}
+
 	public int getActiveGravityChunksCount() {
 		return activeGravityChunksCount;
 	}
@@ -434,9 +487,10 @@ public class LivingEntityAI implements Listener {
 		activationTimings.start();
 
 		// Deactivate all chunks:
-		chunks.values().forEach(chunkData -> {
+		chunks.forEachValue(chunkData -> {
 			chunkData.activeAI = false;
 			chunkData.activeGravity = false;
+			chunkData.nearestPlayerDistanceSq = Double.MAX_VALUE;
 		});
 		activeAIChunksCount = 0;
 		activeGravityChunksCount = 0;
@@ -460,11 +514,15 @@ public class LivingEntityAI implements Listener {
 		// may sometimes not be loaded yet. We therefore avoid accessing (and thereby loading) that
 		// chunk here, but instead only use its coordinates. The subsequent activation of nearby
 		// chunks only considers loaded chunks.
+		double x = location.getX();
+		double z = location.getZ();
 		int chunkX = ChunkCoords.fromBlock(location.getBlockX());
 		int chunkZ = ChunkCoords.fromBlock(location.getBlockZ());
 
 		this.activateNearbyChunks(
 				world,
+				x,
+				z,
 				chunkX,
 				chunkZ,
 				AI_ACTIVATION_CHUNK_RANGE,
@@ -474,6 +532,8 @@ public class LivingEntityAI implements Listener {
 			assert Settings.gravityChunkRange >= 0;
 			this.activateNearbyChunks(
 					world,
+					x,
+					z,
 					chunkX,
 					chunkZ,
 					Settings.gravityChunkRange,
@@ -509,23 +569,26 @@ public class LivingEntityAI implements Listener {
 		AI;
 	}
 
+	// x, z: The player's position, used to determine the distance to the nearest player per chunk.
 	private void activateNearbyChunks(
 			World world,
+			double x,
+			double z,
 			int centerChunkX,
 			int centerChunkZ,
 			int chunkRadius,
 			ActivationType activationType
 	) {
 		assert world != null && chunkRadius >= 0 && activationType != null;
-		String worldName = world.getName();
+		LongHashMap<@NonNull ChunkData> worldChunks = chunks.getWorld(world.getName());
+		if (worldChunks == null) return; // There are no shop entities in this world
 		int minChunkX = centerChunkX - chunkRadius;
 		int maxChunkX = centerChunkX + chunkRadius;
 		int minChunkZ = centerChunkZ - chunkRadius;
 		int maxChunkZ = centerChunkZ + chunkRadius;
 		for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
 			for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
-				sharedChunkCoords.set(worldName, chunkX, chunkZ);
-				ChunkData chunkData = chunks.get(sharedChunkCoords);
+				ChunkData chunkData = worldChunks.get(ChunkKeys.of(chunkX, chunkZ));
 				if (chunkData == null) continue;
 
 				switch (activationType) {
@@ -540,6 +603,10 @@ public class LivingEntityAI implements Listener {
 						chunkData.activeAI = true;
 						activeAIChunksCount++;
 					}
+					double distanceSq = getDistanceSq(chunkX, chunkZ, x, z);
+					if (distanceSq < chunkData.nearestPlayerDistanceSq) {
+						chunkData.nearestPlayerDistanceSq = distanceSq;
+					}
 					break;
 				default:
 					throw new IllegalStateException("Unexpected activation type: "
@@ -549,10 +616,28 @@ public class LivingEntityAI implements Listener {
 		}
 	}
 
+	// The squared horizontal distance between the given position and the closest block position
+	// inside the specified chunk:
+	static double getDistanceSq(int chunkX, int chunkZ, double x, double z) {
+		double minX = chunkX << 4;
+		double minZ = chunkZ << 4;
+		double dx = Math.max(0.0D, Math.max(minX - x, x - (minX + 16.0D)));
+		double dz = Math.max(0.0D, Math.max(minZ - z, z - (minZ + 16.0D)));
+		return dx * dx + dz * dz;
+	}
+
+	// Whether the AI of entities whose chunk has the given squared distance to the nearest player
+	// is ticked at the full rate:
+	static boolean isFullRateAI(double nearestPlayerDistanceSq) {
+		return nearestPlayerDistanceSq <= FULL_RATE_AI_RANGE_SQ;
+	}
+
 	// ENTITY PROCESSING
 
 	private void processEntities() {
 		activeAIEntityCount = 0;
+		fullRateAIEntityCount = 0;
+		reducedRateAIEntityCount = 0;
 		activeGravityEntityCount = 0;
 
 		if (activeAIChunksCount == 0 && activeGravityChunksCount == 0) {
@@ -561,7 +646,7 @@ public class LivingEntityAI implements Listener {
 			return;
 		}
 
-		chunks.values().forEach(this::processEntities);
+		chunks.forEachValue(this::processEntities);
 	}
 
 	private void processEntities(ChunkData chunkData) {
@@ -610,7 +695,16 @@ public class LivingEntityAI implements Listener {
 		aiTimings.resume();
 		if (chunkData.activeAI) {
 			activeAIEntityCount++;
-			this.processAI(entityData);
+			if (isFullRateAI(chunkData.nearestPlayerDistanceSq)) {
+				fullRateAIEntityCount++;
+				this.processAI(entityData);
+			} else {
+				// No player is close enough to be looked at soon: Reduce the AI tick rate.
+				reducedRateAIEntityCount++;
+				if (entityData.reducedAITickLimiter.request()) {
+					this.processAI(entityData);
+				}
+			}
 		}
 		aiTimings.pause();
 	}
@@ -1,14 +1,17 @@
 package com.nisovin.shopkeepers.shopobjects.living;
 
 import java.util.Collection;
+import java.util.function.Consumer;
 
 import org.bukkit.Bukkit;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Monster;
 import org.bukkit.entity.PigZombie;
 import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
 import org.bukkit.event.Event.Result;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -49,6 +52,8 @@ import com.nisovin.shopkeepers.SKShopkeepersPlugin;
 import com.nisovin.shopkeepers.api.internal.util.Unsafe;
 import com.nisovin.shopkeepers.api.shopobjects.DefaultShopObjectTypes;
 import com.nisovin.shopkeepers.config.Settings;
+import com.nisovin.shopkeepers.config.Settings.DerivedSettings;
+import com.nisovin.shopkeepers.metrics.InternalMetrics;
 import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
 import com.nisovin.shopkeepers.shopkeeper.registry.SKShopkeeperRegistry;
 import com.nisovin.shopkeepers.util.bukkit.EntityUtils;
@@ -69,6 +74,7 @@ class LivingEntityShopListener implements Listener {
 
 	void onEnable() {
 		Bukkit.getPluginManager().registerEvents(this, plugin);
+		this.registerEntityTypeSpecificEventHandlers();
 		// Ensure that our interact event handlers are always executed first, even after plugin
 		// reloads:
 		// In order to not change the order among the already registered event handlers of our own
@@ -86,9 +92,56 @@ class LivingEntityShopListener implements Listener {
 	}
 
 	void onDisable() {
+		// Also unregisters the dynamically registered event handlers:
 		HandlerList.unregisterAll(this);
 	}
 
+	// Some events are only called for specific types of entities. We only register the handlers for
+	// these events if shopkeepers of these entity types can exist, because some of these events can
+	// be called quite frequently for non-shopkeeper entities (e.g. explosion events).
+	private void registerEntityTypeSpecificEventHandlers() {
+		// Example: Creepers.
+		if (this.isShopEntityTypeEnabled(EntityType.CREEPER)
+				|| this.isShopEntityTypeEnabled(EntityType.WITHER)) {
+			this.registerEventHandler(ExplosionPrimeEvent.class, this::onExplodePrime);
+			this.registerEventHandler(EntityExplodeEvent.class, this::onExplode);
+		}
+		if (this.isShopEntityTypeEnabled(EntityType.CREEPER)) {
+			this.registerEventHandler(CreeperPowerEvent.class, this::onCreeperCharged);
+		}
+		if (this.isShopEntityTypeEnabled(EntityType.PIG)) {
+			this.registerEventHandler(PigZapEvent.class, this::onPigZap);
+		}
+		if (this.isShopEntityTypeEnabled(EntityType.SHEEP)) {
+			this.registerEventHandler(SheepDyeWoolEvent.class, this::onSheepDyed);
+		}
+		// Example: Snowmans. But also players walking with frost walker boots, which is only
+		// relevant for Citizens player NPCs.
+		if (this.isShopEntityTypeEnabled(EntityType.SNOWMAN)) {
+			this.registerEventHandler(EntityBlockFormEvent.class, this::onEntityBlockForm);
+		}
+	}
+
+	private boolean isShopEntityTypeEnabled(EntityType entityType) {
+		// Citizens NPCs can use any entity type:
+		if (Settings.enableCitizenShops) return true;
+		return DerivedSettings.enabledLivingShops.contains(entityType);
+	}
+
+	private <E extends @NonNull Event> void registerEventHandler(
+			Class<E> eventClass,
+			Consumer<? super @NonNull E> eventHandler
+	) {
+		Bukkit.getPluginManager().registerEvent(
+				eventClass,
+				this,
+				EventPriority.LOW,
+				EventUtils.eventExecutor(eventClass, eventHandler),
+				plugin,
+				true
+		);
+	}
+
 	// We want to bypass other plugins by default, so that shops can also be opened in protected
 	// regions.
 	// We cancel the event to prevent any vanilla mechanics from taking place, and also to indicate
@@ -203,6 +256,7 @@ class LivingEntityShopListener implements Listener {
 		}
 
 		// Handle interaction:
+		InternalMetrics.SHOPKEEPER_INTERACTIONS.increment();
 		shopkeeper.onPlayerInteraction(player);
 	}
 
@@ -254,14 +308,14 @@ class LivingEntityShopListener implements Listener {
 
 	// Example: Creepers.
 
-	@EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+	// Registered dynamically.
 	void onExplodePrime(ExplosionPrimeEvent event) {
 		if (shopkeeperRegistry.isShopkeeper(event.getEntity())) {
 			event.setCancelled(true);
 		}
 	}
 
-	@EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+	// Registered dynamically.
 	void onExplode(EntityExplodeEvent event) {
 		if (shopkeeperRegistry.isShopkeeper(event.getEntity())) {
 			event.setCancelled(true);
@@ -269,7 +323,7 @@ class LivingEntityShopListener implements Listener {
 		}
 	}
 
-	@EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+	// Registered dynamically.
 	void onCreeperCharged(CreeperPowerEvent event) {
 		if (event.getCause() != PowerCause.LIGHTNING) return;
 		if (shopkeeperRegistry.isShopkeeper(event.getEntity())) {
@@ -304,14 +358,14 @@ class LivingEntityShopListener implements Listener {
 		}
 	}
 
-	@EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+	// Registered dynamically.
 	void onPigZap(PigZapEvent event) {
 		if (shopkeeperRegistry.isShopkeeper(event.getEntity())) {
 			event.setCancelled(true);
 		}
 	}
 
-	@EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+	// Registered dynamically.
 	void onSheepDyed(SheepDyeWoolEvent event) {
 		if (shopkeeperRegistry.isShopkeeper(event.getEntity())) {
 			event.setCancelled(true);
@@ -385,7 +439,7 @@ class LivingEntityShopListener implements Listener {
 
 	// Example: Snowmans.
 
-	@EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+	// Registered dynamically.
 	void onEntityBlockForm(EntityBlockFormEvent event) {
 		if (shopkeeperRegistry.isShopkeeper(event.getEntity())) {
 			event.setCancelled(true);
@@ -22,7 +22,8 @@ public class LivingShops {
 		// Register shopkeeper data migrations:
 		ShopkeeperDataMigrator.registerMigration(new Migration(
 				"living-shop-object-types",
-				MigrationPhase.EARLY
+				MigrationPhase.EARLY,
+				2
 		) {
 			@Override
 			public boolean migrate(
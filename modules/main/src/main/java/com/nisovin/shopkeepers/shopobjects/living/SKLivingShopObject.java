@@ -37,6 +37,7 @@ import com.nisovin.shopkeepers.debug.events.DebugListener;
 import com.nisovin.shopkeepers.debug.events.EventDebugListener;
 import com.nisovin.shopkeepers.lang.Messages;
 import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
+import com.nisovin.shopkeepers.shopkeeper.ticking.ShopkeeperTimer;
 import com.nisovin.shopkeepers.shopobjects.ShopObjectData;
 import com.nisovin.shopkeepers.shopobjects.ShopkeeperMetadata;
 import com.nisovin.shopkeepers.shopobjects.entity.AbstractEntityShopObject;
@@ -46,7 +47,6 @@ import com.nisovin.shopkeepers.util.bukkit.TextUtils;
 import com.nisovin.shopkeepers.util.bukkit.WorldUtils;
 import com.nisovin.shopkeepers.util.data.serialization.InvalidDataException;
 import com.nisovin.shopkeepers.util.java.CyclicCounter;
-import com.nisovin.shopkeepers.util.java.RateLimiter;
 import com.nisovin.shopkeepers.util.logging.Log;
 
 public class SKLivingShopObject<E extends @NonNull LivingEntity>
@@ -81,9 +81,13 @@ public class SKLivingShopObject<E extends @NonNull LivingEntity>
 	private static long lastSpawnDebugMillis = 0L;
 	private static final long SPAWN_DEBUG_THROTTLE_MILLIS = TimeUnit.MINUTES.toMillis(5);
 
-	// Initial threshold between [1, CHECK_PERIOD_SECONDS] for load balancing:
+	// Initial delay between [1, CHECK_PERIOD_SECONDS] for load balancing:
 	private final int checkingOffset = nextCheckingOffset.getAndIncrement();
-	private final RateLimiter checkLimiter = new RateLimiter(CHECK_PERIOD_SECONDS, checkingOffset);
+	private final ShopkeeperTimer checkTimer = new ShopkeeperTimer(
+			shopkeeper,
+			CHECK_PERIOD_SECONDS,
+			() -> Unsafe.initialized(this).onCheckTimer()
+	);
 	private boolean skipRespawnAttemptsIfPeaceful = false;
 
 	protected SKLivingShopObject(
@@ -517,36 +521,44 @@ public class SKLivingShopObject<E extends @NonNull LivingEntity>
 	// TICKING
 
 	@Override
-	public void onTick() {
-		super.onTick();
-		if (checkLimiter.request()) {
-			if (this.isSpawningScheduled()) {
-				Log.debug(DebugOptions.regularTickActivities, () -> shopkeeper.getLogPrefix()
-						+ "Spawning is scheduled. Skipping entity check.");
-				return;
-			}
+	public void onStartTicking() {
+		super.onStartTicking();
+		checkTimer.schedule(checkingOffset);
+	}
 
-			this.check();
+	@Override
+	public void onStopTicking() {
+		super.onStopTicking();
+		checkTimer.cancel();
+	}
 
-			// Indicate ticking activity for visualization:
-			this.indicateTickActivity();
+	private void onCheckTimer() {
+		if (this.isSpawningScheduled()) {
+			Log.debug(DebugOptions.regularTickActivities, () -> shopkeeper.getLogPrefix()
+					+ "Spawning is scheduled. Skipping entity check.");
+			return;
 		}
+
+		this.check();
+
+		// Indicate ticking activity for visualization:
+		this.indicateTickActivity();
 	}
 
 	private boolean isTickRateThrottled() {
-		return (checkLimiter.getThreshold() == THROTTLED_CHECK_PERIOD_SECONDS);
+		return (checkTimer.getPeriodSeconds() == THROTTLED_CHECK_PERIOD_SECONDS);
 	}
 
 	private void throttleTickRate() {
 		if (this.isTickRateThrottled()) return; // Already throttled
 		Log.debug("Throttling tick rate");
-		checkLimiter.setThreshold(THROTTLED_CHECK_PERIOD_SECONDS);
-		checkLimiter.setRemainingThreshold(THROTTLED_CHECK_PERIOD_SECONDS + checkingOffset);
+		checkTimer.setPeriodSeconds(THROTTLED_CHECK_PERIOD_SECONDS);
+		checkTimer.schedule(THROTTLED_CHECK_PERIOD_SECONDS + checkingOffset);
 	}
 
 	private void resetTickRate() {
-		checkLimiter.setThreshold(CHECK_PERIOD_SECONDS);
-		checkLimiter.setRemainingThreshold(checkingOffset);
+		checkTimer.setPeriodSeconds(CHECK_PERIOD_SECONDS);
+		checkTimer.schedule(checkingOffset);
 	}
 
 	private void check() {
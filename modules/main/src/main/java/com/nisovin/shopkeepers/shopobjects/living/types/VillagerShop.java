@@ -132,6 +132,12 @@ public class VillagerShop extends BabyableShop<@NonNull Villager> {
 		this.applyVillagerLevel();
 	}
 
+	@Override
+	public boolean isRegularTickingRequired() {
+		// Ambient sounds:
+		return super.isRegularTickingRequired() || Settings.simulateVillagerAmbientSounds;
+	}
+
 	@Override
 	public void onTick() {
 		super.onTick();
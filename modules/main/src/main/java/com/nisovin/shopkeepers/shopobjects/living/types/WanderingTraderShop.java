@@ -73,6 +73,12 @@ public class WanderingTraderShop extends BabyableShop<@NonNull WanderingTrader>
 		entity.setDespawnDelay(0);
 	}
 
+	@Override
+	public boolean isRegularTickingRequired() {
+		// Ambient sounds:
+		return super.isRegularTickingRequired() || Settings.simulateWanderingTraderAmbientSounds;
+	}
+
 	@Override
 	public void onTick() {
 		super.onTick();
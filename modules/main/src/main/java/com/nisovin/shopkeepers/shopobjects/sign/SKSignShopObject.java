@@ -76,7 +76,8 @@ public class SKSignShopObject extends BaseBlockShopObject implements SignShopObj
 		// TODO Remove this again at some point. Added in v2.10.0.
 		ShopkeeperDataMigrator.registerMigration(new Migration(
 				"sign-type",
-				MigrationPhase.ofShopObjectClass(SKSignShopObject.class)
+				MigrationPhase.ofShopObjectClass(SKSignShopObject.class),
+				2
 		) {
 			@Override
 			public boolean migrate(
@@ -105,7 +106,8 @@ public class SKSignShopObject extends BaseBlockShopObject implements SignShopObj
 		// TODO Remove this migration again at some point.
 		ShopkeeperDataMigrator.registerMigration(new Migration(
 				"sign-facing-to-yaw",
-				MigrationPhase.ofShopObjectClass(SKSignShopObject.class)
+				MigrationPhase.ofShopObjectClass(SKSignShopObject.class),
+				2
 		) {
 			@Override
 			public boolean migrate(
@@ -10,6 +10,7 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 import com.nisovin.shopkeepers.api.internal.util.Unsafe;
 import com.nisovin.shopkeepers.spigot.SpigotFeatures;
 import com.nisovin.shopkeepers.text.ClickEventText;
+import com.nisovin.shopkeepers.text.FormattedMessage;
 import com.nisovin.shopkeepers.text.FormattingText;
 import com.nisovin.shopkeepers.text.HoverEventText;
 import com.nisovin.shopkeepers.text.InsertionText;
@@ -45,6 +46,23 @@ public final class SpigotText {
 		}
 	}
 
+	// Note: This is not intended to be called directly, but only via TextUtils.
+	public static void sendMessage(CommandSender recipient, FormattedMessage message) {
+		Validate.notNull(recipient, "recipient is null");
+		Validate.notNull(message, "message is null");
+		// Skip sending if the (plain) message is empty: Allows disabling of messages.
+		if (message.isPlainTextEmpty()) return;
+
+		if (SpigotFeatures.isSpigotAvailable()) {
+			// Send message with additional text features:
+			Internal.sendMessage(recipient, message);
+		} else {
+			// Fallback: Send message as plain text.
+			String plainMessage = message.toPlainText();
+			TextUtils.sendMessage(recipient, plainMessage);
+		}
+	}
+
 	public static boolean debugging = false;
 
 	// Separate class that gets only accessed if Spigot is present. Avoids class loading issues.
@@ -65,6 +83,18 @@ public final class SpigotText {
 			recipient.spigot().sendMessage(component);
 		}
 
+		public static void sendMessage(CommandSender recipient, FormattedMessage message) {
+			assert recipient != null && message != null;
+			BaseComponent component = toSpigot(message);
+			if (debugging) {
+				Log.info("Message: " + message);
+				Log.info("Plain text: " + message.toPlainText());
+				Log.info("Component: " + component);
+				Bukkit.getConsoleSender().spigot().sendMessage(component);
+			}
+			recipient.spigot().sendMessage(component);
+		}
+
 		// CONVERSION
 
 		private static final class TextStyle {
@@ -119,14 +149,35 @@ public final class SpigotText {
 		}
 
 		private static BaseComponent toSpigot(Text text) {
+			return toSpigot(text, null);
+		}
+
+		// The placeholder arguments are taken from the given message, if any, instead of from the
+		// Text itself.
+		private static BaseComponent toSpigot(Text text, @Nullable FormattedMessage message) {
 			assert text != null;
 			BaseComponent root = new TextComponent();
-			toSpigot(text, null, root, new TextStyle());
+			toSpigot(text, message, null, root, new TextStyle());
 			return root;
 		}
 
+		private static BaseComponent toSpigot(FormattedMessage message) {
+			assert message != null;
+			// Messages are only converted once, even if they are sent to several recipients. This
+			// also applies to static messages, which are shared by their template. The cached
+			// component is not modified when being sent.
+			Object cachedComponent = message.getCachedComponent();
+			if (cachedComponent instanceof BaseComponent) {
+				return (BaseComponent) cachedComponent;
+			}
+			BaseComponent component = toSpigot(message.getTemplate().getText(), message);
+			message.setCachedComponent(component);
+			return component;
+		}
+
 		private static BaseComponent toSpigot(
 				Text text,
+				@Nullable FormattedMessage message,
 				@Nullable TextComponent previous,
 				BaseComponent parent,
 				TextStyle textStyle
@@ -137,6 +188,10 @@ public final class SpigotText {
 			// component or a new one is required:
 			@Nullable TextComponent current = previous;
 			BaseComponent component;
+			@Nullable Text child = text.getChild();
+			// The child of a placeholder is its argument, which does not receive the message's
+			// placeholder arguments itself:
+			@Nullable FormattedMessage childMessage = message;
 			boolean ignoreChild = false;
 			if (text instanceof FormattingText) {
 				String formattingCode = ((FormattingText) text).getFormattingCode();
@@ -166,7 +221,11 @@ public final class SpigotText {
 				component = current;
 			} else if (text instanceof PlaceholderText) {
 				PlaceholderText placeholderText = (PlaceholderText) text;
-				if (placeholderText.hasPlaceholderArgument()) {
+				if (message != null) {
+					child = message.getArgument(placeholderText.getPlaceholderKey());
+					childMessage = null;
+				}
+				if (child != null) {
 					// Gets handled below when handling the child
 					if (current == null) {
 						current = newTextComponent(parent, textStyle);
@@ -182,7 +241,7 @@ public final class SpigotText {
 				if (current == null || hasText(current) || hasExtra(current)) {
 					current = newTextComponent(parent, textStyle);
 				}
-				current.setHoverEvent(toSpigot((HoverEventText) text));
+				current.setHoverEvent(toSpigot((HoverEventText) text, message));
 				component = current;
 			} else if (text instanceof ClickEventText) {
 				if (current == null || hasText(current) || hasExtra(current)) {
@@ -222,17 +281,16 @@ public final class SpigotText {
 			assert component != null;
 
 			// Child: Add as child to current component, to inherit its features.
-			Text child = text.getChild();
 			if (!ignoreChild && child != null) {
 				// This modifies the passed TextStyle to contain the last encountered style:
-				toSpigot(child, current, component, textStyle);
+				toSpigot(child, childMessage, current, component, textStyle);
 			}
 
 			// Next: Add as child to parent component to not inherit the features of the current
 			// component.
 			Text next = text.getNext();
 			if (next != null) {
-				toSpigot(next, current, parent, textStyle);
+				toSpigot(next, message, current, parent, textStyle);
 			}
 			return component;
 		}
@@ -278,10 +336,15 @@ public final class SpigotText {
 
 		// HOVER EVENT
 
-		private static net.md_5.bungee.api.chat.HoverEvent toSpigot(HoverEventText hoverEvent) {
+		private static net.md_5.bungee.api.chat.HoverEvent toSpigot(
+				HoverEventText hoverEvent,
+				@Nullable FormattedMessage message
+		) {
 			assert hoverEvent != null;
 			net.md_5.bungee.api.chat.HoverEvent.Action action = toSpigot(hoverEvent.getAction());
-			BaseComponent[] value = new BaseComponent[] { toSpigot(hoverEvent.getValue()) };
+			BaseComponent[] value = new BaseComponent[] {
+					toSpigot(hoverEvent.getValue(), message)
+			};
 			return new net.md_5.bungee.api.chat.HoverEvent(action, value);
 		}
 
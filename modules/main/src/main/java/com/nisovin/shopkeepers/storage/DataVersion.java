@@ -61,11 +61,26 @@ public final class DataVersion {
 	 * <p>
 	 * Changes to this version indicate that the data format of individual types of shopkeepers or
 	 * shop objects might have changed. But they do not trigger a full save of all shopkeepers.
+	 * <p>
+	 * Each shopkeeper additionally stores the shopkeeper data version of its last save, so that
+	 * shopkeepers whose data is up-to-date can skip the data migrations. This version therefore
+	 * needs to be incremented whenever a new data migration is added.
 	 */
-	private static final int SHOPKEEPER_DATA_VERSION = 2;
+	private static final int SHOPKEEPER_DATA_VERSION = 3;
 
 	private static @Nullable DataVersion current = null;
 
+	/**
+	 * Gets the current shopkeeper data version.
+	 * <p>
+	 * Unlike {@link #current()}, this does not require this class to be initialized.
+	 * 
+	 * @return the current shopkeeper data version
+	 */
+	public static int getCurrentShopkeeperDataVersion() {
+		return SHOPKEEPER_DATA_VERSION;
+	}
+
 	/**
 	 * Gets the current {@link DataVersion}.
 	 * 
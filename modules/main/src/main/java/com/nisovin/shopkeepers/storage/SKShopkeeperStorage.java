@@ -23,13 +23,14 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 import com.nisovin.shopkeepers.SKShopkeepersPlugin;
 import com.nisovin.shopkeepers.api.ShopkeepersPlugin;
 import com.nisovin.shopkeepers.api.internal.util.Unsafe;
-import com.nisovin.shopkeepers.api.shopkeeper.Shopkeeper;
 import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperRegistry;
 import com.nisovin.shopkeepers.api.storage.ShopkeeperStorage;
 import com.nisovin.shopkeepers.config.Settings;
 import com.nisovin.shopkeepers.config.Settings.DerivedSettings;
+import com.nisovin.shopkeepers.metrics.InternalMetrics;
 import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
 import com.nisovin.shopkeepers.shopkeeper.ShopkeeperData;
+import com.nisovin.shopkeepers.shopkeeper.migration.ShopkeeperDataMigrator;
 import com.nisovin.shopkeepers.shopkeeper.registry.SKShopkeeperRegistry;
 import com.nisovin.shopkeepers.util.bukkit.PermissionUtils;
 import com.nisovin.shopkeepers.util.bukkit.SchedulerUtils;
@@ -98,8 +99,10 @@ public class SKShopkeeperStorage implements ShopkeeperStorage {
 	 */
 	private final BukkitConfigDataStore saveData = BukkitConfigDataStore.ofNewYamlConfig();
 
-	private int maxUsedShopkeeperId = 0;
-	private int nextShopkeeperId = 1;
+	// Keeps track of the ids that are used by the shopkeepers whose data is held by this storage or
+	// might still be persisted. This includes shopkeepers that could not be loaded, dirty
+	// shopkeepers, and shopkeepers whose deletion has not yet been persisted.
+	private final ShopkeeperIdAllocator idAllocator = new ShopkeeperIdAllocator();
 
 	/* Unsaved changes */
 	// Whether we got an explicit save request. This triggers a write to the save file, even if
@@ -229,106 +232,62 @@ public class SKShopkeeperStorage implements ShopkeeperStorage {
 	 * This does not increment the shopkeeper id counter on its own, because we do not want to
 	 * increment it in case the shopkeeper creation fails. Use {@link #onShopkeeperIdUsed(int)} once
 	 * the id is actually being used.
+	 * <p>
+	 * This also takes the shopkeepers into account that are not currently loaded (for example if
+	 * they could not be loaded for some reason, or if they were already unloaded again), and any
+	 * {@link #reserveIds(int) reserved} ids.
 	 * 
 	 * @return the next unused shopkeeper id
 	 */
 	public int getNextShopkeeperId() {
-		int nextId = nextShopkeeperId; // Can end up negative after increments due to overflows
-		if (nextId <= 0 || !this.isUnusedId(nextId)) {
-			// Try to use an id larger than the max currently used id:
-			int maxId = maxUsedShopkeeperId;
-			assert maxId > 0;
-			if (maxId < Integer.MAX_VALUE) {
-				nextId = maxId + 1; // Causes no overflow
-				assert this.isUnusedId(nextId); // There is no used id greater than the max id
-			} else {
-				// Find the first unused id:
-				nextId = 1;
-				while (!this.isUnusedId(nextId)) {
-					if (nextId == Integer.MAX_VALUE) {
-						// All ids are in use (unlikely..):
-						throw new IllegalStateException("No unused shopkeeper ids available!");
-					}
-					nextId++;
-				}
-				assert nextId > 0;
-			}
-			// Remember the found next id:
-			nextShopkeeperId = nextId;
-		}
-		return nextId;
+		return idAllocator.getNextUnusedId();
 	}
 
 	/**
-	 * Checks if the given id is already used by any shopkeeper.
+	 * Informs this storage that the given shopkeeper id is now being used.
 	 * <p>
-	 * This also takes the shopkeepers into account that are not currently loaded (for example if
-	 * they could not be loaded for some reason, or if they were already unloaded again).
+	 * This has to be called by the {@link ShopkeeperRegistry} whenever it creates or loads a
+	 * shopkeeper.
 	 * 
 	 * @param id
 	 *            the shopkeeper id
-	 * @return <code>true</code> if the shopkeeper id is not yet being used
 	 */
-	private boolean isUnusedId(int id) {
-		// Check if there is data for a shopkeeper with this id (this includes shopkeepers that
-		// could not be loaded for some reason, or are currently not loaded):
-		if (saveData.contains(String.valueOf(id))) return false;
-
-		// Check the unsaved deleted shopkeepers: As long as their deletion has not yet been
-		// persisted, we block their ids from being reused. This also applies if these deleted
-		// shopkeepers are currently being saved.
-		if (unsavedDeletedShopkeepers.contains(id)) {
-			return false;
-		}
-		// Checking the shopkeepersToDelete is not necessarily required: If they have been saved
-		// before, the saveData should still contain their entry, so the above check already finds
-		// them. And if they have never been saved before, it might seem safe to reuse their ids.
-		// However, in order to maintain a consistent view on the used ids throughout the plugin
-		// (ids are expected to only represent a single shopkeeper throughout their lifetime), we
-		// nevertheless block these ids from being reused until their deletion has been fully
-		// processed.
-		for (Shopkeeper shopkeeper : shopkeepersToDelete) {
-			if (shopkeeper.getId() == id) {
-				return false;
-			}
-		}
-
-		// Check the dirty shopkeepers (they might no longer be loaded, but their data might not
-		// have been added to the storage yet):
-		for (Shopkeeper shopkeeper : dirtyShopkeepers) {
-			if (shopkeeper.getId() == id) {
-				return false;
-			}
-		}
-
-		// Note: We are not checking the unsavedShopkeepers. Their data has already been added to
-		// the saveData, so the above check should find them.
-		// We are also not checking the dirty shopkeepers that may currently be getting saved. The
-		// saveData is prepared synchronously, and we don't expect shopkeepers to be created while
-		// this preparation is in progress. So the saveData should already contain them.
-		// And we are also not checking the currently loaded shopkeepers in the ShopkeeperRegistry:
-		// The saveData either already contains them, or they are part of the dirty shopkeepers (new
-		// shopkeepers are marked as dirty right away).
+	public void onShopkeeperIdUsed(int id) {
+		idAllocator.markUsed(id);
+	}
 
-		// We could not find a shopkeeper with this id, so it is unused:
-		return true;
+	/**
+	 * Reserves the specified number of unused shopkeeper ids.
+	 * <p>
+	 * This is meant for bulk imports of shopkeeper data: Instead of repeatedly querying and using
+	 * up the {@link #getNextShopkeeperId() next unused id}, importers can reserve the ids for all
+	 * imported shopkeepers upfront.
+	 * <p>
+	 * The reserved ids are not handed out to other shopkeepers until they are either used by a
+	 * shopkeeper, or {@link #releaseReservedIds(int[]) released} again. Any reserved ids that are
+	 * neither used nor released remain reserved until the shopkeepers are reloaded.
+	 * 
+	 * @param count
+	 *            the number of ids to reserve, not negative
+	 * @return the reserved ids, in ascending order
+	 */
+	public int[] reserveIds(int count) {
+		return idAllocator.reserveIds(count);
 	}
 
 	/**
-	 * Informs this storage that the given shopkeeper id is now being used.
+	 * Releases the given {@link #reserveIds(int) reserved} shopkeeper ids that are no longer
+	 * required.
 	 * <p>
-	 * This has to be called by the {@link ShopkeeperRegistry} whenever it creates or loads a
-	 * shopkeeper.
+	 * Ids that have already been used by a shopkeeper in the meantime remain in use.
 	 * 
-	 * @param id
-	 *            the shopkeeper id
+	 * @param ids
+	 *            the reserved ids, not <code>null</code>
 	 */
-	public void onShopkeeperIdUsed(int id) {
-		if (id > maxUsedShopkeeperId) {
-			maxUsedShopkeeperId = id;
-		}
-		if (id >= nextShopkeeperId) {
-			nextShopkeeperId = id + 1;
+	public void releaseReservedIds(int[] ids) {
+		Validate.notNull(ids, "ids is null");
+		for (int id : ids) {
+			idAllocator.releaseReservedId(id);
 		}
 	}
 
@@ -339,8 +298,7 @@ public class SKShopkeeperStorage implements ShopkeeperStorage {
 	 */
 	private void clearSaveData() {
 		saveData.clear();
-		maxUsedShopkeeperId = 0;
-		nextShopkeeperId = 1;
+		idAllocator.clear();
 	}
 
 	// We previously stored the save file within the plugin's root folder. If no save file exist at
@@ -536,6 +494,10 @@ public class SKShopkeeperStorage implements ShopkeeperStorage {
 		boolean dataVersionChanged = !DataVersion.current().equals(dataVersion);
 		boolean forceSaveAllShopkeepers = DataVersion.current().isMinecraftUpgrade(dataVersion)
 				|| DataVersion.current().isShopkeeperStorageUpgrade(dataVersion);
+		// Some data migrations, such as the migrations of items, depend on the Minecraft version.
+		// If the Minecraft version has changed, we therefore apply all migrations again:
+		boolean minecraftDataVersionChanged = DataVersion.current().getMinecraftDataVersion()
+				!= dataVersion.getMinecraftDataVersion();
 		if (dataVersionChanged) {
 			Log.info("The save file's data version has changed from '" + dataVersion
 					+ "' to '" + DataVersion.current() + "'."
@@ -548,6 +510,7 @@ public class SKShopkeeperStorage implements ShopkeeperStorage {
 			this.requestSave();
 		}
 
+		ShopkeeperDataMigrator.resetStatistics();
 		for (String key : keys) {
 			if (key.equals(DATA_VERSION_KEY)) continue; // Skip the data version entry
 
@@ -558,8 +521,14 @@ public class SKShopkeeperStorage implements ShopkeeperStorage {
 			// immediately look into. However, we do not abort the enabling of the plugin if
 			// individual shopkeepers cannot be loaded, because this would disable the protection of
 			// all player shop containers on the server (which is even worse).
-			this.loadShopkeeper(key, forceSaveAllShopkeepers);
+			this.loadShopkeeper(
+					key,
+					dataVersion.getShopkeeperDataVersion(),
+					minecraftDataVersionChanged,
+					forceSaveAllShopkeepers
+			);
 		}
+		ShopkeeperDataMigrator.logStatistics();
 		return true;
 	}
 
@@ -583,7 +552,12 @@ public class SKShopkeeperStorage implements ShopkeeperStorage {
 		return shopkeeperData;
 	}
 
-	private void loadShopkeeper(String key, boolean forceSave) {
+	private void loadShopkeeper(
+			String key,
+			int fileDataVersion,
+			boolean minecraftDataVersionChanged,
+			boolean forceSave
+	) {
 		Integer idInt = ConversionUtils.parseInt(key);
 		if (idInt == null || idInt <= 0) {
 			this.failedToLoadShopkeeper(key, "Invalid id: " + key);
@@ -591,8 +565,21 @@ public class SKShopkeeperStorage implements ShopkeeperStorage {
 		}
 
 		int shopkeeperId = idInt.intValue();
-		if (shopkeeperId > maxUsedShopkeeperId) {
-			maxUsedShopkeeperId = shopkeeperId;
+		// The id remains used even if the shopkeeper cannot be loaded, because its data is kept:
+		idAllocator.markUsed(shopkeeperId);
+
+		// Shopkeeper data that was saved before the shopkeepers stored their individual data
+		// versions has the data version of the save file. Storing this data version with the
+		// shopkeeper data ensures that the data is still recognized as outdated if the shopkeeper
+		// fails to load now and the save file's data version is updated.
+		// If the Minecraft version has changed, we treat the data as outdated. The stored data
+		// remains outdated until the shopkeeper has been loaded successfully.
+		DataContainer storedShopkeeperData = saveData.getContainer(key);
+		if (storedShopkeeperData != null) {
+			setDataVersionIfMissing(storedShopkeeperData, fileDataVersion);
+			if (minecraftDataVersionChanged) {
+				resetDataVersion(storedShopkeeperData);
+			}
 		}
 
 		ShopkeeperData shopkeeperData = this.getShopkeeperData(shopkeeperId);
@@ -624,6 +611,12 @@ public class SKShopkeeperStorage implements ShopkeeperStorage {
 			return;
 		}
 
+		// If no migration changed the data, the stored data is up-to-date, even if the shopkeeper
+		// is not saved. This avoids having to apply the migrations again during the next load.
+		if (!migrated && storedShopkeeperData != null) {
+			setCurrentDataVersion(storedShopkeeperData);
+		}
+
 		// If the shopkeeper was migrated or a forced save is requested, mark the shopkeeper as
 		// dirty:
 		// During plugin enable, after the shopkeepers have been loaded, a save is triggered if the
@@ -633,6 +626,25 @@ public class SKShopkeeperStorage implements ShopkeeperStorage {
 		}
 	}
 
+	static void setDataVersionIfMissing(DataContainer shopkeeperData, int dataVersion) {
+		Integer storedDataVersion = shopkeeperData.getOrNull(AbstractShopkeeper.DATA_VERSION);
+		if (storedDataVersion == null) {
+			shopkeeperData.set(AbstractShopkeeper.DATA_VERSION, dataVersion);
+		}
+	}
+
+	// The shopkeeper data is migrated by all migrations during the next load.
+	static void resetDataVersion(DataContainer shopkeeperData) {
+		shopkeeperData.set(AbstractShopkeeper.DATA_VERSION, 0);
+	}
+
+	static void setCurrentDataVersion(DataContainer shopkeeperData) {
+		shopkeeperData.set(
+				AbstractShopkeeper.DATA_VERSION,
+				DataVersion.getCurrentShopkeeperDataVersion()
+		);
+	}
+
 	private void failedToLoadShopkeeper(String idKey, String reason) {
 		this.failedToLoadShopkeeper(idKey, reason, null);
 	}
@@ -709,7 +721,11 @@ public class SKShopkeeperStorage implements ShopkeeperStorage {
 				saveData.remove(key);
 
 				// The next save removes the data from the save file on disk:
+				// As long as the deletion has not yet been persisted, the id remains used.
 				unsavedDeletedShopkeepers.add(shopkeeperId);
+			} else {
+				// The id can be reused right away:
+				idAllocator.release(shopkeeperId);
 			}
 
 			// Remove the shopkeeper from the dirty and unsaved shopkeepers (there is no need to
@@ -962,6 +978,9 @@ public class SKShopkeeperStorage implements ShopkeeperStorage {
 			// Remove the separately stored shopkeeper id from the shopkeeper data:
 			newData.set(AbstractShopkeeper.ID.getUnvalidatedSaver(), null);
 
+			// Store the data version with which the shopkeeper data was saved:
+			setCurrentDataVersion(newData);
+
 			// We transferred the shopkeeper's data into the storage. Reset the shopkeeper's dirty
 			// flag:
 			shopkeeper.onSave();
@@ -1165,11 +1184,26 @@ public class SKShopkeeperStorage implements ShopkeeperStorage {
 			// Print debug info:
 			printDebugInfo();
 
+			// Update the internal metrics:
+			InternalMetrics.SAVES.increment();
+			InternalMetrics.SAVE_PREPARATION_DURATION.record(
+					TimeUnit.MILLISECONDS.toNanos(this.getPreparationDuration())
+			);
+			InternalMetrics.SAVE_EXECUTION_DURATION.record(
+					TimeUnit.MILLISECONDS.toNanos(this.getExecutionDuration())
+			);
+			if (!savingSucceeded) {
+				InternalMetrics.FAILED_SAVES.increment();
+			}
+
 			if (savingSucceeded) {
 				// Saving succeeded:
 
 				// Cleanup the unsavedShopkeepers and unsavedDeletedShopkeepers:
 				unsavedShopkeepers.clear();
+				// The deletions have been persisted. The ids of the deleted shopkeepers can be
+				// reused now:
+				unsavedDeletedShopkeepers.forEach(idAllocator::release);
 				unsavedDeletedShopkeepers.clear();
 			} else {
 				// Saving failed:
@@ -0,0 +1,238 @@
+package com.nisovin.shopkeepers.storage;
+
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import com.nisovin.shopkeepers.util.java.Validate;
+
+/**
+ * Keeps track of the used and reserved shopkeeper ids, and allocates unused ids.
+ * <p>
+ * Ids are positive integers. An id is <b>used</b> as long as the storage holds or might still
+ * persist any data for a shopkeeper with this id. An id is <b>reserved</b> if it has been handed
+ * out via {@link #reserveIds(int)}, but has not yet been used or released. Neither used nor
+ * reserved ids are returned by {@link #getNextUnusedId()}.
+ * <p>
+ * The ids are tracked in bitmaps, so that checking whether an id is available, and finding the
+ * next available id, does not depend on the number of shopkeepers. Very large ids are tracked
+ * separately, so that a few large ids do not result in huge bitmaps.
+ */
+final class ShopkeeperIdAllocator {
+
+	// Ids greater than or equal to this limit are not tracked by the bitmaps. This limits the size
+	// of each bitmap to 2 MB.
+	private static final int DENSE_ID_LIMIT = 1 << 24;
+
+	private static final class IdSet {
+
+		private final BitSet denseIds = new BitSet();
+		private final Set<@NonNull Integer> sparseIds = new HashSet<>();
+
+		boolean contains(int id) {
+			if (id < DENSE_ID_LIMIT) {
+				return denseIds.get(id);
+			} else {
+				return sparseIds.contains(id);
+			}
+		}
+
+		// Returns true if the id was not yet contained.
+		boolean add(int id) {
+			if (id < DENSE_ID_LIMIT) {
+				if (denseIds.get(id)) return false;
+				denseIds.set(id);
+				return true;
+			} else {
+				return sparseIds.add(id);
+			}
+		}
+
+		// Returns true if the id was contained.
+		boolean remove(int id) {
+			if (id < DENSE_ID_LIMIT) {
+				if (!denseIds.get(id)) return false;
+				denseIds.clear(id);
+				return true;
+			} else {
+				return sparseIds.remove(id);
+			}
+		}
+
+		int size() {
+			return denseIds.cardinality() + sparseIds.size();
+		}
+
+		void clear() {
+			denseIds.clear();
+			sparseIds.clear();
+		}
+	}
+
+	private final IdSet usedIds = new IdSet();
+	private final IdSet reservedIds = new IdSet();
+	// The max id that is or was used or reserved since the last clear:
+	private int maxId = 0;
+	// Hint for the next available id. Can end up negative after increments due to overflows.
+	private int nextId = 1;
+
+	ShopkeeperIdAllocator() {
+	}
+
+	/**
+	 * Checks if the given id is neither used nor reserved.
+	 * 
+	 * @param id
+	 *            the id
+	 * @return <code>true</code> if the id is available
+	 */
+	boolean isUnusedId(int id) {
+		if (id <= 0) return false;
+		return !usedIds.contains(id) && !reservedIds.contains(id);
+	}
+
+	/**
+	 * Gets an id that is neither used nor reserved.
+	 * <p>
+	 * This does not mark the returned id as used. Use {@link #markUsed(int)} once the id is
+	 * actually being used.
+	 * 
+	 * @return the next unused id
+	 * @throws IllegalStateException
+	 *             if all ids are in use
+	 */
+	int getNextUnusedId() {
+		int id = nextId;
+		if (!this.isUnusedId(id)) {
+			// Try to use an id larger than the max used or reserved id:
+			if (maxId < Integer.MAX_VALUE) {
+				id = maxId + 1; // Causes no overflow
+			} else {
+				id = this.findFirstUnusedId();
+			}
+			assert this.isUnusedId(id);
+			// Remember the found next id:
+			nextId = id;
+		}
+		return id;
+	}
+
+	private int findFirstUnusedId() {
+		int id = 1;
+		while (true) {
+			if (id < DENSE_ID_LIMIT) {
+				// Skip the used ids quickly:
+				id = usedIds.denseIds.nextClearBit(id);
+			}
+			if (this.isUnusedId(id)) return id;
+			if (id == Integer.MAX_VALUE) {
+				// All ids are in use (unlikely..):
+				throw new IllegalStateException("No unused shopkeeper ids available!");
+			}
+			id++;
+		}
+	}
+
+	/**
+	 * Marks the given id as used.
+	 * <p>
+	 * If the id was reserved, it is no longer reserved.
+	 * 
+	 * @param id
+	 *            the id, positive
+	 */
+	void markUsed(int id) {
+		Validate.isTrue(id > 0, () -> "id is not positive: " + id);
+		usedIds.add(id);
+		reservedIds.remove(id);
+		this.onIdTaken(id);
+	}
+
+	private void onIdTaken(int id) {
+		if (id > maxId) {
+			maxId = id;
+		}
+		if (id >= nextId) {
+			nextId = id + 1;
+		}
+	}
+
+	/**
+	 * Marks the given id as no longer used, so that it can be reused.
+	 * <p>
+	 * This has no effect if the id is not used.
+	 * 
+	 * @param id
+	 *            the id
+	 */
+	void release(int id) {
+		usedIds.remove(id);
+		// Note: We do not reset the next id hint to the released id. Ids are preferably not reused.
+	}
+
+	/**
+	 * Reserves the specified number of unused ids.
+	 * <p>
+	 * The reserved ids are not returned by {@link #getNextUnusedId()} until they are either
+	 * {@link #markUsed(int) used}, or {@link #releaseReservedId(int) released}.
+	 * 
+	 * @param count
+	 *            the number of ids to reserve, not negative
+	 * @return the reserved ids, in ascending order
+	 * @throws IllegalStateException
+	 *             if there are not enough unused ids
+	 */
+	int[] reserveIds(int count) {
+		Validate.isTrue(count >= 0, () -> "count is negative: " + count);
+		int[] ids = new int[count];
+		for (int i = 0; i < count; i++) {
+			int id = this.getNextUnusedId();
+			reservedIds.add(id);
+			this.onIdTaken(id);
+			ids[i] = id;
+		}
+		return ids;
+	}
+
+	/**
+	 * Releases the given reserved id, so that it can be used again.
+	 * <p>
+	 * This has no effect if the id is not reserved, e.g. because it is already used.
+	 * 
+	 * @param id
+	 *            the id
+	 */
+	void releaseReservedId(int id) {
+		reservedIds.remove(id);
+	}
+
+	/**
+	 * Gets the number of used ids.
+	 * 
+	 * @return the number of used ids
+	 */
+	int getUsedIdsCount() {
+		return usedIds.size();
+	}
+
+	/**
+	 * Gets the number of reserved ids.
+	 * 
+	 * @return the number of reserved ids
+	 */
+	int getReservedIdsCount() {
+		return reservedIds.size();
+	}
+
+	/**
+	 * Resets this allocator.
+	 */
+	void clear() {
+		usedIds.clear();
+		reservedIds.clear();
+		maxId = 0;
+		nextId = 1;
+	}
+}
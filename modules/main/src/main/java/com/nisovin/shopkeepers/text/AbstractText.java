@@ -28,6 +28,9 @@ public abstract class AbstractText implements Text {
 	private @Nullable Text child = null;
 	private @Nullable Text next = null;
 
+	// Compiled once when the message Texts are loaded:
+	private volatile @Nullable MessageTemplate compiledTemplate = null;
+
 	// TODO Cache plain text? Requires childs to inform parents on changes to their translation or
 	// placeholder arguments. -> Might not even be worth it in the presence of dynamic arguments.
 
@@ -122,6 +125,16 @@ public abstract class AbstractText implements Text {
 		this.next = next; // Can be null
 	}
 
+	// COMPILED TEMPLATE
+
+	final @Nullable MessageTemplate getCompiledTemplate() {
+		return compiledTemplate;
+	}
+
+	final void setCompiledTemplate(@Nullable MessageTemplate compiledTemplate) {
+		this.compiledTemplate = compiledTemplate;
+	}
+
 	// PLACEHOLDER ARGUMENTS
 
 	@Override
@@ -0,0 +1,110 @@
+package com.nisovin.shopkeepers.text;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.util.java.Validate;
+
+/**
+ * A message that is formatted by a {@link MessageTemplate}.
+ * <p>
+ * This only references the shared template and the bound placeholder arguments. It is immutable
+ * and can therefore be sent to multiple recipients, or from other threads.
+ */
+public final class FormattedMessage {
+
+	private final MessageTemplate template;
+	// Aligned with the placeholder keys of the template. Null for unbound placeholders.
+	private final @Nullable Text[] arguments;
+	private volatile @Nullable Object cachedComponent = null;
+
+	FormattedMessage(MessageTemplate template, @Nullable Text[] arguments) {
+		assert template != null && arguments != null;
+		this.template = template;
+		this.arguments = arguments;
+	}
+
+	/**
+	 * Gets the {@link MessageTemplate}.
+	 * 
+	 * @return the template, not <code>null</code>
+	 */
+	public MessageTemplate getTemplate() {
+		return template;
+	}
+
+	/**
+	 * Gets the argument that is bound to the specified placeholder.
+	 * 
+	 * @param placeholderKey
+	 *            the placeholder key, not <code>null</code>
+	 * @return the argument, or <code>null</code> if no argument is bound to the placeholder
+	 */
+	public @Nullable Text getArgument(String placeholderKey) {
+		Validate.notNull(placeholderKey, "placeholderKey is null");
+		int index = template.getPlaceholderIndex(placeholderKey);
+		if (index < 0) return null;
+		return arguments[index];
+	}
+
+	/**
+	 * Checks if the plain text of this message is empty.
+	 * 
+	 * @return <code>true</code> if the plain text is empty
+	 * @see Text#isPlainTextEmpty()
+	 */
+	public boolean isPlainTextEmpty() {
+		return template.isPlainTextEmpty(arguments);
+	}
+
+	/**
+	 * Converts this message to a plain String text that only includes color and formatting codes.
+	 * 
+	 * @return the plain text, not <code>null</code>
+	 * @see Text#toPlainText()
+	 */
+	public String toPlainText() {
+		return template.toPlainText(arguments);
+	}
+
+	/**
+	 * Creates a new {@link Text} for this message, with the bound arguments assigned to its
+	 * placeholders.
+	 * <p>
+	 * This copies the template's Text. Prefer sending the {@link FormattedMessage} itself if
+	 * possible.
+	 * 
+	 * @return the new Text, not <code>null</code>
+	 */
+	public Text toText() {
+		return template.toText(arguments);
+	}
+
+	/**
+	 * Gets the cached platform specific text component of this message.
+	 * <p>
+	 * This allows a message that is sent to several recipients to only be converted once. The
+	 * cached component is shared and must therefore not be modified.
+	 * 
+	 * @return the cached component, or <code>null</code> if not yet cached
+	 */
+	public @Nullable Object getCachedComponent() {
+		return cachedComponent;
+	}
+
+	/**
+	 * Sets the cached platform specific text component of this message.
+	 * 
+	 * @param component
+	 *            the component, not <code>null</code>
+	 * @see #getCachedComponent()
+	 */
+	public void setCachedComponent(Object component) {
+		Validate.notNull(component, "component is null");
+		this.cachedComponent = component;
+	}
+
+	@Override
+	public String toString() {
+		return "FormattedMessage [template=" + template + "]";
+	}
+}
@@ -0,0 +1,370 @@
+package com.nisovin.shopkeepers.text;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.api.internal.util.Unsafe;
+import com.nisovin.shopkeepers.util.java.StringUtils;
+import com.nisovin.shopkeepers.util.java.Validate;
+import com.nisovin.shopkeepers.util.text.MessageArguments;
+
+/**
+ * An immutable, compiled form of a message {@link Text}.
+ * <p>
+ * Unlike {@link Text#setPlaceholderArguments(MessageArguments)}, which assigns the placeholder
+ * arguments to the (usually shared) Text instance itself, {@link #format(MessageArguments)} binds
+ * the placeholder arguments to a new lightweight {@link FormattedMessage}. Since the template
+ * itself is never modified, messages can be formatted concurrently, for example from async tasks.
+ * <p>
+ * The template precomputes the static segments of the plain text. Templates without any
+ * placeholders always return the same {@link FormattedMessage}, so that its platform specific text
+ * component is only created once.
+ * <p>
+ * Placeholders for which no argument is provided remain unbound. Any arguments that are assigned to
+ * the original Text are ignored, since reading them would not be thread-safe.
+ */
+public final class MessageTemplate {
+
+	/**
+	 * Compiles the given {@link Text} into a {@link MessageTemplate}.
+	 * <p>
+	 * The template is also associated with the given Text, so that it can be retrieved via
+	 * {@link #getCompiled(Text)} later. Any previously compiled template of the Text is replaced.
+	 * 
+	 * @param text
+	 *            the text, not <code>null</code>, has to be built
+	 * @return the compiled template, not <code>null</code>
+	 */
+	public static MessageTemplate compile(Text text) {
+		Validate.notNull(text, "text is null");
+		Validate.isTrue(!TextBuilder.isUnbuiltText(text), "text is not built");
+		MessageTemplate template = new MessageTemplate(text);
+		((AbstractText) text).setCompiledTemplate(template);
+		return template;
+	}
+
+	/**
+	 * Gets the {@link MessageTemplate} that was previously {@link #compile(Text) compiled} for the
+	 * given {@link Text}.
+	 * 
+	 * @param text
+	 *            the text, not <code>null</code>
+	 * @return the compiled template, or <code>null</code> if the Text has not been compiled
+	 */
+	public static @Nullable MessageTemplate getCompiled(Text text) {
+		Validate.notNull(text, "text is null");
+		return ((AbstractText) text).getCompiledTemplate();
+	}
+
+	/**
+	 * Gets the {@link MessageTemplate} that was previously {@link #compile(Text) compiled} for the
+	 * given {@link Text}, or compiles it now if there is none yet.
+	 * 
+	 * @param text
+	 *            the text, not <code>null</code>, has to be built
+	 * @return the compiled template, not <code>null</code>
+	 */
+	public static MessageTemplate of(Text text) {
+		MessageTemplate template = getCompiled(text);
+		if (template != null) return template;
+		return compile(text);
+	}
+
+	// A segment of the plain text: Either static text, or a placeholder.
+	private static final class PlainTextPart {
+
+		private final String text; // The static text, or the placeholder key
+		private final int placeholderIndex; // -1 for static text
+
+		PlainTextPart(String text, int placeholderIndex) {
+			this.text = text;
+			this.placeholderIndex = placeholderIndex;
+		}
+	}
+
+	// Private copy, without any assigned placeholder arguments. Never modified.
+	private final Text text;
+	private final @NonNull String[] placeholderKeys;
+	private final Map<? extends @NonNull String, ? extends @NonNull Integer> placeholderIndices;
+	private final List<? extends @NonNull PlainTextPart> plainTextParts;
+	private final boolean staticPlainTextEmpty;
+	// Only set if there are no placeholders:
+	private final @Nullable FormattedMessage staticMessage;
+	private final @Nullable String staticPlainText;
+
+	private MessageTemplate(Text sourceText) {
+		Set<@NonNull String> placeholders = new LinkedHashSet<>();
+		collectPlaceholders(sourceText, placeholders);
+		this.placeholderKeys = placeholders.toArray(new @NonNull String[0]);
+		Map<@NonNull String, @NonNull Integer> placeholderIndices = new HashMap<>();
+		for (int index = 0; index < placeholderKeys.length; index++) {
+			placeholderIndices.put(placeholderKeys[index], index);
+		}
+		this.placeholderIndices = placeholderIndices;
+
+		this.text = sourceText.copy();
+		text.clearPlaceholderArguments();
+
+		List<@NonNull PlainTextPart> plainTextParts = new ArrayList<>();
+		StringBuilder staticText = new StringBuilder();
+		this.collectPlainTextParts(text, staticText, plainTextParts);
+		flushStaticText(staticText, plainTextParts);
+		this.plainTextParts = Collections.unmodifiableList(plainTextParts);
+		this.staticPlainTextEmpty = text.isPlainTextEmpty();
+
+		if (placeholderKeys.length == 0) {
+			this.staticPlainText = text.toPlainText();
+			this.staticMessage = new FormattedMessage(this, new @Nullable Text[0]);
+		} else {
+			this.staticPlainText = null;
+			this.staticMessage = null;
+		}
+	}
+
+	private static void collectPlaceholders(
+			Text text,
+			Set<@NonNull String> placeholders
+	) {
+		if (text instanceof PlaceholderText) {
+			PlaceholderText placeholderText = (PlaceholderText) text;
+			placeholders.add(placeholderText.getPlaceholderKey());
+			// Placeholder arguments are not assigned to the placeholders inside other placeholder
+			// arguments. -> Skip the child.
+		} else {
+			Text child = text.getChild();
+			if (child != null) {
+				collectPlaceholders(child, placeholders);
+			}
+		}
+
+		if (text instanceof HoverEventText) {
+			collectPlaceholders(((HoverEventText) text).getValue(), placeholders);
+		}
+
+		Text next = text.getNext();
+		if (next != null) {
+			collectPlaceholders(next, placeholders);
+		}
+	}
+
+	private void collectPlainTextParts(
+			Text text,
+			StringBuilder staticText,
+			List<@NonNull PlainTextPart> plainTextParts
+	) {
+		if (!containsPlainTextPlaceholders(text)) {
+			// Also appends the child and subsequent Texts:
+			((AbstractText) text).appendPlainText(staticText, false);
+			return;
+		}
+
+		if (text instanceof PlaceholderText) {
+			flushStaticText(staticText, plainTextParts);
+			String placeholderKey = ((PlaceholderText) text).getPlaceholderKey();
+			int placeholderIndex = Unsafe.assertNonNull(placeholderIndices.get(placeholderKey));
+			plainTextParts.add(new PlainTextPart(placeholderKey, placeholderIndex));
+		} else {
+			if (text instanceof PlainText) {
+				staticText.append(((PlainText) text).getText());
+			} else if (text instanceof FormattingText) {
+				String formattingCode = ((FormattingText) text).getFormattingCode();
+				staticText.append(Text.formatting(formattingCode).build().toPlainText());
+			} // Else: The other types of Texts do not contribute any plain text themselves.
+
+			Text child = text.getChild();
+			if (child != null) {
+				this.collectPlainTextParts(child, staticText, plainTextParts);
+			}
+		}
+
+		Text next = text.getNext();
+		if (next != null) {
+			this.collectPlainTextParts(next, staticText, plainTextParts);
+		}
+	}
+
+	// Ignores the placeholders inside hover events, since these do not affect the plain text.
+	private static boolean containsPlainTextPlaceholders(Text text) {
+		if (text instanceof PlaceholderText) return true;
+		Text child = text.getChild();
+		if (child != null && containsPlainTextPlaceholders(child)) return true;
+		Text next = text.getNext();
+		return (next != null && containsPlainTextPlaceholders(next));
+	}
+
+	private static void flushStaticText(
+			StringBuilder staticText,
+			List<@NonNull PlainTextPart> plainTextParts
+	) {
+		if (staticText.length() == 0) return;
+		plainTextParts.add(new PlainTextPart(staticText.toString(), -1));
+		staticText.setLength(0);
+	}
+
+	/**
+	 * Gets the compiled {@link Text}.
+	 * <p>
+	 * This is a copy of the original Text without any assigned placeholder arguments. It is shared
+	 * by all messages formatted by this template and must therefore not be modified, for example by
+	 * assigning placeholder arguments.
+	 * 
+	 * @return the compiled Text, not <code>null</code>
+	 */
+	public Text getText() {
+		return text;
+	}
+
+	/**
+	 * Checks if this template contains no placeholders.
+	 * 
+	 * @return <code>true</code> if this template contains no placeholders
+	 */
+	public boolean isStatic() {
+		return (placeholderKeys.length == 0);
+	}
+
+	int getPlaceholderIndex(String placeholderKey) {
+		Integer index = placeholderIndices.get(placeholderKey);
+		return (index != null) ? index : -1;
+	}
+
+	// PLAIN TEXT
+
+	boolean isPlainTextEmpty(@Nullable Text[] arguments) {
+		if (!staticPlainTextEmpty) return false;
+		for (PlainTextPart part : plainTextParts) {
+			if (part.placeholderIndex < 0) continue;
+			Text argument = arguments[part.placeholderIndex];
+			if (argument != null && !argument.isPlainTextEmpty()) return false;
+		}
+		return true;
+	}
+
+	String toPlainText(@Nullable Text[] arguments) {
+		String staticPlainText = this.staticPlainText;
+		if (staticPlainText != null) return staticPlainText;
+
+		StringBuilder builder = new StringBuilder();
+		for (PlainTextPart part : plainTextParts) {
+			if (part.placeholderIndex < 0) {
+				builder.append(part.text);
+			} else {
+				Text argument = arguments[part.placeholderIndex];
+				if (argument != null) {
+					builder.append(argument.toPlainText());
+				} else {
+					builder.append(PlaceholderText.PLACEHOLDER_PREFIX_CHAR)
+							.append(part.text)
+							.append(PlaceholderText.PLACEHOLDER_SUFFIX_CHAR);
+				}
+			}
+		}
+		return builder.toString();
+	}
+
+	Text toText(@Nullable Text[] arguments) {
+		Text copy = text.copy();
+		if (arguments.length == 0) return copy;
+
+		Map<@NonNull String, @NonNull Object> argumentsMap = new HashMap<>();
+		for (int index = 0; index < arguments.length; index++) {
+			Text argument = arguments[index];
+			if (argument == null) continue;
+			argumentsMap.put(placeholderKeys[index], argument);
+		}
+		copy.setPlaceholderArguments(argumentsMap);
+		return copy;
+	}
+
+	// FORMATTING
+
+	/**
+	 * Binds the given arguments to the placeholders of this template.
+	 * <p>
+	 * Any non-{@link Text} argument is first converted to a corresponding Text by using its
+	 * {@link Object#toString() String representation}. If the argument is a {@link Supplier}, it is
+	 * invoked to obtain the actual argument. {@link FormattedMessage} arguments are converted via
+	 * {@link FormattedMessage#toText()}. Placeholders for which no argument is provided remain
+	 * unbound.
+	 * 
+	 * @param arguments
+	 *            the message arguments mapped by their placeholder keys, not <code>null</code>
+	 * @return the formatted message, not <code>null</code>
+	 */
+	public FormattedMessage format(MessageArguments arguments) {
+		Validate.notNull(arguments, "arguments is null");
+		FormattedMessage staticMessage = this.staticMessage;
+		if (staticMessage != null) return staticMessage;
+
+		@Nullable Text[] boundArguments = new @Nullable Text[placeholderKeys.length];
+		for (int index = 0; index < placeholderKeys.length; index++) {
+			Object argument = arguments.get(placeholderKeys[index]);
+			if (argument != null) {
+				boundArguments[index] = toArgumentText(argument);
+			} // Else: The placeholder remains unbound.
+		}
+		return new FormattedMessage(this, boundArguments);
+	}
+
+	/**
+	 * Binds the given arguments to the placeholders of this template.
+	 * 
+	 * @param arguments
+	 *            a mapping between placeholder keys and their arguments, not <code>null</code>
+	 * @return the formatted message, not <code>null</code>
+	 * @see #format(MessageArguments)
+	 */
+	public FormattedMessage format(Map<? extends @NonNull String, @NonNull ?> arguments) {
+		return this.format(MessageArguments.ofMap(arguments));
+	}
+
+	/**
+	 * Binds the given arguments to the placeholders of this template.
+	 * 
+	 * @param argumentPairs
+	 *            an array that pairwise contains placeholder keys (of type String) and their
+	 *            arguments in the format <code>[key1, value1, key2, value2, ...]</code>, not
+	 *            <code>null</code>
+	 * @return the formatted message, not <code>null</code>
+	 * @see #format(MessageArguments)
+	 */
+	public FormattedMessage format(@NonNull Object... argumentPairs) {
+		FormattedMessage staticMessage = this.staticMessage;
+		if (staticMessage != null) return staticMessage;
+
+		Map<@NonNull String, @NonNull Object> arguments = new HashMap<>();
+		StringUtils.addArgumentsToMap(arguments, argumentPairs);
+		return this.format(arguments);
+	}
+
+	private static Text toArgumentText(Object argument) {
+		Object resolved = argument;
+		if (argument instanceof Supplier) {
+			resolved = ((Supplier<?>) argument).get();
+		}
+		if (resolved instanceof FormattedMessage) {
+			return ((FormattedMessage) resolved).toText();
+		}
+
+		Text argumentText = Text.of(resolved);
+		Validate.isTrue(argumentText.getParent() == null, "placeholderArgument is a non-root Text");
+		TextBuilder.buildIfRequired(argumentText);
+		return argumentText;
+	}
+
+	// JAVA OBJECT
+
+	@Override
+	public String toString() {
+		return "MessageTemplate [text=" + text.toFormat() + "]";
+	}
+}
@@ -15,6 +15,7 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 import com.nisovin.shopkeepers.api.events.ShopkeeperTradeCompletedEvent;
 import com.nisovin.shopkeepers.api.internal.util.Unsafe;
 import com.nisovin.shopkeepers.config.Settings;
+import com.nisovin.shopkeepers.metrics.InternalMetrics;
 import com.nisovin.shopkeepers.tradelog.csv.CsvTradeLogger;
 import com.nisovin.shopkeepers.tradelog.data.TradeRecord;
 import com.nisovin.shopkeepers.util.java.Validate;
@@ -32,8 +33,9 @@ public class TradeLoggers implements Listener {
 	// The processing of these merged trades may happen accordingly deferred: The logged timestamps
 	// and shopkeeper states may therefore slightly differ to what they were when the trades took
 	// actually place. However, we consider the typically chosen merge durations to be small enough
-	// for this to not be an issue. Also, the order in which the trades took place is still
-	// preserved.
+	// for this to not be an issue. Since the trades of different players and shopkeepers are
+	// merged independently of each other, the trades are not necessarily logged in the order in
+	// which they took place. However, the logged timestamps still reflect this order.
 	private @Nullable TradeMerger tradeMerger;
 	private boolean enabled = false;
 
@@ -87,6 +89,7 @@ public class TradeLoggers implements Listener {
 
 	private void processTrades(MergedTrades trades) {
 		TradeRecord trade = TradeRecord.create(trades);
+		InternalMetrics.LOGGED_TRADES.increment();
 		loggers.forEach(logger -> logger.logTrade(trade));
 	}
 }
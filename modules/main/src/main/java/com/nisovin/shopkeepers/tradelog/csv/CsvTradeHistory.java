@@ -0,0 +1,150 @@
+package com.nisovin.shopkeepers.tradelog.csv;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import com.nisovin.shopkeepers.tradelog.csv.CsvTradeLogIndex.KeyType;
+import com.nisovin.shopkeepers.tradelog.csv.CsvTradeLogIndex.RecordLocation;
+import com.nisovin.shopkeepers.util.csv.CsvParser;
+import com.nisovin.shopkeepers.util.java.Validate;
+
+/**
+ * Queries the trades that have been logged by the {@link CsvTradeLogger}.
+ * <p>
+ * The log files are searched via their {@link CsvTradeLogIndex}, starting with the most recent log
+ * file. Only the matching records are read from the log files.
+ * <p>
+ * This performs file IO and should therefore be used asynchronously.
+ */
+public class CsvTradeHistory {
+
+	private static final class LogFile {
+
+		private final Path path;
+		private final LocalDate date;
+
+		LogFile(Path path, LocalDate date) {
+			this.path = path;
+			this.date = date;
+		}
+	}
+
+	private final Path tradeLogsFolder;
+	private final CsvParser parser = new CsvParser();
+
+	/**
+	 * Creates a new {@link CsvTradeHistory}.
+	 * 
+	 * @param tradeLogsFolder
+	 *            the folder that contains the CSV trade log files, not <code>null</code>
+	 */
+	public CsvTradeHistory(Path tradeLogsFolder) {
+		Validate.notNull(tradeLogsFolder, "tradeLogsFolder is null");
+		this.tradeLogsFolder = tradeLogsFolder;
+	}
+
+	/**
+	 * Passes the logged trades that match the specified key to the given consumer, from the most
+	 * recent to the oldest trade, until the consumer returns <code>false</code>.
+	 * <p>
+	 * The records are read from the log files on demand.
+	 * 
+	 * @param keyType
+	 *            the key type, not <code>null</code>
+	 * @param uniqueId
+	 *            the unique id of the shop or player, not <code>null</code>
+	 * @param consumer
+	 *            the consumer, not <code>null</code>
+	 * @throws IOException
+	 *             if the log files or their index cannot be read
+	 */
+	public void forEachTrade(
+			KeyType keyType,
+			UUID uniqueId,
+			Predicate<? super @NonNull LoggedTrade> consumer
+	) throws IOException {
+		Validate.notNull(consumer, "consumer is null");
+		ByteBuffer buffer = ByteBuffer.allocate(512);
+		for (LogFile logFile : this.getLogFiles()) {
+			List<? extends @NonNull RecordLocation> records = CsvTradeLogIndex.findRecords(
+					logFile.path,
+					keyType,
+					uniqueId
+			);
+			if (records.isEmpty()) continue;
+
+			try (FileChannel channel = FileChannel.open(logFile.path, StandardOpenOption.READ)) {
+				for (int index = records.size() - 1; index >= 0; index--) {
+					RecordLocation record = records.get(index);
+					if (buffer.capacity() < record.getLength()) {
+						buffer = ByteBuffer.allocate(record.getLength());
+					}
+					String recordString = readRecord(channel, record, buffer);
+					LoggedTrade trade = new LoggedTrade(
+							logFile.date,
+							parser.parseRecord(recordString)
+					);
+					if (!consumer.test(trade)) return;
+				}
+			}
+		}
+	}
+
+	private static String readRecord(
+			FileChannel channel,
+			RecordLocation record,
+			ByteBuffer buffer
+	) throws IOException {
+		buffer.clear();
+		buffer.limit(record.getLength());
+		long position = record.getPosition();
+		while (buffer.hasRemaining()) {
+			int read = channel.read(buffer, position);
+			if (read < 0) {
+				throw new IOException("Unexpected end of file!");
+			}
+			position += read;
+		}
+		return new String(buffer.array(), 0, record.getLength(), StandardCharsets.UTF_8);
+	}
+
+	// Sorted from the most recent to the oldest log file.
+	private List<? extends @NonNull LogFile> getLogFiles() throws IOException {
+		List<@NonNull LogFile> logFiles = new ArrayList<>();
+		if (!Files.isDirectory(tradeLogsFolder)) return logFiles;
+
+		String glob = CsvTradeLogger.FILE_NAME_PREFIX + "*" + CsvTradeLogger.FILE_NAME_SUFFIX;
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(tradeLogsFolder, glob)) {
+			for (Path file : files) {
+				String fileName = file.getFileName().toString();
+				String date = fileName.substring(
+						CsvTradeLogger.FILE_NAME_PREFIX.length(),
+						fileName.length() - CsvTradeLogger.FILE_NAME_SUFFIX.length()
+				);
+				try {
+					LocalDate logDate = LocalDate.parse(date, CsvTradeLogger.DATE_FORMAT);
+					logFiles.add(new LogFile(file, logDate));
+				} catch (DateTimeParseException e) {
+					// Not a trade log file. Ignored.
+				}
+			}
+		}
+		logFiles.sort(Comparator.comparing((LogFile logFile) -> logFile.date).reversed());
+		return logFiles;
+	}
+}
@@ -0,0 +1,622 @@
+package com.nisovin.shopkeepers.tradelog.csv;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.api.internal.util.Unsafe;
+import com.nisovin.shopkeepers.util.csv.CsvParser;
+import com.nisovin.shopkeepers.util.java.FileUtils;
+import com.nisovin.shopkeepers.util.java.Validate;
+import com.nisovin.shopkeepers.util.logging.NullLogger;
+
+/**
+ * A sidecar index of the records inside the CSV trade log files.
+ * <p>
+ * For each logged trade record, the index stores the unique ids of the shop, the shop owner, and
+ * the trading player, together with the position and length of the record inside the log file.
+ * The index of each log file is stored in a binary file next to the log file. The
+ * {@link CsvTradeLogger} appends to the index as it logs new trades. Any records that are missing
+ * from the index, for example due to a crash, or for log files that were written before the index
+ * was introduced, are indexed by parsing the log file the next time the index is used.
+ * <p>
+ * Lookups scan the compact binary index instead of parsing the log file, and then only need to read
+ * the matching records from the log file.
+ * <p>
+ * The index header stores a checksum of the first indexed record. If the log file is replaced,
+ * this no longer matches, and the log file is indexed anew.
+ * <p>
+ * All methods are thread-safe: Each index file is guarded by its own lock. Missing records are
+ * indexed without holding the lock.
+ */
+public final class CsvTradeLogIndex {
+
+	/**
+	 * The indexed keys.
+	 */
+	public enum KeyType {
+		SHOP,
+		SHOP_OWNER,
+		PLAYER;
+	}
+
+	/**
+	 * The location of a record inside a log file.
+	 */
+	public static final class RecordLocation {
+
+		private final long position;
+		private final int length;
+
+		RecordLocation(long position, int length) {
+			this.position = position;
+			this.length = length;
+		}
+
+		/**
+		 * Gets the position of the first byte of the record.
+		 * 
+		 * @return the position
+		 */
+		public long getPosition() {
+			return position;
+		}
+
+		/**
+		 * Gets the length of the record in bytes, including the record separator.
+		 * 
+		 * @return the length
+		 */
+		public int getLength() {
+			return length;
+		}
+	}
+
+	private static final String INDEX_FILE_SUFFIX = ".idx";
+	private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+	private static final int MAGIC = 0x534B5449; // "SKTI"
+	private static final int VERSION = 2;
+	// Magic, version, and the identity of the indexed log file:
+	private static final int HEADER_SIZE = 4 + 4 + 8;
+	private static final int IDENTITY_OFFSET = 8;
+	private static final long NO_IDENTITY = -1L;
+	// Shop id, shop owner id (or two zeros), player id, record position, and record length:
+	private static final int ENTRY_SIZE = 16 + 16 + 16 + 8 + 4;
+	private static final int POSITION_OFFSET = 48;
+	private static final int LENGTH_OFFSET = 56;
+	private static final int ENTRIES_PER_BUFFER = 1024;
+
+	private static final int PLAYER_UUID_COLUMN = CsvTradeLogger.CSV_HEADER.indexOf("player_uuid");
+	private static final int SHOP_UUID_COLUMN = CsvTradeLogger.CSV_HEADER.indexOf("shop_uuid");
+	private static final int SHOP_OWNER_UUID_COLUMN = CsvTradeLogger.CSV_HEADER.indexOf(
+			"shop_owner_uuid"
+	);
+	private static final String FIRST_HEADER_COLUMN = CsvTradeLogger.CSV_HEADER.get(0);
+
+	// One lock per log file. A new log file is only started each day, so the number of locks stays
+	// small.
+	private static final ConcurrentMap<@NonNull Path, @NonNull ReentrantLock> LOCKS = new ConcurrentHashMap<>();
+
+	private static ReentrantLock getLock(Path logFile) {
+		return Unsafe.assertNonNull(LOCKS.computeIfAbsent(
+				logFile.toAbsolutePath().normalize(),
+				key -> new ReentrantLock()
+		));
+	}
+
+	/**
+	 * Gets the index file of the given log file.
+	 * 
+	 * @param logFile
+	 *            the log file, not <code>null</code>
+	 * @return the index file, not <code>null</code>
+	 */
+	public static Path getIndexFile(Path logFile) {
+		Validate.notNull(logFile, "logFile is null");
+		return logFile.resolveSibling(logFile.getFileName() + INDEX_FILE_SUFFIX);
+	}
+
+	/**
+	 * Opens the index of the given log file for appending new records.
+	 * <p>
+	 * Any records of the log file that are not yet indexed are indexed first.
+	 * <p>
+	 * This acquires the lock of the log file's index until the returned {@link Appender} is closed.
+	 * 
+	 * @param logFile
+	 *            the log file, not <code>null</code>
+	 * @param logFileSize
+	 *            the current size of the log file
+	 * @return the appender, not <code>null</code>
+	 * @throws IOException
+	 *             if the index cannot be opened or updated
+	 */
+	static Appender openAppender(Path logFile, long logFileSize) throws IOException {
+		Validate.notNull(logFile, "logFile is null");
+		updateIndex(logFile, logFileSize);
+
+		ReentrantLock lock = getLock(logFile);
+		lock.lock();
+		FileChannel index = null;
+		try {
+			index = openIndex(logFile, logFileSize);
+			EntryBuffer entries = new EntryBuffer(index, logFile);
+			indexMissingRecords(entries, logFile, logFileSize);
+			return new Appender(entries, lock);
+		} catch (IOException | RuntimeException e) {
+			if (index != null) {
+				index.close();
+			}
+			lock.unlock();
+			throw e;
+		}
+	}
+
+	/**
+	 * Appends new records to the index of a log file.
+	 * <p>
+	 * Closing the appender releases the lock of the index.
+	 */
+	static final class Appender implements Closeable {
+
+		private final EntryBuffer entries;
+		private final ReentrantLock lock;
+		private boolean closed = false;
+
+		private Appender(EntryBuffer entries, ReentrantLock lock) {
+			this.entries = entries;
+			this.lock = lock;
+		}
+
+		/**
+		 * Indexes a new record.
+		 * <p>
+		 * The record is expected to have already been written to the log file.
+		 * 
+		 * @param position
+		 *            the position of the record inside the log file
+		 * @param length
+		 *            the length of the record in bytes
+		 * @param shopId
+		 *            the shop id, not <code>null</code>
+		 * @param shopOwnerId
+		 *            the shop owner id, or <code>null</code>
+		 * @param playerId
+		 *            the player id, not <code>null</code>
+		 * @throws IOException
+		 *             if the index cannot be written
+		 */
+		void append(
+				long position,
+				int length,
+				UUID shopId,
+				@Nullable UUID shopOwnerId,
+				UUID playerId
+		) throws IOException {
+			Validate.State.isTrue(!closed, "Already closed!");
+			entries.put(shopId, shopOwnerId, playerId, position, length);
+			entries.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (closed) return;
+			closed = true;
+			try {
+				entries.index.close();
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Finds the records of the given log file that match the specified key.
+	 * <p>
+	 * Any records of the log file that are not yet indexed are indexed first.
+	 * 
+	 * @param logFile
+	 *            the log file, not <code>null</code>
+	 * @param keyType
+	 *            the key type, not <code>null</code>
+	 * @param uniqueId
+	 *            the unique id to search for, not <code>null</code>
+	 * @return the locations of the matching records, in the order of the records inside the log
+	 *         file, not <code>null</code>
+	 * @throws IOException
+	 *             if the index cannot be read or updated
+	 */
+	public static List<@NonNull RecordLocation> findRecords(
+			Path logFile,
+			KeyType keyType,
+			UUID uniqueId
+	) throws IOException {
+		Validate.notNull(logFile, "logFile is null");
+		Validate.notNull(keyType, "keyType is null");
+		Validate.notNull(uniqueId, "uniqueId is null");
+		List<@NonNull RecordLocation> records = new ArrayList<>();
+		if (!Files.isRegularFile(logFile)) return records;
+
+		long logFileSize = Files.size(logFile);
+		updateIndex(logFile, logFileSize);
+
+		ReentrantLock lock = getLock(logFile);
+		lock.lock();
+		try (FileChannel index = openIndex(logFile, logFileSize)) {
+			indexMissingRecords(new EntryBuffer(index, logFile), logFile, logFileSize);
+
+			int keyOffset = getKeyOffset(keyType);
+			long mostSigBits = uniqueId.getMostSignificantBits();
+			long leastSigBits = uniqueId.getLeastSignificantBits();
+			ByteBuffer buffer = ByteBuffer.allocate(ENTRY_SIZE * ENTRIES_PER_BUFFER);
+			long position = HEADER_SIZE;
+			long end = index.size();
+			while (position < end) {
+				buffer.clear();
+				int length = (int) Math.min(buffer.capacity(), end - position);
+				readFully(index, buffer, position, length);
+				buffer.flip();
+				position += buffer.limit();
+				for (int entry = 0; entry < buffer.limit(); entry += ENTRY_SIZE) {
+					if (buffer.getLong(entry + keyOffset) == mostSigBits
+							&& buffer.getLong(entry + keyOffset + 8) == leastSigBits) {
+						records.add(new RecordLocation(
+								buffer.getLong(entry + POSITION_OFFSET),
+								buffer.getInt(entry + LENGTH_OFFSET)
+						));
+					}
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+		return records;
+	}
+
+	private static int getKeyOffset(KeyType keyType) {
+		switch (keyType) {
+		case SHOP:
+			return 0;
+		case SHOP_OWNER:
+			return 16;
+		case PLAYER:
+			return 32;
+		default:
+			throw new IllegalArgumentException("Unknown key type: " + keyType);
+		}
+	}
+
+	// Opens the index file, and resets it if it is missing, outdated, or corrupted, or if it does
+	// not match the given log file.
+	// Only invoked while holding the lock of the index.
+	private static FileChannel openIndex(Path logFile, long logFileSize) throws IOException {
+		FileChannel index = FileChannel.open(
+				getIndexFile(logFile),
+				StandardOpenOption.CREATE,
+				StandardOpenOption.READ,
+				StandardOpenOption.WRITE
+		);
+		try {
+			boolean valid = false;
+			if (index.size() >= HEADER_SIZE) {
+				ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+				readFully(index, header, 0L, HEADER_SIZE);
+				valid = (header.getInt(0) == MAGIC && header.getInt(4) == VERSION);
+				if (valid) {
+					// Omit any incompletely written entry at the end:
+					long entries = (index.size() - HEADER_SIZE) / ENTRY_SIZE;
+					index.truncate(HEADER_SIZE + entries * ENTRY_SIZE);
+					if (entries > 0) {
+						long identity = header.getLong(IDENTITY_OFFSET);
+						valid = isIndexOf(index, identity, logFile, logFileSize);
+					}
+				}
+			}
+			if (!valid) {
+				resetIndex(index);
+			}
+			return index;
+		} catch (IOException | RuntimeException e) {
+			index.close();
+			throw e;
+		}
+	}
+
+	// Checks if the entries of the given non-empty index match the given log file, i.e. if the log
+	// file has not been replaced or truncated since the records were indexed.
+	private static boolean isIndexOf(
+			FileChannel index,
+			long identity,
+			Path logFile,
+			long logFileSize
+	) throws IOException {
+		if (getIndexedSize(index) > logFileSize) return false;
+
+		ByteBuffer firstEntry = ByteBuffer.allocate(ENTRY_SIZE);
+		readFully(index, firstEntry, HEADER_SIZE, ENTRY_SIZE);
+		long position = firstEntry.getLong(POSITION_OFFSET);
+		int length = firstEntry.getInt(LENGTH_OFFSET);
+		return (getLogFileIdentity(logFile, position, length) == identity);
+	}
+
+	// The identity of a log file is the checksum of its first indexed record. The log files all
+	// start with the same CSV header, but their first trade records differ.
+	// Returns NO_IDENTITY if the record is not inside the log file.
+	private static long getLogFileIdentity(
+			Path logFile,
+			long position,
+			int length
+	) throws IOException {
+		try (FileChannel log = FileChannel.open(logFile, StandardOpenOption.READ)) {
+			if (position < 0L || length <= 0 || position + length > log.size()) {
+				return NO_IDENTITY;
+			}
+			ByteBuffer record = ByteBuffer.allocate(length);
+			readFully(log, record, position, length);
+			CRC32 checksum = new CRC32();
+			checksum.update(record.array(), 0, length);
+			return checksum.getValue();
+		}
+	}
+
+	private static void resetIndex(FileChannel index) throws IOException {
+		index.truncate(0L);
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(MAGIC).putInt(VERSION).putLong(NO_IDENTITY).flip();
+		while (header.hasRemaining()) {
+			index.write(header, header.position());
+		}
+	}
+
+	private static long getIndexedSize(FileChannel index) throws IOException {
+		long indexSize = index.size();
+		if (indexSize <= HEADER_SIZE) return 0L;
+
+		ByteBuffer lastEntry = ByteBuffer.allocate(ENTRY_SIZE);
+		readFully(index, lastEntry, indexSize - ENTRY_SIZE, ENTRY_SIZE);
+		return lastEntry.getLong(POSITION_OFFSET) + lastEntry.getInt(LENGTH_OFFSET);
+	}
+
+	private static long getIdentity(FileChannel index) throws IOException {
+		ByteBuffer identity = ByteBuffer.allocate(8);
+		readFully(index, identity, IDENTITY_OFFSET, 8);
+		return identity.getLong(0);
+	}
+
+	private static void readFully(
+			FileChannel channel,
+			ByteBuffer buffer,
+			long position,
+			int length
+	) throws IOException {
+		buffer.limit(buffer.position() + length);
+		long readPosition = position;
+		while (buffer.hasRemaining()) {
+			int read = channel.read(buffer, readPosition);
+			if (read < 0) {
+				throw new IOException("Unexpected end of file!");
+			}
+			readPosition += read;
+		}
+	}
+
+	// Indexes the records that were appended to the log file since the last indexed record.
+	// Parsing large unindexed log files can take a while. To not block the trade logger, which
+	// needs the lock in order to append to the index, the missing records are indexed into a copy
+	// of the index without holding the lock. The copy then replaces the index, unless the index
+	// has been modified in the meantime.
+	private static void updateIndex(Path logFile, long logFileSize) throws IOException {
+		ReentrantLock lock = getLock(logFile);
+		long indexSize;
+		long indexedSize;
+		long identity;
+		lock.lock();
+		try (FileChannel index = openIndex(logFile, logFileSize)) {
+			indexSize = index.size();
+			indexedSize = getIndexedSize(index);
+			identity = getIdentity(index);
+		} finally {
+			lock.unlock();
+		}
+		if (indexedSize >= logFileSize) return;
+
+		Path indexFile = getIndexFile(logFile).toAbsolutePath();
+		Path tempFile = Files.createTempFile(
+				indexFile.getParent(),
+				indexFile.getFileName().toString(),
+				TEMP_FILE_SUFFIX
+		);
+		try {
+			try (
+					FileChannel index = FileChannel.open(indexFile, StandardOpenOption.READ);
+					FileChannel temp = FileChannel.open(tempFile, StandardOpenOption.WRITE)
+			) {
+				// Copy the header and the already indexed entries:
+				long copied = 0L;
+				while (copied < indexSize) {
+					long transferred = temp.transferFrom(index, copied, indexSize - copied);
+					if (transferred <= 0L) return; // The index has been reset in the meantime
+					copied += transferred;
+				}
+				EntryBuffer entries = new EntryBuffer(temp, logFile);
+				indexRecords(entries, logFile, indexedSize, logFileSize);
+			}
+
+			lock.lock();
+			try {
+				boolean unchanged;
+				try (FileChannel index = openIndex(logFile, logFileSize)) {
+					unchanged = (index.size() == indexSize && getIdentity(index) == identity);
+				}
+				if (unchanged) {
+					// The index is only a cache of the log file: There is no need to log the
+					// fallbacks of non-atomic moves.
+					FileUtils.moveFile(tempFile, indexFile, NullLogger.getInstance());
+				} // Else: Any records that are still missing are indexed while holding the lock.
+			} finally {
+				lock.unlock();
+			}
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	// Indexes the records that were appended to the log file since the last indexed record.
+	// Only invoked while holding the lock of the index.
+	private static void indexMissingRecords(
+			EntryBuffer entries,
+			Path logFile,
+			long logFileSize
+	) throws IOException {
+		long indexedSize = getIndexedSize(entries.index);
+		if (indexedSize >= logFileSize) return;
+		indexRecords(entries, logFile, indexedSize, logFileSize);
+	}
+
+	private static void indexRecords(
+			EntryBuffer entries,
+			Path logFile,
+			long startPosition,
+			long logFileSize
+	) throws IOException {
+		CsvParser parser = new CsvParser();
+		try (FileChannel log = FileChannel.open(logFile, StandardOpenOption.READ)) {
+			log.position(startPosition);
+			InputStream input = new BufferedInputStream(Channels.newInputStream(log));
+			ByteArrayOutputStream record = new ByteArrayOutputStream(512);
+			long recordPosition = startPosition;
+			long position = startPosition;
+			boolean quoted = false;
+			while (position < logFileSize) {
+				int b = input.read();
+				if (b < 0) break;
+				position++;
+				record.write(b);
+				// The quotes and record separators are ASCII characters, which cannot be part of
+				// other UTF-8 encoded characters.
+				if (b == '"') {
+					quoted = !quoted;
+				} else if (b == '\n' && !quoted) {
+					String recordString = new String(record.toByteArray(), StandardCharsets.UTF_8);
+					List<@NonNull String> fields = parser.parseRecord(recordString);
+					indexRecord(entries, fields, recordPosition, record.size());
+					record.reset();
+					recordPosition = position;
+				}
+			}
+			// An incomplete record at the end is indexed once it is complete.
+		}
+		entries.flush();
+	}
+
+	private static void indexRecord(
+			EntryBuffer entries,
+			List<? extends @NonNull String> fields,
+			long position,
+			int length
+	) throws IOException {
+		if (position == 0L && fields.get(0).equals(FIRST_HEADER_COLUMN)) {
+			return; // Skip the CSV header
+		}
+		if (fields.size() < CsvTradeLogger.CSV_HEADER.size()) {
+			return; // Skip malformed records
+		}
+		try {
+			UUID playerId = UUID.fromString(fields.get(PLAYER_UUID_COLUMN));
+			UUID shopId = UUID.fromString(fields.get(SHOP_UUID_COLUMN));
+			String shopOwnerIdString = fields.get(SHOP_OWNER_UUID_COLUMN);
+			@Nullable UUID shopOwnerId = null;
+			if (!shopOwnerIdString.isEmpty()) {
+				shopOwnerId = UUID.fromString(shopOwnerIdString);
+			}
+			entries.put(shopId, shopOwnerId, playerId, position, length);
+		} catch (IllegalArgumentException e) {
+			// Skip malformed records
+		}
+	}
+
+	// Buffers entries before they are appended to the end of the index file.
+	// Also stores the identity of the log file once the first entry is written.
+	private static final class EntryBuffer {
+
+		private final FileChannel index;
+		private final Path logFile;
+		private final ByteBuffer buffer = ByteBuffer.allocate(ENTRY_SIZE * ENTRIES_PER_BUFFER);
+
+		EntryBuffer(FileChannel index, Path logFile) {
+			this.index = index;
+			this.logFile = logFile;
+		}
+
+		void put(
+				UUID shopId,
+				@Nullable UUID shopOwnerId,
+				UUID playerId,
+				long position,
+				int length
+		) throws IOException {
+			Validate.notNull(shopId, "shopId is null");
+			Validate.notNull(playerId, "playerId is null");
+			if (buffer.remaining() < ENTRY_SIZE) {
+				this.flush();
+			}
+			buffer.putLong(shopId.getMostSignificantBits());
+			buffer.putLong(shopId.getLeastSignificantBits());
+			if (shopOwnerId != null) {
+				buffer.putLong(shopOwnerId.getMostSignificantBits());
+				buffer.putLong(shopOwnerId.getLeastSignificantBits());
+			} else {
+				buffer.putLong(0L);
+				buffer.putLong(0L);
+			}
+			buffer.putLong(playerId.getMostSignificantBits());
+			buffer.putLong(playerId.getLeastSignificantBits());
+			buffer.putLong(position);
+			buffer.putInt(length);
+		}
+
+		void flush() throws IOException {
+			buffer.flip();
+			long position = index.size();
+			boolean firstEntries = (position == HEADER_SIZE && buffer.hasRemaining());
+			while (buffer.hasRemaining()) {
+				position += index.write(buffer, position);
+			}
+			if (firstEntries) {
+				this.writeIdentity(buffer.getLong(POSITION_OFFSET), buffer.getInt(LENGTH_OFFSET));
+			}
+			buffer.clear();
+		}
+
+		private void writeIdentity(long firstPosition, int firstLength) throws IOException {
+			ByteBuffer identity = ByteBuffer.allocate(8);
+			identity.putLong(getLogFileIdentity(logFile, firstPosition, firstLength)).flip();
+			while (identity.hasRemaining()) {
+				index.write(identity, IDENTITY_OFFSET + identity.position());
+			}
+		}
+	}
+
+	private CsvTradeLogIndex() {
+	}
+}
@@ -14,7 +14,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import org.bukkit.Bukkit;
@@ -27,8 +26,8 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 
 import com.nisovin.shopkeepers.api.ShopkeepersPlugin;
 import com.nisovin.shopkeepers.api.internal.util.Unsafe;
-import com.nisovin.shopkeepers.api.util.UnmodifiableItemStack;
 import com.nisovin.shopkeepers.config.Settings;
+import com.nisovin.shopkeepers.metrics.InternalMetrics;
 import com.nisovin.shopkeepers.tradelog.TradeLogger;
 import com.nisovin.shopkeepers.tradelog.data.PlayerRecord;
 import com.nisovin.shopkeepers.tradelog.data.ShopRecord;
@@ -45,7 +44,6 @@ import com.nisovin.shopkeepers.util.java.ThrowableUtils;
 import com.nisovin.shopkeepers.util.java.Validate;
 import com.nisovin.shopkeepers.util.java.VoidCallable;
 import com.nisovin.shopkeepers.util.logging.Log;
-import com.nisovin.shopkeepers.util.yaml.YamlUtils;
 
 /**
  * Logs trades to CSV files.
@@ -53,8 +51,9 @@ import com.nisovin.shopkeepers.util.yaml.YamlUtils;
 public class CsvTradeLogger implements TradeLogger {
 
 	private static final String TRADE_LOGS_FOLDER = "trade-logs";
-	private static final String FILE_NAME_PREFIX = "trades-";
-	private static final List<? extends @NonNull String> CSV_HEADER = Collections.unmodifiableList(Arrays.asList(
+	static final String FILE_NAME_PREFIX = "trades-";
+	static final String FILE_NAME_SUFFIX = ".csv";
+	static final List<? extends @NonNull String> CSV_HEADER = Collections.unmodifiableList(Arrays.asList(
 			"time",
 			"player_uuid",
 			"player_name",
@@ -80,7 +79,7 @@ public class CsvTradeLogger implements TradeLogger {
 
 	// TODO This uses the system locale and timezone currently. Config option(s) to change the
 	// locale and timezone? Or always store in UTC?
-	private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd")
+	static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd")
 			.withZone(Unsafe.assertNonNull(ZoneId.systemDefault()));
 	private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss")
 			.withZone(Unsafe.assertNonNull(ZoneId.systemDefault()));
@@ -101,6 +100,8 @@ public class CsvTradeLogger implements TradeLogger {
 	private final CsvFormatter csv = new CsvFormatter()
 			.escapeNewlines(false)
 			.warnOnNewlines();
+	// Only used by the save task:
+	private final CsvTradeRecordEncoder recordEncoder = new CsvTradeRecordEncoder(csv, TIME_FORMAT);
 	private List<@NonNull TradeRecord> pending = new ArrayList<>();
 	private final SaveTask saveTask;
 	private @Nullable BukkitTask delayedSaveTask = null;
@@ -109,10 +110,22 @@ public class CsvTradeLogger implements TradeLogger {
 	// the trades that are being saved as part of the same batch.
 	private boolean logItemMetadata;
 
+	/**
+	 * Gets the folder that contains the CSV trade log files.
+	 * 
+	 * @param plugin
+	 *            the plugin, not <code>null</code>
+	 * @return the trade logs folder, not <code>null</code>
+	 */
+	public static Path getTradeLogsFolder(Plugin plugin) {
+		Validate.notNull(plugin, "plugin is null");
+		return plugin.getDataFolder().toPath().resolve(TRADE_LOGS_FOLDER);
+	}
+
 	public CsvTradeLogger(Plugin plugin) {
 		Validate.notNull(plugin, "plugin is null");
 		this.plugin = plugin;
-		this.tradeLogsFolder = plugin.getDataFolder().toPath().resolve(TRADE_LOGS_FOLDER);
+		this.tradeLogsFolder = getTradeLogsFolder(plugin);
 		this.saveTask = new SaveTask(plugin);
 	}
 
@@ -233,9 +246,13 @@ public class CsvTradeLogger implements TradeLogger {
 			SaveContext saveContext = Unsafe.assertNonNull(this.saveContext);
 
 			this.printDebugInfo();
+			InternalMetrics.TRADE_LOG_WRITE_DURATION.record(
+					TimeUnit.MILLISECONDS.toNanos(this.getExecutionDuration())
+			);
 
 			if (!saveSucceeded) {
 				// Save failed:
+				InternalMetrics.FAILED_TRADE_LOG_WRITES.increment();
 
 				// Add the unsaved trades to the front of the pending trades:
 				pending.addAll(0, saveContext.getUnsavedTrades());
@@ -337,91 +354,10 @@ public class CsvTradeLogger implements TradeLogger {
 
 	private Path getLogFile(Instant timestamp) {
 		assert timestamp != null;
-		String fileName = FILE_NAME_PREFIX + DATE_FORMAT.format(timestamp) + ".csv";
+		String fileName = FILE_NAME_PREFIX + DATE_FORMAT.format(timestamp) + FILE_NAME_SUFFIX;
 		return tradeLogsFolder.resolve(fileName);
 	}
 
-	// Note: We log the item metadata in Yaml format. Since this is what Bukkit natively supports
-	// for serializing and deserializing ItemStacks, this ensures that we are able to load the data
-	// again and recreate the original ItemStack (if we ever wish to).
-	// An alternative would be to log it in Json format, which may have better library support
-	// across languages.
-	// However, Gson (the Json library included with the Minecraft server and Bukkit) will not
-	// properly preserve certain data types by default (at least not if we don't provide detailed
-	// custom deserializers for every type of data that we may want to deserialize, or a
-	// deserializer that replicates Yaml's parsing of certain primitive types, which is actually not
-	// that easily possible): For instance, if the numeric data type of a loaded Json number is
-	// unknown, Gson loads it as a double by default (without there being an easy way to change
-	// that). But since some parts of Bukkit's ItemStack deserialization have strict expectations
-	// regarding the type of data to deserialize, the deserialization from Json may fail for this
-	// data.
-	private String getItemMetadata(UnmodifiableItemStack itemStack) {
-		assert itemStack != null;
-		if (!logItemMetadata) return ""; // Disabled
-
-		// If the logging of item metadata is enabled, we not only store the item's ItemMeta (if it
-		// has any), but also its data version. We therefore serialize the complete item stack here,
-		// but then remove the item's type and amount again, since these properties are already
-		// getting stored separately.
-		Map<String, Object> itemData = itemStack.serialize(); // Assert: Modifiable map.
-		itemData.remove("type");
-		itemData.remove("amount");
-		// In order to ensure single-line CSV records, we format the Yaml compactly:
-		String yaml = YamlUtils.toCompactYaml(itemData);
-		return yaml;
-	}
-
-	private String toCSVRecord(TradeRecord trade) {
-		Instant timestamp = trade.getTimestamp();
-		PlayerRecord player = trade.getPlayer();
-
-		ShopRecord shop = trade.getShop();
-		String worldName = StringUtils.getOrEmpty(shop.getWorldName());
-		PlayerRecord shopOwner = shop.getOwner();
-		String shopOwnerId = "";
-		String shopOwnerName = "";
-		if (shopOwner != null) {
-			shopOwnerId = shopOwner.getUniqueId().toString();
-			shopOwnerName = shopOwner.getName();
-		}
-
-		UnmodifiableItemStack resultItem = trade.getResultItem();
-		UnmodifiableItemStack item1 = trade.getItem1();
-		UnmodifiableItemStack item2 = trade.getItem2(); // Can be null
-		String item2Type = "";
-		String item2Amount = "";
-		String item2Metadata = "";
-		if (item2 != null) {
-			item2Type = item2.getType().name();
-			item2Amount = String.valueOf(item2.getAmount());
-			item2Metadata = this.getItemMetadata(item2);
-		}
-
-		return csv.formatRecord(Arrays.asList(
-				TIME_FORMAT.format(timestamp), // time
-				player.getUniqueId(), // player_uuid
-				player.getName(), // player_name
-				shop.getUniqueId(), // shop_uuid
-				shop.getTypeId(), // shop_type
-				worldName, // shop_world
-				shop.getX(), // shop_x
-				shop.getY(), // shop_y
-				shop.getZ(), // shop_z
-				shopOwnerId, // shop_owner_uuid
-				shopOwnerName, // shop_owner_name
-				item1.getType().name(), // item1_type
-				item1.getAmount(), // item1_amount
-				this.getItemMetadata(item1), // item1_metadata
-				item2Type, // item2_type
-				item2Amount, // item2_amount
-				item2Metadata, // item2_metadata
-				resultItem.getType().name(), // result_item_type
-				resultItem.getAmount(), // result_item_amount
-				this.getItemMetadata(resultItem), // result_item_metadata
-				trade.getTradeCount() // trade_count
-		));
-	}
-
 	// May be invoked asynchronously.
 	// Returns true on success.
 	public boolean writeTradesToDisk(SaveContext saveContext) {
@@ -530,9 +466,10 @@ public class CsvTradeLogger implements TradeLogger {
 
 		// Check if the file already exists:
 		boolean isNew = !Files.exists(logFile);
+		long fileSize = isNew ? 0L : Files.size(logFile);
 		// Check if the file is empty: This may for example occur if we were able to create the file
 		// during a previous log attempt, but then failed to write to it.
-		boolean isEmpty = (isNew || Files.size(logFile) == 0L);
+		boolean isEmpty = (fileSize == 0L);
 
 		// Check the write permission for the log file, if it already exists:
 		if (!isNew) {
@@ -561,6 +498,13 @@ public class CsvTradeLogger implements TradeLogger {
 			// instead of a regular file.
 		}
 
+		// The position of the next record inside the log file, for the trade log index:
+		long recordPosition = fileSize;
+		CsvTradeLogIndex.@Nullable Appender indexAppender = this.openIndexAppender(
+				logFile,
+				fileSize
+		);
+
 		// TODO Use the file encoding specified inside the config? Or add a separate setting?
 		boolean done = false;
 		try (Writer writer = FileUtils.newUnbufferedWriter(
@@ -585,21 +529,35 @@ public class CsvTradeLogger implements TradeLogger {
 			if (isEmpty) {
 				// Note: A BOM should not be required for UTF-8, and it is actually recommended
 				// omitting it.
-				writer.write(csv.formatRecord(CSV_HEADER));
+				String header = csv.formatRecord(CSV_HEADER);
+				writer.write(header);
 				writer.flush();
+				recordPosition += StringUtils.getUtf8Length(header);
 			}
 
 			// Instead of closing and reopening the log file for each trade, we log all consecutive
 			// trades that need to be logged to the same log file before we close it again:
 			do {
 				// Write the new trade record:
-				writer.write(this.toCSVRecord(trade));
+				recordEncoder.encode(trade, logItemMetadata);
+				recordEncoder.writeRecord(writer);
 				writer.flush();
 
 				// If we did not throw an IOException up until this point, we assume that the trade
 				// has been successfully written to the trade log.
 				saveContext.onTradeSuccessfullySaved();
 
+				int recordLength = recordEncoder.getRecordUtf8Length();
+				if (indexAppender != null) {
+					indexAppender = this.indexTrade(
+							indexAppender,
+							trade,
+							recordPosition,
+							recordLength
+					);
+				}
+				recordPosition += recordLength;
+
 				// Get the next trade to save:
 				trade = saveContext.getNextUnsavedTrade();
 				if (trade == null) break; // There are no more trades to save
@@ -622,6 +580,10 @@ public class CsvTradeLogger implements TradeLogger {
 				// retry of the trade log attempt.
 				Log.severe("Failed to close the CSV trade log file!", e);
 			}
+		} finally {
+			if (indexAppender != null) {
+				this.closeIndexAppender(indexAppender);
+			}
 		}
 
 		// Recursively log the remaining trades to their target log files:
@@ -629,4 +591,49 @@ public class CsvTradeLogger implements TradeLogger {
 			this.writeTradesToLogFile(saveContext);
 		}
 	}
+
+	// The trade log index is only a cache of the log files: Failures to update the index are
+	// logged, but do not trigger a retry of the trade logging. Any trades that are missing from the
+	// index are indexed the next time the index is used.
+	private CsvTradeLogIndex.@Nullable Appender openIndexAppender(Path logFile, long logFileSize) {
+		try {
+			return CsvTradeLogIndex.openAppender(logFile, logFileSize);
+		} catch (IOException e) {
+			Log.warning("Failed to open the CSV trade log index of " + logFile.getFileName(), e);
+			return null;
+		}
+	}
+
+	// Returns null if the index could not be updated and has been closed.
+	private CsvTradeLogIndex.@Nullable Appender indexTrade(
+			CsvTradeLogIndex.Appender indexAppender,
+			TradeRecord trade,
+			long recordPosition,
+			int recordLength
+	) {
+		ShopRecord shop = trade.getShop();
+		PlayerRecord shopOwner = shop.getOwner();
+		try {
+			indexAppender.append(
+					recordPosition,
+					recordLength,
+					shop.getUniqueId(),
+					(shopOwner != null) ? shopOwner.getUniqueId() : null,
+					trade.getPlayer().getUniqueId()
+			);
+			return indexAppender;
+		} catch (IOException e) {
+			Log.warning("Failed to update the CSV trade log index!", e);
+			this.closeIndexAppender(indexAppender);
+			return null;
+		}
+	}
+
+	private void closeIndexAppender(CsvTradeLogIndex.Appender indexAppender) {
+		try {
+			indexAppender.close();
+		} catch (IOException e) {
+			Log.warning("Failed to close the CSV trade log index!", e);
+		}
+	}
 }
@@ -0,0 +1,234 @@
+package com.nisovin.shopkeepers.tradelog.csv;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.Material;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.api.util.UnmodifiableItemStack;
+import com.nisovin.shopkeepers.tradelog.data.PlayerRecord;
+import com.nisovin.shopkeepers.tradelog.data.ShopRecord;
+import com.nisovin.shopkeepers.tradelog.data.TradeRecord;
+import com.nisovin.shopkeepers.util.csv.CsvFormatter;
+import com.nisovin.shopkeepers.util.java.LRUCache;
+import com.nisovin.shopkeepers.util.java.StringUtils;
+import com.nisovin.shopkeepers.util.java.Validate;
+import com.nisovin.shopkeepers.util.yaml.YamlUtils;
+
+/**
+ * Encodes {@link TradeRecord}s as CSV records.
+ * <p>
+ * The fields are written directly into a reused buffer, instead of first converting each field to
+ * a String. The escaped forms of frequently repeated field values, such as the unique ids and names
+ * of shops and players, world names, and item types, are cached.
+ * <p>
+ * This is not thread-safe: The CSV trade logger only writes its trades from one thread at a time.
+ */
+public final class CsvTradeRecordEncoder {
+
+	private static final int MAX_CACHED_VALUES = 1024;
+
+	private final CsvFormatter csv;
+	private final DateTimeFormatter timeFormat;
+
+	private final StringBuilder record = new StringBuilder(256);
+	private final StringBuilder timeField = new StringBuilder(16);
+	private char[] writeBuffer = new char[256];
+
+	// Escaped field values:
+	private final Map<@NonNull UUID, @NonNull String> escapedIds;
+	private final Map<@NonNull String, @NonNull String> escapedStrings;
+	private final Map<@NonNull Material, @NonNull String> escapedItemTypes;
+
+	public CsvTradeRecordEncoder(CsvFormatter csv, DateTimeFormatter timeFormat) {
+		Validate.notNull(csv, "csv is null");
+		Validate.notNull(timeFormat, "timeFormat is null");
+		this.csv = csv;
+		this.timeFormat = timeFormat;
+		this.escapedIds = new LRUCache<>(MAX_CACHED_VALUES);
+		this.escapedStrings = new LRUCache<>(MAX_CACHED_VALUES);
+		this.escapedItemTypes = new EnumMap<>(Material.class);
+	}
+
+	/**
+	 * Encodes the given {@link TradeRecord}, including the record separator at the end.
+	 * <p>
+	 * The encoded record replaces any previously encoded record. It can be retrieved via
+	 * {@link #getRecord()} or written via {@link #writeRecord(Writer)}.
+	 * 
+	 * @param trade
+	 *            the trade, not <code>null</code>
+	 * @param logItemMetadata
+	 *            <code>true</code> to include the item metadata
+	 */
+	public void encode(TradeRecord trade, boolean logItemMetadata) {
+		Validate.notNull(trade, "trade is null");
+		record.setLength(0);
+
+		PlayerRecord player = trade.getPlayer();
+		ShopRecord shop = trade.getShop();
+		PlayerRecord shopOwner = shop.getOwner();
+
+		// time:
+		timeField.setLength(0);
+		timeFormat.formatTo(trade.getTimestamp(), timeField);
+		csv.appendField(record, timeField);
+		this.separator();
+
+		this.appendId(player.getUniqueId()).separator(); // player_uuid
+		this.appendString(player.getName()).separator(); // player_name
+		this.appendId(shop.getUniqueId()).separator(); // shop_uuid
+		this.appendString(shop.getTypeId()).separator(); // shop_type
+		this.appendString(shop.getWorldName()).separator(); // shop_world
+		this.appendNumber(shop.getX()).separator(); // shop_x
+		this.appendNumber(shop.getY()).separator(); // shop_y
+		this.appendNumber(shop.getZ()).separator(); // shop_z
+		if (shopOwner != null) {
+			this.appendId(shopOwner.getUniqueId()).separator(); // shop_owner_uuid
+			this.appendString(shopOwner.getName()).separator(); // shop_owner_name
+		} else {
+			this.appendString("").separator(); // shop_owner_uuid
+			this.appendString("").separator(); // shop_owner_name
+		}
+
+		this.appendItem(trade.getItem1(), logItemMetadata).separator(); // item1
+		UnmodifiableItemStack item2 = trade.getItem2(); // Can be null
+		if (item2 != null) {
+			this.appendItem(item2, logItemMetadata).separator(); // item2
+		} else {
+			this.appendString("").separator(); // item2_type
+			this.appendString("").separator(); // item2_amount
+			this.appendString("").separator(); // item2_metadata
+		}
+		this.appendItem(trade.getResultItem(), logItemMetadata).separator(); // result_item
+		this.appendNumber(trade.getTradeCount()); // trade_count
+		csv.appendRecordSeparator(record);
+	}
+
+	private CsvTradeRecordEncoder separator() {
+		csv.appendFieldSeparator(record);
+		return this;
+	}
+
+	private CsvTradeRecordEncoder appendId(UUID id) {
+		String escaped = escapedIds.get(id);
+		if (escaped == null) {
+			escaped = csv.escapeField(id.toString());
+			escapedIds.put(id, escaped);
+		}
+		record.append(escaped);
+		return this;
+	}
+
+	private CsvTradeRecordEncoder appendString(@Nullable String value) {
+		// Null values are represented by an empty String:
+		String nonNullValue = (value != null) ? value : "";
+		String escaped = escapedStrings.get(nonNullValue);
+		if (escaped == null) {
+			escaped = csv.escapeField(nonNullValue);
+			escapedStrings.put(nonNullValue, escaped);
+		}
+		record.append(escaped);
+		return this;
+	}
+
+	private CsvTradeRecordEncoder appendNumber(long value) {
+		csv.appendField(record, value);
+		return this;
+	}
+
+	// Appends the type, amount, and metadata fields, separated by field separators.
+	private CsvTradeRecordEncoder appendItem(
+			UnmodifiableItemStack itemStack,
+			boolean logItemMetadata
+	) {
+		Material type = itemStack.getType();
+		String escapedType = escapedItemTypes.get(type);
+		if (escapedType == null) {
+			escapedType = csv.escapeField(type.name());
+			escapedItemTypes.put(type, escapedType);
+		}
+		record.append(escapedType);
+		this.separator();
+
+		this.appendNumber(itemStack.getAmount()).separator();
+
+		if (logItemMetadata) {
+			csv.appendField(record, getItemMetadata(itemStack));
+		} else {
+			this.appendString("");
+		}
+		return this;
+	}
+
+	// Note: We log the item metadata in Yaml format. Since this is what Bukkit natively supports
+	// for serializing and deserializing ItemStacks, this ensures that we are able to load the data
+	// again and recreate the original ItemStack (if we ever wish to).
+	// An alternative would be to log it in Json format, which may have better library support
+	// across languages.
+	// However, Gson (the Json library included with the Minecraft server and Bukkit) will not
+	// properly preserve certain data types by default (at least not if we don't provide detailed
+	// custom deserializers for every type of data that we may want to deserialize, or a
+	// deserializer that replicates Yaml's parsing of certain primitive types, which is actually not
+	// that easily possible): For instance, if the numeric data type of a loaded Json number is
+	// unknown, Gson loads it as a double by default (without there being an easy way to change
+	// that). But since some parts of Bukkit's ItemStack deserialization have strict expectations
+	// regarding the type of data to deserialize, the deserialization from Json may fail for this
+	// data.
+	private static String getItemMetadata(UnmodifiableItemStack itemStack) {
+		assert itemStack != null;
+		// We not only store the item's ItemMeta (if it has any), but also its data version. We
+		// therefore serialize the complete item stack here, but then remove the item's type and
+		// amount again, since these properties are already getting stored separately.
+		Map<String, Object> itemData = itemStack.serialize(); // Assert: Modifiable map.
+		itemData.remove("type");
+		itemData.remove("amount");
+		// In order to ensure single-line CSV records, we format the Yaml compactly:
+		String yaml = YamlUtils.toCompactYaml(itemData);
+		return yaml;
+	}
+
+	/**
+	 * Gets the most recently {@link #encode(TradeRecord, boolean) encoded} record.
+	 * 
+	 * @return the encoded record, not <code>null</code>
+	 */
+	public String getRecord() {
+		return record.toString();
+	}
+
+	/**
+	 * Gets the number of bytes of the most recently {@link #encode(TradeRecord, boolean) encoded}
+	 * record when encoded as UTF-8.
+	 * 
+	 * @return the number of bytes
+	 */
+	public int getRecordUtf8Length() {
+		return StringUtils.getUtf8Length(record);
+	}
+
+	/**
+	 * Writes the most recently {@link #encode(TradeRecord, boolean) encoded} record to the given
+	 * {@link Writer}, using a single write call.
+	 * 
+	 * @param writer
+	 *            the writer, not <code>null</code>
+	 * @throws IOException
+	 *             if the writer throws an exception
+	 */
+	public void writeRecord(Writer writer) throws IOException {
+		Validate.notNull(writer, "writer is null");
+		int length = record.length();
+		if (writeBuffer.length < length) {
+			writeBuffer = new char[Math.max(length, 2 * writeBuffer.length)];
+		}
+		record.getChars(0, length, writeBuffer, 0);
+		writer.write(writeBuffer, 0, length);
+	}
+}
@@ -0,0 +1,56 @@
+package com.nisovin.shopkeepers.tradelog.csv;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import com.nisovin.shopkeepers.util.java.Validate;
+
+/**
+ * A trade record that has been read from a CSV trade log file.
+ * <p>
+ * The fields are the unprocessed CSV fields of the record, as they have been logged. Records of
+ * older log files may lack some fields.
+ */
+public final class LoggedTrade {
+
+	private final LocalDate logDate;
+	private final List<? extends @NonNull String> fields;
+
+	LoggedTrade(LocalDate logDate, List<? extends @NonNull String> fields) {
+		Validate.notNull(logDate, "logDate is null");
+		Validate.notNull(fields, "fields is null");
+		this.logDate = logDate;
+		this.fields = fields;
+	}
+
+	/**
+	 * Gets the date of the log file that contains this trade.
+	 * 
+	 * @return the log date, not <code>null</code>
+	 */
+	public LocalDate getLogDate() {
+		return logDate;
+	}
+
+	/**
+	 * Gets the value of the specified field.
+	 * 
+	 * @param column
+	 *            the column name, as specified by the header of the CSV trade log files, not
+	 *            <code>null</code>
+	 * @return the field value, or an empty String if the field is missing, not <code>null</code>
+	 */
+	public String getField(String column) {
+		Validate.notNull(column, "column is null");
+		int index = CsvTradeLogger.CSV_HEADER.indexOf(column);
+		if (index < 0 || index >= fields.size()) return "";
+		return fields.get(index);
+	}
+
+	@Override
+	public String toString() {
+		return "LoggedTrade [logDate=" + logDate + ", fields=" + fields + "]";
+	}
+}
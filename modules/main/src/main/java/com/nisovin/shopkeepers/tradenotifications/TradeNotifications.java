@@ -27,6 +27,8 @@ import com.nisovin.shopkeepers.currency.Currencies;
 import com.nisovin.shopkeepers.lang.Messages;
 import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
 import com.nisovin.shopkeepers.text.ClickEventText.Action;
+import com.nisovin.shopkeepers.text.FormattedMessage;
+import com.nisovin.shopkeepers.text.MessageTemplate;
 import com.nisovin.shopkeepers.text.Text;
 import com.nisovin.shopkeepers.util.bukkit.PermissionUtils;
 import com.nisovin.shopkeepers.util.bukkit.TextUtils;
@@ -240,7 +242,7 @@ public class TradeNotifications implements Listener {
 			shopOwner = ((PlayerShopkeeper) tradeContext.getShopkeeper()).getOwner();
 		}
 
-		Lazy<@NonNull Text> tradeNotification = new Lazy<>(
+		Lazy<@NonNull FormattedMessage> tradeNotification = new Lazy<>(
 				() -> this.getTradeNotificationMessage(tradeContext)
 		);
 		for (Player player : Bukkit.getOnlinePlayers()) {
@@ -261,7 +263,7 @@ public class TradeNotifications implements Listener {
 		}
 	}
 
-	private Text getTradeNotificationMessage(TradeContext tradeContext) {
+	private FormattedMessage getTradeNotificationMessage(TradeContext tradeContext) {
 		assert tradeContext != null;
 		Shopkeeper shopkeeper = tradeContext.getShopkeeper();
 
@@ -305,7 +307,9 @@ public class TradeNotifications implements Listener {
 		return this.getTradeNotificationMessage(tradeContext, message, shopText, tradeCountText);
 	}
 
-	private Text getTradeNotificationMessage(
+	// The messages are formatted via their compiled templates, without modifying the shared
+	// message Texts.
+	private FormattedMessage getTradeNotificationMessage(
 			TradeContext tradeContext,
 			Text message,
 			Text shopText,
@@ -314,18 +318,20 @@ public class TradeNotifications implements Listener {
 		MessageArguments shopMsgArgs = tradeContext.getShopMessageArguments();
 		Map<@NonNull String, @NonNull Object> tradeMsgArgs = tradeContext.getTradeMessageArguments();
 
-		shopText.setPlaceholderArguments(shopMsgArgs);
 		// TODO Display more shop information as hover text? Add a click event or insertion text to
 		// automatically copy the shop coordinates or id, or insert a teleport command to teleport
 		// to the shop?
-		tradeMsgArgs.put("shop", shopText);
+		tradeMsgArgs.put("shop", MessageTemplate.of(shopText).format(shopMsgArgs));
 
-		tradeCountText.setPlaceholderArguments("count", tradeContext.getTradeCount());
-		tradeMsgArgs.put("trade_count", tradeCountText);
+		tradeMsgArgs.put("trade_count", MessageTemplate.of(tradeCountText).format(
+				"count", tradeContext.getTradeCount()
+		));
 
-		message.setPlaceholderArguments(tradeMsgArgs);
-		message.setPlaceholderArguments(shopMsgArgs);
-		return message;
+		// The shop message arguments take precedence:
+		MessageArguments messageArgs = shopMsgArgs.combinedWith(
+				MessageArguments.ofMap(tradeMsgArgs)
+		);
+		return MessageTemplate.of(message).format(messageArgs);
 	}
 
 	private void sendOwnerTradeNotifications(TradeContext tradeContext) {
@@ -341,13 +347,13 @@ public class TradeNotifications implements Listener {
 
 		// Note: We also send trade notifications for own trades (i.e. when the trading player
 		// matches the recipient of the notification).
-		Text message = this.getOwnerTradeNotificationMessage(tradeContext);
+		FormattedMessage message = this.getOwnerTradeNotificationMessage(tradeContext);
 		TextUtils.sendMessage(owner, message);
 		Settings.shopOwnerTradeNotificationSound.play(owner);
 		this.sendDisableTradeNotificationsHint(owner);
 	}
 
-	private Text getOwnerTradeNotificationMessage(TradeContext tradeContext) {
+	private FormattedMessage getOwnerTradeNotificationMessage(TradeContext tradeContext) {
 		assert tradeContext != null;
 		Shopkeeper shopkeeper = tradeContext.getShopkeeper();
 
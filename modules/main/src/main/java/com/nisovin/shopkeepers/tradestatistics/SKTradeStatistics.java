@@ -0,0 +1,64 @@
+package com.nisovin.shopkeepers.tradestatistics;
+
+import com.nisovin.shopkeepers.api.shopkeeper.TradeStatistics;
+import com.nisovin.shopkeepers.util.java.Validate;
+
+/**
+ * Immutable {@link TradeStatistics}.
+ */
+final class SKTradeStatistics implements TradeStatistics {
+
+	static final TradeStatistics EMPTY = new SKTradeStatistics(
+			new long[Period.values().length * ShopTradeCounters.FIELDS]
+	);
+
+	// The counter values by period and counter:
+	private final long[] values;
+
+	SKTradeStatistics(long[] values) {
+		assert values.length == Period.values().length * ShopTradeCounters.FIELDS;
+		this.values = values;
+	}
+
+	private long get(Period period, int field) {
+		Validate.notNull(period, "period is null");
+		return values[period.ordinal() * ShopTradeCounters.FIELDS + field];
+	}
+
+	@Override
+	public long getTrades(Period period) {
+		return this.get(period, ShopTradeCounters.TRADES);
+	}
+
+	@Override
+	public long getItemsSold(Period period) {
+		return this.get(period, ShopTradeCounters.ITEMS_SOLD);
+	}
+
+	@Override
+	public long getItemsBought(Period period) {
+		return this.get(period, ShopTradeCounters.ITEMS_BOUGHT);
+	}
+
+	@Override
+	public long getCurrencyVolume(Period period) {
+		return this.get(period, ShopTradeCounters.CURRENCY_VOLUME);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("SKTradeStatistics [");
+		for (Period period : Period.values()) {
+			if (period.ordinal() > 0) {
+				builder.append(", ");
+			}
+			builder.append(period)
+					.append("=(trades=").append(this.getTrades(period))
+					.append(", itemsSold=").append(this.getItemsSold(period))
+					.append(", itemsBought=").append(this.getItemsBought(period))
+					.append(", currencyVolume=").append(this.getCurrencyVolume(period))
+					.append(")");
+		}
+		return builder.append("]").toString();
+	}
+}
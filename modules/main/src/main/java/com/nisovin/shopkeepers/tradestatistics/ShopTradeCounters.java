@@ -0,0 +1,208 @@
+package com.nisovin.shopkeepers.tradestatistics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import com.nisovin.shopkeepers.api.shopkeeper.TradeStatistics;
+import com.nisovin.shopkeepers.api.shopkeeper.TradeStatistics.Period;
+import com.nisovin.shopkeepers.util.java.Validate;
+
+/**
+ * The trade counters of a single shopkeeper.
+ * <p>
+ * Besides the all-time totals, the counters of recent trades are kept in fixed-size ring buffers of
+ * time buckets, one ring buffer for each of the recent {@link Period periods}. Each bucket
+ * remembers the time slot it currently represents, so that buckets of previous time slots are only
+ * reset once they are reused. Recording a trade therefore only updates a constant number of array
+ * elements and does not allocate any objects.
+ * <p>
+ * This is not thread-safe. However, once {@link #freeze() frozen}, the counters are no longer
+ * modified and can therefore be read concurrently.
+ */
+public final class ShopTradeCounters {
+
+	public static final int TRADES = 0;
+	public static final int ITEMS_SOLD = 1;
+	public static final int ITEMS_BOUGHT = 2;
+	public static final int CURRENCY_VOLUME = 3;
+	public static final int FIELDS = 4;
+
+	// The ring buffers by period: The duration of their buckets and their number of buckets.
+	// Their buckets are stored one after the other inside the same arrays.
+	private static final long[] BUCKET_MILLIS = {
+			TimeUnit.MINUTES.toMillis(5), // LAST_HOUR
+			TimeUnit.HOURS.toMillis(1), // LAST_DAY
+			TimeUnit.HOURS.toMillis(6) // LAST_WEEK
+	};
+	private static final int[] BUCKET_COUNTS = { 12, 24, 28 };
+	private static final int[] FIRST_BUCKETS = { 0, 12, 36 };
+	private static final int RINGS = BUCKET_COUNTS.length;
+	static final int BUCKETS = 64;
+
+	private final long[] totals = new long[FIELDS];
+	// The time slot of each bucket, or -1 if the bucket has not been used yet:
+	private final int[] bucketSlots = new int[BUCKETS];
+	// FIELDS counters per bucket:
+	private final int[] bucketValues = new int[BUCKETS * FIELDS];
+	private boolean frozen = false;
+
+	public ShopTradeCounters() {
+		Arrays.fill(bucketSlots, -1);
+	}
+
+	private ShopTradeCounters(ShopTradeCounters other) {
+		System.arraycopy(other.totals, 0, totals, 0, FIELDS);
+		System.arraycopy(other.bucketSlots, 0, bucketSlots, 0, BUCKETS);
+		System.arraycopy(other.bucketValues, 0, bucketValues, 0, BUCKETS * FIELDS);
+	}
+
+	/**
+	 * Creates a copy of these counters that is not {@link #isFrozen() frozen}.
+	 * 
+	 * @return the copy, not <code>null</code>
+	 */
+	public ShopTradeCounters copy() {
+		return new ShopTradeCounters(this);
+	}
+
+	/**
+	 * Checks if these counters are {@link #freeze() frozen}.
+	 * 
+	 * @return <code>true</code> if frozen
+	 */
+	public boolean isFrozen() {
+		return frozen;
+	}
+
+	/**
+	 * Freezes these counters.
+	 * <p>
+	 * Frozen counters can no longer record trades. Instead, trades need to be recorded in a
+	 * {@link #copy()}. This allows other threads to read frozen counters, for example to save them.
+	 */
+	public void freeze() {
+		frozen = true;
+	}
+
+	/**
+	 * Records a trade.
+	 * <p>
+	 * The counters are not allowed to be {@link #isFrozen() frozen}.
+	 * 
+	 * @param nowMillis
+	 *            the current time in milliseconds since the epoch
+	 * @param itemsSold
+	 *            the number of items handed out by the shopkeeper
+	 * @param itemsBought
+	 *            the number of items received by the shopkeeper
+	 * @param currencyVolume
+	 *            the value of the traded currency items
+	 */
+	public void record(long nowMillis, int itemsSold, int itemsBought, int currencyVolume) {
+		Validate.State.isTrue(!frozen, "The counters are frozen!");
+		totals[TRADES] += 1;
+		totals[ITEMS_SOLD] += itemsSold;
+		totals[ITEMS_BOUGHT] += itemsBought;
+		totals[CURRENCY_VOLUME] += currencyVolume;
+
+		for (int ring = 0; ring < RINGS; ring++) {
+			int slot = (int) (nowMillis / BUCKET_MILLIS[ring]);
+			int bucket = FIRST_BUCKETS[ring] + Math.floorMod(slot, BUCKET_COUNTS[ring]);
+			int valuesIndex = bucket * FIELDS;
+			if (bucketSlots[bucket] != slot) {
+				// Reuse the bucket of a previous time slot:
+				bucketSlots[bucket] = slot;
+				Arrays.fill(bucketValues, valuesIndex, valuesIndex + FIELDS, 0);
+			}
+			this.add(valuesIndex + TRADES, 1);
+			this.add(valuesIndex + ITEMS_SOLD, itemsSold);
+			this.add(valuesIndex + ITEMS_BOUGHT, itemsBought);
+			this.add(valuesIndex + CURRENCY_VOLUME, currencyVolume);
+		}
+	}
+
+	// Saturates instead of overflowing.
+	private void add(int valuesIndex, int amount) {
+		int value = bucketValues[valuesIndex] + amount;
+		if (value < 0) value = Integer.MAX_VALUE;
+		bucketValues[valuesIndex] = value;
+	}
+
+	/**
+	 * Gets the value of the specified counter for the given period.
+	 * 
+	 * @param field
+	 *            the counter
+	 * @param period
+	 *            the period, not <code>null</code>
+	 * @param nowMillis
+	 *            the current time in milliseconds since the epoch
+	 * @return the counter value
+	 */
+	public long get(int field, Period period, long nowMillis) {
+		if (period == Period.ALL_TIME) {
+			return totals[field];
+		}
+
+		int ring = period.ordinal();
+		int currentSlot = (int) (nowMillis / BUCKET_MILLIS[ring]);
+		int oldestSlot = currentSlot - BUCKET_COUNTS[ring] + 1;
+		long value = 0L;
+		int firstBucket = FIRST_BUCKETS[ring];
+		int endBucket = firstBucket + BUCKET_COUNTS[ring];
+		for (int bucket = firstBucket; bucket < endBucket; bucket++) {
+			int slot = bucketSlots[bucket];
+			if (slot >= oldestSlot && slot <= currentSlot) {
+				value += bucketValues[bucket * FIELDS + field];
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Creates an immutable snapshot of these counters.
+	 * 
+	 * @param nowMillis
+	 *            the current time in milliseconds since the epoch
+	 * @return the trade statistics, not <code>null</code>
+	 */
+	public TradeStatistics createSnapshot(long nowMillis) {
+		Period[] periods = Period.values();
+		long[] values = new long[periods.length * FIELDS];
+		for (Period period : periods) {
+			for (int field = 0; field < FIELDS; field++) {
+				values[period.ordinal() * FIELDS + field] = this.get(field, period, nowMillis);
+			}
+		}
+		return new SKTradeStatistics(values);
+	}
+
+	// PERSISTENCE
+
+	void write(DataOutput out) throws IOException {
+		for (long total : totals) {
+			out.writeLong(total);
+		}
+		for (int slot : bucketSlots) {
+			out.writeInt(slot);
+		}
+		for (int value : bucketValues) {
+			out.writeInt(value);
+		}
+	}
+
+	void read(DataInput in) throws IOException {
+		for (int i = 0; i < totals.length; i++) {
+			totals[i] = in.readLong();
+		}
+		for (int i = 0; i < bucketSlots.length; i++) {
+			bucketSlots[i] = in.readInt();
+		}
+		for (int i = 0; i < bucketValues.length; i++) {
+			bucketValues[i] = in.readInt();
+		}
+	}
+}
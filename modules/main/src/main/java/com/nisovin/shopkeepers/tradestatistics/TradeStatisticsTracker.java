@@ -0,0 +1,329 @@
+package com.nisovin.shopkeepers.tradestatistics;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.api.events.ShopkeeperRemoveEvent;
+import com.nisovin.shopkeepers.api.events.ShopkeeperTradeCompletedEvent;
+import com.nisovin.shopkeepers.api.shopkeeper.Shopkeeper;
+import com.nisovin.shopkeepers.api.shopkeeper.TradeStatistics;
+import com.nisovin.shopkeepers.api.shopkeeper.TradingRecipe;
+import com.nisovin.shopkeepers.api.util.UnmodifiableItemStack;
+import com.nisovin.shopkeepers.currency.Currencies;
+import com.nisovin.shopkeepers.currency.Currency;
+import com.nisovin.shopkeepers.util.bukkit.SchedulerUtils;
+import com.nisovin.shopkeepers.util.java.FileUtils;
+import com.nisovin.shopkeepers.util.java.Validate;
+import com.nisovin.shopkeepers.util.logging.Log;
+
+/**
+ * Keeps {@link TradeStatistics} for every shopkeeper that has been traded with.
+ * <p>
+ * The trade counters are updated on the main thread whenever a trade is completed. They are
+ * persisted in a compact binary file next to the shopkeeper save file: The file is written
+ * asynchronously in the same interval as the periodic shopkeeper saves, and synchronously when
+ * the plugin is disabled. The statistics of deleted shopkeepers are removed.
+ * <p>
+ * To not serialize the counters of all shopkeepers on the main thread, a save only
+ * {@link ShopTradeCounters#freeze() freezes} the current counters and then serializes them
+ * asynchronously. The next trade with a shopkeeper whose counters are frozen replaces them with a
+ * copy. Only the counters of the shopkeepers that are traded with between two saves are therefore
+ * copied.
+ */
+public class TradeStatisticsTracker implements Listener {
+
+	private static final String DATA_FOLDER = "data";
+	private static final String SAVE_FILE_NAME = "trade-statistics.dat";
+	private static final String TEMP_SAVE_FILE_NAME = SAVE_FILE_NAME + ".tmp";
+
+	private static final int MAGIC = 0x534B5453; // "SKTS"
+	// Needs to be incremented whenever the layout of the trade counters changes:
+	private static final int VERSION = 1;
+
+	private static final long SAVE_PERIOD_TICKS = 6000L; // 5 minutes
+
+	private final Plugin plugin;
+	private final Path saveFile;
+	private final Path tempSaveFile;
+
+	private final Map<@NonNull UUID, @NonNull ShopTradeCounters> counters = new HashMap<>();
+	private boolean dirty = false;
+	private @Nullable BukkitTask saveTask = null;
+
+	// Orders the file writes, so that an older pending async save cannot replace a more recent
+	// save:
+	private final Object saveFileLock = new Object();
+	private long saveCount = 0L; // Only accessed on the main thread
+	private long lastWrittenSave = 0L; // Guarded by saveFileLock
+
+	public TradeStatisticsTracker(Plugin plugin) {
+		Validate.notNull(plugin, "plugin is null");
+		this.plugin = plugin;
+		Path dataFolder = plugin.getDataFolder().toPath().resolve(DATA_FOLDER);
+		this.saveFile = dataFolder.resolve(SAVE_FILE_NAME);
+		this.tempSaveFile = dataFolder.resolve(TEMP_SAVE_FILE_NAME);
+	}
+
+	public void onEnable() {
+		this.load();
+		Bukkit.getPluginManager().registerEvents(this, plugin);
+		saveTask = Bukkit.getScheduler().runTaskTimer(
+				plugin,
+				() -> this.saveIfDirty(true),
+				SAVE_PERIOD_TICKS,
+				SAVE_PERIOD_TICKS
+		);
+	}
+
+	public void onDisable() {
+		HandlerList.unregisterAll(this);
+		if (saveTask != null) {
+			saveTask.cancel();
+			saveTask = null;
+		}
+		this.saveIfDirty(false);
+		counters.clear();
+	}
+
+	/**
+	 * Gets the current trade statistics of the given shopkeeper.
+	 * 
+	 * @param shopkeeper
+	 *            the shopkeeper, not <code>null</code>
+	 * @return an immutable snapshot of the trade statistics, not <code>null</code>
+	 */
+	public TradeStatistics getStatistics(Shopkeeper shopkeeper) {
+		Validate.notNull(shopkeeper, "shopkeeper is null");
+		ShopTradeCounters shopCounters = counters.get(shopkeeper.getUniqueId());
+		if (shopCounters == null) return SKTradeStatistics.EMPTY;
+		return shopCounters.createSnapshot(System.currentTimeMillis());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	void onTradeCompleted(ShopkeeperTradeCompletedEvent event) {
+		this.recordTrade(
+				event.getShopkeeper().getUniqueId(),
+				System.currentTimeMillis(),
+				event.getCompletedTrade().getTradingRecipe()
+		);
+	}
+
+	/**
+	 * Records a trade with the specified shopkeeper.
+	 * <p>
+	 * The currency volume of the trade is the value of all of its {@link Currencies currency}
+	 * items.
+	 * 
+	 * @param shopkeeperId
+	 *            the unique id of the shopkeeper, not <code>null</code>
+	 * @param nowMillis
+	 *            the current time in milliseconds since the epoch
+	 * @param tradingRecipe
+	 *            the trading recipe of the trade, not <code>null</code>
+	 * @see #recordTrade(UUID, long, int, int, int)
+	 */
+	public void recordTrade(UUID shopkeeperId, long nowMillis, TradingRecipe tradingRecipe) {
+		UnmodifiableItemStack resultItem = tradingRecipe.getResultItem();
+		UnmodifiableItemStack item1 = tradingRecipe.getItem1();
+		UnmodifiableItemStack item2 = tradingRecipe.getItem2();
+
+		int itemsBought = item1.getAmount() + ((item2 != null) ? item2.getAmount() : 0);
+		int currencyVolume = getCurrencyValue(resultItem)
+				+ getCurrencyValue(item1)
+				+ getCurrencyValue(item2);
+		this.recordTrade(
+				shopkeeperId,
+				nowMillis,
+				resultItem.getAmount(),
+				itemsBought,
+				currencyVolume
+		);
+	}
+
+	private static int getCurrencyValue(@Nullable UnmodifiableItemStack itemStack) {
+		if (itemStack == null) return 0;
+		Currency currency = Currencies.match(itemStack);
+		if (currency == null) return 0;
+		return currency.getValue() * itemStack.getAmount();
+	}
+
+	/**
+	 * Records a trade with the specified shopkeeper.
+	 * <p>
+	 * Apart from the first trade with a shopkeeper, and the first trade with a shopkeeper after
+	 * each save, this does not allocate any objects.
+	 * 
+	 * @param shopkeeperId
+	 *            the unique id of the shopkeeper, not <code>null</code>
+	 * @param nowMillis
+	 *            the current time in milliseconds since the epoch
+	 * @param itemsSold
+	 *            the number of items handed out by the shopkeeper
+	 * @param itemsBought
+	 *            the number of items received by the shopkeeper
+	 * @param currencyVolume
+	 *            the value of the traded currency items
+	 */
+	public void recordTrade(
+			UUID shopkeeperId,
+			long nowMillis,
+			int itemsSold,
+			int itemsBought,
+			int currencyVolume
+	) {
+		ShopTradeCounters shopCounters = counters.get(shopkeeperId);
+		if (shopCounters == null) {
+			shopCounters = new ShopTradeCounters();
+			counters.put(shopkeeperId, shopCounters);
+		} else if (shopCounters.isFrozen()) {
+			// The counters might still be saved asynchronously:
+			shopCounters = shopCounters.copy();
+			counters.put(shopkeeperId, shopCounters);
+		}
+		shopCounters.record(nowMillis, itemsSold, itemsBought, currencyVolume);
+		dirty = true;
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	void onShopkeeperRemove(ShopkeeperRemoveEvent event) {
+		if (event.getCause() != ShopkeeperRemoveEvent.Cause.DELETE) return;
+		if (counters.remove(event.getShopkeeper().getUniqueId()) != null) {
+			dirty = true;
+		}
+	}
+
+	// PERSISTENCE
+
+	private void load() {
+		counters.clear();
+		dirty = false;
+		byte[] data;
+		try {
+			data = Files.readAllBytes(saveFile);
+		} catch (NoSuchFileException e) {
+			return; // Nothing to load
+		} catch (IOException e) {
+			Log.severe("Failed to read the trade statistics!", e);
+			return;
+		}
+
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+			if (in.readInt() != MAGIC) {
+				throw new IOException("Unknown file format!");
+			}
+			int version = in.readInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported file version: " + version);
+			}
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				UUID shopkeeperId = new UUID(in.readLong(), in.readLong());
+				ShopTradeCounters shopCounters = new ShopTradeCounters();
+				shopCounters.read(in);
+				counters.put(shopkeeperId, shopCounters);
+			}
+		} catch (IOException e) {
+			Log.severe("Failed to load the trade statistics! They are reset.", e);
+			counters.clear();
+		}
+		Log.debug(() -> "Loaded the trade statistics of " + counters.size() + " shopkeepers.");
+	}
+
+	// The counters are frozen on the main thread, but can be serialized and written to the file
+	// asynchronously.
+	private void saveIfDirty(boolean async) {
+		if (!dirty) return;
+		dirty = false;
+
+		int count = counters.size();
+		UUID[] shopkeeperIds = new UUID[count];
+		ShopTradeCounters[] shopCounters = new ShopTradeCounters[count];
+		int index = 0;
+		for (Entry<@NonNull UUID, @NonNull ShopTradeCounters> entry : counters.entrySet()) {
+			ShopTradeCounters entryCounters = entry.getValue();
+			entryCounters.freeze();
+			shopkeeperIds[index] = entry.getKey();
+			shopCounters[index] = entryCounters;
+			index++;
+		}
+
+		long saveId = ++saveCount;
+		if (async) {
+			BukkitTask task = SchedulerUtils.runAsyncTaskOrOmit(plugin, () -> {
+				if (!this.writeSaveFile(saveId, shopkeeperIds, shopCounters)) {
+					// Retry during the next save:
+					SchedulerUtils.runOnMainThreadOrOmit(plugin, () -> dirty = true);
+				}
+			});
+			if (task != null) return;
+			// Else: The plugin is being disabled. Save synchronously.
+		}
+
+		if (!this.writeSaveFile(saveId, shopkeeperIds, shopCounters)) {
+			dirty = true;
+		}
+	}
+
+	// Returns true if the data has been written, or if a more recent save has already been
+	// written.
+	private boolean writeSaveFile(
+			long saveId,
+			UUID[] shopkeeperIds,
+			ShopTradeCounters[] shopCounters
+	) {
+		synchronized (saveFileLock) {
+			if (saveId <= lastWrittenSave) return true;
+			try {
+				FileUtils.createParentDirectories(tempSaveFile);
+				try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+						Files.newOutputStream(tempSaveFile)
+				))) {
+					write(out, shopkeeperIds, shopCounters);
+				}
+				FileUtils.fsync(tempSaveFile);
+				FileUtils.moveFile(tempSaveFile, saveFile, Log.getLogger());
+				lastWrittenSave = saveId;
+				return true;
+			} catch (IOException e) {
+				Log.severe("Failed to save the trade statistics!", e);
+				return false;
+			}
+		}
+	}
+
+	private static void write(
+			DataOutputStream out,
+			UUID[] shopkeeperIds,
+			ShopTradeCounters[] shopCounters
+	) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(shopkeeperIds.length);
+		for (int i = 0; i < shopkeeperIds.length; i++) {
+			UUID shopkeeperId = shopkeeperIds[i];
+			out.writeLong(shopkeeperId.getMostSignificantBits());
+			out.writeLong(shopkeeperId.getLeastSignificantBits());
+			shopCounters[i].write(out);
+		}
+	}
+}
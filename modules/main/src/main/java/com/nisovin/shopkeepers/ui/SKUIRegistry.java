@@ -24,6 +24,7 @@ import com.nisovin.shopkeepers.api.shopkeeper.Shopkeeper;
 import com.nisovin.shopkeepers.api.ui.UIRegistry;
 import com.nisovin.shopkeepers.api.ui.UISession;
 import com.nisovin.shopkeepers.api.ui.UIType;
+import com.nisovin.shopkeepers.metrics.InternalMetrics;
 import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
 import com.nisovin.shopkeepers.types.AbstractTypeRegistry;
 import com.nisovin.shopkeepers.ui.state.UIState;
@@ -119,6 +120,7 @@ public class SKUIRegistry extends AbstractTypeRegistry<@NonNull AbstractUIType>
 	) {
 		Validate.notNull(uiHandler, "uiHandler is null");
 		Validate.notNull(player, "player is null");
+		long startNanos = InternalMetrics.REGISTRY.startNanos();
 		UIType uiType = uiHandler.getUIType();
 		String uiIdentifier = uiType.getIdentifier();
 		AbstractShopkeeper shopkeeper = null; // Can be null
@@ -183,6 +185,9 @@ public class SKUIRegistry extends AbstractTypeRegistry<@NonNull AbstractUIType>
 			this.endUISession(player, null);
 			return false;
 		}
+
+		InternalMetrics.UI_OPENS.increment();
+		InternalMetrics.UI_OPEN_DURATION.recordSince(startNanos);
 		return true;
 	}
 
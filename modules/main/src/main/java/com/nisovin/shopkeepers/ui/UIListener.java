@@ -30,6 +30,7 @@ import com.nisovin.shopkeepers.api.ShopkeepersPlugin;
 import com.nisovin.shopkeepers.api.internal.util.Unsafe;
 import com.nisovin.shopkeepers.api.shopkeeper.Shopkeeper;
 import com.nisovin.shopkeepers.config.Settings;
+import com.nisovin.shopkeepers.metrics.InternalMetrics;
 import com.nisovin.shopkeepers.util.bukkit.EventUtils;
 import com.nisovin.shopkeepers.util.interaction.TestPlayerInteractEvent;
 import com.nisovin.shopkeepers.util.java.Validate;
@@ -191,7 +192,9 @@ class UIListener implements Listener {
 
 			// Inform the UI handler:
 			UIHandler uiHandler = uiSession.getUIHandler();
+			long startNanos = InternalMetrics.REGISTRY.startNanos();
 			uiHandler.informOnInventoryEventEarly(uiSession, event);
+			InternalMetrics.UI_INVENTORY_EVENT_DURATION.recordSince(startNanos);
 		}
 	}
 
@@ -215,7 +218,9 @@ class UIListener implements Listener {
 
 		// Inform the UI handler:
 		UIHandler uiHandler = uiSession.getUIHandler();
+		long startNanos = InternalMetrics.REGISTRY.startNanos();
 		uiHandler.informOnInventoryEventLate(uiSession, event);
+		InternalMetrics.UI_INVENTORY_EVENT_DURATION.recordSince(startNanos);
 	}
 
 	private void debugInventoryEvent(InventoryEvent event) {
@@ -287,10 +287,22 @@ public abstract class AbstractEditorHandler extends UIHandler {
 		);
 
 		// The inventory implementations create NMS copies of the items, so we do not need to copy
-		// them ourselves here:
-		inventory.setItem(this.getResultItemSlot(column), ItemUtils.asItemStackOrNull(resultItem));
-		inventory.setItem(this.getItem1Slot(column), ItemUtils.asItemStackOrNull(item1));
-		inventory.setItem(this.getItem2Slot(column), ItemUtils.asItemStackOrNull(item2));
+		// them ourselves here. Slots that already contain equal items are not updated.
+		InventoryShadow.setItemIfChanged(
+				inventory,
+				this.getResultItemSlot(column),
+				ItemUtils.asItemStackOrNull(resultItem)
+		);
+		InventoryShadow.setItemIfChanged(
+				inventory,
+				this.getItem1Slot(column),
+				ItemUtils.asItemStackOrNull(item1)
+		);
+		InventoryShadow.setItemIfChanged(
+				inventory,
+				this.getItem2Slot(column),
+				ItemUtils.asItemStackOrNull(item2)
+		);
 	}
 
 	// TODO Avoid creating new TradingRecipeDraft objects here and instead update the drafts of the
@@ -633,6 +645,9 @@ public abstract class AbstractEditorHandler extends UIHandler {
 		EditorSession editorSession = this.createEditorSession(uiSession, recipes, inventory);
 		editorSessions.put(player.getUniqueId(), editorSession);
 
+		// Freshly create the shared button icons, in case they are outdated:
+		buttons.forEach(Button::invalidateCachedIcon);
+
 		// Determine the initial page:
 		int page = 1;
 		if (uiState instanceof EditorUIState) {
@@ -643,6 +658,8 @@ public abstract class AbstractEditorHandler extends UIHandler {
 		// Set up and open the initial page:
 		editorSession.setPage(page);
 		this.setupCurrentPage(editorSession);
+		// Opening the inventory sends its contents:
+		editorSession.getInventoryShadow().resetChanged();
 
 		return player.openInventory(inventory) != null;
 	}
@@ -681,20 +698,17 @@ public abstract class AbstractEditorHandler extends UIHandler {
 
 	protected void setupTradesPageBar(EditorSession editorSession) {
 		assert editorSession != null;
-		Inventory inventory = editorSession.getInventory();
-		// Clear page bar area:
-		for (int i = TRADES_PAGE_BAR_START; i <= TRADES_PAGE_BAR_END; ++i) {
-			inventory.setItem(i, null);
-		}
-
-		// Insert buttons:
+		// Only updates the slots whose icons changed:
+		InventoryShadow inventoryShadow = editorSession.getInventoryShadow();
 		@Nullable Button[] buttons = this.getTradesPageBarButtons();
-		for (int i = 0; i < buttons.length; ++i) {
-			Button button = buttons[i];
-			if (button == null) continue;
-			ItemStack icon = button.getIcon(editorSession);
-			if (icon == null) continue;
-			inventory.setItem(button.getSlot(), icon);
+		for (int slot = TRADES_PAGE_BAR_START; slot <= TRADES_PAGE_BAR_END; ++slot) {
+			Button button = buttons[slot - TRADES_PAGE_BAR_START];
+			ItemStack icon = null;
+			if (button != null) {
+				icon = button.getIconCached(editorSession);
+			}
+			// Null clears the slot:
+			inventoryShadow.setItem(slot, icon);
 		}
 	}
 
@@ -705,15 +719,18 @@ public abstract class AbstractEditorHandler extends UIHandler {
 	}
 
 	void updateButtonsInAllSessions() {
+		buttons.forEach(Button::invalidateCachedIcon);
 		editorSessions.values().forEach(editorSession -> {
 			this.updateButtons(editorSession);
-			editorSession.updateInventory();
+			// Only sessions whose icons changed need to be updated:
+			editorSession.updateInventoryIfChanged();
 		});
 	}
 
 	// Also used to refresh all button icons in an already open inventory.
 	protected void setupButtons(EditorSession editorSession) {
 		Inventory inventory = editorSession.getInventory();
+		InventoryShadow inventoryShadow = editorSession.getInventoryShadow();
 		final int inventorySize = inventory.getSize();
 		@Nullable Button[] buttons = this.getBakedButtons();
 		for (int buttonIndex = 0; buttonIndex < buttons.length; ++buttonIndex) {
@@ -726,20 +743,21 @@ public abstract class AbstractEditorHandler extends UIHandler {
 			ItemStack icon = null;
 			Button button = buttons[buttonIndex];
 			if (button != null) {
-				icon = button.getIcon(editorSession);
+				icon = button.getIconCached(editorSession);
 			}
 			// Null will clear the slot (which is required if this is called to refresh the buttons
-			// in an already set up inventory):
-			inventory.setItem(slot, icon);
+			// in an already set up inventory). Slots whose icons did not change are not updated.
+			inventoryShadow.setItem(slot, icon);
 		}
 	}
 
 	void updateButtonInAllSessions(Button button) {
 		int slot = button.getSlot();
 		editorSessions.values().forEach(editorSession -> {
-			ItemStack icon = button.getIcon(editorSession);
-			editorSession.getInventory().setItem(slot, icon);
-			editorSession.updateInventory();
+			ItemStack icon = button.getIconCached(editorSession);
+			editorSession.getInventoryShadow().setItem(slot, icon);
+			// Only sessions whose icons changed need to be updated:
+			editorSession.updateInventoryIfChanged();
 		});
 	}
 
@@ -20,6 +20,11 @@ public abstract class Button {
 	private @Nullable AbstractEditorHandler editorHandler;
 	private int slot = NO_SLOT;
 
+	// Only used if the icon is shared by all editor sessions:
+	private @Nullable ItemStack cachedIcon = null;
+	private boolean iconCached = false;
+	private int cachedIconVersion = 0;
+
 	public Button() {
 		this(false);
 	}
@@ -59,10 +64,58 @@ public abstract class Button {
 
 	public abstract @Nullable ItemStack getIcon(EditorSession editorSession);
 
+	/**
+	 * Checks whether the {@link #getIcon(EditorSession) icon} of this button is the same for all
+	 * editor sessions, i.e. whether it does not depend on the given {@link EditorSession}.
+	 * <p>
+	 * Shared icons are only created once and then reused for all editor sessions until the icon
+	 * is {@link #updateIcon() updated}, until the {@link #getIconVersion() icon version} changes,
+	 * or until an editor is opened. The returned icon is expected to not be modified afterwards.
+	 * 
+	 * @return <code>true</code> if the icon is shared by all editor sessions
+	 */
+	protected boolean isSharedIcon() {
+		return false;
+	}
+
+	/**
+	 * Gets the current version of the state that the {@link #isSharedIcon() shared icon} of this
+	 * button depends on.
+	 * <p>
+	 * The shared icon is recreated whenever this version changes. This accounts for state changes
+	 * that do not {@link #updateIcon() update} the icon, for example changes via the API or via
+	 * commands.
+	 * 
+	 * @return the icon version
+	 */
+	protected int getIconVersion() {
+		return 0;
+	}
+
+	// Uses the cached icon if the icon is shared by all sessions.
+	final @Nullable ItemStack getIconCached(EditorSession editorSession) {
+		if (!this.isSharedIcon()) {
+			return this.getIcon(editorSession);
+		}
+		int iconVersion = this.getIconVersion();
+		if (!iconCached || cachedIconVersion != iconVersion) {
+			cachedIcon = this.getIcon(editorSession);
+			cachedIconVersion = iconVersion;
+			iconCached = true;
+		}
+		return cachedIcon;
+	}
+
+	final void invalidateCachedIcon() {
+		cachedIcon = null;
+		iconCached = false;
+	}
+
 	// Updates the icon in all sessions.
 	// Note: Cannot deal with changes to the registered buttons (the button's slot) while the
 	// inventory is open.
 	protected final void updateIcon() {
+		this.invalidateCachedIcon();
 		if (slot != NO_SLOT && editorHandler != null) {
 			editorHandler.updateButtonInAllSessions(this);
 		}
@@ -13,6 +13,8 @@ import com.nisovin.shopkeepers.SKShopkeepersPlugin;
 import com.nisovin.shopkeepers.api.events.PlayerDeleteShopkeeperEvent;
 import com.nisovin.shopkeepers.api.events.ShopkeeperEditedEvent;
 import com.nisovin.shopkeepers.api.shopkeeper.ShopType;
+import com.nisovin.shopkeepers.api.shopkeeper.TradeStatistics;
+import com.nisovin.shopkeepers.api.shopkeeper.TradeStatistics.Period;
 import com.nisovin.shopkeepers.api.shopkeeper.player.PlayerShopType;
 import com.nisovin.shopkeepers.api.shopobjects.DefaultShopObjectTypes;
 import com.nisovin.shopkeepers.config.Settings;
@@ -97,6 +99,7 @@ public abstract class EditorHandler extends AbstractEditorHandler implements Sho
 		this.addButtonOrIgnore(this.createDeleteButton());
 		this.addButtonOrIgnore(this.createNamingButton());
 		this.addButtonOrIgnore(this.createMoveButton());
+		this.addButtonOrIgnore(this.createTradeStatisticsButton());
 	}
 
 	protected void setupShopObjectButtons() {
@@ -242,6 +245,37 @@ public abstract class EditorHandler extends AbstractEditorHandler implements Sho
 		};
 	}
 
+	protected @Nullable Button createTradeStatisticsButton() {
+		return new ActionButton() {
+			@Override
+			public @Nullable ItemStack getIcon(EditorSession editorSession) {
+				TradeStatistics statistics = shopkeeper.getTradeStatistics();
+				ItemStack iconItem = Settings.tradeStatisticsItem.createItemStack();
+				List<? extends @NonNull String> lore = StringUtils.replaceArguments(
+						Messages.buttonTradeStatisticsLore,
+						"hourTrades", statistics.getTrades(Period.LAST_HOUR),
+						"dayTrades", statistics.getTrades(Period.LAST_DAY),
+						"weekTrades", statistics.getTrades(Period.LAST_WEEK),
+						"totalTrades", statistics.getTrades(Period.ALL_TIME),
+						"totalItemsSold", statistics.getItemsSold(Period.ALL_TIME),
+						"totalItemsBought", statistics.getItemsBought(Period.ALL_TIME),
+						"totalCurrencyVolume", statistics.getCurrencyVolume(Period.ALL_TIME)
+				);
+				ItemUtils.setDisplayNameAndLore(iconItem, Messages.buttonTradeStatistics, lore);
+				return iconItem;
+			}
+
+			@Override
+			protected boolean runAction(
+					EditorSession editorSession,
+					InventoryClickEvent clickEvent
+			) {
+				// Updates the icon with the current statistics:
+				return true;
+			}
+		};
+	}
+
 	@Override
 	protected void saveRecipes(EditorSession editorSession) {
 		// UI sessions are aborted (i.e. not saved) when the shopkeeper is removed:
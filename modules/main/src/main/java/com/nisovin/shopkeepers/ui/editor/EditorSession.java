@@ -18,6 +18,7 @@ public class EditorSession {
 	private final UISession uiSession;
 	private final List<@NonNull TradingRecipeDraft> recipes;
 	private final Inventory inventory;
+	private final InventoryShadow inventoryShadow;
 	private int currentPage = 1;
 
 	protected EditorSession(
@@ -31,6 +32,7 @@ public class EditorSession {
 		this.uiSession = uiSession;
 		this.recipes = recipes;
 		this.inventory = inventory;
+		this.inventoryShadow = new InventoryShadow(inventory);
 	}
 
 	public final UISession getUISession() {
@@ -46,9 +48,22 @@ public class EditorSession {
 	}
 
 	public final void updateInventory() {
+		inventoryShadow.resetChanged();
 		this.getPlayer().updateInventory();
 	}
 
+	final InventoryShadow getInventoryShadow() {
+		return inventoryShadow;
+	}
+
+	// Only updates the player's inventory view if the editor changed any slots since the last
+	// update.
+	final void updateInventoryIfChanged() {
+		if (inventoryShadow.isChanged()) {
+			this.updateInventory();
+		}
+	}
+
 	// Starts at 1.
 	public final int getCurrentPage() {
 		return currentPage;
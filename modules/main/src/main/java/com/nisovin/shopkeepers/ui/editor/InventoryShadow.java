@@ -0,0 +1,112 @@
+package com.nisovin.shopkeepers.ui.editor;
+
+import java.util.Objects;
+
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.util.annotations.ReadOnly;
+import com.nisovin.shopkeepers.util.inventory.ItemUtils;
+import com.nisovin.shopkeepers.util.java.Validate;
+
+/**
+ * Only updates the slots of an editor inventory whose items actually changed.
+ * <p>
+ * Each {@link Inventory#setItem(int, ItemStack)} copies the item and results in a slot update
+ * packet for the viewing player. Since the editor frequently refreshes its whole layout even if
+ * only a few icons changed (e.g. when switching pages, or when a button updates the icons in all
+ * sessions), this compares the new items with the current slot contents first.
+ * <p>
+ * For slots that only the editor itself modifies, such as the trades page bar and the buttons, the
+ * items that the editor has last set are remembered in a shadow copy of these slots. For slots
+ * that players can modify, such as the trades area, {@link #setItemIfChanged(Inventory, int,
+ * ItemStack)} compares the new items with the current inventory contents instead.
+ * <p>
+ * The remembered items are not copied and are therefore expected to not be modified afterwards.
+ */
+final class InventoryShadow {
+
+	private final Inventory inventory;
+	// The items that the editor has last set, by slot:
+	private final @Nullable ItemStack[] items;
+	// Whether the remembered item of a slot is known to match the slot's current contents:
+	private final boolean[] known;
+	// Whether any slot has been updated since the last reset:
+	private boolean changed = false;
+
+	InventoryShadow(Inventory inventory) {
+		Validate.notNull(inventory, "inventory is null");
+		this.inventory = inventory;
+		int size = inventory.getSize();
+		this.items = new @Nullable ItemStack[size];
+		this.known = new boolean[size];
+	}
+
+	/**
+	 * Sets the item of a slot that only the editor modifies, unless the editor has already set an
+	 * equal item in this slot.
+	 * 
+	 * @param slot
+	 *            the slot
+	 * @param item
+	 *            the item, or <code>null</code> to clear the slot
+	 * @return <code>true</code> if the slot has been updated
+	 */
+	boolean setItem(int slot, @ReadOnly @Nullable ItemStack item) {
+		ItemStack newItem = ItemUtils.getNullIfEmpty(item);
+		if (known[slot] && Objects.equals(items[slot], newItem)) return false;
+
+		inventory.setItem(slot, newItem);
+		items[slot] = newItem;
+		known[slot] = true;
+		changed = true;
+		return true;
+	}
+
+	/**
+	 * Sets the item of a slot that players are able to modify, unless the slot already contains an
+	 * equal item.
+	 * <p>
+	 * This compares the item with the current slot contents, and does not use or update any
+	 * shadow copy.
+	 * 
+	 * @param inventory
+	 *            the inventory, not <code>null</code>
+	 * @param slot
+	 *            the slot
+	 * @param item
+	 *            the item, or <code>null</code> to clear the slot
+	 * @return <code>true</code> if the slot has been updated
+	 */
+	static boolean setItemIfChanged(
+			Inventory inventory,
+			int slot,
+			@ReadOnly @Nullable ItemStack item
+	) {
+		ItemStack newItem = ItemUtils.getNullIfEmpty(item);
+		ItemStack currentItem = ItemUtils.getNullIfEmpty(inventory.getItem(slot));
+		if (Objects.equals(currentItem, newItem)) return false;
+
+		inventory.setItem(slot, newItem);
+		return true;
+	}
+
+	/**
+	 * Checks whether any slot has been updated via {@link #setItem(int, ItemStack)} since the last
+	 * {@link #resetChanged() reset}.
+	 * 
+	 * @return <code>true</code> if any slot has been updated
+	 */
+	boolean isChanged() {
+		return changed;
+	}
+
+	/**
+	 * Resets the {@link #isChanged() changed} state, for example after the inventory contents have
+	 * been sent to the player.
+	 */
+	void resetChanged() {
+		changed = false;
+	}
+}
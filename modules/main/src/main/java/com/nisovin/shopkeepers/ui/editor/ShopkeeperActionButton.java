@@ -7,6 +7,7 @@ import org.bukkit.event.inventory.InventoryClickEvent;
 import com.nisovin.shopkeepers.api.events.ShopkeeperEditedEvent;
 import com.nisovin.shopkeepers.api.internal.util.Unsafe;
 import com.nisovin.shopkeepers.api.shopkeeper.Shopkeeper;
+import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
 import com.nisovin.shopkeepers.util.java.Validate;
 
 /**
@@ -24,6 +25,18 @@ public abstract class ShopkeeperActionButton extends ActionButton {
 		super(placeAtEnd);
 	}
 
+	// The icons of shopkeeper action buttons usually only depend on the shopkeeper's data, and are
+	// recreated whenever the shopkeeper's data changes.
+	@Override
+	protected boolean isSharedIcon() {
+		return true;
+	}
+
+	@Override
+	protected int getIconVersion() {
+		return ((AbstractShopkeeper) this.getShopkeeper()).getDataVersion();
+	}
+
 	@Override
 	protected boolean isApplicable(AbstractEditorHandler editorHandler) {
 		return super.isApplicable(editorHandler) && (editorHandler instanceof EditorHandler);
@@ -44,6 +44,7 @@ import com.nisovin.shopkeepers.currency.Currency;
 import com.nisovin.shopkeepers.debug.Debug;
 import com.nisovin.shopkeepers.debug.DebugOptions;
 import com.nisovin.shopkeepers.lang.Messages;
+import com.nisovin.shopkeepers.metrics.InternalMetrics;
 import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
 import com.nisovin.shopkeepers.ui.AbstractShopkeeperUIHandler;
 import com.nisovin.shopkeepers.ui.AbstractUIType;
@@ -76,6 +77,12 @@ public class TradingHandler extends AbstractShopkeeperUIHandler {
 
     private final List<@NonNull TradingListener> tradingListeners = new ArrayList<>();
 
+    // The merchant recipes that were last created for the shopkeeper's trading recipes. Only valid
+    // as long as the shopkeeper returns the same trading recipes list and its data is not changed.
+    private @Nullable List<? extends @NonNull TradingRecipe> cachedRecipes = null;
+    private int cachedRecipesVersion = 0;
+    private List<? extends @NonNull MerchantRecipe> cachedMerchantRecipes = Collections.emptyList();
+
     public TradingHandler(AbstractUIType uiType, AbstractShopkeeper shopkeeper) {
         super(uiType, shopkeeper);
     }
@@ -174,14 +181,27 @@ public class TradingHandler extends AbstractShopkeeperUIHandler {
         merchant.setRecipes(Unsafe.cast(merchantRecipes));
     }
 
+    // Returns a new list that can be modified by the caller. However, the contained merchant
+    // recipes might be reused and are not supposed to be modified.
     protected List<@NonNull MerchantRecipe> createMerchantRecipes(
             List<? extends @NonNull TradingRecipe> recipes
     ) {
-        List<@NonNull MerchantRecipe> merchantRecipes = new ArrayList<>();
-        for (TradingRecipe recipe : recipes) {
-            merchantRecipes.add(this.createMerchantRecipe(recipe));
+        // Admin shopkeepers return the same trading recipes list for as long as their offers don't
+        // change, and player shopkeepers cache their trading recipes for as long as their offers
+        // and stock state don't change. Since trading recipes are immutable, we can then reuse the
+        // previously created merchant recipes. Bukkit copies the merchant recipes when they are
+        // set on the merchant.
+        int recipesVersion = this.getShopkeeper().getDataVersion();
+        if (recipes != cachedRecipes || recipesVersion != cachedRecipesVersion) {
+            List<@NonNull MerchantRecipe> merchantRecipes = new ArrayList<>(recipes.size());
+            for (TradingRecipe recipe : recipes) {
+                merchantRecipes.add(this.createMerchantRecipe(recipe));
+            }
+            cachedRecipes = recipes;
+            cachedRecipesVersion = recipesVersion;
+            cachedMerchantRecipes = merchantRecipes;
         }
-        return merchantRecipes;
+        return new ArrayList<>(cachedMerchantRecipes);
     }
 
     protected MerchantRecipe createMerchantRecipe(TradingRecipe recipe) {
@@ -905,6 +925,8 @@ public class TradingHandler extends AbstractShopkeeperUIHandler {
     }
 
     private void commonApplyTrade(Trade trade) {
+        InternalMetrics.TRADES.increment();
+
         // Update merchant inventory contents:
         MerchantInventory merchantInventory = trade.getMerchantInventory();
         merchantInventory.setItem(RESULT_ITEM_SLOT_ID, null); // Clear result slot, just in case
@@ -0,0 +1,64 @@
+package com.nisovin.shopkeepers.util.bukkit;
+
+import com.nisovin.shopkeepers.api.util.ChunkCoords;
+
+/**
+ * Utilities for packing chunk coordinates into a single {@code long} key.
+ * <p>
+ * Unlike {@link ChunkCoords}, these keys do not include the world, so they are only unique within
+ * a single world. They are meant to be used as keys of primitive maps, such as
+ * {@link WorldChunkMap}, that store chunk data per world.
+ */
+public final class ChunkKeys {
+
+	/**
+	 * Packs the given chunk coordinates into a single {@code long} key.
+	 * 
+	 * @param chunkX
+	 *            the chunk's x coordinate
+	 * @param chunkZ
+	 *            the chunk's z coordinate
+	 * @return the chunk key
+	 */
+	public static long of(int chunkX, int chunkZ) {
+		return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Packs the chunk coordinates of the given {@link ChunkCoords} into a single {@code long} key.
+	 * <p>
+	 * The world of the given {@link ChunkCoords} is ignored.
+	 * 
+	 * @param chunkCoords
+	 *            the chunk coordinates, not <code>null</code>
+	 * @return the chunk key
+	 */
+	public static long of(ChunkCoords chunkCoords) {
+		return of(chunkCoords.getChunkX(), chunkCoords.getChunkZ());
+	}
+
+	/**
+	 * Gets the chunk's x coordinate from the given chunk key.
+	 * 
+	 * @param chunkKey
+	 *            the chunk key
+	 * @return the chunk's x coordinate
+	 */
+	public static int getChunkX(long chunkKey) {
+		return (int) (chunkKey >> 32);
+	}
+
+	/**
+	 * Gets the chunk's z coordinate from the given chunk key.
+	 * 
+	 * @param chunkKey
+	 *            the chunk key
+	 * @return the chunk's z coordinate
+	 */
+	public static int getChunkZ(long chunkKey) {
+		return (int) chunkKey;
+	}
+
+	private ChunkKeys() {
+	}
+}
@@ -0,0 +1,353 @@
+package com.nisovin.shopkeepers.util.bukkit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.function.ToLongFunction;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import com.nisovin.shopkeepers.util.java.LongHashMap;
+import com.nisovin.shopkeepers.util.java.Validate;
+
+/**
+ * A coarse spatial index of per-chunk entries inside a single world.
+ * <p>
+ * The chunk entries are grouped into square regions of {@link #REGION_SIZE_CHUNKS} x
+ * {@link #REGION_SIZE_CHUNKS} chunks, similar to Minecraft's region files. Area queries only need
+ * to look up the regions that overlap the queried area, and then only inspect the chunk entries
+ * inside these regions. For sparsely populated worlds, this is a lot cheaper than checking each
+ * chunk inside the queried area, and for large worlds it is a lot cheaper than checking all chunk
+ * entries of the world.
+ * <p>
+ * Not thread-safe.
+ * 
+ * @param <C>
+ *            the type of the chunk entries
+ */
+public final class ChunkRegionGrid<C> {
+
+	private static final int REGION_SHIFT = 5;
+	/**
+	 * The width and length of a region, in chunks.
+	 */
+	public static final int REGION_SIZE_CHUNKS = 1 << REGION_SHIFT;
+	/**
+	 * The width and length of a region, in blocks.
+	 */
+	public static final int REGION_SIZE_BLOCKS = REGION_SIZE_CHUNKS << 4;
+
+	/**
+	 * Gets the minimum horizontal distance between a block inside the region at the origin and any
+	 * block inside a region of the specified ring around the origin region.
+	 * 
+	 * @param ring
+	 *            the ring, i.e. the Chebyshev distance between the regions, in regions
+	 * @return the minimum horizontal block distance
+	 * @see #forEachInRings(int, int, IntPredicate, Consumer)
+	 */
+	public static int getMinBlockDistance(int ring) {
+		// The block inside the origin region can be located right at the region's border:
+		return Math.max(0, ring - 1) * REGION_SIZE_BLOCKS;
+	}
+
+	private final ToLongFunction<? super @NonNull C> chunkKeyFunction;
+	// Keyed by the packed region coordinates:
+	private final LongHashMap<@NonNull List<@NonNull C>> regions = new LongHashMap<>();
+	private int size = 0;
+
+	/**
+	 * Creates a new and empty {@link ChunkRegionGrid}.
+	 * 
+	 * @param chunkKeyFunction
+	 *            provides the {@link ChunkKeys chunk key} of a chunk entry, not <code>null</code>.
+	 *            The chunk key of a chunk entry is expected to not change while the chunk entry is
+	 *            contained in this grid.
+	 */
+	public ChunkRegionGrid(ToLongFunction<? super @NonNull C> chunkKeyFunction) {
+		Validate.notNull(chunkKeyFunction, "chunkKeyFunction is null");
+		this.chunkKeyFunction = chunkKeyFunction;
+	}
+
+	private static long getRegionKey(long chunkKey) {
+		return ChunkKeys.of(
+				ChunkKeys.getChunkX(chunkKey) >> REGION_SHIFT,
+				ChunkKeys.getChunkZ(chunkKey) >> REGION_SHIFT
+		);
+	}
+
+	/**
+	 * Gets the number of chunk entries.
+	 * 
+	 * @return the number of chunk entries
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks if this grid is empty.
+	 * 
+	 * @return <code>true</code> if this grid is empty
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Gets the number of non-empty regions.
+	 * 
+	 * @return the number of non-empty regions
+	 */
+	public int getRegionCount() {
+		return regions.size();
+	}
+
+	/**
+	 * Adds the given chunk entry.
+	 * <p>
+	 * The chunk entry is expected to not already be contained.
+	 * 
+	 * @param chunkEntry
+	 *            the chunk entry, not <code>null</code>
+	 */
+	public void add(@NonNull C chunkEntry) {
+		Validate.notNull(chunkEntry, "chunkEntry is null");
+		long regionKey = getRegionKey(chunkKeyFunction.applyAsLong(chunkEntry));
+		regions.computeIfAbsent(regionKey, key -> new ArrayList<>()).add(chunkEntry);
+		size++;
+	}
+
+	/**
+	 * Removes the given chunk entry.
+	 * 
+	 * @param chunkEntry
+	 *            the chunk entry, not <code>null</code>
+	 * @return <code>true</code> if the chunk entry was contained
+	 */
+	public boolean remove(@NonNull C chunkEntry) {
+		Validate.notNull(chunkEntry, "chunkEntry is null");
+		long regionKey = getRegionKey(chunkKeyFunction.applyAsLong(chunkEntry));
+		List<@NonNull C> region = regions.get(regionKey);
+		if (region == null || !region.remove(chunkEntry)) return false;
+		if (region.isEmpty()) {
+			regions.remove(regionKey);
+		}
+		size--;
+		return true;
+	}
+
+	/**
+	 * Removes all chunk entries.
+	 */
+	public void clear() {
+		regions.clear();
+		size = 0;
+	}
+
+	/**
+	 * Invokes the given action for each chunk entry inside the specified (inclusive) range of
+	 * chunks.
+	 * 
+	 * @param minChunkX
+	 *            the minimum chunk x coordinate
+	 * @param minChunkZ
+	 *            the minimum chunk z coordinate
+	 * @param maxChunkX
+	 *            the maximum chunk x coordinate
+	 * @param maxChunkZ
+	 *            the maximum chunk z coordinate
+	 * @param action
+	 *            the action, not <code>null</code>
+	 */
+	public void forEachInChunkRange(
+			int minChunkX,
+			int minChunkZ,
+			int maxChunkX,
+			int maxChunkZ,
+			Consumer<? super @NonNull C> action
+	) {
+		Validate.notNull(action, "action is null");
+		if (minChunkX > maxChunkX || minChunkZ > maxChunkZ) return; // Empty range
+		if (this.isEmpty()) return;
+
+		int minRegionX = minChunkX >> REGION_SHIFT;
+		int minRegionZ = minChunkZ >> REGION_SHIFT;
+		int maxRegionX = maxChunkX >> REGION_SHIFT;
+		int maxRegionZ = maxChunkZ >> REGION_SHIFT;
+		long rangeRegionCount = ((long) maxRegionX - minRegionX + 1)
+				* ((long) maxRegionZ - minRegionZ + 1);
+		if (rangeRegionCount > regions.size()) {
+			// Checking all regions is cheaper than looking up each region inside the range:
+			regions.forEachValue(region -> {
+				this.forEachInChunkRange(
+						region,
+						minChunkX,
+						minChunkZ,
+						maxChunkX,
+						maxChunkZ,
+						action
+				);
+			});
+			return;
+		}
+
+		for (int regionX = minRegionX; regionX <= maxRegionX; regionX++) {
+			for (int regionZ = minRegionZ; regionZ <= maxRegionZ; regionZ++) {
+				List<@NonNull C> region = regions.get(ChunkKeys.of(regionX, regionZ));
+				if (region == null) continue;
+				this.forEachInChunkRange(
+						region,
+						minChunkX,
+						minChunkZ,
+						maxChunkX,
+						maxChunkZ,
+						action
+				);
+			}
+		}
+	}
+
+	private void forEachInChunkRange(
+			List<@NonNull C> region,
+			int minChunkX,
+			int minChunkZ,
+			int maxChunkX,
+			int maxChunkZ,
+			Consumer<? super @NonNull C> action
+	) {
+		for (C chunkEntry : region) {
+			long chunkKey = chunkKeyFunction.applyAsLong(chunkEntry);
+			int chunkX = ChunkKeys.getChunkX(chunkKey);
+			int chunkZ = ChunkKeys.getChunkZ(chunkKey);
+			if (chunkX < minChunkX || chunkX > maxChunkX) continue;
+			if (chunkZ < minChunkZ || chunkZ > maxChunkZ) continue;
+			action.accept(chunkEntry);
+		}
+	}
+
+	/**
+	 * Invokes the given action for the chunk entries in rings of regions of increasing distance
+	 * around the region that contains the specified block.
+	 * <p>
+	 * Ring <code>0</code> consists of the region that contains the specified block, and ring
+	 * <code>r</code> consists of the regions whose Chebyshev distance to this region is
+	 * <code>r</code>. Before the chunk entries of a ring are visited, the given predicate is
+	 * invoked with the ring's distance. The iteration stops once the predicate returns
+	 * <code>false</code>, or once the chunk entries of all regions have been visited.
+	 * {@link #getMinBlockDistance(int)} can be used to determine a lower bound for the distance of
+	 * the chunk entries inside a ring.
+	 * <p>
+	 * This can be used to search for the entries closest to a certain position, with an early exit
+	 * once all remaining entries are known to be further away than the entries found so far.
+	 * 
+	 * @param blockX
+	 *            the block x coordinate
+	 * @param blockZ
+	 *            the block z coordinate
+	 * @param continueWithRing
+	 *            invoked with the distance of the next ring, returns <code>false</code> to stop
+	 *            the iteration, not <code>null</code>
+	 * @param action
+	 *            the action, not <code>null</code>
+	 */
+	public void forEachInRings(
+			int blockX,
+			int blockZ,
+			IntPredicate continueWithRing,
+			Consumer<? super @NonNull C> action
+	) {
+		Validate.notNull(continueWithRing, "continueWithRing is null");
+		Validate.notNull(action, "action is null");
+		int centerRegionX = blockX >> (REGION_SHIFT + 4);
+		int centerRegionZ = blockZ >> (REGION_SHIFT + 4);
+
+		int remainingRegions = regions.size();
+		for (int ring = 0; remainingRegions > 0; ring++) {
+			if (!continueWithRing.test(ring)) return;
+
+			if (ring > 0 && 8L * ring > remainingRegions) {
+				// Looking up each region of the remaining rings is more expensive than checking
+				// all regions. We visit all remaining regions ordered by their ring distance.
+				this.forEachInRemainingRings(
+						centerRegionX,
+						centerRegionZ,
+						ring,
+						continueWithRing,
+						action
+				);
+				return;
+			}
+
+			if (ring == 0) {
+				remainingRegions -= this.visitRegion(centerRegionX, centerRegionZ, action);
+				continue;
+			}
+
+			int minX = centerRegionX - ring;
+			int minZ = centerRegionZ - ring;
+			int maxX = centerRegionX + ring;
+			int maxZ = centerRegionZ + ring;
+			for (int regionX = minX; regionX <= maxX; regionX++) {
+				remainingRegions -= this.visitRegion(regionX, minZ, action);
+				remainingRegions -= this.visitRegion(regionX, maxZ, action);
+			}
+			for (int regionZ = minZ + 1; regionZ < maxZ; regionZ++) {
+				remainingRegions -= this.visitRegion(minX, regionZ, action);
+				remainingRegions -= this.visitRegion(maxX, regionZ, action);
+			}
+		}
+	}
+
+	// Returns 1 if the region exists, and 0 otherwise.
+	private int visitRegion(int regionX, int regionZ, Consumer<? super @NonNull C> action) {
+		List<@NonNull C> region = regions.get(ChunkKeys.of(regionX, regionZ));
+		if (region == null) return 0;
+		region.forEach(action);
+		return 1;
+	}
+
+	private void forEachInRemainingRings(
+			int centerRegionX,
+			int centerRegionZ,
+			int firstRing,
+			IntPredicate continueWithRing,
+			Consumer<? super @NonNull C> action
+	) {
+		// Sort the remaining regions by their ring distance:
+		List<@NonNull RegionEntry<C>> remainingRegions = new ArrayList<>();
+		for (List<@NonNull C> region : regions.values()) {
+			long chunkKey = chunkKeyFunction.applyAsLong(region.get(0));
+			int regionX = ChunkKeys.getChunkX(chunkKey) >> REGION_SHIFT;
+			int regionZ = ChunkKeys.getChunkZ(chunkKey) >> REGION_SHIFT;
+			int ring = Math.max(
+					Math.abs(regionX - centerRegionX),
+					Math.abs(regionZ - centerRegionZ)
+			);
+			if (ring < firstRing) continue; // Already visited
+			remainingRegions.add(new RegionEntry<>(ring, region));
+		}
+		remainingRegions.sort((a, b) -> Integer.compare(a.ring, b.ring));
+
+		int currentRing = firstRing;
+		for (RegionEntry<C> regionEntry : remainingRegions) {
+			if (regionEntry.ring != currentRing) {
+				currentRing = regionEntry.ring;
+				if (!continueWithRing.test(currentRing)) return;
+			}
+			regionEntry.region.forEach(action);
+		}
+	}
+
+	private static final class RegionEntry<C> {
+
+		final int ring;
+		final List<@NonNull C> region;
+
+		RegionEntry(int ring, List<@NonNull C> region) {
+			this.ring = ring;
+			this.region = region;
+		}
+	}
+}
@@ -26,7 +26,9 @@ import com.nisovin.shopkeepers.api.util.ChunkCoords;
 import com.nisovin.shopkeepers.api.util.UnmodifiableItemStack;
 import com.nisovin.shopkeepers.compat.NMSManager;
 import com.nisovin.shopkeepers.spigot.text.SpigotText;
+import com.nisovin.shopkeepers.text.FormattedMessage;
 import com.nisovin.shopkeepers.text.HoverEventText;
+import com.nisovin.shopkeepers.text.MessageTemplate;
 import com.nisovin.shopkeepers.text.Text;
 import com.nisovin.shopkeepers.text.TextBuilder;
 import com.nisovin.shopkeepers.util.annotations.ReadOnly;
@@ -517,6 +519,13 @@ public final class TextUtils {
 		SpigotText.sendMessage(recipient, message);
 	}
 
+	public static void sendMessage(CommandSender recipient, FormattedMessage message) {
+		SpigotText.sendMessage(recipient, message);
+	}
+
+	// Messages that have been compiled into a MessageTemplate are formatted without modifying the
+	// given Text. Other Texts are assigned the arguments and then sent.
+
 	public static void sendMessage(
 			CommandSender recipient,
 			Text message,
@@ -524,6 +533,12 @@ public final class TextUtils {
 	) {
 		Validate.notNull(recipient, "recipient is null");
 		Validate.notNull(message, "message is null");
+		MessageTemplate template = MessageTemplate.getCompiled(message);
+		if (template != null) {
+			sendMessage(recipient, template.format(arguments));
+			return;
+		}
+
 		// Assign arguments and then send:
 		message.setPlaceholderArguments(arguments);
 		sendMessage(recipient, message);
@@ -536,6 +551,12 @@ public final class TextUtils {
 	) {
 		Validate.notNull(recipient, "recipient is null");
 		Validate.notNull(message, "message is null");
+		MessageTemplate template = MessageTemplate.getCompiled(message);
+		if (template != null) {
+			sendMessage(recipient, template.format(arguments));
+			return;
+		}
+
 		// Assign arguments and then send:
 		message.setPlaceholderArguments(arguments);
 		sendMessage(recipient, message);
@@ -548,6 +569,12 @@ public final class TextUtils {
 	) {
 		Validate.notNull(recipient, "recipient is null");
 		Validate.notNull(message, "message is null");
+		MessageTemplate template = MessageTemplate.getCompiled(message);
+		if (template != null) {
+			sendMessage(recipient, template.format(argumentPairs));
+			return;
+		}
+
 		// Assign arguments and then send:
 		message.setPlaceholderArguments(argumentPairs);
 		sendMessage(recipient, message);
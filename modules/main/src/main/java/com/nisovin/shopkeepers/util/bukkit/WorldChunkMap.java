@@ -0,0 +1,217 @@
+package com.nisovin.shopkeepers.util.bukkit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.bukkit.Chunk;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.api.util.ChunkCoords;
+import com.nisovin.shopkeepers.util.java.LongHashMap;
+import com.nisovin.shopkeepers.util.java.Validate;
+
+/**
+ * Maps chunks to values, without allocating any objects for lookups.
+ * <p>
+ * The entries are stored per world, indexed by the {@link WorldIds interned world id}, inside
+ * {@link LongHashMap}s that are keyed by the {@link ChunkKeys packed chunk coordinates}. Unlike a
+ * {@link java.util.Map} with {@link ChunkCoords} keys, lookups neither hash nor compare world names,
+ * and do not require a (shared) mutable {@link ChunkCoords} instance.
+ * <p>
+ * Not thread-safe.
+ *
+ * @param <V>
+ *            the value type
+ */
+public final class WorldChunkMap<V> {
+
+	// Indexed by world id. Null if there are no entries for the world:
+	private final List<@Nullable LongHashMap<@NonNull V>> worlds = new ArrayList<>();
+	private int size = 0;
+
+	/**
+	 * Creates a new and empty {@link WorldChunkMap}.
+	 */
+	public WorldChunkMap() {
+	}
+
+	/**
+	 * Gets the number of entries across all worlds.
+	 *
+	 * @return the number of entries
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks if this map is empty.
+	 *
+	 * @return <code>true</code> if this map is empty
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Gets the entries of the specified world.
+	 * <p>
+	 * This can be used to efficiently perform many lookups within the same world, e.g. when
+	 * iterating the chunks around a player. The returned map is not supposed to be modified.
+	 *
+	 * @param worldName
+	 *            the world name
+	 * @return the world's entries, or <code>null</code> if there are no entries for the world
+	 */
+	public @Nullable LongHashMap<@NonNull V> getWorld(String worldName) {
+		int worldId = WorldIds.getId(worldName);
+		if (worldId == WorldIds.UNKNOWN || worldId >= worlds.size()) return null;
+		return worlds.get(worldId);
+	}
+
+	/**
+	 * Gets the value of the specified chunk.
+	 *
+	 * @param worldName
+	 *            the world name
+	 * @param chunkX
+	 *            the chunk's x coordinate
+	 * @param chunkZ
+	 *            the chunk's z coordinate
+	 * @return the value, or <code>null</code> if there is no entry for the chunk
+	 */
+	public @Nullable V get(String worldName, int chunkX, int chunkZ) {
+		LongHashMap<@NonNull V> worldEntries = this.getWorld(worldName);
+		if (worldEntries == null) return null;
+		return worldEntries.get(ChunkKeys.of(chunkX, chunkZ));
+	}
+
+	/**
+	 * Gets the value of the specified chunk.
+	 *
+	 * @param chunkCoords
+	 *            the chunk coordinates, not <code>null</code>
+	 * @return the value, or <code>null</code> if there is no entry for the chunk
+	 */
+	public @Nullable V get(ChunkCoords chunkCoords) {
+		return this.get(chunkCoords.getWorldName(), chunkCoords.getChunkX(), chunkCoords.getChunkZ());
+	}
+
+	/**
+	 * Gets the value of the given chunk.
+	 *
+	 * @param chunk
+	 *            the chunk, not <code>null</code>
+	 * @return the value, or <code>null</code> if there is no entry for the chunk
+	 */
+	public @Nullable V get(Chunk chunk) {
+		return this.get(chunk.getWorld().getName(), chunk.getX(), chunk.getZ());
+	}
+
+	private LongHashMap<@NonNull V> getOrCreateWorld(String worldName) {
+		int worldId = WorldIds.getOrCreateId(worldName);
+		while (worlds.size() <= worldId) {
+			worlds.add(null);
+		}
+		LongHashMap<@NonNull V> worldEntries = worlds.get(worldId);
+		if (worldEntries == null) {
+			worldEntries = new LongHashMap<>();
+			worlds.set(worldId, worldEntries);
+		}
+		return worldEntries;
+	}
+
+	/**
+	 * Gets the value of the specified chunk, or creates, inserts and returns a new value if there
+	 * is no entry for the chunk yet.
+	 *
+	 * @param chunkCoords
+	 *            the chunk coordinates, not <code>null</code>
+	 * @param valueFunction
+	 *            the function that creates the new value, not <code>null</code>
+	 * @return the existing or newly created value, not <code>null</code>
+	 */
+	public V computeIfAbsent(
+			ChunkCoords chunkCoords,
+			Function<? super @NonNull ChunkCoords, ? extends @NonNull V> valueFunction
+	) {
+		Validate.notNull(chunkCoords, "chunkCoords is null");
+		Validate.notNull(valueFunction, "valueFunction is null");
+		LongHashMap<@NonNull V> worldEntries = this.getOrCreateWorld(chunkCoords.getWorldName());
+		int previousSize = worldEntries.size();
+		V value = worldEntries.computeIfAbsent(
+				ChunkKeys.of(chunkCoords),
+				chunkKey -> valueFunction.apply(chunkCoords)
+		);
+		size += (worldEntries.size() - previousSize);
+		return value;
+	}
+
+	/**
+	 * Maps the given value to the specified chunk.
+	 *
+	 * @param chunkCoords
+	 *            the chunk coordinates, not <code>null</code>
+	 * @param value
+	 *            the value, not <code>null</code>
+	 * @return the previous value, or <code>null</code> if there was no entry for the chunk
+	 */
+	public @Nullable V put(ChunkCoords chunkCoords, V value) {
+		Validate.notNull(chunkCoords, "chunkCoords is null");
+		LongHashMap<@NonNull V> worldEntries = this.getOrCreateWorld(chunkCoords.getWorldName());
+		V previous = worldEntries.put(ChunkKeys.of(chunkCoords), value);
+		if (previous == null) {
+			size++;
+		}
+		return previous;
+	}
+
+	/**
+	 * Removes the entry of the specified chunk.
+	 *
+	 * @param chunkCoords
+	 *            the chunk coordinates, not <code>null</code>
+	 * @return the removed value, or <code>null</code> if there was no entry for the chunk
+	 */
+	public @Nullable V remove(ChunkCoords chunkCoords) {
+		LongHashMap<@NonNull V> worldEntries = this.getWorld(chunkCoords.getWorldName());
+		if (worldEntries == null) return null;
+		V removed = worldEntries.remove(ChunkKeys.of(chunkCoords));
+		if (removed != null) {
+			size--;
+		}
+		return removed;
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public void clear() {
+		worlds.forEach(worldEntries -> {
+			if (worldEntries != null) {
+				worldEntries.clear();
+			}
+		});
+		size = 0;
+	}
+
+	/**
+	 * Invokes the given action for each value of this map.
+	 * <p>
+	 * The action is not allowed to modify this map.
+	 *
+	 * @param action
+	 *            the action, not <code>null</code>
+	 */
+	public void forEachValue(Consumer<? super @NonNull V> action) {
+		Validate.notNull(action, "action is null");
+		for (int worldId = 0; worldId < worlds.size(); worldId++) {
+			LongHashMap<@NonNull V> worldEntries = worlds.get(worldId);
+			if (worldEntries == null) continue;
+			worldEntries.forEachValue(action);
+		}
+	}
+}
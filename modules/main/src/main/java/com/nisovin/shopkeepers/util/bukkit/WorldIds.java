@@ -0,0 +1,74 @@
+package com.nisovin.shopkeepers.util.bukkit;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.util.java.Validate;
+
+/**
+ * Interns world names into small and dense integer ids.
+ * <p>
+ * Ids are assigned in the order in which world names are first encountered and remain stable for
+ * the lifetime of the server. They can be used to index arrays of per-world data, such as inside
+ * {@link WorldChunkMap}.
+ * <p>
+ * Since Bukkit returns the same {@link String} instance for repeated calls to a world's name, the
+ * last resolved world name is additionally cached by identity. Consecutive lookups for the same
+ * world, such as during chunk load and unload events, therefore skip the hash lookup.
+ * <p>
+ * Not thread-safe: Only use from the server's main thread.
+ */
+public final class WorldIds {
+
+	/**
+	 * The id that is returned for world names that have not been interned yet.
+	 */
+	public static final int UNKNOWN = -1;
+
+	private static final Map<@NonNull String, @NonNull Integer> ids = new HashMap<>();
+	private static @Nullable String lastWorldName = null;
+	private static int lastWorldId = UNKNOWN;
+
+	/**
+	 * Gets the id of the given world name, and interns the world name if it does not have an id
+	 * yet.
+	 * 
+	 * @param worldName
+	 *            the world name, not <code>null</code> or empty
+	 * @return the world id, not negative
+	 */
+	public static int getOrCreateId(String worldName) {
+		int id = getId(worldName);
+		if (id != UNKNOWN) return id;
+
+		Validate.notEmpty(worldName, "worldName is null or empty");
+		id = ids.size();
+		ids.put(worldName, id);
+		lastWorldName = worldName;
+		lastWorldId = id;
+		return id;
+	}
+
+	/**
+	 * Gets the id of the given world name.
+	 * 
+	 * @param worldName
+	 *            the world name
+	 * @return the world id, or {@link #UNKNOWN} if the world name has not been interned yet
+	 */
+	public static int getId(String worldName) {
+		if (worldName == lastWorldName) return lastWorldId;
+
+		Integer id = ids.get(worldName);
+		if (id == null) return UNKNOWN;
+		lastWorldName = worldName;
+		lastWorldId = id;
+		return id;
+	}
+
+	private WorldIds() {
+	}
+}
@@ -322,6 +322,112 @@ public class CsvFormatter {
 		return this.formatFields(fields) + recordSeparator;
 	}
 
+	/**
+	 * Appends the given field data to the given {@link StringBuilder}, escaped as described by
+	 * {@link #escapeField(String)}.
+	 * <p>
+	 * This produces the same output as appending the result of {@link #escapeField(String)}, but
+	 * avoids the creation of intermediate Strings if the field only requires to be quoted.
+	 * 
+	 * @param builder
+	 *            the builder to append to, not <code>null</code>
+	 * @param field
+	 *            the field data, can be <code>null</code>
+	 * @return the given builder
+	 */
+	public StringBuilder appendField(StringBuilder builder, @Nullable CharSequence field) {
+		Validate.notNull(builder, "builder is null");
+		CharSequence nonNullField = (field != null) ? field : nullField;
+		if (!this.requiresOnlyQuoting(nonNullField, 0, nonNullField.length())) {
+			return builder.append(this.escapeField(nonNullField.toString()));
+		}
+
+		boolean quoted = this.isQuoteAllFields();
+		if (quoted) builder.append(quote);
+		builder.append(nonNullField);
+		if (quoted) builder.append(quote);
+		return builder;
+	}
+
+	/**
+	 * Appends the given numeric field to the given {@link StringBuilder}, escaped as described by
+	 * {@link #escapeField(String)}.
+	 * 
+	 * @param builder
+	 *            the builder to append to, not <code>null</code>
+	 * @param field
+	 *            the field
+	 * @return the given builder
+	 * @see #appendField(StringBuilder, CharSequence)
+	 */
+	public StringBuilder appendField(StringBuilder builder, long field) {
+		Validate.notNull(builder, "builder is null");
+		int start = builder.length();
+		boolean quoted = this.isQuoteAllFields();
+		if (quoted) builder.append(quote);
+		int fieldStart = builder.length();
+		builder.append(field);
+		if (!this.requiresOnlyQuoting(builder, fieldStart, builder.length())) {
+			// Only the case for unusual configurations. Fall back to the regular escaping:
+			builder.setLength(start);
+			return builder.append(this.escapeField(String.valueOf(field)));
+		}
+		if (quoted) builder.append(quote);
+		return builder;
+	}
+
+	/**
+	 * Appends the {@link #fieldSeparator(String) field separator} to the given
+	 * {@link StringBuilder}.
+	 * 
+	 * @param builder
+	 *            the builder to append to, not <code>null</code>
+	 * @return the given builder
+	 */
+	public StringBuilder appendFieldSeparator(StringBuilder builder) {
+		Validate.notNull(builder, "builder is null");
+		return builder.append(fieldSeparator);
+	}
+
+	/**
+	 * Appends the {@link #recordSeparator(String) record separator} to the given
+	 * {@link StringBuilder}.
+	 * 
+	 * @param builder
+	 *            the builder to append to, not <code>null</code>
+	 * @return the given builder
+	 */
+	public StringBuilder appendRecordSeparator(StringBuilder builder) {
+		Validate.notNull(builder, "builder is null");
+		return builder.append(recordSeparator);
+	}
+
+	private boolean isQuoteAllFields() {
+		return quoteAllFields && !quote.isEmpty();
+	}
+
+	// Checks if escapeField would return the field data either as is, or only surrounded by
+	// quotes. This check is conservative: Some fields for which this returns false might actually
+	// also not require any escaping.
+	private boolean requiresOnlyQuoting(CharSequence field, int start, int end) {
+		// An empty quote is represented by the null character, which is then checked
+		// conservatively:
+		char quoteChar = quote.isEmpty() ? '\0' : quote.charAt(0);
+		char fieldSeparatorChar = fieldSeparator.charAt(0);
+		char recordSeparatorChar = recordSeparator.charAt(0);
+		for (int i = start; i < end; i++) {
+			char c = field.charAt(i);
+			if (c == quoteChar
+					|| c == fieldSeparatorChar
+					|| c == recordSeparatorChar
+					|| c == '\\'
+					|| StringUtils.isNewline(c)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Escapes the given field data according to the configuration of this formatter.
 	 * <p>
@@ -0,0 +1,87 @@
+package com.nisovin.shopkeepers.util.csv;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import com.nisovin.shopkeepers.util.java.Validate;
+
+/**
+ * Parses CSV records that have been formatted by a {@link CsvFormatter} with its default quoting
+ * configuration.
+ * <p>
+ * Fields may be quoted with double quotes, and double quotes within quoted fields are escaped by
+ * doubling them. Newlines and backslashes are not unescaped.
+ */
+public final class CsvParser {
+
+	private static final char QUOTE = '"';
+
+	private final char fieldSeparator;
+
+	/**
+	 * Creates a new {@link CsvParser} that expects commas as field separator.
+	 */
+	public CsvParser() {
+		this(',');
+	}
+
+	/**
+	 * Creates a new {@link CsvParser}.
+	 * 
+	 * @param fieldSeparator
+	 *            the field separator, not a double quote
+	 */
+	public CsvParser(char fieldSeparator) {
+		Validate.isTrue(fieldSeparator != QUOTE, "fieldSeparator cannot be a quote");
+		this.fieldSeparator = fieldSeparator;
+	}
+
+	/**
+	 * Parses the fields of the given CSV record.
+	 * <p>
+	 * A trailing record separator (<code>\n</code> or <code>\r\n</code>) is ignored.
+	 * 
+	 * @param record
+	 *            the record, not <code>null</code>
+	 * @return the fields, not <code>null</code>, contains at least one field
+	 */
+	public List<@NonNull String> parseRecord(CharSequence record) {
+		Validate.notNull(record, "record is null");
+		int end = record.length();
+		if (end > 0 && record.charAt(end - 1) == '\n') {
+			end--;
+			if (end > 0 && record.charAt(end - 1) == '\r') {
+				end--;
+			}
+		}
+
+		List<@NonNull String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < end; i++) {
+			char c = record.charAt(i);
+			if (quoted) {
+				if (c != QUOTE) {
+					field.append(c);
+				} else if (i + 1 < end && record.charAt(i + 1) == QUOTE) {
+					// Escaped quote:
+					field.append(QUOTE);
+					i++;
+				} else {
+					quoted = false;
+				}
+			} else if (c == QUOTE) {
+				quoted = true;
+			} else if (c == fieldSeparator) {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else {
+				field.append(c);
+			}
+		}
+		fields.add(field.toString());
+		return fields;
+	}
+}
@@ -184,6 +184,51 @@ public final class InventoryUtils {
 		return containsAtLeast(contents, itemStack, 1);
 	}
 
+	/**
+	 * Counts the items in the given contents that are accepted by the given {@link Predicate}.
+	 * <p>
+	 * The given Predicate is only invoked for {@link ItemUtils#isEmpty(ItemStack) non-empty}
+	 * ItemStacks.
+	 * 
+	 * @param contents
+	 *            the contents to search through, not <code>null</code>
+	 * @param predicate
+	 *            the predicate, not <code>null</code>
+	 * @return the total amount of accepted items
+	 */
+	public static int countItems(
+			@ReadOnly @Nullable ItemStack @ReadOnly [] contents,
+			Predicate<@ReadOnly ? super @NonNull ItemStack> predicate
+	) {
+		Validate.notNull(contents, "contents is null");
+		Validate.notNull(predicate, "predicate is null");
+		int amount = 0;
+		for (ItemStack itemStack : contents) {
+			if (itemStack == null) continue;
+			if (ItemUtils.isEmpty(itemStack)) continue;
+			if (!predicate.test(itemStack)) continue;
+			amount += itemStack.getAmount();
+		}
+		return amount;
+	}
+
+	/**
+	 * Counts the items in the given contents that are
+	 * {@link UnmodifiableItemStack#isSimilar(ItemStack) similar} to the given {@link ItemStack}.
+	 * 
+	 * @param contents
+	 *            the contents to search through, not <code>null</code>
+	 * @param itemStack
+	 *            the item stack to check for, not <code>null</code>
+	 * @return the total amount of similar items
+	 */
+	public static int countItems(
+			@ReadOnly @Nullable ItemStack @ReadOnly [] contents,
+			UnmodifiableItemStack itemStack
+	) {
+		return countItems(contents, ItemUtils.similarItems(itemStack));
+	}
+
 	// ItemStack Iterable
 
 	/**
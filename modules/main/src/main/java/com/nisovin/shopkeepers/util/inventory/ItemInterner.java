@@ -0,0 +1,125 @@
+package com.nisovin.shopkeepers.util.inventory;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.PolyNull;
+
+import com.nisovin.shopkeepers.api.util.UnmodifiableItemStack;
+
+/**
+ * A weak pool of canonical {@link UnmodifiableItemStack} instances.
+ * <p>
+ * Many shopkeepers trade the same items (e.g. diamonds or emeralds). Without interning, each offer
+ * keeps its own copy of these item stacks and their item meta in memory. Interning the items of
+ * offers via {@link #intern(UnmodifiableItemStack)} instead replaces equal item stacks with a
+ * shared canonical instance. This also allows comparisons between these items to short-circuit on
+ * identity.
+ * <p>
+ * Items are considered equal if they are {@link UnmodifiableItemStack#equals(Object) equal}, i.e.
+ * if they are similar and have the same stack size. The pool only weakly references the canonical
+ * item stacks: Once no offer uses an item anymore, it is garbage collected and removed from the
+ * pool.
+ * <p>
+ * The interned item stacks are assumed to be immutable, i.e. the item stacks that back them are
+ * not allowed to be modified externally. The pool is mostly used on the server's main thread, but
+ * access is synchronized so that items can also be interned from other threads.
+ */
+public final class ItemInterner {
+
+	// Maps the canonical item stacks to themselves:
+	private static final Map<@NonNull UnmodifiableItemStack, @NonNull WeakReference<@NonNull UnmodifiableItemStack>> POOL = new WeakHashMap<>();
+	private static volatile boolean enabled = true;
+
+	/**
+	 * Checks if interning is enabled.
+	 * 
+	 * @return <code>true</code> if enabled
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Enables or disables interning.
+	 * <p>
+	 * While disabled, {@link #intern(UnmodifiableItemStack)} returns the given item stacks as-is.
+	 * This is mostly meant for testing and debugging purposes. Disabling interning clears the pool.
+	 * 
+	 * @param enabled
+	 *            <code>true</code> to enable interning
+	 */
+	public static void setEnabled(boolean enabled) {
+		ItemInterner.enabled = enabled;
+		if (!enabled) {
+			clear();
+		}
+	}
+
+	/**
+	 * Gets the canonical instance of the given item stack.
+	 * <p>
+	 * If the pool does not yet contain an equal item stack, the given item stack becomes the
+	 * canonical instance. The given item stack is assumed to be immutable.
+	 * 
+	 * @param itemStack
+	 *            the item stack, can be <code>null</code>
+	 * @return the canonical item stack, or <code>null</code> if the given item stack is
+	 *         <code>null</code>
+	 */
+	public static @PolyNull UnmodifiableItemStack intern(
+			@PolyNull UnmodifiableItemStack itemStack
+	) {
+		if (itemStack == null || !enabled) return itemStack;
+		// Fast path: Avoids calculating the hash code of item stacks that are already canonical.
+		if (itemStack instanceof SKUnmodifiableItemStack
+				&& ((SKUnmodifiableItemStack) itemStack).isInterned()) {
+			return itemStack;
+		}
+
+		synchronized (POOL) {
+			WeakReference<@NonNull UnmodifiableItemStack> canonicalRef = POOL.get(itemStack);
+			if (canonicalRef != null) {
+				UnmodifiableItemStack canonical = canonicalRef.get();
+				if (canonical != null) return canonical;
+			}
+
+			POOL.put(itemStack, new WeakReference<>(itemStack));
+		}
+		if (itemStack instanceof SKUnmodifiableItemStack) {
+			((SKUnmodifiableItemStack) itemStack).setInterned();
+		}
+		return itemStack;
+	}
+
+	/**
+	 * Gets the number of canonical item stacks that are currently in the pool.
+	 * <p>
+	 * This may include item stacks that are no longer used but have not yet been garbage
+	 * collected.
+	 * 
+	 * @return the pool size
+	 */
+	public static int getSize() {
+		synchronized (POOL) {
+			return POOL.size();
+		}
+	}
+
+	/**
+	 * Removes all item stacks from the pool.
+	 * <p>
+	 * Item stacks that are currently in use remain shared, but items that are interned afterwards
+	 * will not be deduplicated with them.
+	 */
+	public static void clear() {
+		synchronized (POOL) {
+			POOL.clear();
+		}
+	}
+
+	private ItemInterner() {
+	}
+}
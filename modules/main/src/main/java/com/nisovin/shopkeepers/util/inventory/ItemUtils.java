@@ -259,12 +259,24 @@ public final class ItemUtils {
 		return itemStack.shallowCopy();
 	}
 
+	/**
+	 * Returns the given item stack if it is already an {@link UnmodifiableItemStack}, or otherwise
+	 * an unmodifiable copy of it.
+	 * <p>
+	 * The copy is {@link ItemInterner#intern(UnmodifiableItemStack) interned}, so that item stacks
+	 * that are equal to an already existing copy share the same canonical instance.
+	 * 
+	 * @param itemStack
+	 *            the item stack, can be <code>null</code>
+	 * @return the unmodifiable item stack, or <code>null</code> if the given item stack is
+	 *         <code>null</code>
+	 */
 	public static @PolyNull UnmodifiableItemStack unmodifiableCloneIfModifiable(
 			@ReadOnly @PolyNull ItemStack itemStack
 	) {
 		if (itemStack == null) return null;
 		if (itemStack instanceof UnmodifiableItemStack) return (UnmodifiableItemStack) itemStack;
-		return UnmodifiableItemStack.of(itemStack.clone());
+		return ItemInterner.intern(UnmodifiableItemStack.ofNonNull(itemStack.clone()));
 	}
 
 	public static UnmodifiableItemStack nonNullUnmodifiableCloneIfModifiable(
@@ -49,6 +49,8 @@ public class SKUnmodifiableItemStack extends ItemStack implements UnmodifiableIt
 	// ----
 
 	private final ItemStack delegate;
+	// Whether this is the canonical instance of the ItemInterner:
+	private volatile boolean interned = false;
 
 	private SKUnmodifiableItemStack(@ReadOnly ItemStack itemStack) {
 		assert itemStack != null;
@@ -56,6 +58,14 @@ public class SKUnmodifiableItemStack extends ItemStack implements UnmodifiableIt
 		this.delegate = itemStack;
 	}
 
+	boolean isInterned() {
+		return interned;
+	}
+
+	void setInterned() {
+		interned = true;
+	}
+
 	/**
 	 * Gets the underlying {@link ItemStack}.
 	 * <p>
@@ -0,0 +1,336 @@
+package com.nisovin.shopkeepers.util.java;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.api.internal.util.Unsafe;
+
+/**
+ * A hash map with primitive {@code long} keys and non-<code>null</code> values.
+ * <p>
+ * The entries are stored in flat arrays using open addressing with linear probing. Unlike a
+ * {@link java.util.HashMap} with {@link Long} keys, lookups, insertions and removals do not
+ * allocate any objects (apart from the occasional resize on insertion).
+ * <p>
+ * The iteration order is unspecified and may change when entries are added or removed.
+ * <p>
+ * Not thread-safe.
+ *
+ * @param <V>
+ *            the value type
+ */
+public final class LongHashMap<V> {
+
+	private static final int DEFAULT_CAPACITY = 16;
+	// Resize once the map is more than half full: Keeps probe sequences short.
+	private static final int MAX_LOAD_FACTOR_SHIFT = 1;
+
+	private long[] keys;
+	// Empty slots are marked by null values:
+	private @Nullable Object[] values;
+	private int mask;
+	private int size = 0;
+	private int modCount = 0;
+
+	private final Collection<@NonNull V> valuesView = new AbstractCollection<@NonNull V>() {
+		@Override
+		public Iterator<@NonNull V> iterator() {
+			return new ValueIterator();
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	};
+
+	/**
+	 * Creates a new and empty {@link LongHashMap}.
+	 */
+	public LongHashMap() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates a new and empty {@link LongHashMap} with enough initial capacity to store the
+	 * specified number of entries without having to resize.
+	 *
+	 * @param expectedSize
+	 *            the expected number of entries
+	 */
+	public LongHashMap(int expectedSize) {
+		Validate.isTrue(expectedSize >= 0, "expectedSize cannot be negative");
+		int capacity = tableSizeFor(Math.max(DEFAULT_CAPACITY, expectedSize << MAX_LOAD_FACTOR_SHIFT));
+		this.keys = new long[capacity];
+		this.values = new @Nullable Object[capacity];
+		this.mask = capacity - 1;
+	}
+
+	private static int tableSizeFor(int capacity) {
+		int highestOneBit = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+		Validate.isTrue(highestOneBit > 0, "capacity too large");
+		return highestOneBit;
+	}
+
+	// Spreads the key bits, so that keys that only differ in their higher bits (e.g. packed chunk
+	// coordinates) end up in different slots:
+	private static int hash(long key) {
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32));
+	}
+
+	/**
+	 * Gets the number of entries.
+	 *
+	 * @return the number of entries
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks if this map is empty.
+	 *
+	 * @return <code>true</code> if this map is empty
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	private int indexOf(long key) {
+		long[] keys = this.keys;
+		@Nullable Object[] values = this.values;
+		int mask = this.mask;
+		int index = hash(key) & mask;
+		while (values[index] != null) {
+			if (keys[index] == key) return index;
+			index = (index + 1) & mask;
+		}
+		return -(index + 1); // The free slot at which the key can be inserted
+	}
+
+	/**
+	 * Gets the value that is mapped to the given key.
+	 *
+	 * @param key
+	 *            the key
+	 * @return the value, or <code>null</code> if there is no entry for the given key
+	 */
+	public @Nullable V get(long key) {
+		int index = this.indexOf(key);
+		if (index < 0) return null;
+		return Unsafe.cast(values[index]);
+	}
+
+	/**
+	 * Checks if there is an entry for the given key.
+	 *
+	 * @param key
+	 *            the key
+	 * @return <code>true</code> if there is an entry for the given key
+	 */
+	public boolean containsKey(long key) {
+		return this.indexOf(key) >= 0;
+	}
+
+	/**
+	 * Maps the given value to the given key.
+	 *
+	 * @param key
+	 *            the key
+	 * @param value
+	 *            the value, not <code>null</code>
+	 * @return the previous value, or <code>null</code> if there was no entry for the given key
+	 */
+	public @Nullable V put(long key, V value) {
+		Validate.notNull(value, "value is null");
+		int index = this.indexOf(key);
+		if (index >= 0) {
+			V previous = Unsafe.cast(values[index]);
+			values[index] = value;
+			return previous;
+		}
+		this.insert(-index - 1, key, value);
+		return null;
+	}
+
+	/**
+	 * Gets the value that is mapped to the given key, or creates, inserts and returns a new value
+	 * using the given function if there is no entry for the given key yet.
+	 *
+	 * @param key
+	 *            the key
+	 * @param valueFunction
+	 *            the function that creates the new value, not <code>null</code>, and is not
+	 *            expected to modify this map
+	 * @return the existing or newly created value, not <code>null</code>
+	 */
+	public V computeIfAbsent(long key, LongFunction<? extends @NonNull V> valueFunction) {
+		int index = this.indexOf(key);
+		if (index >= 0) {
+			return Unsafe.cast(values[index]);
+		}
+		V value = valueFunction.apply(key);
+		Validate.notNull(value, "valueFunction returned null");
+		this.insert(-index - 1, key, value);
+		return value;
+	}
+
+	private void insert(int freeIndex, long key, V value) {
+		keys[freeIndex] = key;
+		values[freeIndex] = value;
+		size++;
+		modCount++;
+		if ((size << MAX_LOAD_FACTOR_SHIFT) > keys.length) {
+			this.resize(keys.length << 1);
+		}
+	}
+
+	private void resize(int newCapacity) {
+		long[] oldKeys = keys;
+		@Nullable Object[] oldValues = values;
+		long[] newKeys = new long[newCapacity];
+		@Nullable Object[] newValues = new @Nullable Object[newCapacity];
+		int newMask = newCapacity - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			Object value = oldValues[i];
+			if (value == null) continue;
+			long key = oldKeys[i];
+			int index = hash(key) & newMask;
+			while (newValues[index] != null) {
+				index = (index + 1) & newMask;
+			}
+			newKeys[index] = key;
+			newValues[index] = value;
+		}
+		this.keys = newKeys;
+		this.values = newValues;
+		this.mask = newMask;
+	}
+
+	/**
+	 * Removes the entry for the given key.
+	 *
+	 * @param key
+	 *            the key
+	 * @return the removed value, or <code>null</code> if there was no entry for the given key
+	 */
+	public @Nullable V remove(long key) {
+		int index = this.indexOf(key);
+		if (index < 0) return null;
+		V previous = Unsafe.cast(values[index]);
+		this.removeAt(index);
+		return previous;
+	}
+
+	// Backward shift deletion: Moves subsequent entries of the same probe sequence into the freed
+	// slot, so that lookups do not require tombstones.
+	private void removeAt(int index) {
+		long[] keys = this.keys;
+		@Nullable Object[] values = this.values;
+		int mask = this.mask;
+		int free = index;
+		int current = index;
+		while (true) {
+			current = (current + 1) & mask;
+			Object value = values[current];
+			if (value == null) break;
+			int home = hash(keys[current]) & mask;
+			// Move the entry if its home slot is not cyclically within (free, current]:
+			boolean move = (free <= current) ? (home <= free || home > current)
+					: (home <= free && home > current);
+			if (move) {
+				keys[free] = keys[current];
+				values[free] = value;
+				free = current;
+			}
+		}
+		values[free] = null;
+		size--;
+		modCount++;
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public void clear() {
+		if (size == 0) return;
+		Arrays.fill(values, null);
+		size = 0;
+		modCount++;
+	}
+
+	/**
+	 * Invokes the given action for each value of this map.
+	 * <p>
+	 * The action is not allowed to modify this map.
+	 *
+	 * @param action
+	 *            the action, not <code>null</code>
+	 */
+	public void forEachValue(Consumer<? super @NonNull V> action) {
+		@Nullable Object[] values = this.values;
+		int expectedModCount = modCount;
+		for (int i = 0; i < values.length; i++) {
+			Object value = values[i];
+			if (value == null) continue;
+			action.accept(Unsafe.cast(value));
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+		}
+	}
+
+	/**
+	 * Gets an unmodifiable view on the values of this map.
+	 *
+	 * @return an unmodifiable view on the values
+	 */
+	public Collection<@NonNull V> values() {
+		return valuesView;
+	}
+
+	private final class ValueIterator implements Iterator<@NonNull V> {
+
+		private final int expectedModCount = modCount;
+		private int nextIndex = -1;
+
+		ValueIterator() {
+			this.advance();
+		}
+
+		private void advance() {
+			@Nullable Object[] values = LongHashMap.this.values;
+			do {
+				nextIndex++;
+			} while (nextIndex < values.length && values[nextIndex] == null);
+		}
+
+		@Override
+		public boolean hasNext() {
+			return nextIndex < values.length;
+		}
+
+		@Override
+		public V next() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			V value = Unsafe.cast(values[nextIndex]);
+			this.advance();
+			return value;
+		}
+	}
+}
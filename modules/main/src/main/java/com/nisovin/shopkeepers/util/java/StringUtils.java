@@ -239,27 +239,65 @@ public final class StringUtils {
 		return stripped;
 	}
 
+	/**
+	 * Gets the number of bytes of the given characters when encoded as UTF-8.
+	 * <p>
+	 * Unpaired surrogate characters are counted like the replacement character that they are
+	 * encoded as.
+	 * 
+	 * @param chars
+	 *            the characters, not <code>null</code>
+	 * @return the number of bytes
+	 */
+	public static int getUtf8Length(CharSequence chars) {
+		Validate.notNull(chars, "chars is null");
+		int length = chars.length();
+		int utf8Length = 0;
+		for (int i = 0; i < length; i++) {
+			char c = chars.charAt(i);
+			if (c < 0x80) {
+				utf8Length += 1;
+			} else if (c < 0x800) {
+				utf8Length += 2;
+			} else if (Character.isHighSurrogate(c)
+					&& i + 1 < length
+					&& Character.isLowSurrogate(chars.charAt(i + 1))) {
+				utf8Length += 4;
+				i++;
+			} else if (Character.isSurrogate(c)) {
+				// Unpaired surrogates are replaced with '?':
+				utf8Length += 1;
+			} else {
+				utf8Length += 3;
+			}
+		}
+		return utf8Length;
+	}
+
 	public static boolean containsNewline(@Nullable String string) {
 		if (string == null) return false;
 		int length = string.length();
 		for (int i = 0; i < length; i++) {
-			char c = string.charAt(i);
-			switch (c) {
-			case '\n': // Line feed (\\u000A)
-			case '\r': // Carriage return (\\u000D)
-			case '\f': // Form feed (\\u000C)
-			case '\u000B': // Vertical tab
-			case '\u0085': // Next line
-			case '\u2028': // Unicode line separator
-			case '\u2029': // Unicode paragraph separator
-				return true;
-			default:
-				continue;
-			}
+			if (isNewline(string.charAt(i))) return true;
 		}
 		return false;
 	}
 
+	public static boolean isNewline(char c) {
+		switch (c) {
+		case '\n': // Line feed (\\u000A)
+		case '\r': // Carriage return (\\u000D)
+		case '\f': // Form feed (\\u000C)
+		case '\u000B': // Vertical tab
+		case '\u0085': // Next line
+		case '\u2028': // Unicode line separator
+		case '\u2029': // Unicode paragraph separator
+			return true;
+		default:
+			return false;
+		}
+	}
+
 	public static String escapeNewlinesAndBackslash(String string) {
 		Validate.notNull(string, "string is null");
 		int length = string.length();
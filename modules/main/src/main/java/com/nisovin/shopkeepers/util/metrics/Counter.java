@@ -0,0 +1,61 @@
+package com.nisovin.shopkeepers.util.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A counter whose value only increases.
+ * <p>
+ * This is thread-safe.
+ */
+public final class Counter extends Metric {
+
+	private final LongAdder value = new LongAdder();
+
+	Counter(MetricsRegistry registry, String name, String help) {
+		super(registry, name, help);
+	}
+
+	@Override
+	protected String getType() {
+		return "counter";
+	}
+
+	/**
+	 * Increments this counter by one.
+	 */
+	public void increment() {
+		if (!registry.isEnabled()) return;
+		value.increment();
+	}
+
+	/**
+	 * Increments this counter by the given amount.
+	 * 
+	 * @param amount
+	 *            the amount, not negative
+	 */
+	public void add(long amount) {
+		if (!registry.isEnabled()) return;
+		if (amount <= 0) return;
+		value.add(amount);
+	}
+
+	/**
+	 * Gets the current value of this counter.
+	 * 
+	 * @return the current value
+	 */
+	public long get() {
+		return value.sum();
+	}
+
+	@Override
+	public void reset() {
+		value.reset();
+	}
+
+	@Override
+	protected void writeSamples(StringBuilder builder) {
+		writeSample(builder, this.getName(), this.get());
+	}
+}
@@ -0,0 +1,45 @@
+package com.nisovin.shopkeepers.util.metrics;
+
+import java.util.function.DoubleSupplier;
+
+import com.nisovin.shopkeepers.util.java.Validate;
+
+/**
+ * A metric whose value is sampled from a {@link DoubleSupplier} whenever the metrics are exported.
+ * <p>
+ * The supplier is invoked on the thread that exports the metrics.
+ */
+public final class Gauge extends Metric {
+
+	private final DoubleSupplier supplier;
+
+	Gauge(MetricsRegistry registry, String name, String help, DoubleSupplier supplier) {
+		super(registry, name, help);
+		Validate.notNull(supplier, "supplier is null");
+		this.supplier = supplier;
+	}
+
+	@Override
+	protected String getType() {
+		return "gauge";
+	}
+
+	/**
+	 * Samples the current value of this gauge.
+	 * 
+	 * @return the current value
+	 */
+	public double get() {
+		return supplier.getAsDouble();
+	}
+
+	@Override
+	public void reset() {
+		// Gauges have no state.
+	}
+
+	@Override
+	protected void writeSamples(StringBuilder builder) {
+		writeSample(builder, this.getName(), this.get());
+	}
+}
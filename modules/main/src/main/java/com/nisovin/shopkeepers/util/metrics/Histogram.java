@@ -0,0 +1,221 @@
+package com.nisovin.shopkeepers.util.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.nisovin.shopkeepers.util.java.Validate;
+
+/**
+ * Records the distribution of durations in nanoseconds.
+ * <p>
+ * The durations are counted in a fixed number of log-linear buckets: Each power of two is split into
+ * {@link #SUB_BUCKETS} equally sized buckets. Recording a duration is therefore constant in time
+ * and does not allocate any objects, and the percentiles derived from the buckets have a relative
+ * error of at most <code>1 / SUB_BUCKETS</code>.
+ * <p>
+ * This is thread-safe. The durations are exported in seconds, in the form of a Prometheus summary.
+ */
+public final class Histogram extends Metric {
+
+	private static final int SUB_BUCKET_BITS = 3;
+	/**
+	 * The number of buckets per power of two.
+	 */
+	public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private static final double[] EXPORTED_QUANTILES = { 0.5D, 0.9D, 0.99D };
+	private static final double NANOS_PER_SECOND = 1.0E9D;
+
+	// Values below SUB_BUCKETS are mapped to their own buckets. Larger values are mapped to the
+	// sub-bucket of their highest power of two.
+	static int getBucketIndex(long value) {
+		if (value < SUB_BUCKETS) return (int) Math.max(value, 0L);
+		int exponent = 63 - Long.numberOfLeadingZeros(value); // >= SUB_BUCKET_BITS
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	static long getBucketLowerBound(int index) {
+		if (index < SUB_BUCKETS) return index;
+		int exponent = (index / SUB_BUCKETS) + SUB_BUCKET_BITS - 1;
+		long subBucket = index % SUB_BUCKETS;
+		return (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+	}
+
+	// Inclusive.
+	static long getBucketUpperBound(int index) {
+		if (index + 1 >= BUCKET_COUNT) return Long.MAX_VALUE;
+		return getBucketLowerBound(index + 1) - 1;
+	}
+
+	/**
+	 * A snapshot of the values recorded by a {@link Histogram}.
+	 */
+	public static final class Snapshot {
+
+		private final long[] bucketCounts;
+		private final long count;
+		private final long sum;
+		private final long max;
+
+		private Snapshot(long[] bucketCounts, long sum, long max) {
+			this.bucketCounts = bucketCounts;
+			long count = 0L;
+			for (long bucketCount : bucketCounts) {
+				count += bucketCount;
+			}
+			this.count = count;
+			this.sum = sum;
+			this.max = max;
+		}
+
+		/**
+		 * Gets the number of recorded values.
+		 * 
+		 * @return the number of recorded values
+		 */
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * Gets the sum of the recorded values.
+		 * 
+		 * @return the sum of the recorded values in nanoseconds
+		 */
+		public long getSum() {
+			return sum;
+		}
+
+		/**
+		 * Gets the largest recorded value.
+		 * 
+		 * @return the largest recorded value in nanoseconds, or <code>0</code> if there are no
+		 *         recorded values
+		 */
+		public long getMax() {
+			return max;
+		}
+
+		/**
+		 * Gets the approximate value at the given quantile.
+		 * <p>
+		 * The returned value is the upper bound of the bucket that contains the value at the given
+		 * quantile, but at most the {@link #getMax() max value}.
+		 * 
+		 * @param quantile
+		 *            the quantile, between <code>0.0</code> and <code>1.0</code>
+		 * @return the value at the given quantile in nanoseconds, or <code>0</code> if there are no
+		 *         recorded values
+		 */
+		public long getValueAtQuantile(double quantile) {
+			Validate.isTrue(quantile >= 0.0D && quantile <= 1.0D,
+					() -> "quantile is not between 0.0 and 1.0: " + quantile);
+			if (count == 0L) return 0L;
+			long rank = Math.max((long) Math.ceil(quantile * count), 1L);
+			long seen = 0L;
+			for (int i = 0; i < bucketCounts.length; i++) {
+				seen += bucketCounts[i];
+				if (seen >= rank) {
+					return Math.min(getBucketUpperBound(i), max);
+				}
+			}
+			return max;
+		}
+	}
+
+	private final AtomicLongArray bucketCounts = new AtomicLongArray(BUCKET_COUNT);
+	private final LongAdder sum = new LongAdder();
+	private final AtomicLong max = new AtomicLong();
+
+	Histogram(MetricsRegistry registry, String name, String help) {
+		super(registry, name, help);
+	}
+
+	@Override
+	protected String getType() {
+		return "summary";
+	}
+
+	/**
+	 * Records the given duration.
+	 * 
+	 * @param nanos
+	 *            the duration in nanoseconds, negative durations are recorded as <code>0</code>
+	 */
+	public void record(long nanos) {
+		if (!registry.isEnabled()) return;
+		long value = Math.max(nanos, 0L);
+		bucketCounts.incrementAndGet(getBucketIndex(value));
+		sum.add(value);
+		long currentMax;
+		while (value > (currentMax = max.get())) {
+			if (max.compareAndSet(currentMax, value)) break;
+		}
+	}
+
+	/**
+	 * Records the duration since the given start time.
+	 * <p>
+	 * This has no effect if the given start time is <code>0</code>, i.e. if it was obtained via
+	 * {@link MetricsRegistry#startNanos()} while the registry was disabled.
+	 * 
+	 * @param startNanos
+	 *            the start time, as returned by {@link MetricsRegistry#startNanos()}
+	 */
+	public void recordSince(long startNanos) {
+		if (startNanos == 0L) return;
+		this.record(System.nanoTime() - startNanos);
+	}
+
+	/**
+	 * Creates a snapshot of the currently recorded values.
+	 * <p>
+	 * Values that are concurrently recorded might only be partially reflected by the snapshot.
+	 * 
+	 * @return the snapshot, not <code>null</code>
+	 */
+	public Snapshot snapshot() {
+		long[] counts = new long[BUCKET_COUNT];
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			counts[i] = bucketCounts.get(i);
+		}
+		return new Snapshot(counts, sum.sum(), max.get());
+	}
+
+	@Override
+	public void reset() {
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			bucketCounts.set(i, 0L);
+		}
+		sum.reset();
+		max.set(0L);
+	}
+
+	@Override
+	protected void writeSamples(StringBuilder builder) {
+		Snapshot snapshot = this.snapshot();
+		String name = this.getName();
+		for (double quantile : EXPORTED_QUANTILES) {
+			builder.append(name).append("{quantile=\"").append(quantile).append("\"} ")
+					.append(formatValue(snapshot.getValueAtQuantile(quantile) / NANOS_PER_SECOND))
+					.append('\n');
+		}
+		writeSample(builder, name + "_sum", snapshot.getSum() / NANOS_PER_SECOND);
+		writeSample(builder, name + "_count", snapshot.getCount());
+	}
+
+	/**
+	 * Appends the {@link Snapshot#getMax() max value} as separate gauge sample.
+	 * 
+	 * @param builder
+	 *            the builder to append to, not <code>null</code>
+	 */
+	void writeMaxGauge(StringBuilder builder) {
+		String maxName = this.getName() + "_max";
+		builder.append("# TYPE ").append(maxName).append(" gauge\n");
+		writeSample(builder, maxName, max.get() / NANOS_PER_SECOND);
+	}
+}
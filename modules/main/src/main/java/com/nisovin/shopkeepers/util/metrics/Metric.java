@@ -0,0 +1,75 @@
+package com.nisovin.shopkeepers.util.metrics;
+
+import com.nisovin.shopkeepers.util.java.Validate;
+
+/**
+ * Base class of the metrics that can be registered with a {@link MetricsRegistry}.
+ * <p>
+ * Metrics only record values while their registry is {@link MetricsRegistry#isEnabled() enabled}.
+ */
+public abstract class Metric {
+
+	protected final MetricsRegistry registry;
+	private final String name;
+	private final String help;
+
+	Metric(MetricsRegistry registry, String name, String help) {
+		Validate.notNull(registry, "registry is null");
+		Validate.notEmpty(name, "name is null or empty");
+		Validate.notNull(help, "help is null");
+		this.registry = registry;
+		this.name = name;
+		this.help = help;
+	}
+
+	/**
+	 * Gets the name of this metric.
+	 * 
+	 * @return the name, not <code>null</code> or empty
+	 */
+	public final String getName() {
+		return name;
+	}
+
+	/**
+	 * Gets the description of this metric.
+	 * 
+	 * @return the description, not <code>null</code>
+	 */
+	public final String getHelp() {
+		return help;
+	}
+
+	/**
+	 * Gets the Prometheus metric type, such as <code>counter</code> or <code>gauge</code>.
+	 * 
+	 * @return the metric type
+	 */
+	protected abstract String getType();
+
+	/**
+	 * Resets the recorded values.
+	 */
+	public abstract void reset();
+
+	/**
+	 * Appends the current samples of this metric in the Prometheus text format.
+	 * 
+	 * @param builder
+	 *            the builder to append to, not <code>null</code>
+	 */
+	protected abstract void writeSamples(StringBuilder builder);
+
+	protected static void writeSample(StringBuilder builder, String name, double value) {
+		builder.append(name).append(' ').append(formatValue(value)).append('\n');
+	}
+
+	protected static String formatValue(double value) {
+		if (Double.isNaN(value)) return "NaN";
+		if (Double.isInfinite(value)) return (value > 0) ? "+Inf" : "-Inf";
+		if (value == Math.rint(value) && Math.abs(value) < 1.0E15D) {
+			return Long.toString((long) value);
+		}
+		return Double.toString(value);
+	}
+}
@@ -0,0 +1,189 @@
+package com.nisovin.shopkeepers.util.metrics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleSupplier;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import com.nisovin.shopkeepers.util.java.Validate;
+
+/**
+ * A registry of {@link Counter counters}, {@link Gauge gauges}, and {@link Histogram histograms}.
+ * <p>
+ * While the registry is disabled, its metrics do not record any values. The instrumented code can
+ * use {@link #startNanos()} to also skip the retrieval of the current time while the registry is
+ * disabled, so that disabled metrics have practically no overhead.
+ * <p>
+ * The registered metrics can be exported in the Prometheus text format. The registration and
+ * export of metrics is thread-safe.
+ */
+public final class MetricsRegistry {
+
+	private final String namePrefix;
+	private volatile boolean enabled = false;
+	// Synchronized on the map itself. Kept in registration order.
+	private final Map<@NonNull String, @NonNull Metric> metrics = new LinkedHashMap<>();
+
+	/**
+	 * Creates a new {@link MetricsRegistry}.
+	 * 
+	 * @param namePrefix
+	 *            the prefix that is prepended to the names of all registered metrics, not
+	 *            <code>null</code>, can be empty
+	 */
+	public MetricsRegistry(String namePrefix) {
+		Validate.notNull(namePrefix, "namePrefix is null");
+		this.namePrefix = namePrefix;
+	}
+
+	/**
+	 * Checks if this registry is enabled.
+	 * 
+	 * @return <code>true</code> if enabled
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Enables or disables the recording of values by the metrics of this registry.
+	 * <p>
+	 * Enabling the registry resets all recorded values.
+	 * 
+	 * @param enabled
+	 *            <code>true</code> to enable the registry
+	 */
+	public void setEnabled(boolean enabled) {
+		if (this.enabled == enabled) return;
+		if (enabled) {
+			this.reset();
+		}
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Gets the current time for the measurement of a duration via
+	 * {@link Histogram#recordSince(long)}.
+	 * 
+	 * @return the current value of {@link System#nanoTime()}, or <code>0</code> if this registry
+	 *         is disabled
+	 */
+	public long startNanos() {
+		if (!enabled) return 0L;
+		long nanos = System.nanoTime();
+		// 0 indicates a disabled registry:
+		return (nanos == 0L) ? 1L : nanos;
+	}
+
+	private <M extends @NonNull Metric> M register(M metric, boolean replace) {
+		String name = metric.getName();
+		synchronized (metrics) {
+			Validate.isTrue(replace || !metrics.containsKey(name),
+					() -> "There already exists a metric with the same name: " + name);
+			metrics.put(name, metric);
+		}
+		return metric;
+	}
+
+	/**
+	 * Registers a new {@link Counter}.
+	 * 
+	 * @param name
+	 *            the metric name, without the registry's name prefix, not <code>null</code> or
+	 *            empty
+	 * @param help
+	 *            the metric description, not <code>null</code>
+	 * @return the counter, not <code>null</code>
+	 */
+	public Counter counter(String name, String help) {
+		return this.register(new Counter(this, namePrefix + name, help), false);
+	}
+
+	/**
+	 * Registers a new {@link Gauge}.
+	 * <p>
+	 * If there already exists a gauge with the same name, it is replaced. This allows gauges to be
+	 * re-registered when the sampled objects are recreated.
+	 * 
+	 * @param name
+	 *            the metric name, without the registry's name prefix, not <code>null</code> or
+	 *            empty
+	 * @param help
+	 *            the metric description, not <code>null</code>
+	 * @param supplier
+	 *            samples the gauge's value, not <code>null</code>
+	 * @return the gauge, not <code>null</code>
+	 */
+	public Gauge gauge(String name, String help, DoubleSupplier supplier) {
+		String fullName = namePrefix + name;
+		synchronized (metrics) {
+			Metric existing = metrics.get(fullName);
+			Validate.isTrue(existing == null || existing instanceof Gauge,
+					() -> "There already exists a metric with the same name: " + fullName);
+		}
+		return this.register(new Gauge(this, fullName, help, supplier), true);
+	}
+
+	/**
+	 * Registers a new {@link Histogram}.
+	 * 
+	 * @param name
+	 *            the metric name, without the registry's name prefix, not <code>null</code> or
+	 *            empty
+	 * @param help
+	 *            the metric description, not <code>null</code>
+	 * @return the histogram, not <code>null</code>
+	 */
+	public Histogram histogram(String name, String help) {
+		return this.register(new Histogram(this, namePrefix + name, help), false);
+	}
+
+	/**
+	 * Gets a snapshot of the registered metrics.
+	 * 
+	 * @return the registered metrics, in registration order, not <code>null</code>
+	 */
+	public List<? extends @NonNull Metric> getMetrics() {
+		synchronized (metrics) {
+			return new ArrayList<>(metrics.values());
+		}
+	}
+
+	/**
+	 * Resets the recorded values of all registered metrics.
+	 */
+	public void reset() {
+		this.getMetrics().forEach(Metric::reset);
+	}
+
+	/**
+	 * Exports the current values of all registered metrics in the Prometheus text format.
+	 * <p>
+	 * This samples all registered {@link Gauge gauges} on the calling thread.
+	 * 
+	 * @return the exported metrics, not <code>null</code>
+	 */
+	public String toPrometheusText() {
+		StringBuilder builder = new StringBuilder();
+		for (Metric metric : this.getMetrics()) {
+			String name = metric.getName();
+			if (!metric.getHelp().isEmpty()) {
+				builder.append("# HELP ").append(name).append(' ')
+						.append(escapeHelp(metric.getHelp())).append('\n');
+			}
+			builder.append("# TYPE ").append(name).append(' ').append(metric.getType()).append('\n');
+			metric.writeSamples(builder);
+			if (metric instanceof Histogram) {
+				((Histogram) metric).writeMaxGauge(builder);
+			}
+		}
+		return builder.toString();
+	}
+
+	private static String escapeHelp(String help) {
+		return help.replace("\\", "\\\\").replace("\n", "\\n");
+	}
+}
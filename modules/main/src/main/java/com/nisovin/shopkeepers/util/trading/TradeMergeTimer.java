@@ -0,0 +1,90 @@
+package com.nisovin.shopkeepers.util.trading;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A single timer task that is shared by all {@link TradeMerger}s in order to end their trade
+ * merging once the merge durations have passed.
+ * <p>
+ * The timer only runs while there are {@link TradeMerger}s with pending trades. It counts its own
+ * ticks, so that the merge durations are measured in server ticks, similar to the delays of
+ * Bukkit tasks.
+ */
+final class TradeMergeTimer {
+
+	private static final Set<@NonNull TradeMerger> activeMergers = new LinkedHashSet<>();
+	private static @Nullable BukkitTask task = null;
+	private static long currentTick = 0L;
+
+	/**
+	 * Gets the current tick of this timer.
+	 * 
+	 * @return the current tick
+	 */
+	static long getCurrentTick() {
+		return currentTick;
+	}
+
+	/**
+	 * Registers the given {@link TradeMerger} so that it is informed about subsequent ticks, and
+	 * starts the timer task if it is not running yet.
+	 * <p>
+	 * This has no effect if the {@link TradeMerger} is already registered.
+	 * 
+	 * @param plugin
+	 *            the plugin that is used to start the timer task, not <code>null</code>
+	 * @param tradeMerger
+	 *            the trade merger, not <code>null</code>
+	 */
+	static void register(Plugin plugin, TradeMerger tradeMerger) {
+		assert plugin != null && tradeMerger != null;
+		if (!activeMergers.add(tradeMerger)) return; // Already registered
+		if (task == null) {
+			task = Bukkit.getScheduler().runTaskTimer(plugin, TradeMergeTimer::tick, 1L, 1L);
+		}
+	}
+
+	/**
+	 * Unregisters the given {@link TradeMerger}, and stops the timer task if there are no more
+	 * registered {@link TradeMerger}s.
+	 * 
+	 * @param tradeMerger
+	 *            the trade merger, not <code>null</code>
+	 */
+	static void unregister(TradeMerger tradeMerger) {
+		assert tradeMerger != null;
+		activeMergers.remove(tradeMerger);
+		stopIfIdle();
+	}
+
+	private static void stopIfIdle() {
+		if (activeMergers.isEmpty() && task != null) {
+			task.cancel();
+			task = null;
+		}
+	}
+
+	private static void tick() {
+		currentTick++;
+		Iterator<@NonNull TradeMerger> iterator = activeMergers.iterator();
+		while (iterator.hasNext()) {
+			TradeMerger tradeMerger = iterator.next();
+			// Trade mergers without pending trades are no longer informed:
+			if (!tradeMerger.onTimerTick(currentTick)) {
+				iterator.remove();
+			}
+		}
+		stopIfIdle();
+	}
+
+	private TradeMergeTimer() {
+	}
+}
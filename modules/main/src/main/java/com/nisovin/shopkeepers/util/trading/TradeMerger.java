@@ -1,37 +1,49 @@
 package com.nisovin.shopkeepers.util.trading;
 
-import java.util.concurrent.TimeUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
 
-import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.plugin.Plugin;
-import org.bukkit.scheduler.BukkitTask;
 import org.checkerframework.checker.initialization.qual.UnknownInitialization;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import com.nisovin.shopkeepers.api.events.ShopkeeperTradeEvent;
 import com.nisovin.shopkeepers.api.internal.util.Unsafe;
-import com.nisovin.shopkeepers.util.bukkit.Ticks;
+import com.nisovin.shopkeepers.api.shopkeeper.Shopkeeper;
 import com.nisovin.shopkeepers.util.java.Validate;
 
 /**
- * Merges sequentially triggered shopkeeper trades that involve the same player, shopkeeper, and
- * items.
+ * Merges shopkeeper trades that involve the same player, shopkeeper, and items.
  * <p>
- * Once a trade is encountered that cannot be merged with the previous trades, or once a certain
- * maximum duration has passed, or the {@link TradeMerger} is {@link #onDisable() disabled}, an
- * initially provided {@link Consumer} is informed about the merged trades so that they can be
+ * Trades are merged within independent merge windows per player and shopkeeper. Each merge window
+ * can merge the trades of different items separately, so that a player that alternates between
+ * several trades of the same shopkeeper, or several players that trade at the same time, do not
+ * interrupt each other's trade merging. Once a certain maximum duration has passed for a merge
+ * window, or the {@link TradeMerger} is {@link #onDisable() disabled}, an initially provided
+ * {@link Consumer} is informed about the merged trades of the merge window so that they can be
  * further processed.
+ * <p>
+ * The merged trades are processed in the order in which their merge windows end. The merged
+ * trades of different merge windows are therefore not necessarily processed in the order in which
+ * their initial trades took place. The merge windows are ended by a single timer task that is
+ * shared by all {@link TradeMerger}s, and that only runs while there are pending trades.
  */
 public class TradeMerger {
 
 	/**
 	 * Different trade merging behaviors.
 	 * <p>
-	 * Regardless of the chosen {@link MergeMode}, trades are always only merged if they take place
-	 * sequentially and involve the same player, shopkeeper, and items.
+	 * Regardless of the chosen {@link MergeMode}, trades are always only merged if they involve
+	 * the same player, shopkeeper, and items.
 	 */
 	public enum MergeMode {
 		/**
@@ -41,44 +53,73 @@ public class TradeMerger {
 		SAME_CLICK_EVENT,
 		/**
 		 * Merges equivalent trades over a certain duration. By default, the maximum time span
-		 * between successive merged trades is 5 seconds, and the maximum time span between the
-		 * first and the last merged trade is 15 seconds.
+		 * between successive trades of the same merge window is 5 seconds, and the maximum time
+		 * span between the first and the last trade of a merge window is 15 seconds.
 		 */
 		DURATION
 	}
 
 	private static final long DEFAULT_MERGE_DURATION_TICKS = 300L; // 15 seconds
 	private static final long DEFAULT_NEXT_MERGE_TIMEOUT_TICKS = 100L; // 5 seconds
-	// In order to avoid restarting the next merge timeout task too often (i.e. for performance
-	// reasons), the actual next merge timeout duration may dynamically vary by this amount. Since
-	// the primary purpose of this task is to detect the absence of trades that are manually
-	// triggered by players, it does not make much of a noticeable difference whether the trade
-	// merging is aborted slightly earlier or later.
-	private static final long NEXT_MERGE_TIMEOUT_THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(500L);
+
+	// Identifies a merge window. Players and shopkeepers are compared by identity.
+	private static final class MergeKey {
+
+		private final Player player;
+		private final Shopkeeper shopkeeper;
+
+		MergeKey(Player player, Shopkeeper shopkeeper) {
+			this.player = player;
+			this.shopkeeper = shopkeeper;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(player) + System.identityHashCode(shopkeeper);
+		}
+
+		@Override
+		public boolean equals(@Nullable Object obj) {
+			if (this == obj) return true;
+			if (!(obj instanceof MergeKey)) return false;
+			MergeKey other = (MergeKey) obj;
+			return player == other.player && shopkeeper == other.shopkeeper;
+		}
+	}
+
+	private static final class MergeWindow {
+
+		final MergeKey key;
+		// The merged trades of the different traded items, in the order of their initial trades.
+		// We don't expect there to be many different traded items within the same merge window.
+		final List<@NonNull MergedTrades> mergedTrades = new ArrayList<>(1);
+		final long startTick;
+		long lastTradeTick;
+		boolean ended = false;
+
+		MergeWindow(MergeKey key, long startTick) {
+			this.key = key;
+			this.startTick = startTick;
+			this.lastTradeTick = startTick;
+		}
+	}
 
 	private final Plugin plugin;
 	private final Consumer<@NonNull MergedTrades> mergedTradesConsumer;
 	private final MergeMode mergeMode;
 	// The maximum time span between the first and the last merged trade:
 	private long mergeDurationTicks; // Can be 0 to disable the trade merging
-	private long mergeDurationNanos;
-	// The maximum time span between successive merged trades:
+	// The maximum time span between successive merged trades, or 0 if not used:
 	private long nextMergeTimeoutTicks;
-	private long nextMergeTimeoutNanos;
-
-	private @Nullable MergedTrades previousTrades = null;
-	// The expected maximum nano time by which this merge will end. If the server lags, the actual
-	// end time can be later. This is used to estimate whether it makes sense to start or skip a new
-	// timeout task for the next merge.
-	// TODO In order to account for server lag, check more frequently whether one of the trade
-	// merging timeouts has already been reached?
-	private long mergeEndNanos;
-	private long lastMergedTradeNanos;
-
-	private @Nullable BukkitTask mergeDurationTask = null;
-	private @Nullable BukkitTask nextMergeTimeoutTask = null;
-	// This is set to the lastMergedTradeNanos at the time the nextMergeTimeoutTask is started.
-	private long nextMergeTimeoutStartNanos;
+
+	// Access ordered: Ordered by the time of the last trade of each merge window.
+	private final Map<@NonNull MergeKey, @NonNull MergeWindow> mergeWindows = new LinkedHashMap<>(
+			16,
+			0.75F,
+			true
+	);
+	// Ordered by the start time of the merge windows. Ended merge windows are removed lazily.
+	private final Deque<@NonNull MergeWindow> mergeWindowsByStart = new ArrayDeque<>();
 
 	public TradeMerger(
 			Plugin plugin,
@@ -115,7 +156,7 @@ public class TradeMerger {
 	 * @return this {@link TradeMerger}
 	 */
 	public TradeMerger withMergeDurations(long mergeDurationTicks, long nextMergeTimeoutTicks) {
-		Validate.State.isTrue(previousTrades == null,
+		Validate.State.isTrue(mergeWindows.isEmpty(),
 				"This TradeMerger cannot be reconfigured while it is already merging trades.");
 		Validate.State.isTrue(mergeMode == MergeMode.DURATION,
 				"Calling this method is only valid when using MergeMode DURATION.");
@@ -131,181 +172,132 @@ public class TradeMerger {
 		Validate.isTrue(mergeDurationTicks >= 0, "mergeDurationTicks cannot be negative");
 		Validate.isTrue(nextMergeTimeoutTicks >= 0, "nextMergeTimeoutTicks cannot be negative");
 		this.mergeDurationTicks = mergeDurationTicks;
-		this.mergeDurationNanos = Ticks.toNanos(mergeDurationTicks);
-		this.nextMergeTimeoutTicks = nextMergeTimeoutTicks;
-		this.nextMergeTimeoutNanos = Ticks.toNanos(nextMergeTimeoutTicks);
+		// This timeout is not used if its duration is 0, or if its duration is greater than or
+		// equal to the merge duration. This also excludes the cases where the trade merging is
+		// disabled (i.e. when the merge duration is 0), or where the merge mode is SAME_CLICK_EVENT
+		// (i.e. when the merge duration is 1).
+		if (nextMergeTimeoutTicks >= mergeDurationTicks) {
+			this.nextMergeTimeoutTicks = 0L;
+		} else {
+			this.nextMergeTimeoutTicks = nextMergeTimeoutTicks;
+		}
 	}
 
 	public void onEnable() {
 	}
 
 	public void onDisable() {
-		// Process the previous trades, if there are any:
-		// This also stops the delayed tasks.
-		this.processPreviousTrades();
+		// Process the pending trades, if there are any:
+		// This also unregisters this trade merger from the shared timer.
+		this.processPendingTrades();
 	}
 
 	/**
-	 * Tries to merge the given trade with the previous trades, and triggers the processing of the
-	 * previous trades if they could not be merged.
+	 * Tries to merge the given trade with the pending trades of the same player and shopkeeper.
 	 * 
 	 * @param tradeEvent
 	 *            the trade event
 	 */
 	public void mergeTrade(ShopkeeperTradeEvent tradeEvent) {
 		Validate.notNull(tradeEvent, "tradeEvent is null");
-		long nowNanos = System.nanoTime();
-		MergedTrades previousTrades = this.previousTrades;
-		if (previousTrades == null) {
-			// There are no previous trades to merge with.
-			this.previousTrades = new MergedTrades(tradeEvent);
-			mergeEndNanos = nowNanos + mergeDurationNanos;
-			lastMergedTradeNanos = nowNanos;
-			this.startDelayedTasks();
-		} else if (previousTrades.canMerge(tradeEvent, mergeMode == MergeMode.SAME_CLICK_EVENT)) {
-			// Merge the trade with the previous trades:
-			previousTrades.addTrades(1);
-			lastMergedTradeNanos = nowNanos;
-		} else {
-			// The trade could not be merged with the previous trades.
-			this.processPreviousTrades();
-			assert this.previousTrades == null;
-			this.previousTrades = new MergedTrades(tradeEvent);
-			mergeEndNanos = nowNanos + mergeDurationNanos;
-			lastMergedTradeNanos = nowNanos;
-			this.startDelayedTasks();
-		}
-	}
-
-	private void endDelayedTasks() {
-		this.endMergeDurationTask();
-		this.endNextMergeTimeoutTask();
-	}
-
-	private void endMergeDurationTask() {
-		if (mergeDurationTask != null) {
-			mergeDurationTask.cancel();
-			mergeDurationTask = null;
+		// A merge duration of 0 disables the trade merging:
+		if (mergeDurationTicks == 0) {
+			mergedTradesConsumer.accept(new MergedTrades(tradeEvent));
+			return;
 		}
-	}
 
-	private void endNextMergeTimeoutTask() {
-		if (nextMergeTimeoutTask != null) {
-			nextMergeTimeoutTask.cancel();
-			nextMergeTimeoutTask = null;
+		long currentTick = TradeMergeTimer.getCurrentTick();
+		MergeKey key = new MergeKey(tradeEvent.getPlayer(), tradeEvent.getShopkeeper());
+		// Note: This also moves the merge window to the end of the access order.
+		MergeWindow mergeWindow = mergeWindows.get(key);
+		if (mergeWindow != null && this.isExpired(mergeWindow, currentTick)) {
+			// The timer did not end the merge window yet:
+			this.endMergeWindow(mergeWindow);
+			mergeWindow = null;
 		}
-	}
 
-	private void startDelayedTasks() {
-		// End the previous tasks, if they are active:
-		this.endDelayedTasks();
-
-		// A merge duration of 0 effectively disables the trade merging:
-		if (mergeDurationTicks == 0) {
-			this.processPreviousTrades();
+		if (mergeWindow == null) {
+			mergeWindow = new MergeWindow(key, currentTick);
+			mergeWindows.put(key, mergeWindow);
+			mergeWindowsByStart.addLast(mergeWindow);
+			mergeWindow.mergedTrades.add(new MergedTrades(tradeEvent));
+			TradeMergeTimer.register(plugin, this);
 			return;
 		}
 
-		// Start the delayed tasks that end the trade merging after certain maximum durations:
-		this.startMergeDurationTask();
-		this.startNextMergeTimeoutTask();
-	}
-
-	private void startMergeDurationTask() {
-		// End the previous task, if there is one:
-		this.endMergeDurationTask();
-
-		// Start a new delayed task that ends the trade merging after a certain maximum duration:
-		mergeDurationTask = Bukkit.getScheduler().runTaskLater(
-				plugin,
-				new MaxMergeDurationTimeoutTask(),
-				mergeDurationTicks
-		);
+		mergeWindow.lastTradeTick = currentTick;
+		boolean requireSameClickEvent = (mergeMode == MergeMode.SAME_CLICK_EVENT);
+		for (MergedTrades mergedTrades : mergeWindow.mergedTrades) {
+			if (mergedTrades.canMerge(tradeEvent, requireSameClickEvent)) {
+				mergedTrades.addTrades(1);
+				return;
+			}
+		}
+		// The trade could not be merged with the pending trades of the merge window:
+		mergeWindow.mergedTrades.add(new MergedTrades(tradeEvent));
 	}
 
-	private class MaxMergeDurationTimeoutTask implements Runnable {
-		@Override
-		public void run() {
-			assert previousTrades != null; // Otherwise this task would have already been cancelled
-			mergeDurationTask = null;
-			processPreviousTrades();
+	private boolean isExpired(MergeWindow mergeWindow, long currentTick) {
+		if (currentTick - mergeWindow.startTick >= mergeDurationTicks) return true;
+		if (nextMergeTimeoutTicks != 0
+				&& currentTick - mergeWindow.lastTradeTick >= nextMergeTimeoutTicks) {
+			return true;
 		}
+		return false;
 	}
 
-	private void startNextMergeTimeoutTask() {
-		// This timeout is not used if its duration is 0, or if its duration is greater than or
-		// equal to the merge duration. This also excludes the cases where the trade merging is
-		// disabled (i.e. when the merge duration is 0), or where the merge mode is SAME_CLICK_EVENT
-		// (i.e. when the merge duration is 1).
-		if (nextMergeTimeoutTicks == 0 || nextMergeTimeoutTicks >= mergeDurationTicks) return;
-		assert mergeMode == MergeMode.DURATION;
-
-		// End the previous task, if there is one:
-		this.endNextMergeTimeoutTask();
-
-		// In order to avoid restarting this task very frequently (e.g. after every merged trade),
-		// we instead only start this task once and then check afterwards whether there have been
-		// any trades in the meantime. If there has been another trade, a new next merge timeout
-		// task is started with a delay according to the remaining timeout duration for the last
-		// merged trade.
-		long nowNanos = System.nanoTime();
-		long nanosSinceLastMergedTrade = nowNanos - lastMergedTradeNanos;
-		assert nanosSinceLastMergedTrade >= 0;
-		// If the server lagged, this may end up being negative:
-		long remainingTimeoutNanos = nextMergeTimeoutNanos - nanosSinceLastMergedTrade;
-
-		// We avoid starting a new task if the remaining timeout duration is below a certain
-		// threshold. This threshold also captures the case where the remainingTimeoutNanos is less
-		// than 0, or the resulting task delay ticks is less than 1.
-		if (remainingTimeoutNanos <= NEXT_MERGE_TIMEOUT_THRESHOLD_NANOS) {
-			this.processPreviousTrades();
-			return;
+	// Invoked by the shared TradeMergeTimer. Returns false if there are no more pending trades.
+	boolean onTimerTick(long currentTick) {
+		// Merge windows that reached their maximum duration:
+		while (!mergeWindowsByStart.isEmpty()) {
+			MergeWindow mergeWindow = Unsafe.assertNonNull(mergeWindowsByStart.peekFirst());
+			if (!mergeWindow.ended) {
+				if (currentTick - mergeWindow.startTick < mergeDurationTicks) break;
+				this.endMergeWindow(mergeWindow);
+			}
+			mergeWindowsByStart.removeFirst();
 		}
 
-		// We avoid starting a new task if the trade merging is expected to end earlier, or roughly
-		// at the same time (by up to NEXT_MERGE_TIMEOUT_THRESHOLD_NANOS) as the task anyways:
-		if (mergeEndNanos <= nowNanos + remainingTimeoutNanos + NEXT_MERGE_TIMEOUT_THRESHOLD_NANOS) {
-			return;
+		// Merge windows that reached their next merge timeout:
+		if (nextMergeTimeoutTicks != 0) {
+			Iterator<@NonNull MergeWindow> iterator = mergeWindows.values().iterator();
+			while (iterator.hasNext()) {
+				MergeWindow mergeWindow = iterator.next();
+				if (currentTick - mergeWindow.lastTradeTick < nextMergeTimeoutTicks) break;
+				iterator.remove();
+				this.processMergeWindow(mergeWindow);
+			}
 		}
+		return !mergeWindows.isEmpty();
+	}
 
-		// Start a new delayed task that ends the trade merging after a certain maximum duration:
-		long taskDelayTicks = Ticks.fromNanos(remainingTimeoutNanos);
-		assert taskDelayTicks >= 1; // Due to the threshold checked above
-		// Keep track of the timestamp of the last merged trade:
-		nextMergeTimeoutStartNanos = lastMergedTradeNanos;
-		nextMergeTimeoutTask = Bukkit.getScheduler().runTaskLater(
-				plugin,
-				new NextMergeTimeoutTask(),
-				taskDelayTicks
-		);
+	private void endMergeWindow(MergeWindow mergeWindow) {
+		mergeWindows.remove(mergeWindow.key);
+		this.processMergeWindow(mergeWindow);
 	}
 
-	private class NextMergeTimeoutTask implements Runnable {
-		@Override
-		public void run() {
-			assert previousTrades != null; // Otherwise this task would have already been cancelled
-			nextMergeTimeoutTask = null;
-
-			// If there has been another trade in the meantime, restart this timeout task:
-			if (lastMergedTradeNanos != nextMergeTimeoutStartNanos) {
-				startNextMergeTimeoutTask();
-			} else {
-				// Otherwise, abort the trade merging:
-				processPreviousTrades();
-			}
-		}
+	private void processMergeWindow(MergeWindow mergeWindow) {
+		assert !mergeWindow.ended;
+		mergeWindow.ended = true;
+		mergeWindow.mergedTrades.forEach(mergedTradesConsumer);
 	}
 
 	/**
-	 * Stops merging trades with the previous trades that are still pending to be processed, and
-	 * processes them.
+	 * Ends all merge windows and processes their pending trades.
 	 * <p>
 	 * Calling this method has no effect if there are no pending trades to process.
 	 */
-	public void processPreviousTrades() {
-		if (previousTrades == null) return;
-		this.endDelayedTasks();
-		mergedTradesConsumer.accept(Unsafe.assertNonNull(previousTrades));
-		previousTrades = null;
+	public void processPendingTrades() {
+		TradeMergeTimer.unregister(this);
+		if (mergeWindows.isEmpty()) return;
+
+		// Process the merge windows in the order in which they started:
+		List<@NonNull MergeWindow> pendingMergeWindows = new ArrayList<>(mergeWindowsByStart);
+		mergeWindows.clear();
+		mergeWindowsByStart.clear();
+		pendingMergeWindows.forEach(mergeWindow -> {
+			if (mergeWindow.ended) return;
+			this.processMergeWindow(mergeWindow);
+		});
 	}
 }
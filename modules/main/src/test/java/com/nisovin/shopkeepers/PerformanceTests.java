@@ -1,24 +1,73 @@
 package com.nisovin.shopkeepers;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadMXBean;
 import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
+import java.util.stream.IntStream;
 
 import org.bukkit.Material;
 import org.bukkit.craftbukkit.v1_16_R3.inventory.CraftItemStack;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import com.nisovin.shopkeepers.api.internal.InternalShopkeepersAPI;
 import com.nisovin.shopkeepers.api.internal.util.Unsafe;
+import com.nisovin.shopkeepers.api.shopkeeper.TradingRecipe;
+import com.nisovin.shopkeepers.api.shopkeeper.offers.PriceOffer;
+import com.nisovin.shopkeepers.api.util.ChunkCoords;
+import com.nisovin.shopkeepers.api.util.UnmodifiableItemStack;
+import com.nisovin.shopkeepers.commands.lib.argument.CommandArgument;
+import com.nisovin.shopkeepers.currency.Currencies;
+import com.nisovin.shopkeepers.shopkeeper.SKTradingRecipe;
+import com.nisovin.shopkeepers.shopkeeper.offers.SKPriceOffer;
+import com.nisovin.shopkeepers.shopkeeper.registry.ShopkeeperSearchIndex;
 import com.nisovin.shopkeepers.testutil.AbstractBukkitTest;
+import com.nisovin.shopkeepers.text.MessageTemplate;
+import com.nisovin.shopkeepers.text.Text;
+import com.nisovin.shopkeepers.tradelog.csv.CsvTradeLogIndex;
+import com.nisovin.shopkeepers.tradelog.csv.CsvTradeLogIndex.KeyType;
+import com.nisovin.shopkeepers.tradelog.csv.CsvTradeLogIndexTests;
+import com.nisovin.shopkeepers.tradelog.csv.CsvTradeRecordEncoder;
+import com.nisovin.shopkeepers.tradelog.csv.CsvTradeRecordEncoderTests;
+import com.nisovin.shopkeepers.tradelog.data.PlayerRecord;
+import com.nisovin.shopkeepers.tradelog.data.ShopRecord;
+import com.nisovin.shopkeepers.tradelog.data.TestTradeRecords;
+import com.nisovin.shopkeepers.tradelog.data.TradeRecord;
+import com.nisovin.shopkeepers.tradestatistics.TradeStatisticsTracker;
 import com.nisovin.shopkeepers.util.TestItemStacks;
+import com.nisovin.shopkeepers.util.bukkit.ChunkKeys;
+import com.nisovin.shopkeepers.util.bukkit.ChunkRegionGrid;
+import com.nisovin.shopkeepers.util.bukkit.MutableChunkCoords;
+import com.nisovin.shopkeepers.util.bukkit.WorldChunkMap;
+import com.nisovin.shopkeepers.util.csv.CsvFormatter;
+import com.nisovin.shopkeepers.util.data.serialization.InvalidDataException;
 import com.nisovin.shopkeepers.util.inventory.ItemData;
+import com.nisovin.shopkeepers.util.inventory.ItemInterner;
 import com.nisovin.shopkeepers.util.inventory.ItemUtils;
+import com.nisovin.shopkeepers.util.java.LongHashMap;
 import com.nisovin.shopkeepers.util.java.MutableLong;
 import com.nisovin.shopkeepers.util.java.TimeUtils;
 
@@ -29,6 +78,9 @@ public class PerformanceTests extends AbstractBukkitTest {
 
 	private static final Logger LOGGER = Logger.getLogger(PerformanceTests.class.getCanonicalName());
 
+	@Rule
+	public final TemporaryFolder tempFolder = new TemporaryFolder();
+
 	public static void testPerformance(
 			String outputPrefix,
 			String testName,
@@ -391,4 +443,682 @@ public class PerformanceTests extends AbstractBukkitTest {
 			throw new IllegalStateException("Unexpected test outcome.");
 		}
 	}
+
+	@Test
+	public void testChunkLookupPerformance() {
+		LOGGER.info("Testing chunk lookup performance:");
+		int warmupCount = 10;
+		int testCount = 100;
+		// 100k shop chunks, spread across two worlds:
+		int chunkRange = 224; // 2 * 224^2 ~= 100k
+		String[] worldNames = { "world", "world_nether" };
+
+		Map<@NonNull ChunkCoords, @NonNull Object> hashMap = new HashMap<>();
+		WorldChunkMap<@NonNull Object> worldChunkMap = new WorldChunkMap<>();
+		for (String worldName : worldNames) {
+			for (int chunkX = 0; chunkX < chunkRange; chunkX++) {
+				for (int chunkZ = 0; chunkZ < chunkRange; chunkZ++) {
+					ChunkCoords chunkCoords = new ChunkCoords(worldName, chunkX, chunkZ);
+					hashMap.put(chunkCoords, chunkCoords);
+					worldChunkMap.put(chunkCoords, chunkCoords);
+				}
+			}
+		}
+
+		// Simulates the chunk lookups of chunk loads and unloads, with half of the looked up
+		// chunks not containing any shopkeepers:
+		MutableLong value = new MutableLong();
+		MutableChunkCoords sharedChunkCoords = new MutableChunkCoords();
+		testPerformance(
+				"  ",
+				"HashMap<ChunkCoords> with MutableChunkCoords (" + hashMap.size() + " chunks)",
+				warmupCount,
+				testCount,
+				() -> {
+					for (String worldName : worldNames) {
+						for (int chunkX = 0; chunkX < chunkRange; chunkX++) {
+							for (int chunkZ = -chunkRange; chunkZ < chunkRange; chunkZ++) {
+								sharedChunkCoords.set(worldName, chunkX, chunkZ);
+								if (hashMap.get(sharedChunkCoords) != null) {
+									value.increment(1);
+								}
+							}
+						}
+					}
+				}
+		);
+
+		testPerformance(
+				"  ",
+				"WorldChunkMap (" + worldChunkMap.size() + " chunks)",
+				warmupCount,
+				testCount,
+				() -> {
+					for (String worldName : worldNames) {
+						for (int chunkX = 0; chunkX < chunkRange; chunkX++) {
+							for (int chunkZ = -chunkRange; chunkZ < chunkRange; chunkZ++) {
+								if (worldChunkMap.get(worldName, chunkX, chunkZ) != null) {
+									value.increment(1);
+								}
+							}
+						}
+					}
+				}
+		);
+
+		if (value.getValue() == 0) {
+			throw new IllegalStateException("Unexpected test outcome.");
+		}
+	}
+
+	private static final class TestChunk {
+
+		final long chunkKey;
+		final List<int @NonNull []> positions = new ArrayList<>();
+
+		TestChunk(long chunkKey) {
+			this.chunkKey = chunkKey;
+		}
+	}
+
+	private static double getDistanceSquared(int[] position, double[] location) {
+		double dx = position[0] - location[0];
+		double dy = position[1] - location[1];
+		double dz = position[2] - location[2];
+		return dx * dx + dy * dy + dz * dz;
+	}
+
+	private static void offerCandidate(
+			PriorityQueue<double @NonNull []> candidates,
+			int maxCandidates,
+			double distanceSquared
+	) {
+		if (candidates.size() < maxCandidates) {
+			candidates.add(new double[] { distanceSquared });
+		} else if (distanceSquared < Unsafe.assertNonNull(candidates.peek())[0]) {
+			candidates.poll();
+			candidates.add(new double[] { distanceSquared });
+		}
+	}
+
+	@Test
+	public void testSpatialQueryPerformance() {
+		LOGGER.info("Testing spatial shopkeeper query performance:");
+		int warmupCount = 1000;
+		int testCount = 10000;
+		// 100k shops, randomly spread across a 20k x 20k blocks area:
+		int shopCount = 100000;
+		int blockRange = 10000;
+		double radius = 64.0D;
+		int nearestCount = 10;
+
+		Random random = new Random(42L);
+		List<int @NonNull []> allPositions = new ArrayList<>(shopCount);
+		LongHashMap<@NonNull TestChunk> chunks = new LongHashMap<>();
+		ChunkRegionGrid<@NonNull TestChunk> grid = new ChunkRegionGrid<>(chunk -> chunk.chunkKey);
+		for (int i = 0; i < shopCount; i++) {
+			int[] position = new int[] {
+					random.nextInt(2 * blockRange) - blockRange,
+					64 + random.nextInt(16),
+					random.nextInt(2 * blockRange) - blockRange
+			};
+			allPositions.add(position);
+			long chunkKey = ChunkKeys.of(position[0] >> 4, position[2] >> 4);
+			chunks.computeIfAbsent(chunkKey, key -> {
+				TestChunk chunk = new TestChunk(key);
+				grid.add(chunk);
+				return chunk;
+			}).positions.add(position);
+		}
+
+		// Query locations:
+		int queryCount = 64;
+		double[][] queries = new double[queryCount][];
+		for (int i = 0; i < queryCount; i++) {
+			queries[i] = new double[] {
+					random.nextInt(2 * blockRange) - blockRange + 0.5D,
+					70.0D,
+					random.nextInt(2 * blockRange) - blockRange + 0.5D
+			};
+		}
+		MutableLong queryIndex = new MutableLong();
+		Supplier<double @NonNull []> nextQuery = () -> {
+			double[] query = queries[(int) (queryIndex.getValue() % queryCount)];
+			queryIndex.increment(1);
+			return query;
+		};
+		MutableLong value = new MutableLong();
+
+		testPerformance(
+				"  ",
+				"radius query, linear scan (" + shopCount + " shops)",
+				warmupCount / 10,
+				testCount / 10,
+				() -> {
+					double[] query = nextQuery.get();
+					double radiusSquared = radius * radius;
+					for (int[] position : allPositions) {
+						double distanceSquared = getDistanceSquared(position, query);
+						if (distanceSquared <= radiusSquared) {
+							value.increment(1);
+						}
+					}
+				}
+		);
+
+		testPerformance(
+				"  ",
+				"radius query, region grid (" + shopCount + " shops)",
+				warmupCount,
+				testCount,
+				() -> {
+					double[] query = nextQuery.get();
+					double radiusSquared = radius * radius;
+					grid.forEachInChunkRange(
+							(int) Math.floor(query[0] - radius) >> 4,
+							(int) Math.floor(query[2] - radius) >> 4,
+							(int) Math.floor(query[0] + radius) >> 4,
+							(int) Math.floor(query[2] + radius) >> 4,
+							chunk -> {
+								for (int[] position : chunk.positions) {
+									double distanceSquared = getDistanceSquared(position, query);
+									if (distanceSquared <= radiusSquared) {
+										value.increment(1);
+									}
+								}
+							}
+					);
+				}
+		);
+
+		Comparator<double @NonNull []> byDistanceDescending = (a, b) -> Double.compare(b[0], a[0]);
+		testPerformance(
+				"  ",
+				"nearest " + nearestCount + " query, linear scan (" + shopCount + " shops)",
+				warmupCount / 10,
+				testCount / 10,
+				() -> {
+					double[] query = nextQuery.get();
+					PriorityQueue<double @NonNull []> candidates = new PriorityQueue<>(
+							byDistanceDescending
+					);
+					for (int[] position : allPositions) {
+						offerCandidate(
+								candidates,
+								nearestCount,
+								getDistanceSquared(position, query)
+						);
+					}
+					value.increment(candidates.size());
+				}
+		);
+
+		testPerformance(
+				"  ",
+				"nearest " + nearestCount + " query, region grid (" + shopCount + " shops)",
+				warmupCount,
+				testCount,
+				() -> {
+					double[] query = nextQuery.get();
+					PriorityQueue<double @NonNull []> candidates = new PriorityQueue<>(
+							byDistanceDescending
+					);
+					grid.forEachInRings(
+							(int) Math.floor(query[0]),
+							(int) Math.floor(query[2]),
+							ring -> {
+								if (candidates.size() < nearestCount) return true;
+								double minDistance = ChunkRegionGrid.getMinBlockDistance(ring);
+								double farthest = Unsafe.assertNonNull(candidates.peek())[0];
+								return minDistance * minDistance < farthest;
+							},
+							chunk -> {
+								for (int[] position : chunk.positions) {
+									offerCandidate(
+											candidates,
+											nearestCount,
+											getDistanceSquared(position, query)
+									);
+								}
+							}
+					);
+					value.increment(candidates.size());
+				}
+		);
+
+		if (value.getValue() == 0) {
+			throw new IllegalStateException("Unexpected test outcome.");
+		}
+	}
+
+	// Creates the data of a synthetic save with the given number of price offers. Each offer uses
+	// its own item stack instance, similar to freshly loaded save data.
+	private static Map<@NonNull String, @NonNull Object> createOffersSaveData(
+			List<? extends @NonNull ItemStack> items,
+			int offerCount
+	) {
+		Map<@NonNull String, @NonNull Object> offerListData = new LinkedHashMap<>();
+		for (int i = 0; i < offerCount; i++) {
+			Map<@NonNull String, @NonNull Object> offerData = new LinkedHashMap<>();
+			offerData.put("item", items.get(i % items.size()).clone());
+			offerData.put("price", 1 + (i % 64));
+			offerListData.put(String.valueOf(i + 1), offerData);
+		}
+		return offerListData;
+	}
+
+	private static long getUsedHeapAfterGC() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 5; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static long measureRetainedOffersHeap(
+			List<? extends @NonNull ItemStack> items,
+			int offerCount
+	) throws InvalidDataException {
+		long usedBefore = getUsedHeapAfterGC();
+		// The save data is no longer referenced after the offers have been loaded:
+		List<? extends @NonNull PriceOffer> offers = SKPriceOffer.LIST_SERIALIZER.deserialize(
+				createOffersSaveData(items, offerCount)
+		);
+		long usedAfter = getUsedHeapAfterGC();
+		if (offers.size() != offerCount) {
+			throw new IllegalStateException("Unexpected test outcome.");
+		}
+		return usedAfter - usedBefore;
+	}
+
+	@Test
+	public void testOfferItemInterningHeapUsage() throws InvalidDataException {
+		LOGGER.info("Testing heap usage of loaded offers with and without item interning:");
+		int offerCount = 50000;
+		// A small number of distinct items, as is common for many shops:
+		List<@NonNull ItemStack> items = new ArrayList<>();
+		items.add(new ItemStack(Material.DIAMOND));
+		items.add(new ItemStack(Material.EMERALD, 16));
+		items.add(TestItemStacks.createItemStackDisplayName());
+		items.add(TestItemStacks.createItemStackComplete());
+		items.add(TestItemStacks.createItemStackWrittenBook());
+
+		try {
+			ItemInterner.setEnabled(false);
+			long withoutInterning = measureRetainedOffersHeap(items, offerCount);
+			ItemInterner.setEnabled(true);
+			long withInterning = measureRetainedOffersHeap(items, offerCount);
+			LOGGER.info("  Retained heap of " + offerCount + " offers without interning: "
+					+ (withoutInterning / 1024) + " KiB");
+			LOGGER.info("  Retained heap of " + offerCount + " offers with interning: "
+					+ (withInterning / 1024) + " KiB (" + ItemInterner.getSize()
+					+ " canonical items)");
+		} finally {
+			ItemInterner.setEnabled(true);
+			ItemInterner.clear();
+		}
+	}
+
+	@Test
+	public void testMessageFormattingPerformance() {
+		LOGGER.info("Testing message formatting performance:");
+		int warmupCount = 10000;
+		int testCount = 1000000;
+		String message = "&7Shop {shop}: &e{player} &7bought &e{item1Amount}x {item1} &7for "
+				+ "&e{resultItemAmount}x {resultItem}&7.";
+		Map<@NonNull String, @NonNull Object> arguments = new HashMap<>();
+		arguments.put("shop", Text.parse("&6Named shop"));
+		arguments.put("player", "Notch");
+		arguments.put("item1Amount", 5);
+		arguments.put("item1", Text.hoverEvent(Text.of("{id:\"minecraft:stone\"}"))
+				.childText("Stone").buildRoot());
+		arguments.put("resultItemAmount", 1);
+		arguments.put("resultItem", "Diamond");
+
+		// Assigns the arguments to the shared Text:
+		Text text = Text.parse(message);
+		testPerformance(
+				"  ",
+				"Text#setPlaceholderArguments + toPlainText",
+				warmupCount,
+				testCount,
+				() -> text.setPlaceholderArguments(arguments).toPlainText()
+		);
+
+		// Binds the arguments to a new formatted message:
+		MessageTemplate template = MessageTemplate.compile(Text.parse(message));
+		testPerformance(
+				"  ",
+				"MessageTemplate#format + toPlainText",
+				warmupCount,
+				testCount,
+				() -> template.format(arguments).toPlainText()
+		);
+
+		MessageTemplate staticTemplate = MessageTemplate.compile(Text.parse(
+				"&aTrade notifications have been disabled."
+		));
+		testPerformance(
+				"  ",
+				"MessageTemplate#format + toPlainText (static)",
+				warmupCount,
+				testCount,
+				() -> staticTemplate.format(arguments).toPlainText()
+		);
+	}
+
+	@Test
+	public void testCsvTradeRecordEncodingPerformance() {
+		LOGGER.info("Testing CSV trade record encoding performance:");
+		int warmupCount = 5;
+		int testCount = 20;
+		int recordCount = 100000;
+		List<? extends @NonNull TradeRecord> testRecords
+				= CsvTradeRecordEncoderTests.createTestRecords();
+		List<@NonNull TradeRecord> records = new ArrayList<>(recordCount);
+		for (int i = 0; i < recordCount; i++) {
+			records.add(testRecords.get(i % testRecords.size()));
+		}
+		CsvFormatter csv = CsvTradeRecordEncoderTests.createCsvFormatter();
+		DateTimeFormatter timeFormat = CsvTradeRecordEncoderTests.createTimeFormat();
+		StringWriter writer = new StringWriter();
+
+		// Formats each record via a list of fields:
+		testPerformance(
+				"  ",
+				"CsvFormatter#formatRecord (" + recordCount + " records)",
+				warmupCount,
+				testCount,
+				() -> {
+					writer.getBuffer().setLength(0);
+					for (TradeRecord trade : records) {
+						writer.write(CsvTradeRecordEncoderTests.formatRecord(
+								csv,
+								timeFormat,
+								trade
+						));
+					}
+				}
+		);
+
+		// Encodes each record into the reused buffer:
+		CsvTradeRecordEncoder encoder = new CsvTradeRecordEncoder(csv, timeFormat);
+		testPerformance(
+				"  ",
+				"CsvTradeRecordEncoder#encode (" + recordCount + " records)",
+				warmupCount,
+				testCount,
+				() -> {
+					writer.getBuffer().setLength(0);
+					try {
+						for (TradeRecord trade : records) {
+							encoder.encode(trade, false);
+							encoder.writeRecord(writer);
+						}
+					} catch (IOException e) {
+						throw new RuntimeException(e);
+					}
+				}
+		);
+	}
+
+	@Test
+	public void testCsvTradeLogIndexLookupPerformance() throws IOException {
+		LOGGER.info("Testing CSV trade log index lookup performance:");
+		int recordCount = 300000;
+		int playerCount = 1000;
+		int shopCount = 300;
+		Random random = new Random(1L);
+		PlayerRecord[] players = new PlayerRecord[playerCount];
+		for (int i = 0; i < playerCount; i++) {
+			UUID playerId = new UUID(random.nextLong(), random.nextLong());
+			players[i] = PlayerRecord.of(playerId, "Player" + i);
+		}
+		ShopRecord[] shops = new ShopRecord[shopCount];
+		for (int i = 0; i < shopCount; i++) {
+			shops[i] = new ShopRecord(
+					new UUID(random.nextLong(), random.nextLong()),
+					"sell",
+					players[i % 100],
+					"Shop " + i,
+					"world",
+					i,
+					64,
+					-i
+			);
+		}
+		UnmodifiableItemStack resultItem = UnmodifiableItemStack.ofNonNull(
+				new ItemStack(Material.DIAMOND, 1)
+		);
+		UnmodifiableItemStack item1 = UnmodifiableItemStack.ofNonNull(
+				new ItemStack(Material.EMERALD, 5)
+		);
+		// A day's worth of trades:
+		Instant startTime = Instant.parse("2021-01-02T00:00:00Z");
+		long tradeIntervalMillis = TimeUnit.DAYS.toMillis(1) / recordCount;
+		List<@NonNull TradeRecord> records = new ArrayList<>(recordCount);
+		for (int i = 0; i < recordCount; i++) {
+			records.add(TestTradeRecords.create(
+					startTime.plusMillis(i * tradeIntervalMillis),
+					players[random.nextInt(playerCount)],
+					shops[random.nextInt(shopCount)],
+					resultItem,
+					item1,
+					null,
+					1
+			));
+		}
+		Path logFile = tempFolder.getRoot().toPath().resolve("trades-2021-01-02.csv");
+		CsvTradeLogIndexTests.appendToLog(logFile, true, records);
+		LOGGER.info("  Log file size: " + Files.size(logFile) + " bytes (" + recordCount
+				+ " records)");
+		UUID playerId = players[0].getUniqueId();
+
+		// The first lookup indexes the existing log file:
+		testPerformance(
+				"  ",
+				"CsvTradeLogIndex#findRecords (indexing " + recordCount + " records)",
+				0,
+				1,
+				() -> {
+					try {
+						CsvTradeLogIndex.findRecords(logFile, KeyType.PLAYER, playerId);
+					} catch (IOException e) {
+						throw new RuntimeException(e);
+					}
+				}
+		);
+
+		// Subsequent lookups scan the index. 30 lookups correspond to a month of daily log files:
+		testPerformance(
+				"  ",
+				"CsvTradeLogIndex#findRecords (" + recordCount + " indexed records)",
+				5,
+				30,
+				() -> {
+					try {
+						CsvTradeLogIndex.findRecords(logFile, KeyType.PLAYER, playerId);
+					} catch (IOException e) {
+						throw new RuntimeException(e);
+					}
+				}
+		);
+	}
+
+	private static long getAllocatedBytes() {
+		ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+		if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) return -1L;
+		return ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(
+				Thread.currentThread().getId()
+		);
+	}
+
+	@Test
+	public void testTradeStatisticsRecordingPerformance() {
+		LOGGER.info("Testing trade statistics recording performance:");
+		int warmupCount = 5;
+		int testCount = 20;
+		int shopCount = 10000;
+		long tradeIntervalMillis = TimeUnit.SECONDS.toMillis(1);
+		long startMillis = System.currentTimeMillis();
+		Currencies.load();
+		TradeStatisticsTracker tracker = new TradeStatisticsTracker(
+				InternalShopkeepersAPI.getPlugin()
+		);
+		UUID[] shopkeeperIds = new UUID[shopCount];
+		for (int i = 0; i < shopCount; i++) {
+			shopkeeperIds[i] = new UUID(0L, i);
+		}
+		// Sells an item for currency items:
+		TradingRecipe tradingRecipe = new SKTradingRecipe(
+				new ItemStack(Material.DIAMOND, 1),
+				Currencies.getBase().getItemData().createItemStack(5),
+				null
+		);
+
+		// The duration per trade is expected to be independent of the number of recorded trades:
+		for (int tradeCount : new int[] { 100000, 1000000 }) {
+			MutableLong nowMillis = new MutableLong(startMillis);
+			testPerformance(
+					"  ",
+					"TradeStatisticsTracker#recordTrade (" + tradeCount + " trades)",
+					warmupCount,
+					testCount,
+					() -> {
+						long now = nowMillis.getValue();
+						for (int i = 0; i < tradeCount; i++) {
+							now += tradeIntervalMillis;
+							tracker.recordTrade(shopkeeperIds[i % shopCount], now, tradingRecipe);
+						}
+						nowMillis.setValue(now);
+					}
+			);
+		}
+
+		// Recording trades with known shopkeepers is expected to not allocate any objects:
+		int tradeCount = 1000000;
+		long allocatedBytesBefore = getAllocatedBytes();
+		long now = startMillis;
+		for (int i = 0; i < tradeCount; i++) {
+			now += tradeIntervalMillis;
+			tracker.recordTrade(shopkeeperIds[i % shopCount], now, tradingRecipe);
+		}
+		long allocatedBytes = getAllocatedBytes() - allocatedBytesBefore;
+		if (allocatedBytesBefore < 0) {
+			LOGGER.info("  Note: Thread allocation measurement not supported!");
+		} else {
+			LOGGER.info("  Allocated bytes while recording " + tradeCount + " trades: "
+					+ allocatedBytes);
+			// Allows for some unrelated allocations, but not for a single object per trade:
+			Assert.assertTrue(
+					"Allocated " + allocatedBytes + " bytes while recording trades",
+					allocatedBytes < tradeCount
+			);
+		}
+	}
+
+	@Test
+	public void testShopkeeperCompletionPerformance() {
+		LOGGER.info("Testing shopkeeper completion performance:");
+		int warmupCount = 10;
+		int testCount = 100;
+		int shopCount = 50000;
+		int limit = CommandArgument.MAX_SUGGESTIONS;
+		String[] names = { "Blacksmith", "Farmer", "&aFood Shop", "Armorer", "Librarian" };
+		Random random = new Random(1L);
+
+		ShopkeeperSearchIndex<@NonNull Integer> searchIndex = new ShopkeeperSearchIndex<>();
+		List<@NonNull String> shopNames = new ArrayList<>(shopCount);
+		List<@NonNull UUID> shopUniqueIds = new ArrayList<>(shopCount);
+		for (int id = 1; id <= shopCount; id++) {
+			String name = names[random.nextInt(names.length)] + " " + random.nextInt(1000);
+			UUID uniqueId = new UUID(random.nextLong(), random.nextLong());
+			shopNames.add(name);
+			shopUniqueIds.add(uniqueId);
+			searchIndex.add(id, id, uniqueId, name);
+		}
+
+		// Prefixes with many matches, few matches, and no matches:
+		String[] namePrefixes = { "", "f", "food-shop-12", "trader" };
+		String[] idPrefixes = { "1", "4242", "99" };
+		String[] uniqueIdPrefixes = { "0", "abc", "fffff" };
+
+		// Previous approach: Checks every shopkeeper until enough matches are found.
+		testPerformance(
+				"  ",
+				"Name completion (full scan)",
+				warmupCount,
+				testCount,
+				() -> {
+					for (String namePrefix : namePrefixes) {
+						shopNames.stream()
+								.map(ShopkeeperSearchIndex::normalizeName)
+								.filter(name -> name.startsWith(namePrefix))
+								.limit(limit)
+								.count();
+					}
+				}
+		);
+		testPerformance(
+				"  ",
+				"Name completion (search index)",
+				warmupCount,
+				testCount,
+				() -> {
+					for (String namePrefix : namePrefixes) {
+						searchIndex.getByNamePrefix(namePrefix).limit(limit).count();
+					}
+				}
+		);
+		testPerformance(
+				"  ",
+				"Id completion (full scan)",
+				warmupCount,
+				testCount,
+				() -> {
+					for (String idPrefix : idPrefixes) {
+						IntStream.rangeClosed(1, shopCount)
+								.filter(id -> String.valueOf(id).startsWith(idPrefix))
+								.limit(limit)
+								.count();
+					}
+				}
+		);
+		testPerformance(
+				"  ",
+				"Id completion (search index)",
+				warmupCount,
+				testCount,
+				() -> {
+					for (String idPrefix : idPrefixes) {
+						searchIndex.getByIdPrefix(idPrefix).limit(limit).count();
+					}
+				}
+		);
+		testPerformance(
+				"  ",
+				"Unique id completion (full scan)",
+				warmupCount,
+				testCount,
+				() -> {
+					for (String uniqueIdPrefix : uniqueIdPrefixes) {
+						shopUniqueIds.stream()
+								.filter(uuid -> uuid.toString().startsWith(uniqueIdPrefix))
+								.limit(limit)
+								.count();
+					}
+				}
+		);
+		testPerformance(
+				"  ",
+				"Unique id completion (search index)",
+				warmupCount,
+				testCount,
+				() -> {
+					for (String uniqueIdPrefix : uniqueIdPrefixes) {
+						searchIndex.getByUniqueIdPrefix(uniqueIdPrefix).limit(limit).count();
+					}
+				}
+		);
+	}
 }
@@ -0,0 +1,60 @@
+package com.nisovin.shopkeepers.commands.lib;
+
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.nisovin.shopkeepers.api.internal.util.Unsafe;
+import com.nisovin.shopkeepers.testutil.AbstractBukkitTest;
+import com.nisovin.shopkeepers.text.MessageTemplate;
+import com.nisovin.shopkeepers.text.Text;
+import com.nisovin.shopkeepers.util.text.MessageArguments;
+
+public class CommandHelpTests extends AbstractBukkitTest {
+
+	private static final String HELP_TITLE = "Shopkeepers v{version}: {name}";
+
+	private static class VersionCommand extends Command {
+
+		VersionCommand(String name) {
+			super(name);
+		}
+
+		@Override
+		protected MessageArguments getHelpTitleMessageArgs() {
+			return MessageArguments.ofMap(Collections.singletonMap("version", "1.2.3"));
+		}
+	}
+
+	private static String formatHelpTitle(Command command) {
+		// The messages are compiled into templates when they are loaded:
+		MessageTemplate template = Unsafe.assertNonNull(
+				MessageTemplate.getCompiled(command.getHelpTitleFormat())
+		);
+		return template.format(command.getHelpTitleArgs()).toPlainText();
+	}
+
+	private static Text createHelpTitleFormat() {
+		Text helpTitleFormat = Text.parse(HELP_TITLE);
+		MessageTemplate.compile(helpTitleFormat);
+		return helpTitleFormat;
+	}
+
+	@Test
+	public void testHelpTitleMessageArgs() {
+		Command command = new VersionCommand("test");
+		command.setHelpTitleFormat(createHelpTitleFormat());
+		Assert.assertEquals("Shopkeepers v1.2.3: test", formatHelpTitle(command));
+	}
+
+	@Test
+	public void testChildCommandInheritsHelpTitleMessageArgs() {
+		Command command = new VersionCommand("test");
+		command.setHelpTitleFormat(createHelpTitleFormat());
+		Command childCommand = new Command("child") {
+		};
+		command.getChildCommands().register(childCommand);
+		Assert.assertEquals("Shopkeepers v1.2.3: child", formatHelpTitle(childCommand));
+	}
+}
@@ -0,0 +1,136 @@
+package com.nisovin.shopkeepers.shopkeeper.migration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
+import com.nisovin.shopkeepers.shopkeeper.ShopkeeperData;
+import com.nisovin.shopkeepers.storage.DataVersion;
+import com.nisovin.shopkeepers.testutil.AbstractBukkitTest;
+import com.nisovin.shopkeepers.util.data.container.DataContainer;
+import com.nisovin.shopkeepers.util.data.serialization.InvalidDataException;
+
+public class ShopkeeperDataMigratorTests extends AbstractBukkitTest {
+
+	private static final int CURRENT_DATA_VERSION = DataVersion.getCurrentShopkeeperDataVersion();
+	// Only the shopkeeper data of these tests is migrated by the test migrations:
+	private static final String TEST_DATA_KEY = "migrator-test";
+
+	private static final List<@NonNull String> appliedMigrations = new ArrayList<>();
+
+	private static class TestMigration extends Migration {
+
+		TestMigration(String name) {
+			super(name, MigrationPhase.EARLY);
+		}
+
+		TestMigration(String name, int maxDataVersion) {
+			super(name, MigrationPhase.EARLY, maxDataVersion);
+		}
+
+		@Override
+		public boolean migrate(
+				ShopkeeperData shopkeeperData,
+				String logPrefix
+		) throws InvalidDataException {
+			if (!shopkeeperData.contains(TEST_DATA_KEY)) return false;
+			appliedMigrations.add(this.getName());
+			return true;
+		}
+	}
+
+	static {
+		ShopkeeperDataMigrator.registerMigration(new TestMigration(
+				"test-old",
+				CURRENT_DATA_VERSION - 2
+		));
+		ShopkeeperDataMigrator.registerMigration(new TestMigration(
+				"test-recent",
+				CURRENT_DATA_VERSION - 1
+		));
+		// E.g. a migration that depends on the configuration:
+		ShopkeeperDataMigrator.registerMigration(new TestMigration("test-always"));
+	}
+
+	private static ShopkeeperData createTestData() {
+		ShopkeeperData shopkeeperData = ShopkeeperData.ofNonNull(DataContainer.create());
+		shopkeeperData.set(TEST_DATA_KEY, true);
+		return shopkeeperData;
+	}
+
+	private static ShopkeeperData createTestData(int dataVersion) {
+		ShopkeeperData shopkeeperData = createTestData();
+		shopkeeperData.set(AbstractShopkeeper.DATA_VERSION, dataVersion);
+		return shopkeeperData;
+	}
+
+	@Before
+	public void resetAppliedMigrations() {
+		appliedMigrations.clear();
+	}
+
+	@Test
+	public void testUpToDateDataSkipsMigrations() throws InvalidDataException {
+		ShopkeeperData shopkeeperData = createTestData(CURRENT_DATA_VERSION);
+		Assert.assertTrue(ShopkeeperDataMigrator.migrate(shopkeeperData, ""));
+		// Only the migrations that are always applied:
+		Assert.assertEquals(Arrays.asList("test-always"), appliedMigrations);
+	}
+
+	@Test
+	public void testAlwaysAppliedMigration() {
+		Migration migration = new TestMigration("test");
+		Assert.assertTrue(migration.isAlwaysApplied());
+		Assert.assertTrue(migration.isApplicable(CURRENT_DATA_VERSION));
+
+		Migration versionedMigration = new TestMigration("test", CURRENT_DATA_VERSION - 1);
+		Assert.assertFalse(versionedMigration.isAlwaysApplied());
+		Assert.assertFalse(versionedMigration.isApplicable(CURRENT_DATA_VERSION));
+	}
+
+	@Test
+	public void testMissingDataVersionAppliesAllMigrations() throws InvalidDataException {
+		ShopkeeperData shopkeeperData = createTestData();
+		Assert.assertEquals(0, ShopkeeperDataMigrator.getDataVersion(shopkeeperData));
+		Assert.assertTrue(ShopkeeperDataMigrator.migrate(shopkeeperData, ""));
+		Assert.assertEquals(
+				Arrays.asList("test-old", "test-recent", "test-always"),
+				appliedMigrations
+		);
+	}
+
+	@Test
+	public void testPartialMigration() throws InvalidDataException {
+		ShopkeeperData shopkeeperData = createTestData(CURRENT_DATA_VERSION - 1);
+		Assert.assertTrue(ShopkeeperDataMigrator.migrate(shopkeeperData, ""));
+		Assert.assertEquals(Arrays.asList("test-recent", "test-always"), appliedMigrations);
+	}
+
+	@Test
+	public void testMigrationDoesNotUpdateDataVersion() throws InvalidDataException {
+		ShopkeeperData shopkeeperData = createTestData(CURRENT_DATA_VERSION - 1);
+		ShopkeeperDataMigrator.migrate(shopkeeperData, "");
+		Assert.assertEquals(
+				CURRENT_DATA_VERSION - 1,
+				ShopkeeperDataMigrator.getDataVersion(shopkeeperData)
+		);
+	}
+
+	@Test
+	public void testNestedDataUsesEnclosingDataVersion() throws InvalidDataException {
+		// Nested data, such as snapshot data, does not store its own data version:
+		ShopkeeperData nestedData = createTestData();
+		ShopkeeperDataMigrator.migrateNested(nestedData, CURRENT_DATA_VERSION, "");
+		Assert.assertEquals(Arrays.asList("test-always"), appliedMigrations);
+
+		appliedMigrations.clear();
+		ShopkeeperDataMigrator.migrateNested(nestedData, CURRENT_DATA_VERSION - 1, "");
+		Assert.assertEquals(Arrays.asList("test-recent", "test-always"), appliedMigrations);
+	}
+}
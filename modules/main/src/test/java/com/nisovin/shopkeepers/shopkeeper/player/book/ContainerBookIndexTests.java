@@ -0,0 +1,126 @@
+package com.nisovin.shopkeepers.shopkeeper.player.book;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.BookMeta;
+import org.bukkit.inventory.meta.BookMeta.Generation;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.nisovin.shopkeepers.api.internal.util.Unsafe;
+import com.nisovin.shopkeepers.testutil.AbstractBukkitTest;
+
+public class ContainerBookIndexTests extends AbstractBukkitTest {
+
+	private static final int CONTAINER_SIZE = 54; // Double chest
+	private static final int DISTINCT_TITLES = 24;
+
+	private static ItemStack createWrittenBook(@Nullable String title, Generation generation) {
+		ItemStack itemStack = new ItemStack(Material.WRITTEN_BOOK);
+		BookMeta bookMeta = Unsafe.castNonNull(itemStack.getItemMeta());
+		bookMeta.setTitle(title);
+		bookMeta.setAuthor("Author");
+		bookMeta.setGeneration(generation);
+		bookMeta.setPages("Page 1");
+		itemStack.setItemMeta(bookMeta);
+		return itemStack;
+	}
+
+	// Creates the contents of a container that is completely filled with books.
+	private static @Nullable ItemStack[] createContainerContents() {
+		@Nullable ItemStack[] contents = new @Nullable ItemStack[CONTAINER_SIZE];
+		// Two copyable books for each title:
+		for (int slot = 0; slot < 2 * DISTINCT_TITLES; slot++) {
+			contents[slot] = createWrittenBook(
+					"Book " + (slot % DISTINCT_TITLES),
+					Generation.ORIGINAL
+			);
+		}
+		// Blank books:
+		contents[48] = new ItemStack(Material.WRITABLE_BOOK, 3);
+		contents[49] = new ItemStack(Material.WRITABLE_BOOK, 3);
+		contents[50] = new ItemStack(Material.WRITABLE_BOOK, 1);
+		// Books that are omitted from the index:
+		contents[51] = createWrittenBook(null, Generation.ORIGINAL);
+		contents[52] = createWrittenBook("Tattered", Generation.TATTERED);
+		contents[53] = createWrittenBook("Copy of copy", Generation.COPY_OF_COPY);
+		return contents;
+	}
+
+	@Test
+	public void testTitles() {
+		ContainerBookIndex bookIndex = ContainerBookIndex.create(createContainerContents());
+		Assert.assertEquals(DISTINCT_TITLES, bookIndex.getTitles().size());
+		int index = 0;
+		for (String title : bookIndex.getTitles()) {
+			Assert.assertEquals("Book " + index, title);
+			index++;
+		}
+	}
+
+	@Test
+	public void testSlotLookup() {
+		ContainerBookIndex bookIndex = ContainerBookIndex.create(createContainerContents());
+		for (int i = 0; i < DISTINCT_TITLES; i++) {
+			String title = "Book " + i;
+			Assert.assertTrue(bookIndex.containsBook(title));
+			Assert.assertEquals(i, bookIndex.getFirstSlot(title));
+			Assert.assertEquals(
+					Arrays.asList(i, i + DISTINCT_TITLES),
+					bookIndex.getSlots(title)
+			);
+		}
+	}
+
+	@Test
+	public void testOmittedBooks() {
+		ContainerBookIndex bookIndex = ContainerBookIndex.create(createContainerContents());
+		Assert.assertFalse(bookIndex.containsBook("Tattered"));
+		Assert.assertFalse(bookIndex.containsBook("Copy of copy"));
+		Assert.assertFalse(bookIndex.containsBook("Missing"));
+		Assert.assertEquals(-1, bookIndex.getFirstSlot("Missing"));
+		Assert.assertEquals(Collections.emptyList(), bookIndex.getSlots("Missing"));
+	}
+
+	@Test
+	public void testBlankBookCount() {
+		ContainerBookIndex bookIndex = ContainerBookIndex.create(createContainerContents());
+		Assert.assertEquals(7, bookIndex.getBlankBookCount());
+	}
+
+	@Test
+	public void testCountBlankBooks() {
+		@Nullable ItemStack[] contents = createContainerContents();
+		ContainerBookIndex bookIndex = ContainerBookIndex.create(contents);
+		Assert.assertEquals(
+				bookIndex.getBlankBookCount(),
+				ContainerBookIndex.countBlankBooks(contents)
+		);
+
+		// Detects changes that invalidate the blank book count of the index:
+		contents[49] = null;
+		contents[0] = new ItemStack(Material.WRITABLE_BOOK, 2);
+		Assert.assertEquals(6, ContainerBookIndex.countBlankBooks(contents));
+		Assert.assertNotEquals(
+				bookIndex.getBlankBookCount(),
+				ContainerBookIndex.countBlankBooks(contents)
+		);
+	}
+
+	@Test
+	public void testEmptyContainer() {
+		ContainerBookIndex bookIndex = ContainerBookIndex.create(
+				new @Nullable ItemStack[CONTAINER_SIZE]
+		);
+		Assert.assertTrue(bookIndex.getTitles().isEmpty());
+		Assert.assertEquals(0, bookIndex.getBlankBookCount());
+		Assert.assertEquals(
+				0,
+				ContainerBookIndex.countBlankBooks(new @Nullable ItemStack[CONTAINER_SIZE])
+		);
+	}
+}
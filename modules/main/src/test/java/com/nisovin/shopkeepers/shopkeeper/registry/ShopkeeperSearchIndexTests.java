@@ -0,0 +1,144 @@
+package com.nisovin.shopkeepers.shopkeeper.registry;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ShopkeeperSearchIndexTests {
+
+	private static List<String> toList(Stream<String> stream) {
+		return stream.collect(Collectors.toList());
+	}
+
+	private static UUID uuid(int value) {
+		return new UUID(0L, value);
+	}
+
+	@Test
+	public void testNamePrefix() {
+		ShopkeeperSearchIndex<String> index = new ShopkeeperSearchIndex<>();
+		index.add("a", 1, uuid(1), "Blacksmith");
+		index.add("b", 2, uuid(2), "\u00A7aBlack Market");
+		index.add("c", 3, uuid(3), "  black_market ");
+		index.add("d", 4, uuid(4), "Baker");
+		index.add("e", 5, uuid(5), ""); // No name
+
+		Assert.assertEquals(Arrays.asList("b", "c", "a"), toList(index.getByNamePrefix("black")));
+		Assert.assertEquals(Arrays.asList("b", "c"), toList(index.getByNamePrefix("black-")));
+		Assert.assertEquals(Arrays.asList("b", "c"), toList(index.getByName("black-market")));
+		Assert.assertEquals(Collections.emptyList(), toList(index.getByName("black")));
+		Assert.assertEquals(Collections.emptyList(), toList(index.getByNamePrefix("c")));
+		// All shopkeepers with a name, sorted by name:
+		Assert.assertEquals(
+				Arrays.asList("d", "b", "c", "a"),
+				toList(index.getByNamePrefix(""))
+		);
+	}
+
+	@Test
+	public void testRenameAndRemove() {
+		ShopkeeperSearchIndex<String> index = new ShopkeeperSearchIndex<>();
+		index.add("a", 1, uuid(1), "Blacksmith");
+		index.add("b", 2, uuid(2), "Blacksmith");
+
+		index.updateName("a", "Armorer");
+		Assert.assertEquals(Arrays.asList("b"), toList(index.getByName("blacksmith")));
+		Assert.assertEquals(Arrays.asList("a"), toList(index.getByNamePrefix("arm")));
+
+		index.updateName("b", "");
+		Assert.assertEquals(Collections.emptyList(), toList(index.getByNamePrefix("black")));
+		index.updateName("b", "Black Market");
+		Assert.assertEquals(Arrays.asList("b"), toList(index.getByNamePrefix("black")));
+
+		// Ignores shopkeepers that are not indexed:
+		index.updateName("c", "Black Market");
+		Assert.assertEquals(Arrays.asList("b"), toList(index.getByNamePrefix("black")));
+
+		index.remove("a");
+		index.remove("b");
+		Assert.assertTrue(index.isEmpty());
+		Assert.assertEquals(Collections.emptyList(), toList(index.getByNamePrefix("")));
+		Assert.assertEquals(Collections.emptyList(), toList(index.getByIdPrefix("")));
+		Assert.assertEquals(Collections.emptyList(), toList(index.getByUniqueIdPrefix("")));
+	}
+
+	@Test
+	public void testIdPrefix() {
+		ShopkeeperSearchIndex<String> index = new ShopkeeperSearchIndex<>();
+		for (int id : new int[] { 250, 3, 21, 2, 20, 1000, 2001, 12 }) {
+			index.add(String.valueOf(id), id, uuid(id), "");
+		}
+
+		// Shorter ids first:
+		Assert.assertEquals(
+				Arrays.asList("2", "20", "21", "250", "2001"),
+				toList(index.getByIdPrefix("2"))
+		);
+		Assert.assertEquals(Arrays.asList("20", "2001"), toList(index.getByIdPrefix("20")));
+		Assert.assertEquals(Arrays.asList("12", "1000"), toList(index.getByIdPrefix("1")));
+		Assert.assertEquals(
+				Arrays.asList("2", "3", "12", "20", "21", "250", "1000", "2001"),
+				toList(index.getByIdPrefix(""))
+		);
+
+		// Invalid prefixes:
+		Assert.assertEquals(Collections.emptyList(), toList(index.getByIdPrefix("02")));
+		Assert.assertEquals(Collections.emptyList(), toList(index.getByIdPrefix("-2")));
+		Assert.assertEquals(Collections.emptyList(), toList(index.getByIdPrefix("2a")));
+		Assert.assertEquals(
+				Collections.emptyList(),
+				toList(index.getByIdPrefix("99999999999"))
+		);
+
+		// Ids close to the largest int:
+		index.add("max", Integer.MAX_VALUE, uuid(-1), "");
+		Assert.assertEquals(
+				Arrays.asList("2", "20", "21", "250", "2001", "max"),
+				toList(index.getByIdPrefix("2"))
+		);
+		Assert.assertEquals(Arrays.asList("max"), toList(index.getByIdPrefix("214748")));
+	}
+
+	@Test
+	public void testUniqueIdPrefix() {
+		ShopkeeperSearchIndex<String> index = new ShopkeeperSearchIndex<>();
+		UUID uuid1 = UUID.fromString("0a1b2c3d-0000-4000-8000-000000000001");
+		UUID uuid2 = UUID.fromString("0a1b2c3d-1111-4000-8000-000000000002");
+		UUID uuid3 = UUID.fromString("f0000000-0000-4000-8000-000000000003");
+		index.add("1", 1, uuid1, "");
+		index.add("2", 2, uuid2, "");
+		index.add("3", 3, uuid3, "");
+
+		Assert.assertEquals(Arrays.asList("1", "2"), toList(index.getByUniqueIdPrefix("0a1b")));
+		Assert.assertEquals(
+				Arrays.asList("1", "2"),
+				toList(index.getByUniqueIdPrefix("0a1b2c3d-"))
+		);
+		Assert.assertEquals(Arrays.asList("2"), toList(index.getByUniqueIdPrefix("0a1b2c3d-1")));
+		// Sorted by the String representation, even though the most significant bits of the last
+		// unique id are negative:
+		Assert.assertEquals(Arrays.asList("1", "2", "3"), toList(index.getByUniqueIdPrefix("")));
+		Assert.assertEquals(
+				Arrays.asList("3"),
+				toList(index.getByUniqueIdPrefix(uuid3.toString()))
+		);
+
+		// Invalid prefixes:
+		Assert.assertEquals(
+				Collections.emptyList(),
+				toList(index.getByUniqueIdPrefix("0a1b2c3d1"))
+		);
+		Assert.assertEquals(Collections.emptyList(), toList(index.getByUniqueIdPrefix("0A1B")));
+		Assert.assertEquals(Collections.emptyList(), toList(index.getByUniqueIdPrefix("g")));
+		Assert.assertEquals(
+				Collections.emptyList(),
+				toList(index.getByUniqueIdPrefix(uuid3 + "0"))
+		);
+	}
+}
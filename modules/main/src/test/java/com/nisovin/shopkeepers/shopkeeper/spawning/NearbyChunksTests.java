@@ -0,0 +1,49 @@
+package com.nisovin.shopkeepers.shopkeeper.spawning;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NearbyChunksTests {
+
+	@Test
+	public void testContains() {
+		NearbyChunks nearbyChunks = new NearbyChunks(2);
+		Assert.assertTrue(nearbyChunks.isEmpty());
+		Assert.assertFalse(nearbyChunks.contains(0, 0));
+
+		nearbyChunks.addCenter(0, 0);
+		nearbyChunks.addCenter(-100, 50);
+		Assert.assertFalse(nearbyChunks.isEmpty());
+		Assert.assertTrue(nearbyChunks.contains(0, 0));
+		Assert.assertTrue(nearbyChunks.contains(2, -2));
+		Assert.assertFalse(nearbyChunks.contains(3, 0));
+		Assert.assertFalse(nearbyChunks.contains(0, -3));
+		Assert.assertTrue(nearbyChunks.contains(-102, 52));
+		Assert.assertFalse(nearbyChunks.contains(-103, 50));
+
+		// No int overflow:
+		nearbyChunks.addCenter(Integer.MAX_VALUE, Integer.MAX_VALUE);
+		Assert.assertTrue(nearbyChunks.contains(Integer.MAX_VALUE - 2, Integer.MAX_VALUE));
+		Assert.assertFalse(nearbyChunks.contains(Integer.MIN_VALUE, Integer.MIN_VALUE));
+	}
+
+	@Test
+	public void testZeroRadius() {
+		NearbyChunks nearbyChunks = new NearbyChunks(0);
+		nearbyChunks.addCenter(5, 5);
+		Assert.assertTrue(nearbyChunks.contains(5, 5));
+		Assert.assertFalse(nearbyChunks.contains(5, 6));
+	}
+
+	@Test
+	public void testManyCenters() {
+		NearbyChunks nearbyChunks = new NearbyChunks(1);
+		for (int i = 0; i < 100; i++) {
+			nearbyChunks.addCenter(i * 10, 0);
+		}
+		for (int i = 0; i < 100; i++) {
+			Assert.assertTrue(nearbyChunks.contains(i * 10 + 1, 1));
+			Assert.assertFalse(nearbyChunks.contains(i * 10 + 5, 0));
+		}
+	}
+}
@@ -0,0 +1,124 @@
+package com.nisovin.shopkeepers.shopkeeper.spawning;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.nisovin.shopkeepers.api.util.ChunkCoords;
+import com.nisovin.shopkeepers.testutil.AbstractBukkitTest;
+import com.nisovin.shopkeepers.testutil.PlayerMock;
+import com.nisovin.shopkeepers.testutil.WorldMock;
+
+public class WorldSaveDespawnerTests extends AbstractBukkitTest {
+
+	private static final String WORLD_NAME = "world";
+	private static final int VIEW_DISTANCE = 10;
+
+	private final World world = new WorldMock(WORLD_NAME).newProxy();
+	private final World otherWorld = new WorldMock("world_nether").newProxy();
+
+	private static Player createPlayer(World world, int chunkX, int chunkZ) {
+		// Some block inside the specified chunk:
+		Location location = new Location(world, chunkX * 16 + 7, 64, chunkZ * 16 + 3);
+		return new PlayerMock(location).newProxy();
+	}
+
+	// A server with many shopkeepers inside the always loaded spawn area, and a few shopkeepers
+	// near the players:
+	private static List<@NonNull ChunkCoords> createShopkeeperChunks() {
+		Random random = new Random(1);
+		List<@NonNull ChunkCoords> shopkeeperChunks = new ArrayList<>();
+		for (int i = 0; i < 4000; i++) {
+			shopkeeperChunks.add(new ChunkCoords(
+					WORLD_NAME,
+					random.nextInt(21) - 10,
+					random.nextInt(21) - 10
+			));
+		}
+		for (int i = 0; i < 1000; i++) {
+			shopkeeperChunks.add(new ChunkCoords(
+					WORLD_NAME,
+					200 + random.nextInt(11) - 5,
+					random.nextInt(11) - 5
+			));
+		}
+		return shopkeeperChunks;
+	}
+
+	private static int countImmediateRespawns(
+			List<? extends @NonNull ChunkCoords> shopkeeperChunks,
+			Predicate<@Nullable ChunkCoords> isNearPlayer
+	) {
+		int immediately = 0;
+		for (ChunkCoords chunkCoords : shopkeeperChunks) {
+			if (isNearPlayer.test(chunkCoords)) {
+				immediately++;
+			}
+		}
+		return immediately;
+	}
+
+	@Test
+	public void testRespawnCounts() {
+		List<@NonNull ChunkCoords> shopkeeperChunks = createShopkeeperChunks();
+		List<@NonNull Player> players = Arrays.asList(
+				createPlayer(world, 200, 0),
+				createPlayer(world, 195, 3),
+				// Ignored: Located in another world, at the spawn area.
+				createPlayer(otherWorld, 0, 0)
+		);
+		Predicate<@Nullable ChunkCoords> isNearPlayer = WorldSaveDespawner.isNearPlayers(
+				WORLD_NAME,
+				players,
+				VIEW_DISTANCE
+		);
+
+		// Only the shopkeepers near the players are respawned immediately after the world save.
+		// The shopkeepers inside the spawn area are added to the spawn queue:
+		int immediately = countImmediateRespawns(shopkeeperChunks, isNearPlayer);
+		int queued = shopkeeperChunks.size() - immediately;
+		Assert.assertEquals(1000, immediately);
+		Assert.assertEquals(4000, queued);
+	}
+
+	@Test
+	public void testRespawnCountsWithPlayerAtSpawn() {
+		List<@NonNull ChunkCoords> shopkeeperChunks = createShopkeeperChunks();
+		List<@NonNull Player> players = Collections.singletonList(createPlayer(world, 0, 0));
+		Predicate<@Nullable ChunkCoords> isNearPlayer = WorldSaveDespawner.isNearPlayers(
+				WORLD_NAME,
+				players,
+				VIEW_DISTANCE
+		);
+
+		int immediately = countImmediateRespawns(shopkeeperChunks, isNearPlayer);
+		Assert.assertEquals(4000, immediately);
+		Assert.assertEquals(1000, shopkeeperChunks.size() - immediately);
+	}
+
+	@Test
+	public void testRespawnCountsWithoutPlayers() {
+		List<@NonNull ChunkCoords> shopkeeperChunks = createShopkeeperChunks();
+		Predicate<@Nullable ChunkCoords> isNearPlayer = WorldSaveDespawner.isNearPlayers(
+				WORLD_NAME,
+				Collections.emptyList(),
+				VIEW_DISTANCE
+		);
+
+		// All shopkeepers are added to the spawn queue:
+		Assert.assertEquals(0, countImmediateRespawns(shopkeeperChunks, isNearPlayer));
+		// Shopkeepers without a known chunk are never respawned immediately:
+		Assert.assertFalse(isNearPlayer.test(null));
+	}
+}
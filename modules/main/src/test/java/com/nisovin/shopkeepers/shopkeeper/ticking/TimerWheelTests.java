@@ -0,0 +1,158 @@
+package com.nisovin.shopkeepers.shopkeeper.ticking;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TimerWheelTests {
+
+	private static class TestTimer extends TimerWheel.Timer {
+
+		final int id;
+		long firedStep = -1L;
+
+		TestTimer(int id) {
+			this.id = id;
+		}
+	}
+
+	private static List<@NonNull TestTimer> advance(TimerWheel wheel) {
+		List<@NonNull TestTimer> fired = new ArrayList<>();
+		wheel.advance(timer -> {
+			TestTimer testTimer = (TestTimer) timer;
+			testTimer.firedStep = wheel.getCurrentStep();
+			fired.add(testTimer);
+		});
+		return fired;
+	}
+
+	@Test
+	public void testTimersFireAtTheirDueStep() {
+		TimerWheel wheel = new TimerWheel();
+		// Covers all levels, including their bucket boundaries:
+		long[] dueSteps = {
+				1, 2, 63, 64, 65, 100, 4095, 4096, 4097, 10000, 262143, 262144, 300000
+		};
+		List<@NonNull TestTimer> timers = new ArrayList<>();
+		for (int i = 0; i < dueSteps.length; i++) {
+			TestTimer timer = new TestTimer(i);
+			wheel.schedule(timer, dueSteps[i]);
+			timers.add(timer);
+		}
+		Assert.assertEquals(dueSteps.length, wheel.getSize());
+
+		long lastDueStep = dueSteps[dueSteps.length - 1];
+		for (long step = 1; step <= lastDueStep; step++) {
+			advance(wheel);
+		}
+
+		for (int i = 0; i < dueSteps.length; i++) {
+			TestTimer timer = timers.get(i);
+			Assert.assertEquals("Timer " + i, dueSteps[i], timer.firedStep);
+			Assert.assertFalse(timer.isScheduled());
+		}
+		Assert.assertEquals(0, wheel.getSize());
+	}
+
+	@Test
+	public void testTimersBeyondTheWheelRange() {
+		TimerWheel wheel = new TimerWheel();
+		long dueStep = (1L << 24) + 1000;
+		TestTimer timer = new TestTimer(0);
+		wheel.schedule(timer, dueStep);
+		for (long step = 1; step < dueStep; step++) {
+			Assert.assertTrue(advance(wheel).isEmpty());
+		}
+		Assert.assertEquals(1, advance(wheel).size());
+		Assert.assertEquals(dueStep, timer.firedStep);
+	}
+
+	@Test
+	public void testCancel() {
+		TimerWheel wheel = new TimerWheel();
+		TestTimer timer1 = new TestTimer(1);
+		TestTimer timer2 = new TestTimer(2);
+		TestTimer timer3 = new TestTimer(3);
+		wheel.schedule(timer1, 5);
+		wheel.schedule(timer2, 5);
+		wheel.schedule(timer3, 5);
+		wheel.cancel(timer2);
+		Assert.assertFalse(timer2.isScheduled());
+		Assert.assertEquals(2, wheel.getSize());
+
+		List<@NonNull TestTimer> fired = new ArrayList<>();
+		for (int step = 1; step <= 5; step++) {
+			fired.addAll(advance(wheel));
+		}
+		Assert.assertEquals(2, fired.size());
+		Assert.assertTrue(fired.contains(timer1));
+		Assert.assertTrue(fired.contains(timer3));
+		Assert.assertEquals(-1L, timer2.firedStep);
+	}
+
+	@Test
+	public void testReschedule() {
+		TimerWheel wheel = new TimerWheel();
+		TestTimer timer = new TestTimer(0);
+		wheel.schedule(timer, 1000);
+		wheel.schedule(timer, 10);
+		Assert.assertEquals(1, wheel.getSize());
+		for (int step = 1; step <= 1000; step++) {
+			advance(wheel);
+		}
+		Assert.assertEquals(10L, timer.firedStep);
+	}
+
+	@Test
+	public void testPastDueStepIsDueInNextStep() {
+		TimerWheel wheel = new TimerWheel();
+		for (int step = 1; step <= 10; step++) {
+			advance(wheel);
+		}
+		TestTimer timer = new TestTimer(0);
+		wheel.schedule(timer, 3);
+		Assert.assertEquals(11L, timer.getDueStep());
+		Assert.assertEquals(1, advance(wheel).size());
+	}
+
+	@Test
+	public void testPeriodicRescheduleDuringCallback() {
+		TimerWheel wheel = new TimerWheel();
+		TestTimer timer = new TestTimer(0);
+		int period = 7;
+		wheel.schedule(timer, period);
+		int fireCount = 0;
+		for (int step = 1; step <= 10000; step++) {
+			int currentStep = step;
+			List<@NonNull TestTimer> fired = new ArrayList<>();
+			wheel.advance(dueTimer -> {
+				fired.add((TestTimer) dueTimer);
+				wheel.schedule(dueTimer, currentStep + period);
+			});
+			if (!fired.isEmpty()) {
+				Assert.assertEquals(0, step % period);
+				fireCount++;
+			}
+		}
+		Assert.assertEquals(10000 / period, fireCount);
+	}
+
+	@Test
+	public void testClear() {
+		TimerWheel wheel = new TimerWheel();
+		TestTimer timer1 = new TestTimer(1);
+		TestTimer timer2 = new TestTimer(2);
+		wheel.schedule(timer1, 5);
+		wheel.schedule(timer2, 5000);
+		wheel.clear();
+		Assert.assertEquals(0, wheel.getSize());
+		Assert.assertFalse(timer1.isScheduled());
+		Assert.assertFalse(timer2.isScheduled());
+		for (int step = 1; step <= 5000; step++) {
+			Assert.assertTrue(advance(wheel).isEmpty());
+		}
+	}
+}
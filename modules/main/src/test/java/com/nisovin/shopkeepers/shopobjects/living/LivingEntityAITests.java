@@ -0,0 +1,64 @@
+package com.nisovin.shopkeepers.shopobjects.living;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LivingEntityAITests {
+
+	private static final double DELTA = 1.0E-9D;
+
+	@Test
+	public void testDistanceSqInsideChunk() {
+		Assert.assertEquals(0.0D, LivingEntityAI.getDistanceSq(0, 0, 8.5D, 8.5D), DELTA);
+		Assert.assertEquals(0.0D, LivingEntityAI.getDistanceSq(0, 0, 0.0D, 16.0D), DELTA);
+		Assert.assertEquals(0.0D, LivingEntityAI.getDistanceSq(-1, -1, -8.5D, -0.5D), DELTA);
+	}
+
+	@Test
+	public void testDistanceSqToAdjacentChunk() {
+		// Only the distance along one axis counts:
+		Assert.assertEquals(4.0D, LivingEntityAI.getDistanceSq(1, 0, 14.0D, 8.0D), DELTA);
+		Assert.assertEquals(4.0D, LivingEntityAI.getDistanceSq(-1, 0, 2.0D, 8.0D), DELTA);
+		Assert.assertEquals(9.0D, LivingEntityAI.getDistanceSq(0, -1, 8.0D, 3.0D), DELTA);
+	}
+
+	@Test
+	public void testDistanceSqToDiagonalChunk() {
+		// The distance to the chunk's nearest corner:
+		Assert.assertEquals(25.0D, LivingEntityAI.getDistanceSq(1, 1, 13.0D, 12.0D), DELTA);
+		Assert.assertEquals(25.0D, LivingEntityAI.getDistanceSq(-1, -1, 3.0D, 4.0D), DELTA);
+	}
+
+	@Test
+	public void testFullRateAIInOwnChunk() {
+		// The player's own chunk always uses the full rate:
+		double distanceSq = LivingEntityAI.getDistanceSq(0, 0, 0.5D, 0.5D);
+		Assert.assertTrue(LivingEntityAI.isFullRateAI(distanceSq));
+	}
+
+	@Test
+	public void testFullRateAIAroundChunkCenter() {
+		// All chunks around a player at the center of a chunk use the full rate:
+		for (int chunkX = -1; chunkX <= 1; chunkX++) {
+			for (int chunkZ = -1; chunkZ <= 1; chunkZ++) {
+				double distanceSq = LivingEntityAI.getDistanceSq(chunkX, chunkZ, 8.0D, 8.0D);
+				Assert.assertTrue(LivingEntityAI.isFullRateAI(distanceSq));
+			}
+		}
+	}
+
+	@Test
+	public void testReducedRateAIAtChunkBorder() {
+		// A player close to the border of their chunk: The adjacent and diagonal chunks on the
+		// opposite side use the reduced rate.
+		double x = 1.0D;
+		double z = 8.0D;
+		Assert.assertFalse(LivingEntityAI.isFullRateAI(LivingEntityAI.getDistanceSq(1, 0, x, z)));
+		Assert.assertFalse(LivingEntityAI.isFullRateAI(LivingEntityAI.getDistanceSq(1, 1, x, z)));
+		Assert.assertFalse(LivingEntityAI.isFullRateAI(LivingEntityAI.getDistanceSq(1, -1, x, z)));
+		// The chunks on the player's side still use the full rate:
+		Assert.assertTrue(LivingEntityAI.isFullRateAI(LivingEntityAI.getDistanceSq(-1, 0, x, z)));
+		Assert.assertTrue(LivingEntityAI.isFullRateAI(LivingEntityAI.getDistanceSq(0, 1, x, z)));
+		Assert.assertTrue(LivingEntityAI.isFullRateAI(LivingEntityAI.getDistanceSq(-1, 1, x, z)));
+	}
+}
@@ -0,0 +1,67 @@
+package com.nisovin.shopkeepers.storage;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
+import com.nisovin.shopkeepers.shopkeeper.ShopkeeperData;
+import com.nisovin.shopkeepers.shopkeeper.migration.ShopkeeperDataMigrator;
+import com.nisovin.shopkeepers.testutil.AbstractBukkitTest;
+import com.nisovin.shopkeepers.util.data.container.DataContainer;
+import com.nisovin.shopkeepers.util.data.serialization.InvalidDataException;
+
+public class SKShopkeeperStorageTests extends AbstractBukkitTest {
+
+	private static final int CURRENT_DATA_VERSION = DataVersion.getCurrentShopkeeperDataVersion();
+
+	@Test
+	public void testSetsFileDataVersionIfMissing() throws InvalidDataException {
+		DataContainer shopkeeperData = DataContainer.create();
+		SKShopkeeperStorage.setDataVersionIfMissing(shopkeeperData, 1);
+		Assert.assertEquals(1, (int) shopkeeperData.get(AbstractShopkeeper.DATA_VERSION));
+	}
+
+	@Test
+	public void testKeepsStoredDataVersion() throws InvalidDataException {
+		DataContainer shopkeeperData = DataContainer.create();
+		shopkeeperData.set(AbstractShopkeeper.DATA_VERSION, 2);
+		SKShopkeeperStorage.setDataVersionIfMissing(shopkeeperData, 1);
+		Assert.assertEquals(2, (int) shopkeeperData.get(AbstractShopkeeper.DATA_VERSION));
+	}
+
+	@Test
+	public void testResetDataVersion() throws InvalidDataException {
+		// E.g. after a change of the Minecraft version:
+		DataContainer shopkeeperData = DataContainer.create();
+		SKShopkeeperStorage.setCurrentDataVersion(shopkeeperData);
+		SKShopkeeperStorage.resetDataVersion(shopkeeperData);
+		// Not replaced by the data version of the save file:
+		SKShopkeeperStorage.setDataVersionIfMissing(shopkeeperData, CURRENT_DATA_VERSION);
+
+		ShopkeeperData loadedData = ShopkeeperData.ofNonNull(DataContainer.ofNonNull(
+				shopkeeperData.getValuesCopy()
+		));
+		Assert.assertEquals(0, ShopkeeperDataMigrator.getDataVersion(loadedData));
+	}
+
+	@Test
+	public void testStoredCurrentDataVersionSkipsMigrations() throws InvalidDataException {
+		DataContainer shopkeeperData = DataContainer.create();
+		SKShopkeeperStorage.setDataVersionIfMissing(shopkeeperData, 1);
+		SKShopkeeperStorage.setCurrentDataVersion(shopkeeperData);
+		Assert.assertEquals(
+				CURRENT_DATA_VERSION,
+				(int) shopkeeperData.get(AbstractShopkeeper.DATA_VERSION)
+		);
+
+		// The migrator reads the stored data version:
+		ShopkeeperData loadedData = ShopkeeperData.ofNonNull(DataContainer.ofNonNull(
+				shopkeeperData.getValuesCopy()
+		));
+		Assert.assertEquals(
+				CURRENT_DATA_VERSION,
+				ShopkeeperDataMigrator.getDataVersion(loadedData)
+		);
+		Assert.assertFalse(ShopkeeperDataMigrator.migrate(loadedData, ""));
+	}
+}
@@ -0,0 +1,79 @@
+package com.nisovin.shopkeepers.storage;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ShopkeeperIdAllocatorTests {
+
+	@Test
+	public void testNextUnusedId() {
+		ShopkeeperIdAllocator allocator = new ShopkeeperIdAllocator();
+		Assert.assertEquals(1, allocator.getNextUnusedId());
+		// Not marked as used yet:
+		Assert.assertEquals(1, allocator.getNextUnusedId());
+
+		allocator.markUsed(1);
+		Assert.assertEquals(2, allocator.getNextUnusedId());
+
+		// Loaded ids with gaps: Continues after the max used id.
+		allocator.markUsed(5);
+		allocator.markUsed(3);
+		Assert.assertEquals(6, allocator.getNextUnusedId());
+		Assert.assertFalse(allocator.isUnusedId(3));
+		Assert.assertTrue(allocator.isUnusedId(4));
+		Assert.assertEquals(3, allocator.getUsedIdsCount());
+
+		// Released ids are not reused right away:
+		allocator.release(5);
+		Assert.assertTrue(allocator.isUnusedId(5));
+		Assert.assertEquals(6, allocator.getNextUnusedId());
+
+		allocator.clear();
+		Assert.assertEquals(1, allocator.getNextUnusedId());
+		Assert.assertEquals(0, allocator.getUsedIdsCount());
+	}
+
+	@Test
+	public void testReserveIds() {
+		ShopkeeperIdAllocator allocator = new ShopkeeperIdAllocator();
+		allocator.markUsed(1);
+		allocator.markUsed(2);
+
+		int[] ids = allocator.reserveIds(3);
+		Assert.assertArrayEquals(new int[] { 3, 4, 5 }, ids);
+		Assert.assertEquals(3, allocator.getReservedIdsCount());
+		Assert.assertEquals(6, allocator.getNextUnusedId());
+		for (int id : ids) {
+			Assert.assertFalse(allocator.isUnusedId(id));
+		}
+
+		// Using a reserved id:
+		allocator.markUsed(3);
+		Assert.assertEquals(2, allocator.getReservedIdsCount());
+		// Releasing an already used id has no effect:
+		allocator.releaseReservedId(3);
+		Assert.assertFalse(allocator.isUnusedId(3));
+
+		allocator.releaseReservedId(4);
+		Assert.assertTrue(allocator.isUnusedId(4));
+		Assert.assertEquals(1, allocator.getReservedIdsCount());
+
+		Assert.assertEquals(0, allocator.reserveIds(0).length);
+	}
+
+	@Test
+	public void testLargeIds() {
+		ShopkeeperIdAllocator allocator = new ShopkeeperIdAllocator();
+		allocator.markUsed(Integer.MAX_VALUE - 1);
+		Assert.assertEquals(Integer.MAX_VALUE, allocator.getNextUnusedId());
+		allocator.markUsed(Integer.MAX_VALUE);
+
+		// All ids above the max id are used up: Finds the first unused id.
+		allocator.markUsed(1);
+		allocator.markUsed(2);
+		Assert.assertEquals(3, allocator.getNextUnusedId());
+		allocator.markUsed(3);
+		Assert.assertEquals(4, allocator.getNextUnusedId());
+		Assert.assertFalse(allocator.isUnusedId(Integer.MAX_VALUE));
+	}
+}
@@ -0,0 +1,63 @@
+package com.nisovin.shopkeepers.testutil;
+
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.api.internal.util.Unsafe;
+
+/**
+ * Mocks an {@link Inventory} that only supports getting and setting the items of its slots.
+ * <p>
+ * Counts the invocations of {@link Inventory#setItem(int, ItemStack)}.
+ */
+public class InventoryMock extends ProxyHandler<@NonNull Inventory> {
+
+	private final @Nullable ItemStack[] contents;
+	private int setItemCount = 0;
+
+	public InventoryMock(int size) {
+		super(Inventory.class);
+		this.contents = new @Nullable ItemStack[size];
+	}
+
+	@Override
+	protected void setupMethodHandlers() throws Exception {
+		this.addHandler(Inventory.class.getMethod("getSize"), (proxy, args) -> {
+			return Unsafe.assertNonNull(contents).length;
+		});
+
+		this.addHandler(Inventory.class.getMethod("getItem", int.class), (proxy, args) -> {
+			assert args != null;
+			int slot = Unsafe.castNonNull(args[0]);
+			return Unsafe.assertNonNull(contents)[slot];
+		});
+
+		this.addHandler(
+				Inventory.class.getMethod("setItem", int.class, ItemStack.class),
+				(proxy, args) -> {
+					assert args != null;
+					int slot = Unsafe.castNonNull(args[0]);
+					ItemStack item = (ItemStack) args[1];
+					// Like actual inventories, this stores a copy of the item:
+					Unsafe.assertNonNull(contents)[slot] = (item != null) ? item.clone() : null;
+					setItemCount++;
+					return null;
+				}
+		);
+	}
+
+	/**
+	 * Gets the number of times that {@link Inventory#setItem(int, ItemStack)} has been invoked.
+	 * 
+	 * @return the number of set items
+	 */
+	public int getSetItemCount() {
+		return setItemCount;
+	}
+
+	public void resetSetItemCount() {
+		setItemCount = 0;
+	}
+}
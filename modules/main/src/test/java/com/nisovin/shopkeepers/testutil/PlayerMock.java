@@ -0,0 +1,25 @@
+package com.nisovin.shopkeepers.testutil;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Mocks a {@link Player} that only supports getting its location.
+ */
+public class PlayerMock extends ProxyHandler<@NonNull Player> {
+
+	private final Location location;
+
+	public PlayerMock(Location location) {
+		super(Player.class);
+		this.location = location;
+	}
+
+	@Override
+	protected void setupMethodHandlers() throws Exception {
+		this.addHandler(Player.class.getMethod("getLocation"), (proxy, args) -> {
+			return location.clone();
+		});
+	}
+}
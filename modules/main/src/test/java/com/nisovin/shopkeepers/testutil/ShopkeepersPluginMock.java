@@ -1,5 +1,6 @@
 package com.nisovin.shopkeepers.testutil;
 
+import java.io.File;
 import java.util.logging.Logger;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -43,5 +44,13 @@ class ShopkeepersPluginMock extends ProxyHandler<@NonNull InternalShopkeepersPlu
 					return apiInternals;
 				}
 		);
+		// Not created. Components only resolve their file paths relative to it:
+		File dataFolder = new File(System.getProperty("java.io.tmpdir"), "shopkeepers-tests");
+		this.addHandler(
+				InternalShopkeepersPlugin.class.getMethod("getDataFolder"),
+				(proxy, args) -> {
+					return dataFolder;
+				}
+		);
 	}
 }
@@ -0,0 +1,24 @@
+package com.nisovin.shopkeepers.testutil;
+
+import org.bukkit.World;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Mocks a {@link World} that only supports getting its name.
+ */
+public class WorldMock extends ProxyHandler<@NonNull World> {
+
+	private final String name;
+
+	public WorldMock(String name) {
+		super(World.class);
+		this.name = name;
+	}
+
+	@Override
+	protected void setupMethodHandlers() throws Exception {
+		this.addHandler(World.class.getMethod("getName"), (proxy, args) -> {
+			return name;
+		});
+	}
+}
@@ -0,0 +1,94 @@
+package com.nisovin.shopkeepers.text;
+
+import java.util.Map;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.nisovin.shopkeepers.testutil.AbstractBukkitTest;
+import com.nisovin.shopkeepers.util.java.MapUtils;
+
+public class MessageTemplateTests extends AbstractBukkitTest {
+
+	private static final String MESSAGE = "&aShop {shop}: &e{player} &7bought &e{amount}x {item}"
+			+ "&7. Trades: {count}";
+
+	private static Map<@NonNull String, @NonNull Object> createArguments() {
+		return MapUtils.createMap(
+				"shop", Text.parse("&6Named shop"),
+				"player", "Notch",
+				"amount", 5,
+				"item", Text.hoverEvent(Text.of("Item details")).childText("Stone").buildRoot()
+		);
+	}
+
+	@Test
+	public void testPlainTextMatchesAssignedArguments() {
+		Map<@NonNull String, @NonNull Object> arguments = createArguments();
+		Text text = Text.parse(MESSAGE);
+		MessageTemplate template = MessageTemplate.compile(Text.parse(MESSAGE));
+
+		text.setPlaceholderArguments(arguments);
+		FormattedMessage message = template.format(arguments);
+		Assert.assertEquals(text.toPlainText(), message.toPlainText());
+		Assert.assertEquals(text.isPlainTextEmpty(), message.isPlainTextEmpty());
+		Assert.assertEquals(text.toPlainText(), message.toText().toPlainText());
+	}
+
+	@Test
+	public void testFormattingDoesNotModifyText() {
+		Text text = Text.parse(MESSAGE);
+		MessageTemplate template = MessageTemplate.compile(text);
+		String plainTextBefore = text.toPlainText();
+
+		template.format(createArguments());
+		Assert.assertEquals(plainTextBefore, text.toPlainText());
+		Assert.assertEquals(plainTextBefore, template.getText().toPlainText());
+		Assert.assertSame(template, MessageTemplate.getCompiled(text));
+	}
+
+	@Test
+	public void testUnboundPlaceholders() {
+		Text text = Text.parse(MESSAGE);
+		MessageTemplate template = MessageTemplate.compile(text);
+
+		// Unbound placeholders print their placeholder key:
+		FormattedMessage message = template.format("player", "Notch");
+		Assert.assertEquals("Notch", message.getArgument("player").toPlainText());
+		Assert.assertNull(message.getArgument("count"));
+		Assert.assertTrue(message.toPlainText().contains("Notch"));
+		Assert.assertTrue(message.toPlainText().contains("{count}"));
+
+		// Arguments assigned to the original Text are ignored:
+		text.setPlaceholderArguments("count", 3);
+		message = template.format("player", "Notch");
+		Assert.assertNull(message.getArgument("count"));
+		Assert.assertTrue(message.toPlainText().endsWith("Trades: {count}"));
+	}
+
+	@Test
+	public void testStaticTemplate() {
+		MessageTemplate template = MessageTemplate.compile(Text.parse("&aNo placeholders"));
+		Assert.assertTrue(template.isStatic());
+		FormattedMessage message = template.format("player", "Notch");
+		Assert.assertSame(message, template.format(createArguments()));
+		Assert.assertEquals(Text.parse("&aNo placeholders").toPlainText(), message.toPlainText());
+	}
+
+	@Test
+	public void testPlainTextEmpty() {
+		MessageTemplate template = MessageTemplate.compile(Text.parse("{message}"));
+		Assert.assertTrue(template.format("message", "").isPlainTextEmpty());
+		Assert.assertFalse(template.format("message", "Hello").isPlainTextEmpty());
+	}
+
+	@Test
+	public void testNestedMessage() {
+		MessageTemplate shopTemplate = MessageTemplate.compile(Text.parse("&6{name}"));
+		MessageTemplate template = MessageTemplate.compile(Text.parse("Shop: {shop}"));
+		FormattedMessage shopMessage = shopTemplate.format("name", "Named shop");
+		FormattedMessage message = template.format("shop", shopMessage);
+		Assert.assertEquals("Shop: " + shopMessage.toPlainText(), message.toPlainText());
+	}
+}
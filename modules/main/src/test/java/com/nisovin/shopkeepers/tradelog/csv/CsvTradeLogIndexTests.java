@@ -0,0 +1,297 @@
+package com.nisovin.shopkeepers.tradelog.csv;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.nisovin.shopkeepers.api.util.UnmodifiableItemStack;
+import com.nisovin.shopkeepers.testutil.AbstractBukkitTest;
+import com.nisovin.shopkeepers.tradelog.csv.CsvTradeLogIndex.KeyType;
+import com.nisovin.shopkeepers.tradelog.csv.CsvTradeLogIndex.RecordLocation;
+import com.nisovin.shopkeepers.tradelog.data.PlayerRecord;
+import com.nisovin.shopkeepers.tradelog.data.ShopRecord;
+import com.nisovin.shopkeepers.tradelog.data.TestTradeRecords;
+import com.nisovin.shopkeepers.tradelog.data.TradeRecord;
+import com.nisovin.shopkeepers.util.csv.CsvFormatter;
+import com.nisovin.shopkeepers.util.java.StringUtils;
+
+public class CsvTradeLogIndexTests extends AbstractBukkitTest {
+
+	@Rule
+	public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+	private final CsvFormatter csv = CsvTradeRecordEncoderTests.createCsvFormatter();
+	private final DateTimeFormatter timeFormat = CsvTradeRecordEncoderTests.createTimeFormat();
+
+	// The test records, plus records with player names that contain a newline and non-ASCII
+	// characters, which affect the detection of the record boundaries and their byte lengths.
+	private static List<@NonNull TradeRecord> createTestRecords() {
+		List<@NonNull TradeRecord> records = CsvTradeRecordEncoderTests.createTestRecords();
+		PlayerRecord newlineName = PlayerRecord.of(new UUID(0L, 5), "New\nLine");
+		PlayerRecord umlautName = PlayerRecord.of(new UUID(0L, 6), "J\u00FCrgen");
+		ShopRecord shop = records.get(0).getShop();
+		UnmodifiableItemStack item = UnmodifiableItemStack.ofNonNull(
+				new ItemStack(Material.STONE, 1)
+		);
+		records.add(TestTradeRecords.create(
+				Instant.parse("2021-01-03T13:00:00Z"),
+				newlineName,
+				shop,
+				item,
+				item,
+				null,
+				1
+		));
+		records.add(TestTradeRecords.create(
+				Instant.parse("2021-01-03T14:00:00Z"),
+				umlautName,
+				shop,
+				item,
+				item,
+				null,
+				1
+		));
+		return records;
+	}
+
+	private static @Nullable UUID getKey(TradeRecord trade, KeyType keyType) {
+		switch (keyType) {
+		case SHOP:
+			return trade.getShop().getUniqueId();
+		case SHOP_OWNER:
+			PlayerRecord shopOwner = trade.getShop().getOwner();
+			return (shopOwner != null) ? shopOwner.getUniqueId() : null;
+		case PLAYER:
+			return trade.getPlayer().getUniqueId();
+		default:
+			throw new IllegalArgumentException("Unexpected key type: " + keyType);
+		}
+	}
+
+	private String encode(TradeRecord trade) {
+		CsvTradeRecordEncoder encoder = new CsvTradeRecordEncoder(csv, timeFormat);
+		encoder.encode(trade, false);
+		return encoder.getRecord();
+	}
+
+	// Also used by the performance tests to generate large log files.
+	public static void appendToLog(
+			Path logFile,
+			boolean writeHeader,
+			List<? extends @NonNull TradeRecord> trades
+	) throws IOException {
+		CsvFormatter csv = CsvTradeRecordEncoderTests.createCsvFormatter();
+		CsvTradeRecordEncoder encoder = new CsvTradeRecordEncoder(
+				csv,
+				CsvTradeRecordEncoderTests.createTimeFormat()
+		);
+		try (Writer writer = Files.newBufferedWriter(
+				logFile,
+				StandardCharsets.UTF_8,
+				StandardOpenOption.CREATE,
+				StandardOpenOption.APPEND
+		)) {
+			if (writeHeader) {
+				writer.write(csv.formatRecord(CsvTradeLogger.CSV_HEADER));
+			}
+			for (TradeRecord trade : trades) {
+				encoder.encode(trade, false);
+				encoder.writeRecord(writer);
+			}
+		}
+	}
+
+	private static String readRecord(Path logFile, RecordLocation record) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(record.getLength());
+		try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+			while (buffer.hasRemaining()) {
+				int read = channel.read(buffer, record.getPosition() + buffer.position());
+				if (read < 0) throw new IOException("Unexpected end of file!");
+			}
+		}
+		return new String(buffer.array(), StandardCharsets.UTF_8);
+	}
+
+	// Compares the index lookups with a brute-force search of the given trades.
+	private void assertIndexed(
+			Path logFile,
+			List<? extends @NonNull TradeRecord> trades
+	) throws IOException {
+		for (KeyType keyType : KeyType.values()) {
+			Set<@NonNull UUID> keys = new LinkedHashSet<>();
+			for (TradeRecord trade : trades) {
+				UUID key = getKey(trade, keyType);
+				if (key != null) keys.add(key);
+			}
+			keys.add(new UUID(1L, 1L)); // Unknown key
+
+			for (UUID key : keys) {
+				List<@NonNull String> expected = new ArrayList<>();
+				for (TradeRecord trade : trades) {
+					if (key.equals(getKey(trade, keyType))) {
+						expected.add(this.encode(trade));
+					}
+				}
+
+				List<@NonNull String> actual = new ArrayList<>();
+				for (RecordLocation record : CsvTradeLogIndex.findRecords(logFile, keyType, key)) {
+					actual.add(readRecord(logFile, record));
+				}
+				Assert.assertEquals(keyType + " " + key, expected, actual);
+			}
+		}
+	}
+
+	@Test
+	public void testIndexesExistingLogFile() throws IOException {
+		Path logFile = tempFolder.getRoot().toPath().resolve("trades-2021-01-02.csv");
+		List<@NonNull TradeRecord> trades = createTestRecords();
+		appendToLog(logFile, true, trades);
+		Assert.assertFalse(Files.exists(CsvTradeLogIndex.getIndexFile(logFile)));
+
+		this.assertIndexed(logFile, trades);
+		Assert.assertTrue(Files.exists(CsvTradeLogIndex.getIndexFile(logFile)));
+	}
+
+	@Test
+	public void testIndexesAppendedRecords() throws IOException {
+		Path logFile = tempFolder.getRoot().toPath().resolve("trades-2021-01-02.csv");
+		List<@NonNull TradeRecord> trades = createTestRecords();
+		appendToLog(logFile, true, trades.subList(0, 2));
+		this.assertIndexed(logFile, trades.subList(0, 2));
+
+		// Not yet indexed records are indexed on the next lookup:
+		appendToLog(logFile, false, trades.subList(2, trades.size()));
+		this.assertIndexed(logFile, trades);
+	}
+
+	@Test
+	public void testAppender() throws IOException {
+		Path logFile = tempFolder.getRoot().toPath().resolve("trades-2021-01-02.csv");
+		List<@NonNull TradeRecord> trades = createTestRecords();
+		appendToLog(logFile, true, trades.subList(0, 2));
+
+		// Append the remaining records to the log file and its index, like the trade logger:
+		long position = Files.size(logFile);
+		CsvTradeLogIndex.Appender appender = CsvTradeLogIndex.openAppender(logFile, position);
+		try {
+			for (TradeRecord trade : trades.subList(2, trades.size())) {
+				appendToLog(logFile, false, Collections.singletonList(trade));
+				int length = StringUtils.getUtf8Length(this.encode(trade));
+				appender.append(
+						position,
+						length,
+						trade.getShop().getUniqueId(),
+						getKey(trade, KeyType.SHOP_OWNER),
+						trade.getPlayer().getUniqueId()
+				);
+				position += length;
+			}
+		} finally {
+			appender.close();
+		}
+		this.assertIndexed(logFile, trades);
+	}
+
+	@Test
+	public void testResetsIndexOfTruncatedLogFile() throws IOException {
+		Path logFile = tempFolder.getRoot().toPath().resolve("trades-2021-01-02.csv");
+		List<@NonNull TradeRecord> trades = createTestRecords();
+		appendToLog(logFile, true, trades);
+		this.assertIndexed(logFile, trades);
+
+		// Replace the log file with a shorter log file:
+		Files.delete(logFile);
+		appendToLog(logFile, true, trades.subList(0, 1));
+		this.assertIndexed(logFile, trades.subList(0, 1));
+	}
+
+	@Test
+	public void testResetsIndexOfReplacedLogFile() throws IOException {
+		Path logFile = tempFolder.getRoot().toPath().resolve("trades-2021-01-02.csv");
+		List<@NonNull TradeRecord> trades = createTestRecords();
+		appendToLog(logFile, true, trades);
+		this.assertIndexed(logFile, trades);
+
+		// Replace the log file with a log file of the same size, but with different records:
+		List<@NonNull TradeRecord> reversedTrades = new ArrayList<>(trades);
+		Collections.reverse(reversedTrades);
+		long logFileSize = Files.size(logFile);
+		Files.delete(logFile);
+		appendToLog(logFile, true, reversedTrades);
+		Assert.assertEquals(logFileSize, Files.size(logFile));
+		this.assertIndexed(logFile, reversedTrades);
+	}
+
+	@Test
+	public void testRemovesTemporaryIndexFiles() throws IOException {
+		Path logFile = tempFolder.getRoot().toPath().resolve("trades-2021-01-02.csv");
+		List<@NonNull TradeRecord> trades = createTestRecords();
+		appendToLog(logFile, true, trades.subList(0, 2));
+		this.assertIndexed(logFile, trades.subList(0, 2));
+		appendToLog(logFile, false, trades.subList(2, trades.size()));
+		this.assertIndexed(logFile, trades);
+
+		try (Stream<Path> files = Files.list(tempFolder.getRoot().toPath())) {
+			Assert.assertEquals(2L, files.count()); // The log file and its index
+		}
+	}
+
+	@Test
+	public void testHistoryFromNewestToOldest() throws IOException {
+		Path tradeLogsFolder = tempFolder.getRoot().toPath();
+		List<@NonNull TradeRecord> trades = createTestRecords();
+		// Alice is the player of the first and fourth test record:
+		appendToLog(tradeLogsFolder.resolve("trades-2021-01-02.csv"), true, trades);
+		appendToLog(tradeLogsFolder.resolve("trades-2021-01-03.csv"), true, trades);
+		// Ignored:
+		appendToLog(tradeLogsFolder.resolve("trades-invalid.csv"), true, trades);
+
+		UUID alice = trades.get(0).getPlayer().getUniqueId();
+		CsvTradeHistory history = new CsvTradeHistory(tradeLogsFolder);
+		List<@NonNull String> found = new ArrayList<>();
+		history.forEachTrade(KeyType.PLAYER, alice, trade -> {
+			Assert.assertEquals("Alice", trade.getField("player_name"));
+			found.add(trade.getLogDate() + " " + trade.getField("time"));
+			return true;
+		});
+		Assert.assertEquals(Arrays.asList(
+				"2021-01-03 12:30:00",
+				"2021-01-03 03:04:05",
+				"2021-01-02 12:30:00",
+				"2021-01-02 03:04:05"
+		), found);
+
+		// Stops once the consumer returns false:
+		found.clear();
+		history.forEachTrade(KeyType.PLAYER, alice, trade -> {
+			found.add(trade.getField("trade_count"));
+			return false;
+		});
+		Assert.assertEquals(Collections.singletonList("64"), found);
+	}
+}
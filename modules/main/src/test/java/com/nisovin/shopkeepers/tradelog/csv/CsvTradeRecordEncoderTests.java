@@ -0,0 +1,318 @@
+package com.nisovin.shopkeepers.tradelog.csv;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.nisovin.shopkeepers.api.util.UnmodifiableItemStack;
+import com.nisovin.shopkeepers.testutil.AbstractBukkitTest;
+import com.nisovin.shopkeepers.tradelog.data.PlayerRecord;
+import com.nisovin.shopkeepers.tradelog.data.ShopRecord;
+import com.nisovin.shopkeepers.tradelog.data.TestTradeRecords;
+import com.nisovin.shopkeepers.tradelog.data.TradeRecord;
+import com.nisovin.shopkeepers.util.TestItemStacks;
+import com.nisovin.shopkeepers.util.csv.CsvFormatter;
+import com.nisovin.shopkeepers.util.inventory.ItemUtils;
+import com.nisovin.shopkeepers.util.java.ClassUtils;
+import com.nisovin.shopkeepers.util.java.StringUtils;
+import com.nisovin.shopkeepers.util.yaml.YamlUtils;
+
+public class CsvTradeRecordEncoderTests extends AbstractBukkitTest {
+
+	private static final String GOLDEN_FILE = "tradelog/trades-golden.csv";
+
+	// Same configuration as the CSV trade logger, but independent of the system time zone:
+	public static CsvFormatter createCsvFormatter() {
+		return new CsvFormatter()
+				.escapeNewlines(false)
+				.warnOnNewlines();
+	}
+
+	public static DateTimeFormatter createTimeFormat() {
+		return DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneOffset.UTC);
+	}
+
+	private static UUID uuid(int id) {
+		return new UUID(0L, id);
+	}
+
+	private static UnmodifiableItemStack item(Material type, int amount) {
+		return UnmodifiableItemStack.ofNonNull(new ItemStack(type, amount));
+	}
+
+	public static List<@NonNull TradeRecord> createTestRecords() {
+		PlayerRecord alice = PlayerRecord.of(uuid(1), "Alice");
+		PlayerRecord bob = PlayerRecord.of(uuid(2), "Bob");
+		PlayerRecord quotedName = PlayerRecord.of(uuid(3), "Quote\"Name");
+		PlayerRecord commaName = PlayerRecord.of(uuid(4), "Comma,Name");
+
+		ShopRecord playerShop = new ShopRecord(uuid(10), "sell", bob, "", "world", 10, 64, -20);
+		ShopRecord adminShop = new ShopRecord(
+				uuid(11),
+				"admin",
+				null,
+				"Admin \"shop\"",
+				"world_nether",
+				-100,
+				32,
+				250
+		);
+		ShopRecord virtualShop = new ShopRecord(uuid(12), "trade", alice, "", null, 0, 0, 0);
+
+		List<@NonNull TradeRecord> records = new ArrayList<>();
+		records.add(TestTradeRecords.create(
+				Instant.parse("2021-01-02T03:04:05Z"),
+				alice,
+				playerShop,
+				item(Material.DIAMOND, 1),
+				item(Material.EMERALD, 5),
+				null,
+				1
+		));
+		records.add(TestTradeRecords.create(
+				Instant.parse("2021-01-02T23:59:59Z"),
+				quotedName,
+				adminShop,
+				item(Material.IRON_INGOT, 16),
+				item(Material.EMERALD, 2),
+				item(Material.GOLD_INGOT, 3),
+				7
+		));
+		records.add(TestTradeRecords.create(
+				Instant.parse("2021-01-03T00:00:00Z"),
+				commaName,
+				virtualShop,
+				item(Material.BREAD, 64),
+				item(Material.WHEAT, 64),
+				item(Material.WHEAT, 32),
+				2
+		));
+		// Same as the first record, to also test the cached field values:
+		records.add(TestTradeRecords.create(
+				Instant.parse("2021-01-03T12:30:00Z"),
+				alice,
+				playerShop,
+				item(Material.DIAMOND, 1),
+				item(Material.EMERALD, 5),
+				null,
+				64
+		));
+		return records;
+	}
+
+	// Trade records with items that have item metadata, which contains characters that need to be
+	// escaped.
+	public static List<@NonNull TradeRecord> createItemMetadataTestRecords() {
+		PlayerRecord alice = PlayerRecord.of(uuid(1), "Alice");
+		PlayerRecord bob = PlayerRecord.of(uuid(2), "Bob");
+		ShopRecord playerShop = new ShopRecord(uuid(10), "sell", bob, "", "world", 10, 64, -20);
+
+		UnmodifiableItemStack namedItem = UnmodifiableItemStack.ofNonNull(
+				ItemUtils.setDisplayName(new ItemStack(Material.DIAMOND), "\"Quoted\", with comma")
+		);
+		UnmodifiableItemStack completeItem = UnmodifiableItemStack.ofNonNull(
+				TestItemStacks.createItemStackComplete()
+		);
+		UnmodifiableItemStack bookItem = UnmodifiableItemStack.ofNonNull(
+				TestItemStacks.createItemStackWrittenBook()
+		);
+
+		List<@NonNull TradeRecord> records = new ArrayList<>();
+		records.add(TestTradeRecords.create(
+				Instant.parse("2021-01-02T03:04:05Z"),
+				alice,
+				playerShop,
+				namedItem,
+				item(Material.EMERALD, 5),
+				null,
+				1
+		));
+		records.add(TestTradeRecords.create(
+				Instant.parse("2021-01-02T04:05:06Z"),
+				alice,
+				playerShop,
+				completeItem,
+				namedItem,
+				bookItem,
+				3
+		));
+		return records;
+	}
+
+	// The CSV record format of the CSV trade logger prior to the introduction of the encoder,
+	// without item metadata.
+	public static String formatRecord(
+			CsvFormatter csv,
+			DateTimeFormatter timeFormat,
+			TradeRecord trade
+	) {
+		return formatRecord(csv, timeFormat, trade, false);
+	}
+
+	// The item metadata format of the CSV trade logger prior to the introduction of the encoder.
+	private static String getItemMetadata(UnmodifiableItemStack itemStack, boolean logItemMetadata) {
+		if (!logItemMetadata) return "";
+		Map<String, Object> itemData = itemStack.serialize();
+		itemData.remove("type");
+		itemData.remove("amount");
+		return YamlUtils.toCompactYaml(itemData);
+	}
+
+	// The CSV record format of the CSV trade logger prior to the introduction of the encoder.
+	public static String formatRecord(
+			CsvFormatter csv,
+			DateTimeFormatter timeFormat,
+			TradeRecord trade,
+			boolean logItemMetadata
+	) {
+		PlayerRecord player = trade.getPlayer();
+		ShopRecord shop = trade.getShop();
+		PlayerRecord shopOwner = shop.getOwner();
+		UnmodifiableItemStack resultItem = trade.getResultItem();
+		UnmodifiableItemStack item1 = trade.getItem1();
+		UnmodifiableItemStack item2 = trade.getItem2();
+		return csv.formatRecord(Arrays.<@Nullable Object>asList(
+				timeFormat.format(trade.getTimestamp()),
+				player.getUniqueId(),
+				player.getName(),
+				shop.getUniqueId(),
+				shop.getTypeId(),
+				StringUtils.getOrEmpty(shop.getWorldName()),
+				shop.getX(),
+				shop.getY(),
+				shop.getZ(),
+				(shopOwner != null) ? shopOwner.getUniqueId().toString() : "",
+				(shopOwner != null) ? shopOwner.getName() : "",
+				item1.getType().name(),
+				item1.getAmount(),
+				getItemMetadata(item1, logItemMetadata),
+				(item2 != null) ? item2.getType().name() : "",
+				(item2 != null) ? String.valueOf(item2.getAmount()) : "",
+				(item2 != null) ? getItemMetadata(item2, logItemMetadata) : "",
+				resultItem.getType().name(),
+				resultItem.getAmount(),
+				getItemMetadata(resultItem, logItemMetadata),
+				trade.getTradeCount()
+		));
+	}
+
+	private String readGoldenFile() throws IOException {
+		StringBuilder content = new StringBuilder();
+		InputStream resource = ClassUtils.getResource(this.getClass(), GOLDEN_FILE);
+		try (Reader reader = new InputStreamReader(resource, StandardCharsets.UTF_8)) {
+			char[] buffer = new char[1024];
+			int read;
+			while ((read = reader.read(buffer)) != -1) {
+				content.append(buffer, 0, read);
+			}
+		}
+		return content.toString();
+	}
+
+	@Test
+	public void testGoldenFile() throws IOException {
+		CsvTradeRecordEncoder encoder = new CsvTradeRecordEncoder(
+				createCsvFormatter(),
+				createTimeFormat()
+		);
+		StringWriter writer = new StringWriter();
+		for (TradeRecord trade : createTestRecords()) {
+			encoder.encode(trade, false);
+			encoder.writeRecord(writer);
+		}
+		Assert.assertEquals(this.readGoldenFile(), writer.toString());
+	}
+
+	@Test
+	public void testMatchesLegacyFormat() {
+		CsvFormatter csv = createCsvFormatter();
+		DateTimeFormatter timeFormat = createTimeFormat();
+		CsvTradeRecordEncoder encoder = new CsvTradeRecordEncoder(csv, timeFormat);
+		// Twice, to compare both the initially escaped and the cached field values:
+		for (int i = 0; i < 2; i++) {
+			for (TradeRecord trade : createTestRecords()) {
+				encoder.encode(trade, false);
+				Assert.assertEquals(formatRecord(csv, timeFormat, trade), encoder.getRecord());
+			}
+		}
+	}
+
+	@Test
+	public void testMatchesLegacyFormatWithItemMetadata() {
+		CsvFormatter csv = createCsvFormatter();
+		DateTimeFormatter timeFormat = createTimeFormat();
+		CsvTradeRecordEncoder encoder = new CsvTradeRecordEncoder(csv, timeFormat);
+		List<@NonNull TradeRecord> records = createItemMetadataTestRecords();
+		records.addAll(createTestRecords());
+		for (int i = 0; i < 2; i++) {
+			for (TradeRecord trade : records) {
+				encoder.encode(trade, true);
+				Assert.assertEquals(
+						formatRecord(csv, timeFormat, trade, true),
+						encoder.getRecord()
+				);
+				Assert.assertEquals(
+						StringUtils.getUtf8Length(encoder.getRecord()),
+						encoder.getRecordUtf8Length()
+				);
+
+				// The metadata is omitted again for subsequent records without metadata:
+				encoder.encode(trade, false);
+				Assert.assertEquals(formatRecord(csv, timeFormat, trade), encoder.getRecord());
+			}
+		}
+	}
+
+	@Test
+	public void testAppendFieldMatchesEscapeField() {
+		List<@NonNull CsvFormatter> formatters = Arrays.asList(
+				new CsvFormatter(),
+				createCsvFormatter(),
+				new CsvFormatter().quoteAllFields(false),
+				new CsvFormatter().quote("").fieldSeparator(";"),
+				new CsvFormatter().quote("'").escapedQuote("''").quoteAllFields(false)
+		);
+		List<@NonNull String> fields = Arrays.asList(
+				"",
+				"plain",
+				"with space",
+				"with,comma",
+				"with;semicolon",
+				"with\"quote",
+				"with'quote",
+				"with\\backslash",
+				"with\nnewline",
+				"with\rreturn"
+		);
+		for (CsvFormatter csv : formatters) {
+			for (String field : fields) {
+				StringBuilder builder = new StringBuilder("prefix");
+				csv.appendField(builder, field);
+				Assert.assertEquals("prefix" + csv.escapeField(field), builder.toString());
+			}
+			for (long number : new long[] { 0L, 42L, -7L, Long.MIN_VALUE, Long.MAX_VALUE }) {
+				StringBuilder builder = new StringBuilder();
+				csv.appendField(builder, number);
+				Assert.assertEquals(csv.escapeField(String.valueOf(number)), builder.toString());
+			}
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package com.nisovin.shopkeepers.tradelog.data;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.time.Instant;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.api.util.UnmodifiableItemStack;
+
+/**
+ * Creates {@link TradeRecord}s for tests.
+ * <p>
+ * Outside of tests, trade records are only created for actual trades. This invokes the private
+ * {@link TradeRecord} constructor in order to create trade records for arbitrary data.
+ */
+public final class TestTradeRecords {
+
+	private static final Constructor<TradeRecord> CONSTRUCTOR;
+	static {
+		try {
+			CONSTRUCTOR = TradeRecord.class.getDeclaredConstructor(
+					Instant.class,
+					PlayerRecord.class,
+					ShopRecord.class,
+					UnmodifiableItemStack.class,
+					UnmodifiableItemStack.class,
+					UnmodifiableItemStack.class,
+					int.class
+			);
+			CONSTRUCTOR.setAccessible(true);
+		} catch (NoSuchMethodException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	public static TradeRecord create(
+			Instant timestamp,
+			PlayerRecord player,
+			ShopRecord shop,
+			UnmodifiableItemStack resultItem,
+			UnmodifiableItemStack item1,
+			@Nullable UnmodifiableItemStack item2,
+			int tradeCount
+	) {
+		try {
+			return CONSTRUCTOR.newInstance(
+					timestamp,
+					player,
+					shop,
+					resultItem,
+					item1,
+					item2,
+					tradeCount
+			);
+		} catch (InvocationTargetException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IllegalStateException(cause);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private TestTradeRecords() {
+	}
+}
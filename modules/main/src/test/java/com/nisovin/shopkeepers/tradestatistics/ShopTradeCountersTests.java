@@ -0,0 +1,155 @@
+package com.nisovin.shopkeepers.tradestatistics;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.nisovin.shopkeepers.api.shopkeeper.TradeStatistics;
+import com.nisovin.shopkeepers.api.shopkeeper.TradeStatistics.Period;
+
+public class ShopTradeCountersTests {
+
+	// Aligned with the buckets of all periods:
+	private static final long START_MILLIS = TimeUnit.DAYS.toMillis(20000);
+
+	private static long minutes(long minutes) {
+		return START_MILLIS + TimeUnit.MINUTES.toMillis(minutes);
+	}
+
+	private static long hours(long hours) {
+		return START_MILLIS + TimeUnit.HOURS.toMillis(hours);
+	}
+
+	private static void assertTrades(
+			ShopTradeCounters counters,
+			long nowMillis,
+			long hour,
+			long day,
+			long week,
+			long total
+	) {
+		TradeStatistics statistics = counters.createSnapshot(nowMillis);
+		Assert.assertEquals("last hour", hour, statistics.getTrades(Period.LAST_HOUR));
+		Assert.assertEquals("last day", day, statistics.getTrades(Period.LAST_DAY));
+		Assert.assertEquals("last week", week, statistics.getTrades(Period.LAST_WEEK));
+		Assert.assertEquals("all time", total, statistics.getTrades(Period.ALL_TIME));
+	}
+
+	@Test
+	public void testPeriods() {
+		ShopTradeCounters counters = new ShopTradeCounters();
+		counters.record(START_MILLIS, 1, 2, 3);
+		assertTrades(counters, START_MILLIS, 1, 1, 1, 1);
+
+		// The trade drops out of each period once the period's oldest bucket moves past it:
+		assertTrades(counters, minutes(59), 1, 1, 1, 1);
+		assertTrades(counters, minutes(60), 0, 1, 1, 1);
+		assertTrades(counters, hours(23), 0, 1, 1, 1);
+		assertTrades(counters, hours(24), 0, 0, 1, 1);
+		assertTrades(counters, hours(7 * 24 - 1), 0, 0, 1, 1);
+		assertTrades(counters, hours(7 * 24), 0, 0, 0, 1);
+
+		TradeStatistics statistics = counters.createSnapshot(START_MILLIS);
+		for (Period period : Period.values()) {
+			Assert.assertEquals(1, statistics.getItemsSold(period));
+			Assert.assertEquals(2, statistics.getItemsBought(period));
+			Assert.assertEquals(3, statistics.getCurrencyVolume(period));
+		}
+	}
+
+	@Test
+	public void testReusedBuckets() {
+		ShopTradeCounters counters = new ShopTradeCounters();
+		counters.record(START_MILLIS, 1, 1, 0);
+		counters.record(minutes(30), 1, 1, 0);
+		assertTrades(counters, minutes(30), 2, 2, 2, 2);
+
+		// Reuses the bucket of the first trade in the ring buffer of the last hour:
+		counters.record(minutes(60), 1, 1, 0);
+		assertTrades(counters, minutes(60), 2, 3, 3, 3);
+
+		// Reuses the bucket of the previous trades in the ring buffer of the last week:
+		counters.record(hours(7 * 24 + 1), 5, 1, 0);
+		assertTrades(counters, hours(7 * 24 + 1), 1, 1, 1, 4);
+		TradeStatistics statistics = counters.createSnapshot(hours(7 * 24 + 1));
+		Assert.assertEquals(5, statistics.getItemsSold(Period.LAST_WEEK));
+		Assert.assertEquals(8, statistics.getItemsSold(Period.ALL_TIME));
+	}
+
+	@Test
+	public void testSaturatedBuckets() {
+		ShopTradeCounters counters = new ShopTradeCounters();
+		counters.record(START_MILLIS, Integer.MAX_VALUE, 0, 0);
+		counters.record(START_MILLIS, Integer.MAX_VALUE, 0, 0);
+		TradeStatistics statistics = counters.createSnapshot(START_MILLIS);
+		Assert.assertEquals(Integer.MAX_VALUE, statistics.getItemsSold(Period.LAST_HOUR));
+		Assert.assertEquals(2L * Integer.MAX_VALUE, statistics.getItemsSold(Period.ALL_TIME));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testFrozenCountersCannotRecord() {
+		ShopTradeCounters counters = new ShopTradeCounters();
+		counters.freeze();
+		counters.record(START_MILLIS, 1, 1, 0);
+	}
+
+	@Test
+	public void testFrozenCopy() {
+		ShopTradeCounters counters = new ShopTradeCounters();
+		counters.record(START_MILLIS, 1, 1, 0);
+		counters.freeze();
+		Assert.assertTrue(counters.isFrozen());
+
+		// The copy is independent of the frozen counters:
+		ShopTradeCounters copy = counters.copy();
+		Assert.assertFalse(copy.isFrozen());
+		copy.record(minutes(5), 1, 1, 0);
+		assertTrades(copy, minutes(5), 2, 2, 2, 2);
+		assertTrades(counters, minutes(5), 1, 1, 1, 1);
+	}
+
+	@Test
+	public void testEmptyStatistics() {
+		TradeStatistics statistics = new ShopTradeCounters().createSnapshot(START_MILLIS);
+		for (Period period : Period.values()) {
+			Assert.assertEquals(0, statistics.getTrades(period));
+			Assert.assertEquals(0, SKTradeStatistics.EMPTY.getTrades(period));
+		}
+	}
+
+	@Test
+	public void testPersistence() throws IOException {
+		ShopTradeCounters counters = new ShopTradeCounters();
+		for (int i = 0; i < 500; i++) {
+			counters.record(minutes(i * 17), i, 2 * i, 3 * i);
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			counters.write(out);
+		}
+		ShopTradeCounters loaded = new ShopTradeCounters();
+		try (DataInputStream in = new DataInputStream(
+				new ByteArrayInputStream(bytes.toByteArray())
+		)) {
+			loaded.read(in);
+			Assert.assertEquals(-1, in.read()); // All data has been read
+		}
+
+		long nowMillis = minutes(500 * 17);
+		for (Period period : Period.values()) {
+			for (int field = 0; field < ShopTradeCounters.FIELDS; field++) {
+				Assert.assertEquals(
+						counters.get(field, period, nowMillis),
+						loaded.get(field, period, nowMillis)
+				);
+			}
+		}
+	}
+}
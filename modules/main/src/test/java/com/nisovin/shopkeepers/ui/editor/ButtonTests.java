@@ -0,0 +1,82 @@
+package com.nisovin.shopkeepers.ui.editor;
+
+import org.bukkit.Material;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.inventory.ItemStack;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.nisovin.shopkeepers.api.internal.util.Unsafe;
+import com.nisovin.shopkeepers.testutil.AbstractBukkitTest;
+
+public class ButtonTests extends AbstractBukkitTest {
+
+	private static class SharedIconButton extends Button {
+
+		private final boolean sharedIcon;
+		private int iconVersion = 0;
+		private int createdIcons = 0;
+
+		SharedIconButton(boolean sharedIcon) {
+			this.sharedIcon = sharedIcon;
+		}
+
+		@Override
+		protected boolean isSharedIcon() {
+			return sharedIcon;
+		}
+
+		@Override
+		protected int getIconVersion() {
+			return iconVersion;
+		}
+
+		@Override
+		public @Nullable ItemStack getIcon(EditorSession editorSession) {
+			createdIcons++;
+			return new ItemStack(Material.STONE, 1 + iconVersion);
+		}
+
+		@Override
+		protected void onClick(EditorSession editorSession, InventoryClickEvent clickEvent) {
+		}
+	}
+
+	// The tested buttons do not use the editor session:
+	private static final EditorSession EDITOR_SESSION = Unsafe.uncheckedNull();
+
+	@Test
+	public void testSharedIconIsCached() {
+		SharedIconButton button = new SharedIconButton(true);
+		ItemStack icon = button.getIconCached(EDITOR_SESSION);
+		Assert.assertSame(icon, button.getIconCached(EDITOR_SESSION));
+		Assert.assertEquals(1, button.createdIcons);
+
+		button.invalidateCachedIcon();
+		button.getIconCached(EDITOR_SESSION);
+		Assert.assertEquals(2, button.createdIcons);
+	}
+
+	@Test
+	public void testSharedIconIsRecreatedOnVersionChange() {
+		SharedIconButton button = new SharedIconButton(true);
+		button.getIconCached(EDITOR_SESSION);
+		Assert.assertEquals(1, button.createdIcons);
+
+		// For example due to a change of the shopkeeper's data via the API:
+		button.iconVersion++;
+		ItemStack icon = button.getIconCached(EDITOR_SESSION);
+		Assert.assertEquals(2, button.createdIcons);
+		Assert.assertEquals(2, icon.getAmount());
+		Assert.assertSame(icon, button.getIconCached(EDITOR_SESSION));
+	}
+
+	@Test
+	public void testUnsharedIconIsNotCached() {
+		SharedIconButton button = new SharedIconButton(false);
+		button.getIconCached(EDITOR_SESSION);
+		button.getIconCached(EDITOR_SESSION);
+		Assert.assertEquals(2, button.createdIcons);
+	}
+}
@@ -0,0 +1,94 @@
+package com.nisovin.shopkeepers.ui.editor;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.nisovin.shopkeepers.testutil.AbstractBukkitTest;
+import com.nisovin.shopkeepers.testutil.InventoryMock;
+
+public class InventoryShadowTests extends AbstractBukkitTest {
+
+	private static final int SIZE = 54;
+
+	@Test
+	public void testUnchangedIcons() {
+		InventoryMock inventoryMock = new InventoryMock(SIZE);
+		InventoryShadow shadow = new InventoryShadow(inventoryMock.newProxy());
+
+		Assert.assertTrue(shadow.setItem(0, new ItemStack(Material.STONE)));
+		Assert.assertEquals(1, inventoryMock.getSetItemCount());
+		Assert.assertTrue(shadow.isChanged());
+		shadow.resetChanged();
+
+		// Equal icon:
+		Assert.assertFalse(shadow.setItem(0, new ItemStack(Material.STONE)));
+		Assert.assertEquals(1, inventoryMock.getSetItemCount());
+		Assert.assertFalse(shadow.isChanged());
+
+		// Changed icon:
+		Assert.assertTrue(shadow.setItem(0, new ItemStack(Material.STONE, 2)));
+		Assert.assertEquals(2, inventoryMock.getSetItemCount());
+		Assert.assertTrue(shadow.isChanged());
+	}
+
+	@Test
+	public void testEmptySlots() {
+		InventoryMock inventoryMock = new InventoryMock(SIZE);
+		InventoryShadow shadow = new InventoryShadow(inventoryMock.newProxy());
+
+		// The initial contents of the slots are unknown:
+		Assert.assertTrue(shadow.setItem(0, null));
+		Assert.assertEquals(1, inventoryMock.getSetItemCount());
+		Assert.assertFalse(shadow.setItem(0, null));
+		Assert.assertFalse(shadow.setItem(0, new ItemStack(Material.AIR)));
+		Assert.assertEquals(1, inventoryMock.getSetItemCount());
+	}
+
+	@Test
+	public void testFullRefresh() {
+		InventoryMock inventoryMock = new InventoryMock(SIZE);
+		InventoryShadow shadow = new InventoryShadow(inventoryMock.newProxy());
+
+		for (int refresh = 0; refresh < 2; refresh++) {
+			for (int slot = 0; slot < 20; slot++) {
+				Material type = (slot % 2 == 0) ? Material.STONE : Material.DIRT;
+				shadow.setItem(slot, new ItemStack(type, slot + 1));
+			}
+		}
+		// Only the first refresh updated the slots:
+		Assert.assertEquals(20, inventoryMock.getSetItemCount());
+
+		inventoryMock.resetSetItemCount();
+		shadow.setItem(5, new ItemStack(Material.EMERALD));
+		for (int slot = 0; slot < 20; slot++) {
+			if (slot == 5) continue;
+			Material type = (slot % 2 == 0) ? Material.STONE : Material.DIRT;
+			shadow.setItem(slot, new ItemStack(type, slot + 1));
+		}
+		Assert.assertEquals(1, inventoryMock.getSetItemCount());
+	}
+
+	@Test
+	public void testPlayerModifiableSlots() {
+		InventoryMock inventoryMock = new InventoryMock(SIZE);
+		Inventory inventory = inventoryMock.newProxy();
+		ItemStack stone = new ItemStack(Material.STONE);
+
+		Assert.assertTrue(InventoryShadow.setItemIfChanged(inventory, 0, stone));
+		Assert.assertFalse(InventoryShadow.setItemIfChanged(inventory, 0, stone));
+		Assert.assertEquals(1, inventoryMock.getSetItemCount());
+
+		// Compares with the actual slot contents, which the player might have modified:
+		inventory.setItem(0, new ItemStack(Material.STONE, 5));
+		inventoryMock.resetSetItemCount();
+		Assert.assertTrue(InventoryShadow.setItemIfChanged(inventory, 0, stone));
+		Assert.assertEquals(1, inventoryMock.getSetItemCount());
+		Assert.assertEquals(stone, inventory.getItem(0));
+
+		Assert.assertFalse(InventoryShadow.setItemIfChanged(inventory, 1, null));
+		Assert.assertEquals(1, inventoryMock.getSetItemCount());
+	}
+}
@@ -0,0 +1,117 @@
+package com.nisovin.shopkeepers.util.bukkit;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ChunkRegionGridTests {
+
+	// The chunk entries are the chunk keys themselves.
+	private static ChunkRegionGrid<@NonNull Long> createGrid(Set<@NonNull Long> chunkKeys) {
+		ChunkRegionGrid<@NonNull Long> grid = new ChunkRegionGrid<>(Long::longValue);
+		chunkKeys.forEach(grid::add);
+		return grid;
+	}
+
+	private static Set<@NonNull Long> createRandomChunkKeys(Random random, int count, int range) {
+		Set<@NonNull Long> chunkKeys = new HashSet<>();
+		while (chunkKeys.size() < count) {
+			int chunkX = random.nextInt(2 * range) - range;
+			int chunkZ = random.nextInt(2 * range) - range;
+			chunkKeys.add(ChunkKeys.of(chunkX, chunkZ));
+		}
+		return chunkKeys;
+	}
+
+	@Test
+	public void testAddRemove() {
+		ChunkRegionGrid<@NonNull Long> grid = new ChunkRegionGrid<>(Long::longValue);
+		grid.add(ChunkKeys.of(0, 0));
+		grid.add(ChunkKeys.of(1, 1));
+		grid.add(ChunkKeys.of(-1, 0));
+		Assert.assertEquals(3, grid.size());
+		Assert.assertEquals(2, grid.getRegionCount());
+
+		Assert.assertTrue(grid.remove(ChunkKeys.of(-1, 0)));
+		Assert.assertFalse(grid.remove(ChunkKeys.of(-1, 0)));
+		Assert.assertEquals(2, grid.size());
+		Assert.assertEquals(1, grid.getRegionCount());
+
+		grid.clear();
+		Assert.assertTrue(grid.isEmpty());
+		Assert.assertEquals(0, grid.getRegionCount());
+	}
+
+	// Compares the chunk range queries against a linear scan, for both small ranges (region
+	// lookups) and large ranges (scan of all regions).
+	@Test
+	public void testForEachInChunkRange() {
+		Random random = new Random(42L);
+		Set<@NonNull Long> chunkKeys = createRandomChunkKeys(random, 2000, 300);
+		ChunkRegionGrid<@NonNull Long> grid = createGrid(chunkKeys);
+
+		for (int i = 0; i < 200; i++) {
+			int size = (i % 2 == 0) ? random.nextInt(40) : random.nextInt(600);
+			int minChunkX = random.nextInt(600) - 300;
+			int minChunkZ = random.nextInt(600) - 300;
+			int maxChunkX = minChunkX + size;
+			int maxChunkZ = minChunkZ + size;
+
+			Set<@NonNull Long> expected = new HashSet<>();
+			for (long chunkKey : chunkKeys) {
+				int chunkX = ChunkKeys.getChunkX(chunkKey);
+				int chunkZ = ChunkKeys.getChunkZ(chunkKey);
+				if (chunkX >= minChunkX && chunkX <= maxChunkX
+						&& chunkZ >= minChunkZ && chunkZ <= maxChunkZ) {
+					expected.add(chunkKey);
+				}
+			}
+
+			List<@NonNull Long> actual = new ArrayList<>();
+			grid.forEachInChunkRange(minChunkX, minChunkZ, maxChunkX, maxChunkZ, actual::add);
+			Assert.assertEquals(expected.size(), actual.size());
+			Assert.assertEquals(expected, new HashSet<>(actual));
+		}
+	}
+
+	// Checks that all chunk entries are visited exactly once, in the order of their ring distance,
+	// and that the lower bound of the ring distance holds.
+	@Test
+	public void testForEachInRings() {
+		Random random = new Random(42L);
+		Set<@NonNull Long> chunkKeys = createRandomChunkKeys(random, 500, 2000);
+		ChunkRegionGrid<@NonNull Long> grid = createGrid(chunkKeys);
+
+		int blockX = 123;
+		int blockZ = -456;
+		int[] currentRing = { -1 };
+		List<@NonNull Long> visited = new ArrayList<>();
+		grid.forEachInRings(blockX, blockZ, ring -> {
+			Assert.assertTrue(ring > currentRing[0]);
+			currentRing[0] = ring;
+			return true;
+		}, chunkKey -> {
+			int chunkBlockX = ChunkKeys.getChunkX(chunkKey) << 4;
+			int chunkBlockZ = ChunkKeys.getChunkZ(chunkKey) << 4;
+			int minDistance = ChunkRegionGrid.getMinBlockDistance(currentRing[0]);
+			// Horizontal distance to the closest block of the chunk:
+			int dx = Math.max(0, Math.max(chunkBlockX - blockX, blockX - (chunkBlockX + 15)));
+			int dz = Math.max(0, Math.max(chunkBlockZ - blockZ, blockZ - (chunkBlockZ + 15)));
+			Assert.assertTrue(Math.max(dx, dz) >= minDistance);
+			visited.add(chunkKey);
+		});
+		Assert.assertEquals(chunkKeys.size(), visited.size());
+		Assert.assertEquals(chunkKeys, new HashSet<>(visited));
+
+		// Stops early:
+		List<@NonNull Long> visitedFirstRing = new ArrayList<>();
+		grid.forEachInRings(blockX, blockZ, ring -> ring == 0, visitedFirstRing::add);
+		Assert.assertTrue(visitedFirstRing.size() < chunkKeys.size());
+	}
+}
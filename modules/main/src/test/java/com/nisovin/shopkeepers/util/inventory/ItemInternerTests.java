@@ -0,0 +1,82 @@
+package com.nisovin.shopkeepers.util.inventory;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.nisovin.shopkeepers.api.util.UnmodifiableItemStack;
+import com.nisovin.shopkeepers.shopkeeper.offers.SKPriceOffer;
+import com.nisovin.shopkeepers.testutil.AbstractBukkitTest;
+import com.nisovin.shopkeepers.util.TestItemStacks;
+
+public class ItemInternerTests extends AbstractBukkitTest {
+
+	@After
+	public void cleanup() {
+		ItemInterner.setEnabled(true);
+		ItemInterner.clear();
+	}
+
+	@Test
+	public void testEqualItemsShareInstance() {
+		UnmodifiableItemStack item1 = ItemInterner.intern(
+				UnmodifiableItemStack.ofNonNull(TestItemStacks.createItemStackComplete())
+		);
+		UnmodifiableItemStack item2 = ItemInterner.intern(
+				UnmodifiableItemStack.ofNonNull(TestItemStacks.createItemStackComplete())
+		);
+		Assert.assertSame(item1, item2);
+		Assert.assertSame(item1, ItemInterner.intern(item1));
+	}
+
+	@Test
+	public void testDifferentItemsDoNotShareInstance() {
+		UnmodifiableItemStack item1 = ItemInterner.intern(
+				UnmodifiableItemStack.ofNonNull(new ItemStack(Material.DIAMOND, 1))
+		);
+		UnmodifiableItemStack item2 = ItemInterner.intern(
+				UnmodifiableItemStack.ofNonNull(new ItemStack(Material.DIAMOND, 2))
+		);
+		UnmodifiableItemStack item3 = ItemInterner.intern(
+				UnmodifiableItemStack.ofNonNull(TestItemStacks.createItemStackDisplayName())
+		);
+		Assert.assertNotSame(item1, item2);
+		Assert.assertNotSame(item1, item3);
+	}
+
+	@Test
+	public void testUnmodifiableCloneIsInterned() {
+		ItemStack itemStack = TestItemStacks.createItemStackComplete();
+		UnmodifiableItemStack clone1 = ItemUtils.nonNullUnmodifiableCloneIfModifiable(itemStack);
+		UnmodifiableItemStack clone2 = ItemUtils.nonNullUnmodifiableCloneIfModifiable(itemStack);
+		Assert.assertSame(clone1, clone2);
+		// The canonical instance is still a copy:
+		Assert.assertNotSame(itemStack, clone1.asItemStack());
+	}
+
+	@Test
+	public void testOffersShareItems() {
+		SKPriceOffer offer1 = new SKPriceOffer(new ItemStack(Material.EMERALD, 5), 10);
+		SKPriceOffer offer2 = new SKPriceOffer(
+				UnmodifiableItemStack.ofNonNull(new ItemStack(Material.EMERALD, 5)),
+				20
+		);
+		Assert.assertSame(offer1.getItem(), offer2.getItem());
+	}
+
+	@Test
+	public void testDisabled() {
+		ItemInterner.setEnabled(false);
+		UnmodifiableItemStack item1 = UnmodifiableItemStack.ofNonNull(
+				new ItemStack(Material.DIAMOND)
+		);
+		UnmodifiableItemStack item2 = UnmodifiableItemStack.ofNonNull(
+				new ItemStack(Material.DIAMOND)
+		);
+		Assert.assertSame(item1, ItemInterner.intern(item1));
+		Assert.assertSame(item2, ItemInterner.intern(item2));
+		Assert.assertEquals(0, ItemInterner.getSize());
+	}
+}
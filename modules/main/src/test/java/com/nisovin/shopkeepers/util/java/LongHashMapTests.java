@@ -0,0 +1,88 @@
+package com.nisovin.shopkeepers.util.java;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.nisovin.shopkeepers.util.bukkit.ChunkKeys;
+
+public class LongHashMapTests {
+
+	@Test
+	public void testPutGetRemove() {
+		LongHashMap<@NonNull String> map = new LongHashMap<>();
+		Assert.assertTrue(map.isEmpty());
+		Assert.assertNull(map.put(1L, "a"));
+		Assert.assertNull(map.put(-1L, "b"));
+		Assert.assertNull(map.put(0L, "c"));
+		Assert.assertEquals("a", map.put(1L, "d"));
+		Assert.assertEquals(3, map.size());
+		Assert.assertEquals("d", map.get(1L));
+		Assert.assertEquals("b", map.get(-1L));
+		Assert.assertEquals("c", map.get(0L));
+		Assert.assertNull(map.get(2L));
+
+		Assert.assertEquals("b", map.remove(-1L));
+		Assert.assertNull(map.remove(-1L));
+		Assert.assertFalse(map.containsKey(-1L));
+		Assert.assertEquals(2, map.size());
+
+		map.clear();
+		Assert.assertTrue(map.isEmpty());
+		Assert.assertNull(map.get(1L));
+	}
+
+	@Test
+	public void testComputeIfAbsent() {
+		LongHashMap<@NonNull String> map = new LongHashMap<>();
+		Assert.assertEquals("5", map.computeIfAbsent(5L, Long::toString));
+		Assert.assertEquals("5", map.computeIfAbsent(5L, key -> "other"));
+		Assert.assertEquals(1, map.size());
+	}
+
+	// Compares the map against a HashMap, with enough entries to trigger resizes and collisions,
+	// and enough removals to exercise the backward shift deletion.
+	@Test
+	public void testRandomOperations() {
+		Random random = new Random(42L);
+		LongHashMap<@NonNull Long> map = new LongHashMap<>();
+		Map<@NonNull Long, @NonNull Long> expected = new HashMap<>();
+		for (int i = 0; i < 200000; i++) {
+			// Packed chunk keys in a small area, so that keys are frequently reused:
+			long key = ChunkKeys.of(random.nextInt(200) - 100, random.nextInt(200) - 100);
+			if (random.nextInt(3) == 0) {
+				Assert.assertEquals(expected.remove(key), map.remove(key));
+			} else {
+				Long value = random.nextLong();
+				Assert.assertEquals(expected.put(key, value), map.put(key, value));
+			}
+		}
+		Assert.assertEquals(expected.size(), map.size());
+		expected.forEach((key, value) -> {
+			Assert.assertEquals(value, map.get(key));
+		});
+
+		Set<@NonNull Long> values = new HashSet<>();
+		map.forEachValue(values::add);
+		Assert.assertEquals(new HashSet<>(expected.values()), values);
+		Assert.assertEquals(new HashSet<>(expected.values()), new HashSet<>(map.values()));
+	}
+
+	@Test
+	public void testChunkKeys() {
+		int[] coords = { 0, 1, -1, 12345, -12345, Integer.MAX_VALUE, Integer.MIN_VALUE };
+		for (int chunkX : coords) {
+			for (int chunkZ : coords) {
+				long chunkKey = ChunkKeys.of(chunkX, chunkZ);
+				Assert.assertEquals(chunkX, ChunkKeys.getChunkX(chunkKey));
+				Assert.assertEquals(chunkZ, ChunkKeys.getChunkZ(chunkKey));
+			}
+		}
+	}
+}
@@ -0,0 +1,101 @@
+package com.nisovin.shopkeepers.util.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MetricsRegistryTests {
+
+	@Test
+	public void testDisabledRegistryRecordsNothing() {
+		MetricsRegistry registry = new MetricsRegistry("test_");
+		Counter counter = registry.counter("events_total", "Events.");
+		Histogram histogram = registry.histogram("duration_seconds", "Duration.");
+
+		Assert.assertEquals(0L, registry.startNanos());
+		counter.increment();
+		histogram.record(1000L);
+		histogram.recordSince(registry.startNanos());
+		Assert.assertEquals(0L, counter.get());
+		Assert.assertEquals(0L, histogram.snapshot().getCount());
+
+		registry.setEnabled(true);
+		Assert.assertNotEquals(0L, registry.startNanos());
+		counter.increment();
+		counter.add(2L);
+		histogram.record(1000L);
+		Assert.assertEquals(3L, counter.get());
+		Assert.assertEquals(1L, histogram.snapshot().getCount());
+
+		// Re-enabling resets the recorded values:
+		registry.setEnabled(false);
+		registry.setEnabled(true);
+		Assert.assertEquals(0L, counter.get());
+		Assert.assertEquals(0L, histogram.snapshot().getCount());
+	}
+
+	@Test
+	public void testBucketBounds() {
+		for (long value : new long[] { 0L, 1L, 7L, 8L, 9L, 15L, 16L, 17L, 1000L, 123456789L,
+				Long.MAX_VALUE }) {
+			int index = Histogram.getBucketIndex(value);
+			Assert.assertTrue("value " + value, Histogram.getBucketLowerBound(index) <= value);
+			Assert.assertTrue("value " + value, Histogram.getBucketUpperBound(index) >= value);
+		}
+		// Adjacent buckets:
+		for (int index = 0; index < 400; index++) {
+			Assert.assertEquals(Histogram.getBucketUpperBound(index) + 1,
+					Histogram.getBucketLowerBound(index + 1));
+		}
+	}
+
+	@Test
+	public void testQuantiles() {
+		MetricsRegistry registry = new MetricsRegistry("");
+		registry.setEnabled(true);
+		Histogram histogram = registry.histogram("duration_seconds", "");
+		for (long value = 1; value <= 10000; value++) {
+			histogram.record(value * 1000L);
+		}
+
+		Histogram.Snapshot snapshot = histogram.snapshot();
+		Assert.assertEquals(10000L, snapshot.getCount());
+		Assert.assertEquals(10000L * 1000L, snapshot.getMax());
+		double maxError = 1.0D / Histogram.SUB_BUCKETS;
+		assertWithinRelativeError(5000L * 1000L, snapshot.getValueAtQuantile(0.5D), maxError);
+		assertWithinRelativeError(9900L * 1000L, snapshot.getValueAtQuantile(0.99D), maxError);
+		Assert.assertEquals(snapshot.getMax(), snapshot.getValueAtQuantile(1.0D));
+	}
+
+	private static void assertWithinRelativeError(long expected, long actual, double maxError) {
+		double error = Math.abs(actual - expected) / (double) expected;
+		Assert.assertTrue("Expected " + expected + ", got " + actual, error <= maxError);
+	}
+
+	@Test
+	public void testPrometheusText() {
+		MetricsRegistry registry = new MetricsRegistry("test_");
+		registry.setEnabled(true);
+		registry.counter("trades_total", "Completed trades.").add(5L);
+		registry.gauge("shopkeepers", "Loaded shopkeepers.", () -> 42.0D);
+		// Re-registering a gauge replaces it:
+		registry.gauge("shopkeepers", "Loaded shopkeepers.", () -> 43.0D);
+		registry.histogram("save_duration_seconds", "").record(2000000000L);
+
+		String text = registry.toPrometheusText();
+		Assert.assertTrue(text, text.contains("# HELP test_trades_total Completed trades.\n"
+				+ "# TYPE test_trades_total counter\n"
+				+ "test_trades_total 5\n"));
+		Assert.assertTrue(text, text.contains("# TYPE test_shopkeepers gauge\ntest_shopkeepers 43\n"));
+		Assert.assertTrue(text, text.contains("# TYPE test_save_duration_seconds summary\n"));
+		Assert.assertTrue(text, text.contains("test_save_duration_seconds{quantile=\"0.5\"} 2\n"));
+		Assert.assertTrue(text, text.contains("test_save_duration_seconds_count 1\n"));
+		Assert.assertTrue(text, text.contains("test_save_duration_seconds_max 2\n"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDuplicateName() {
+		MetricsRegistry registry = new MetricsRegistry("");
+		registry.counter("events_total", "");
+		registry.counter("events_total", "");
+	}
+}